@@ -1,6 +1,5 @@
 package decaf;
 
-import decaf.ir.BasicBlock;
 import decaf.ir.IrInstructionPrettyPrinter;
 import decaf.ir.IrInstructionValidator;
 import decaf.ir.instructions.*;
@@ -10,7 +9,6 @@ import decaf.ir.values.IrLabel;
 import decaf.ir.types.IrType;
 import decaf.ir.values.IrConstantInt;
 import decaf.ir.values.IrFunctionPointer;
-import decaf.ir.values.IrRegister;
 import decaf.shared.Pair;
 
 import java.util.Arrays;
@@ -18,35 +16,36 @@ import java.util.Arrays;
 class Main {
     public static void main(String[] args) {
 //    TestRunner.testCfgBuilding("and-short-circuit", true, true);
-        var allocaInst = AllocaInstruction.create(IrIntType.getDefaultInt());
+        var function = IrFunction.create("main", IrFunctionType.create(IrIntType.getDefaultInt(), new IrType[]{}));
+        var allocaInst = AllocaInstruction.create(function, IrIntType.getDefaultInt());
         var destination = allocaInst.getDestination();
-        var loadInst = LoadInstruction.create(destination, allocaInst.getPointeeType());
+        var loadInst = LoadInstruction.create(function, destination, allocaInst.getPointeeType());
         var storeInst = StoreInstruction.create(IrConstantInt.create(0), destination);
         var returnInst = ReturnInstruction.create(IrConstantInt.create(10, 8));
-        var mulInst = BinaryInstruction.createMulGenDest(IrConstantInt.create(10, 8), IrConstantInt.create(10, 8));
-        var copyInst = UnaryInstruction.createCopyGenDest(mulInst.getDestination());
-        var branchInst = BranchInstruction.create(IrRegister.create(IrIntType.getBoolType()),
+        var mulInst = BinaryInstruction.createMulGenDest(function, IrConstantInt.create(10, 8), IrConstantInt.create(10, 8));
+        var copyInst = UnaryInstruction.createCopyGenDest(function, mulInst.getDestination());
+        var branchInst = BranchInstruction.create(function.newRegister(IrIntType.getBoolType()),
                                                   IrLabel.createNamed("if.then"),
                                                   IrLabel.createNamed("if.else")
                                                  );
         var zextInst = ZextInstruction.create(IrConstantInt.create(10, 1),
-                                              IrRegister.create(IrIntType.getDefaultInt())
+                                              function.newRegister(IrIntType.getDefaultInt())
                                              );
         var jumpInst = UnconditionalBranchInstruction.create(IrLabel.createNamed("if.end"));
-        var callInst = CallInstruction.createGenDest(IrFunctionPointer.create("add",
+        var callInst = CallInstruction.createGenDest(function, IrFunctionPointer.create("add",
                                                                               IrFunctionType.create(IrIntType.getDefaultInt(),
                                                                                                     new IrType[]{IrIntType.getDefaultInt(), IrIntType.getDefaultInt()}
                                                                                                    )
                                                                              ));
-        var phiInst = PhiInstruction.createFromPairsGenDest(Arrays.asList(PhiInstruction.createPhiSource(IrLabel.createNamed(
+        var phiInst = PhiInstruction.createFromPairsGenDest(function, Arrays.asList(PhiInstruction.createPhiSource(IrLabel.createNamed(
                                                                                   "if.then"), IrConstantInt.create(10, 8)),
                                                                           PhiInstruction.createPhiSource(IrLabel.createNamed(
                                                                                                                  "if.else"),
-                                                                                                         IrRegister.create(
+                                                                                                         function.newRegister(
                                                                                                                  IrIntType.getDefaultInt())
                                                                                                         )
                                                                          ));
-        var compInst = CompareInstruction.createEqGenDest(IrConstantInt.create(10, 8), IrConstantInt.create(10, 8));
+        var compInst = CompareInstruction.createEqGenDest(function, IrConstantInt.create(10, 8), IrConstantInt.create(10, 8));
         var instructions = new Instruction[]{allocaInst, loadInst, storeInst, mulInst, branchInst, phiInst, jumpInst, callInst, copyInst, returnInst};
         var basicBlock = BasicBlock.create(IrLabel.createNamed("entry"));
         basicBlock.addAll(Arrays.asList(instructions));
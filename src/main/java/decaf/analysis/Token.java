@@ -4,21 +4,39 @@ package decaf.analysis;
 import org.jetbrains.annotations.NotNull;
 
 import decaf.analysis.lexical.Scanner;
+import decaf.shared.env.SymbolTable;
 
 public class Token {
   @NotNull
   private TokenPosition tokenPosition;
   @NotNull public Type type;
   @NotNull public String lexeme;
+  // the interned id of an ID token's lexeme, SymbolTable.NO_SYMBOL for every other token
+  public final int symbol;
 
   public Token(
       @NotNull TokenPosition tokenPosition,
       @NotNull Type type,
       @NotNull String lexeme
+  ) {
+    this(
+        tokenPosition,
+        type,
+        lexeme,
+        SymbolTable.NO_SYMBOL
+    );
+  }
+
+  public Token(
+      @NotNull TokenPosition tokenPosition,
+      @NotNull Type type,
+      @NotNull String lexeme,
+      int symbol
   ) {
     this.tokenPosition = tokenPosition;
     this.type = type;
     this.lexeme = lexeme;
+    this.symbol = symbol;
   }
 
   public static String getScannerSourceCode(@NotNull Token.Type type) {
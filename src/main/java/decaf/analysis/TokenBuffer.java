@@ -0,0 +1,170 @@
+package decaf.analysis;
+
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+import decaf.analysis.lexical.Scanner;
+import decaf.shared.env.SymbolTable;
+
+/**
+ * A compact, struct-of-arrays alternative to a {@code List<Token>}.
+ * <p>
+ * Each token is stored as five ints and a long: its type, the offset and length of its lexeme in the source, the line
+ * and column it starts at, and a payload holding the symbol id of an identifier in the {@link SymbolTable} or the value
+ * of an int literal. Tokens are only ever read through their index, so no {@link Token} is created for them. Lexemes
+ * are sliced out of the source only when asked for; the lexemes of identifiers, operators, punctuation and reserved
+ * words are shared strings, so reading them allocates nothing.
+ */
+public class TokenBuffer {
+    private static final Token.Type[] TYPES = Token.Type.values();
+    private static final int DEFAULT_CAPACITY = 64;
+
+    @NotNull
+    private final CharSequence sourceCode;
+    @NotNull
+    private final SymbolTable symbolTable;
+    private int[] types;
+    private int[] offsets;
+    private int[] lengths;
+    private int[] lines;
+    private int[] columns;
+    private long[] payloads;
+    private int size;
+
+    public TokenBuffer(@NotNull CharSequence sourceCode, @NotNull SymbolTable symbolTable) {
+        this(sourceCode, symbolTable, DEFAULT_CAPACITY);
+    }
+
+    public TokenBuffer(@NotNull CharSequence sourceCode, @NotNull SymbolTable symbolTable, int capacity) {
+        this.sourceCode = sourceCode;
+        this.symbolTable = symbolTable;
+        this.types = new int[capacity];
+        this.offsets = new int[capacity];
+        this.lengths = new int[capacity];
+        this.lines = new int[capacity];
+        this.columns = new int[capacity];
+        this.payloads = new long[capacity];
+        this.size = 0;
+    }
+
+    public static @NotNull String lexemeOf(@NotNull CharSequence sourceCode,
+                                           @NotNull Token.Type type,
+                                           int offset,
+                                           int length) {
+        return switch (type) {
+            case ID, INT_LITERAL, CHAR_LITERAL, STRING_LITERAL, LINE_COMMENT, BLOCK_COMMENT, WHITESPACE, ERROR ->
+                    sourceCode.subSequence(offset, offset + length).toString();
+            default -> Token.getScannerSourceCode(type);
+        };
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public @NotNull CharSequence getSourceCode() {
+        return sourceCode;
+    }
+
+    public @NotNull SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * Overwrites the token at {@code index}; an {@code index} equal to {@link #size()} appends a new token.
+     *
+     * @param payload the symbol id of an {@link Token.Type#ID} token, the magnitude of an
+     *                {@link Token.Type#INT_LITERAL} token as computed by the scanner, ignored for any other token
+     */
+    public void set(int index, @NotNull Token.Type type, int offset, int length, int line, int column, long payload) {
+        if (index > size) {
+            throw new IndexOutOfBoundsException("cannot set token " + index + " in a buffer of size " + size);
+        }
+        if (index == types.length) {
+            grow();
+        }
+        types[index] = type.ordinal();
+        offsets[index] = offset;
+        lengths[index] = length;
+        lines[index] = line;
+        columns[index] = column;
+        payloads[index] = payload;
+        if (index == size) {
+            ++size;
+        }
+    }
+
+    private void grow() {
+        final int capacity = Math.max(DEFAULT_CAPACITY, types.length << 1);
+        types = Arrays.copyOf(types, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        payloads = Arrays.copyOf(payloads, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("token " + index + " out of bounds for a buffer of size " + size);
+        }
+    }
+
+    public @NotNull Token.Type type(int index) {
+        checkIndex(index);
+        return TYPES[types[index]];
+    }
+
+    public int offset(int index) {
+        checkIndex(index);
+        return offsets[index];
+    }
+
+    public int length(int index) {
+        checkIndex(index);
+        return lengths[index];
+    }
+
+    public int line(int index) {
+        checkIndex(index);
+        return lines[index];
+    }
+
+    public int column(int index) {
+        checkIndex(index);
+        return columns[index];
+    }
+
+    /**
+     * @return the symbol id of an {@link Token.Type#ID} token, {@link SymbolTable#NO_SYMBOL} for any other token
+     */
+    public int symbol(int index) {
+        return (type(index) == Token.Type.ID) ? (int) payloads[index] : SymbolTable.NO_SYMBOL;
+    }
+
+    /**
+     * @return the magnitude of an {@link Token.Type#INT_LITERAL} token as an unsigned long, which is above
+     * {@code 2^63} if the literal does not fit in a long; 0 for any other token
+     */
+    public long literalMagnitude(int index) {
+        return (type(index) == Token.Type.INT_LITERAL) ? payloads[index] : 0L;
+    }
+
+    public @NotNull TokenPosition tokenPosition(int index) {
+        checkIndex(index);
+        return new TokenPosition(lines[index], columns[index], offsets[index]);
+    }
+
+    public @NotNull String lexeme(int index) {
+        final Token.Type type = type(index);
+        if (type == Token.Type.EOF) {
+            return Scanner.EOF;
+        }
+        if (type == Token.Type.ID) {
+            return symbolTable.nameOf((int) payloads[index]);
+        }
+        return lexemeOf(sourceCode, type, offsets[index], lengths[index]);
+    }
+}
@@ -2,37 +2,49 @@ package decaf.analysis.cfg;
 
 import decaf.analysis.syntax.ast.*;
 import decaf.shared.CompilationContext;
+import decaf.shared.MethodWorkers;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Stack;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 
 public class Cfg {
+    // the program of the method, which is told when building the cfg rewrites its nodes
     @NotNull
-    private final CompilationContext context;
+    private final Program program;
     @NotNull
-    private final String methodName;
+    private final CfgBlock entryBlock;
+    @NotNull
+    private CfgBlock exitBlock;
+    private int numBlockIds;
     @Nullable
     private CfgBlock breakJumpTarget;
     @Nullable
     private CfgBlock continueJumpTarget;
+    // analyses of this cfg, built on first use and dropped whenever one of its blocks is edited
+    @Nullable
+    private DenseCfg denseCfg;
+    @Nullable
+    private Dominators<DenseCfg> dominators;
+    @Nullable
+    private LoopForest loopForest;
 
-    private Cfg(@NotNull MethodDefinition methodDefinition, @NotNull CompilationContext compilationContext) {
-        context = compilationContext;
-        methodName = methodDefinition.getName();
-        final var entryBlock = CfgBlock.createEntryBlock(methodName, compilationContext);
+    private Cfg(@NotNull Program program, @NotNull MethodDefinition methodDefinition) {
+        this.program = program;
+        entryBlock = newBlock();
         visitMethodDefinition(methodDefinition, entryBlock);
-        context.addExitCfgBlockFor(methodDefinition.getName(), findExitBlock());
+        exitBlock = findExitBlock();
         cleanUpAndValidateCfg();
     }
 
     public static @NotNull CfgBlock createGlobalCfgBlock(@NotNull Program program) {
-        var globalCfgBlock = CfgBlock.empty();
+        var globalCfgBlock = new CfgBlock(null, 0);
         for (var fieldDeclaration : program.getFieldDeclarations()) {
             globalCfgBlock.addUserToEnd(fieldDeclaration);
         }
@@ -42,16 +54,53 @@ public class Cfg {
         return globalCfgBlock;
     }
 
+    /**
+     * Builds the cfgs of all methods concurrently on the {@link MethodWorkers}.
+     * <p>
+     * Each cfg numbers its own blocks and only touches the AST of its own method, so the cfgs do not depend on how the
+     * builds were scheduled. If some methods cannot be built, every other method is still registered and the error
+     * of the first one in source order is thrown, as it would be by building them one after another.
+     */
     public static void build(@NotNull CompilationContext compilationContext) {
         compilationContext.setGlobalEntryBlock(createGlobalCfgBlock(compilationContext.getProgram()));
-        for (var methodDefinition : compilationContext.getProgram().getMethodDefinitions()) {
-            var cfg = new Cfg(methodDefinition, compilationContext);
-            compilationContext.setCfg(methodDefinition.getName(), cfg);
+        final var methodDefinitions = compilationContext.getProgram().getMethodDefinitions();
+        final var failures = new RuntimeException[methodDefinitions.size()];
+        MethodWorkers.forEachRange(methodDefinitions.size(), (from, to) -> {
+            for (int index = from; index < to; index++) {
+                final var methodDefinition = methodDefinitions.get(index);
+                final Cfg cfg;
+                try {
+                    cfg = new Cfg(compilationContext.getProgram(), methodDefinition);
+                } catch (RuntimeException e) {
+                    failures[index] = e;
+                    continue;
+                }
+                compilationContext.addEntryCfgBlockFor(methodDefinition.getName(), cfg.getEntryBlock());
+                compilationContext.addExitCfgBlockFor(methodDefinition.getName(), cfg.getExitBlock());
+                compilationContext.setCfg(methodDefinition.getName(), cfg);
+            }
+        });
+        for (var failure : failures) {
+            if (failure != null) {
+                throw failure;
+            }
         }
     }
 
+    @NotNull CfgBlock newBlock() {
+        return new CfgBlock(this, numBlockIds++);
+    }
+
+    /**
+     * @return one more than the largest id of a block of this cfg
+     */
+    public int getNumBlockIds() {
+        return numBlockIds;
+    }
+
     private void cleanUpAndValidateCfg() {
         pruneEmptyBasicBlocks();
+        exitBlock = CfgSimplifier.simplify(entryBlock, exitBlock);
         validateCfg();
     }
 
@@ -85,18 +134,24 @@ public class Cfg {
     }
 
     public @NotNull CfgBlock visitForStatement(@NotNull For forStatement, @NotNull CfgBlock currentBlock) {
-        var loopSuccessor = CfgBlock.empty();
-        var forBodyCfgBlock = CfgBlock.empty();
+        var loopSuccessor = newBlock();
+        var conditionCfgBlock = newBlock();
+        var forBodyCfgBlock = newBlock();
+        var updateCfgBlock = newBlock();
+
+        currentBlock.addUserToEnd(forStatement.getInitialization());
+        currentBlock.linkToSuccessor(conditionCfgBlock);
 
-        var saveTargets = new SaveTargets(loopSuccessor, forBodyCfgBlock);
+        // a continue still runs the update before testing the condition again
+        var saveTargets = new SaveTargets(loopSuccessor, updateCfgBlock);
         var bodyExit = visitBlockStatement(forStatement.getBody(), forBodyCfgBlock);
+        bodyExit.linkToSuccessor(updateCfgBlock);
 
-        bodyExit.addUserToEnd(forStatement.getUpdate());
-        bodyExit.linkToSuccessor(currentBlock);
+        updateCfgBlock.addUserToEnd(forStatement.getUpdate());
+        updateCfgBlock.linkToSuccessor(conditionCfgBlock);
 
-        currentBlock.addUserToEnd(forStatement.getInitialization());
-        currentBlock.addUserToEnd(forStatement.getTerminatingCondition().toEvalCondition());
-        currentBlock.addBranchTargets(forBodyCfgBlock, loopSuccessor);
+        conditionCfgBlock.addUserToEnd(forStatement.getTerminatingCondition().toEvalCondition());
+        conditionCfgBlock.addBranchTargets(forBodyCfgBlock, loopSuccessor);
 
         saveTargets.restore();
 
@@ -109,7 +164,7 @@ public class Cfg {
             throw new MalformedSourceLevelCfg("break statement outside of a loop");
         } else {
             currentBlock.linkToSuccessor(breakJumpTarget);
-            return CfgBlock.empty();
+            return newBlock();
         }
     }
 
@@ -119,22 +174,26 @@ public class Cfg {
             throw new MalformedSourceLevelCfg("continue statement outside of a loop");
         } else {
             currentBlock.linkToSuccessor(continueJumpTarget);
-            return CfgBlock.empty();
+            return newBlock();
         }
     }
 
     public @NotNull CfgBlock visitWhileStatement(@NotNull While whileStatement, @NotNull CfgBlock currentBlock) {
-        var loopSuccessor = CfgBlock.empty();
-        var whileBodyCfgBlock = CfgBlock.empty();
+        var loopSuccessor = newBlock();
+        // the condition gets a block of its own, so looping back does not run what came before the loop again
+        var conditionCfgBlock = newBlock();
+        var whileBodyCfgBlock = newBlock();
+
+        currentBlock.linkToSuccessor(conditionCfgBlock);
 
         // save the current break and continue targets
-        var saveTargets = new SaveTargets(loopSuccessor, whileBodyCfgBlock);
+        var saveTargets = new SaveTargets(loopSuccessor, conditionCfgBlock);
 
         var bodyExit = visitBlockStatement(whileStatement.getBody(), whileBodyCfgBlock);
-        bodyExit.linkToSuccessor(currentBlock);
+        bodyExit.linkToSuccessor(conditionCfgBlock);
 
-        currentBlock.addUserToEnd(whileStatement.getTest().toEvalCondition());
-        currentBlock.addBranchTargets(whileBodyCfgBlock, loopSuccessor);
+        conditionCfgBlock.addUserToEnd(whileStatement.getTest().toEvalCondition());
+        conditionCfgBlock.addBranchTargets(whileBodyCfgBlock, loopSuccessor);
 
         saveTargets.restore();
 
@@ -155,12 +214,12 @@ public class Cfg {
         // Make it the successor block.
         // Process the false branch.
 
-        var nextBlock = CfgBlock.empty();
+        var nextBlock = newBlock();
         if (ifStatement.getElseBlock().isPresent()) {
             // Create a new block for the false branch.
             // Process the false branch.
-            var elseBlockEntry = CfgBlock.empty();
-            var thenBlockEntry = CfgBlock.empty();
+            var elseBlockEntry = newBlock();
+            var thenBlockEntry = newBlock();
 
             var elseBlockExit = visit(elseBlockEntry, ifStatement.getElseBlock().get());
             var thenBlockExit = visit(thenBlockEntry, ifStatement.getThenBlock());
@@ -170,7 +229,7 @@ public class Cfg {
 
             currentBlock.addBranchTargets(thenBlockEntry, elseBlockEntry);
         } else {
-            var thenBlockEntry = CfgBlock.empty();
+            var thenBlockEntry = newBlock();
             var thenBlockExit = visit(thenBlockEntry, ifStatement.getThenBlock());
 
             thenBlockExit.linkToSuccessor(nextBlock);
@@ -178,7 +237,7 @@ public class Cfg {
             currentBlock.addBranchTargets(thenBlockEntry, nextBlock);
         }
         currentBlock.addUserToEnd(ifStatement.getCondition().toEvalCondition());
-        ShortCircuitUtil.shortCircuit(currentBlock);
+        ShortCircuitUtil.shortCircuit(this, currentBlock);
         return nextBlock;
     }
 
@@ -204,7 +263,7 @@ public class Cfg {
             throw new MalformedSourceLevelCfg("no exit block found");
         } else if (exitBlocks.size() > 1) {
             // merge the exit blocks
-            var exitBlock = CfgBlock.empty();
+            var exitBlock = newBlock();
             for (var block : exitBlocks) {
                 block.linkToSuccessor(exitBlock);
             }
@@ -216,7 +275,7 @@ public class Cfg {
 
     public @NotNull CfgBlock visitReturnStatement(@NotNull Return returnStatement, @NotNull CfgBlock currentBlock) {
         currentBlock.addUserToEnd(returnStatement);
-        return CfgBlock.empty();
+        return newBlock();
     }
 
     public void validateCfgBlock(@NotNull CfgBlock cfgBlock) {
@@ -230,7 +289,7 @@ public class Cfg {
             checkState(cfgBlock.getSuccessors().size() == 2, "branch block must have two successors");
         } else {
             if (cfgBlock.getSuccessors().isEmpty()) {
-                checkState(context.getExitCfgBlock(methodName).orElseThrow() == cfgBlock,
+                checkState(exitBlock == cfgBlock,
                            "non-branch block must be the exit block"
                           );
             } else {
@@ -244,8 +303,52 @@ public class Cfg {
         }
     }
 
-    private @NotNull CfgBlock getEntryBlock() {
-        return context.getEntryCfgBlock(methodName).orElseThrow(() -> new IllegalStateException("entry block set"));
+    @NotNull Program getProgram() {
+        return program;
+    }
+
+    public @NotNull CfgBlock getEntryBlock() {
+        return entryBlock;
+    }
+
+    public @NotNull CfgBlock getExitBlock() {
+        return exitBlock;
+    }
+
+    /**
+     * @return the blocks of this cfg numbered densely, built on first use
+     */
+    public @NotNull DenseCfg getDenseCfg() {
+        if (denseCfg == null) {
+            denseCfg = DenseCfg.of(getEntryBlock(), getExitBlock());
+        }
+        return denseCfg;
+    }
+
+    /**
+     * @return the dominators of the blocks of {@link #getDenseCfg()}, found on first use
+     */
+    public @NotNull Dominators<DenseCfg> getDominators() {
+        if (dominators == null) {
+            dominators = Dominators.of(getDenseCfg());
+        }
+        return dominators;
+    }
+
+    /**
+     * @return the loops of the blocks of {@link #getDenseCfg()}, found on first use
+     */
+    public @NotNull LoopForest getLoopForest() {
+        if (loopForest == null) {
+            loopForest = LoopForest.of(getDominators());
+        }
+        return loopForest;
+    }
+
+    void invalidateAnalyses() {
+        denseCfg = null;
+        dominators = null;
+        loopForest = null;
     }
 
     private void validateCfg() {
@@ -272,14 +375,14 @@ public class Cfg {
         // we never remove the exit block if it has more than one predecessor
         // we also never want to remove the exit block out of a loop;
         // else the branching block becomes a non-branching block
-        if (context.isExitBlock(emptyCfgBlock) &&
+        if (emptyCfgBlock == exitBlock &&
             (emptyCfgBlock.hasMoreThanOnePredecessor() ||
              emptyCfgBlock.hasOnlyOnePredecessor() && emptyCfgBlock.getSolePredecessor().hasBranch())) {
             return;
         }
 
-        if (context.isEntryBlock(emptyCfgBlock) || context.isExitBlock(emptyCfgBlock)) {
-            if (context.isEntryBlock(emptyCfgBlock) && !emptyCfgBlock.hasBranch()) {
+        if (emptyCfgBlock == entryBlock || emptyCfgBlock == exitBlock) {
+            if (emptyCfgBlock == entryBlock && !emptyCfgBlock.hasBranch()) {
                 // confirm no predecessors exist
                 checkState(emptyCfgBlock.getPredecessors().isEmpty(), "entry block must have no predecessor");
                 // make sure only once successor exists
@@ -288,7 +391,7 @@ public class Cfg {
                                                      "alternate successor should not exist"));
                 emptyCfgBlock.unlinkFromSuccessor(successor);
             }
-            if (context.isExitBlock(emptyCfgBlock) && emptyCfgBlock.hasOnlyOnePredecessor()) {
+            if (emptyCfgBlock == exitBlock && emptyCfgBlock.hasOnlyOnePredecessor()) {
                 // confirm no successors exist
                 checkState(emptyCfgBlock.getSuccessors().isEmpty(), "exit block must have no successors");
                 // make sure only once predecessor exists
@@ -297,13 +400,17 @@ public class Cfg {
             }
         } else {
             final var successor = emptyCfgBlock.getSoleSuccessor();
-            // remove the block from the predecessors
+            // remove the block from the predecessors, keeping the edge of a branch on the same side
             for (var predecessor : emptyCfgBlock.getPredecessors()) {
-                // grab the sole successor
-                predecessor.unlinkFromSuccessor(emptyCfgBlock);
-                predecessor.linkToSuccessor(successor);
+                // a branch which already jumps to the successor keeps the block, so it still has two targets, and so
+                // does the successor itself, as a block cannot jump to itself
+                if (predecessor != successor && !predecessor.getSuccessors().contains(successor)) {
+                    predecessor.redirectSuccessor(emptyCfgBlock, successor);
+                }
+            }
+            if (emptyCfgBlock.hasNoPredecessors()) {
+                emptyCfgBlock.unlinkFromSuccessor(successor);
             }
-            emptyCfgBlock.unlinkFromSuccessor(successor);
         }
     }
 
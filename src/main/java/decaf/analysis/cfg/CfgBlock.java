@@ -4,7 +4,6 @@ import decaf.analysis.syntax.ast.AST;
 import decaf.analysis.syntax.ast.Branch;
 import decaf.analysis.syntax.ast.Expression;
 import decaf.analysis.syntax.ast.Statement;
-import decaf.shared.CompilationContext;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -13,8 +12,13 @@ import java.util.logging.Logger;
 
 import static com.google.common.base.Preconditions.*;
 
-public class CfgBlock extends LinkedList<Statement> {
-    private static int blockIdCounter = 0;
+public class CfgBlock extends AbstractList<Statement> implements RandomAccess {
+    // the cfg whose analyses are invalidated by editing this block, if it belongs to one
+    @Nullable
+    private final Cfg cfg;
+    // only edited through the methods of this class, every edit of the list going through set, add or remove
+    @NotNull
+    private final List<Statement> statements = new ArrayList<>();
     @NotNull
     private List<CfgBlock> predecessors;
     private final int blockId;
@@ -23,34 +27,13 @@ public class CfgBlock extends LinkedList<Statement> {
     @Nullable
     private CfgBlock alternateSuccessor;
 
-    private CfgBlock(@Nullable CfgBlock successor,
-                     @Nullable CfgBlock alternateSuccessor,
-                     @Nullable List<CfgBlock> predecessors) {
-        this.successor = successor;
-        this.alternateSuccessor = alternateSuccessor;
-        this.predecessors = Objects.requireNonNullElseGet(predecessors, ArrayList::new);
-        this.blockId = createBlockId();
-    }
-
-    private static int createBlockId() {
-        return blockIdCounter++;
-    }
-
-    public static CfgBlock empty() {
-        return new CfgBlock(null, null, null);
-    }
-
-    public static CfgBlock createEntryBlock(String methodName, CompilationContext compilationContext) {
-        var cfgBlock = CfgBlock.empty();
-        compilationContext.addEntryCfgBlockFor(methodName, cfgBlock);
-        return cfgBlock;
-    }
-
-    public static CfgBlock withBranch(@NotNull Branch branch, @NotNull CfgBlock successor, @NotNull CfgBlock alternateSuccessor) {
-        var cfgBlock = CfgBlock.empty();
-        cfgBlock.add(branch);
-        cfgBlock.addBranchTargets(successor, alternateSuccessor);
-        return cfgBlock;
+    /**
+     * @param blockId the id of this block, unique among the blocks of its {@link Cfg}
+     */
+    CfgBlock(@Nullable Cfg cfg, int blockId) {
+        this.cfg = cfg;
+        this.predecessors = new ArrayList<>();
+        this.blockId = blockId;
     }
 
     public int getBlockId() {
@@ -65,6 +48,7 @@ public class CfgBlock extends LinkedList<Statement> {
         checkArgument(successor != null, "the successor of a block cannot be null");
         checkArgument(successor != this, "the successor of a block cannot be itself");
         this.successor = successor;
+        edited();
     }
 
     public Optional<CfgBlock> getAlternateSuccessor() {
@@ -74,6 +58,7 @@ public class CfgBlock extends LinkedList<Statement> {
     public void setAlternateSuccessor(CfgBlock alternateSuccessor) {
         checkArgument(alternateSuccessor != this, "the alternate successor of a block cannot be itself");
         this.alternateSuccessor = alternateSuccessor;
+        edited();
     }
 
     public List<CfgBlock> getPredecessors() {
@@ -93,14 +78,21 @@ public class CfgBlock extends LinkedList<Statement> {
         checkNotNull(predecessor, "a predecessor cannot be null");
         checkState(!predecessors.contains(predecessor), "a block cannot have the same predecessor twice");
         predecessors.add(predecessor);
+        edited();
     }
 
     public Optional<AST> getTerminator() {
-        return Optional.ofNullable(peekLast());
+        if (super.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(get(size() - 1));
     }
 
     public Optional<AST> getLeader() {
-        return Optional.ofNullable(peekFirst());
+        if (super.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(get(0));
     }
 
     public void addSuccessor(@NotNull CfgBlock successor) {
@@ -117,6 +109,7 @@ public class CfgBlock extends LinkedList<Statement> {
         } else {
             this.alternateSuccessor = successor;
         }
+        edited();
     }
 
     public void linkToSuccessor(@NotNull CfgBlock successor) {
@@ -136,6 +129,7 @@ public class CfgBlock extends LinkedList<Statement> {
         this.alternateSuccessor = alternateSuccessor;
         successor.addPredecessor(this);
         alternateSuccessor.addPredecessor(this);
+        edited();
     }
 
     public List<CfgBlock> getSuccessors() {
@@ -163,6 +157,7 @@ public class CfgBlock extends LinkedList<Statement> {
     public void removePredecessor(@NotNull CfgBlock predecessor) {
         checkState(predecessors.contains(predecessor), "a block cannot remove a predecessor that it does not have");
         predecessors.remove(predecessor);
+        edited();
     }
 
     public void removeSuccessor(@NotNull CfgBlock successor) {
@@ -174,6 +169,7 @@ public class CfgBlock extends LinkedList<Statement> {
         } else {
             throw new IllegalStateException("a block cannot remove a successor that it does not have");
         }
+        edited();
     }
 
     public void unlinkFromSuccessor(@NotNull CfgBlock successor) {
@@ -241,10 +237,8 @@ public class CfgBlock extends LinkedList<Statement> {
 
     @Override
     public boolean equals(Object o) {
-        if (o instanceof CfgBlock cfgBlock) {
-            return cfgBlock.getBlockId() == getBlockId();
-        }
-        return false;
+        // ids are only unique within a cfg, so blocks are equal only to themselves
+        return this == o;
     }
 
     public @NotNull CfgBlock getSuccessorOrThrow() {
@@ -255,25 +249,123 @@ public class CfgBlock extends LinkedList<Statement> {
         return getAlternateSuccessor().orElseThrow(() -> new IllegalStateException("this block does not have an alternate successor"));
     }
 
+    /**
+     * Points the edge from this block to {@code successor} at {@code replacement} instead, keeping which of the two
+     * successors it is.
+     */
+    public void redirectSuccessor(@NotNull CfgBlock successor, @NotNull CfgBlock replacement) {
+        checkArgument(replacement != this, "a block cannot be its own successor");
+        if (this.successor == successor) {
+            checkArgument(this.alternateSuccessor != replacement,
+                          "a successor cannot be the same as the alternate successor"
+                         );
+            this.successor = replacement;
+        } else if (this.alternateSuccessor == successor) {
+            checkArgument(this.successor != replacement, "a successor cannot be the same as the alternate successor");
+            this.alternateSuccessor = replacement;
+        } else {
+            throw new IllegalStateException("a block cannot redirect a successor that it does not have");
+        }
+        successor.removePredecessor(this);
+        replacement.addPredecessor(this);
+        edited();
+    }
+
+    /**
+     * Unlinks this block from its successors and links {@code cfgBlock}, which must have none, to them instead, with
+     * the successor and alternate successor the same way round.
+     */
+    public void moveSuccessorsTo(@NotNull CfgBlock cfgBlock) {
+        checkState(cfgBlock.successor == null && cfgBlock.alternateSuccessor == null,
+                   "a block cannot take over successors when it has its own"
+                  );
+        final var successor = this.successor;
+        final var alternateSuccessor = this.alternateSuccessor;
+        for (var oldSuccessor : getSuccessors()) {
+            unlinkFromSuccessor(oldSuccessor);
+        }
+        if (successor != null && alternateSuccessor != null) {
+            cfgBlock.addBranchTargets(successor, alternateSuccessor);
+        } else if (successor != null) {
+            cfgBlock.linkToSuccessor(successor);
+        }
+    }
+
+    /**
+     * Makes this block take the place of {@code cfgBlock}: the statements and successors of this block become those of
+     * {@code cfgBlock}, and the predecessors of {@code cfgBlock} jump here instead, along with those of this block.
+     * {@code cfgBlock} is left empty and unlinked.
+     */
     public void replaceWith(@NotNull CfgBlock cfgBlock) {
-        if (this.equals(cfgBlock)) {
+        if (this == cfgBlock) {
             return;
         }
-        this.predecessors = cfgBlock.predecessors;
-        this.successor = cfgBlock.successor;
-        this.alternateSuccessor = cfgBlock.alternateSuccessor;
+        for (var oldSuccessor : getSuccessors()) {
+            unlinkFromSuccessor(oldSuccessor);
+        }
+        cfgBlock.moveSuccessorsTo(this);
+        for (var predecessor : cfgBlock.getPredecessors()) {
+            predecessor.redirectSuccessor(cfgBlock, this);
+        }
         this.clear();
         this.addAll(cfgBlock);
+        cfgBlock.clear();
+    }
 
-        // clean up the old block
-        for (var pred: cfgBlock.predecessors) {
-            pred.unlinkFromSuccessor(cfgBlock);
-            pred.linkToSuccessor(this);
+    private void edited() {
+        if (cfg != null) {
+            cfg.invalidateAnalyses();
         }
+    }
 
-        cfgBlock.successor = null;
-        cfgBlock.alternateSuccessor = null;
-        cfgBlock.predecessors.clear();
-        cfgBlock.clear();
+    @Override
+    public Statement get(int index) {
+        return statements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return statements.size();
+    }
+
+    @Override
+    public Statement set(int index, Statement statement) {
+        edited();
+        return statements.set(index, statement);
+    }
+
+    @Override
+    public void add(int index, Statement statement) {
+        edited();
+        modCount++;
+        statements.add(index, statement);
+    }
+
+    @Override
+    public Statement remove(int index) {
+        edited();
+        modCount++;
+        return statements.remove(index);
+    }
+
+    // the bulk edits below would otherwise go one statement at a time
+
+    @Override
+    public boolean addAll(@NotNull Collection<? extends Statement> statements) {
+        return addAll(size(), statements);
+    }
+
+    @Override
+    public boolean addAll(int index, @NotNull Collection<? extends Statement> statements) {
+        edited();
+        modCount++;
+        return this.statements.addAll(index, statements);
+    }
+
+    @Override
+    public void clear() {
+        edited();
+        modCount++;
+        statements.clear();
     }
 }
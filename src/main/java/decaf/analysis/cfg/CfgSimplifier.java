@@ -0,0 +1,147 @@
+package decaf.analysis.cfg;
+
+import decaf.shared.Utils;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Stack;
+
+/**
+ * Simplifies the blocks of a {@link Cfg} until none of these apply:
+ * <ul>
+ *     <li>edges from blocks which cannot be reached from the entry are removed</li>
+ *     <li>a branch on a condition which is a constant becomes a jump to the successor it always takes</li>
+ *     <li>a jump to an empty block is threaded through to where that block jumps</li>
+ *     <li>a block is merged into its predecessor, if they only jump to each other</li>
+ * </ul>
+ * The entry stays the entry, and the exit block is only ever replaced by the block it is merged into.
+ */
+class CfgSimplifier {
+    @NotNull
+    private final CfgBlock entryBlock;
+    @NotNull
+    private CfgBlock exitBlock;
+
+    private CfgSimplifier(@NotNull CfgBlock entryBlock, @NotNull CfgBlock exitBlock) {
+        this.entryBlock = entryBlock;
+        this.exitBlock = exitBlock;
+    }
+
+    /**
+     * @return the exit block once the cfg from {@code entryBlock} to {@code exitBlock} has been simplified
+     */
+    static @NotNull CfgBlock simplify(@NotNull CfgBlock entryBlock, @NotNull CfgBlock exitBlock) {
+        final var simplifier = new CfgSimplifier(entryBlock, exitBlock);
+        boolean changed = true;
+        while (changed) {
+            changed = simplifier.simplifyOnce();
+        }
+        return simplifier.exitBlock;
+    }
+
+    private boolean simplifyOnce() {
+        final List<CfgBlock> reachable = findReachableBlocks();
+        final Set<CfgBlock> isReachable = new HashSet<>(reachable);
+        boolean changed = false;
+        for (var cfgBlock : reachable) {
+            for (var predecessor : cfgBlock.getPredecessors()) {
+                if (!isReachable.contains(predecessor)) {
+                    predecessor.unlinkFromSuccessor(cfgBlock);
+                    changed = true;
+                }
+            }
+        }
+        for (var cfgBlock : reachable) {
+            if (cfgBlock != entryBlock && cfgBlock.hasNoPredecessors()) {
+                // merged or threaded away earlier in this pass
+                continue;
+            }
+            if (foldConstantBranch(cfgBlock)) {
+                changed = true;
+            }
+            if (threadJumpsThrough(cfgBlock)) {
+                changed = true;
+                continue;
+            }
+            while (mergeSuccessor(cfgBlock)) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private @NotNull List<CfgBlock> findReachableBlocks() {
+        final var reachable = new ArrayList<CfgBlock>();
+        final var seen = new HashSet<CfgBlock>();
+        final var workList = new Stack<CfgBlock>();
+        workList.push(entryBlock);
+        while (!workList.isEmpty()) {
+            final var current = workList.pop();
+            if (seen.add(current)) {
+                reachable.add(current);
+                workList.addAll(current.getSuccessors());
+            }
+        }
+        return reachable;
+    }
+
+    private boolean foldConstantBranch(@NotNull CfgBlock cfgBlock) {
+        if (!cfgBlock.hasBranch()) {
+            return false;
+        }
+        final var value = Utils.symbolicallyEvaluate(cfgBlock.getBranchCondition());
+        if (value.isEmpty()) {
+            return false;
+        }
+        // a constant condition has no side effects, so the branch can go along with the edge never taken
+        final var notTaken = value.get() != 0L ? cfgBlock.getAlternateSuccessorOrThrow() : cfgBlock.getSuccessorOrThrow();
+        cfgBlock.remove(cfgBlock.size() - 1);
+        cfgBlock.unlinkFromSuccessor(notTaken);
+        return true;
+    }
+
+    private boolean threadJumpsThrough(@NotNull CfgBlock cfgBlock) {
+        if (cfgBlock == entryBlock ||
+            cfgBlock == exitBlock ||
+            !cfgBlock.isEmpty() ||
+            cfgBlock.getSuccessor().isEmpty()) {
+            return false;
+        }
+        final var successor = cfgBlock.getSoleSuccessor();
+        boolean threaded = false;
+        for (var predecessor : cfgBlock.getPredecessors()) {
+            // neither a branch with both edges to the same block nor a block jumping to itself can be represented
+            if (predecessor != successor && !predecessor.getSuccessors().contains(successor)) {
+                predecessor.redirectSuccessor(cfgBlock, successor);
+                threaded = true;
+            }
+        }
+        if (cfgBlock.hasNoPredecessors()) {
+            cfgBlock.unlinkFromSuccessor(successor);
+        }
+        return threaded;
+    }
+
+    private boolean mergeSuccessor(@NotNull CfgBlock cfgBlock) {
+        if (cfgBlock.getSuccessor().isEmpty() || cfgBlock.getAlternateSuccessor().isPresent()) {
+            return false;
+        }
+        final var successor = cfgBlock.getSoleSuccessor();
+        if (successor == entryBlock ||
+            !successor.hasOnlyOnePredecessor() ||
+            successor.getSuccessors().contains(cfgBlock)) {
+            return false;
+        }
+        cfgBlock.unlinkFromSuccessor(successor);
+        cfgBlock.addAll(successor);
+        successor.clear();
+        successor.moveSuccessorsTo(cfgBlock);
+        if (successor == exitBlock) {
+            exitBlock = cfgBlock;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,179 @@
+package decaf.analysis.cfg;
+
+import decaf.analysis.syntax.ast.Statement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A read-only snapshot of the blocks of a {@link Cfg} reachable from its entry, numbered as a {@link FlowGraph}.
+ * <p>
+ * Successors, predecessors and statements are stored compressed-row style: one flat array holding the lists of every
+ * block back to back, and an array of offsets with the list of block {@code b} at
+ * {@code [offsets[b], offsets[b + 1])}. Every query is O(1) and allocates nothing, which is what dataflow analyses
+ * iterating to a fixed point need from their graph.
+ * <p>
+ * The successors of a block are its successor and then its alternate successor, so for a branching block successor 0
+ * is where control goes when the condition holds. The predecessors of a block are in increasing order of number, and
+ * edges from unreachable blocks are left out.
+ */
+public class DenseCfg implements FlowGraph {
+    private final CfgBlock[] blocks;
+    private final Map<CfgBlock, Integer> indices;
+    private final int exit;
+    private final int[] successorOffsets;
+    private final int[] successors;
+    private final int[] predecessorOffsets;
+    private final int[] predecessors;
+    private final int[] statementOffsets;
+    private final Statement[] statements;
+
+    private DenseCfg(@NotNull CfgBlock entry, @Nullable CfgBlock exit) {
+        this.blocks = reversePostOrder(entry);
+        this.indices = new HashMap<>(blocks.length * 2);
+        for (int index = 0; index < blocks.length; index++) {
+            indices.put(blocks[index], index);
+        }
+        this.exit = exit == null ? -1 : indexOf(exit);
+
+        final int numBlocks = blocks.length;
+        successorOffsets = new int[numBlocks + 1];
+        statementOffsets = new int[numBlocks + 1];
+        final var successorList = new int[numBlocks * 2];
+        final var statementList = new ArrayList<Statement>();
+        int numSuccessors = 0;
+        for (int index = 0; index < numBlocks; index++) {
+            final var block = blocks[index];
+            for (var successor : block.getSuccessors()) {
+                successorList[numSuccessors++] = indexOf(successor);
+            }
+            successorOffsets[index + 1] = numSuccessors;
+            statementList.addAll(block);
+            statementOffsets[index + 1] = statementList.size();
+        }
+        successors = Arrays.copyOf(successorList, numSuccessors);
+        statements = statementList.toArray(new Statement[0]);
+
+        // the predecessors recorded by the blocks are not kept up to date by every edit, so transpose the successors
+        predecessorOffsets = new int[numBlocks + 1];
+        for (int successor : successors) {
+            predecessorOffsets[successor + 1]++;
+        }
+        for (int index = 0; index < numBlocks; index++) {
+            predecessorOffsets[index + 1] += predecessorOffsets[index];
+        }
+        predecessors = new int[numSuccessors];
+        final int[] nextPredecessor = Arrays.copyOf(predecessorOffsets, numBlocks);
+        for (int index = 0; index < numBlocks; index++) {
+            for (int edge = successorOffsets[index]; edge < successorOffsets[index + 1]; edge++) {
+                predecessors[nextPredecessor[successors[edge]]++] = index;
+            }
+        }
+    }
+
+    /**
+     * @return the dense form of the blocks reachable from {@code entry}, with {@code exit} as the exit block if it is
+     * one of them
+     */
+    public static @NotNull DenseCfg of(@NotNull CfgBlock entry, @Nullable CfgBlock exit) {
+        return new DenseCfg(entry, exit);
+    }
+
+    private static CfgBlock[] reversePostOrder(@NotNull CfgBlock entry) {
+        final var postOrder = new ArrayList<CfgBlock>();
+        final var seen = new HashMap<CfgBlock, List<CfgBlock>>();
+        // the path from the entry, and the index of the next successor of each to visit
+        CfgBlock[] path = new CfgBlock[16];
+        int[] nextSuccessors = new int[16];
+        path[0] = entry;
+        seen.put(entry, entry.getSuccessors());
+        int depth = 1;
+        while (depth > 0) {
+            final var block = path[depth - 1];
+            final var blockSuccessors = seen.get(block);
+            final int index = nextSuccessors[depth - 1];
+            if (index < blockSuccessors.size()) {
+                nextSuccessors[depth - 1] = index + 1;
+                final var successor = blockSuccessors.get(index);
+                if (!seen.containsKey(successor)) {
+                    seen.put(successor, successor.getSuccessors());
+                    if (depth == path.length) {
+                        path = Arrays.copyOf(path, depth << 1);
+                        nextSuccessors = Arrays.copyOf(nextSuccessors, depth << 1);
+                    }
+                    path[depth] = successor;
+                    nextSuccessors[depth] = 0;
+                    ++depth;
+                }
+            } else {
+                path[--depth] = null;
+                postOrder.add(block);
+            }
+        }
+        final var blocks = new CfgBlock[postOrder.size()];
+        for (int index = 0; index < blocks.length; index++) {
+            blocks[index] = postOrder.get(blocks.length - 1 - index);
+        }
+        return blocks;
+    }
+
+    @Override
+    public int numBlocks() {
+        return blocks.length;
+    }
+
+    /**
+     * @return the exit block, or -1 if it cannot be reached from the entry
+     */
+    public int exit() {
+        return exit;
+    }
+
+    public @NotNull CfgBlock block(int block) {
+        return blocks[block];
+    }
+
+    /**
+     * @return the number of {@code cfgBlock}, or -1 if it cannot be reached from the entry
+     */
+    public int indexOf(@NotNull CfgBlock cfgBlock) {
+        return Objects.requireNonNullElse(indices.get(cfgBlock), -1);
+    }
+
+    @Override
+    public int successorCount(int block) {
+        return successorOffsets[block + 1] - successorOffsets[block];
+    }
+
+    @Override
+    public int successor(int block, int index) {
+        Objects.checkIndex(index, successorCount(block));
+        return successors[successorOffsets[block] + index];
+    }
+
+    @Override
+    public int predecessorCount(int block) {
+        return predecessorOffsets[block + 1] - predecessorOffsets[block];
+    }
+
+    @Override
+    public int predecessor(int block, int index) {
+        Objects.checkIndex(index, predecessorCount(block));
+        return predecessors[predecessorOffsets[block] + index];
+    }
+
+    public int statementCount(int block) {
+        return statementOffsets[block + 1] - statementOffsets[block];
+    }
+
+    public @NotNull Statement statement(int block, int index) {
+        Objects.checkIndex(index, statementCount(block));
+        return statements[statementOffsets[block] + index];
+    }
+}
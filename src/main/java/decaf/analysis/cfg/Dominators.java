@@ -0,0 +1,339 @@
+package decaf.analysis.cfg;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The dominator tree and dominance frontiers of a {@link FlowGraph}, such as a {@link DenseCfg} or an IR function, over
+ * its block numbers.
+ * <p>
+ * Immediate dominators are found with the iterative algorithm of Cooper, Harvey and Kennedy, which exploits the
+ * blocks of a {@link FlowGraph} being numbered in reverse postorder and is the fastest in practice, or for methods of
+ * more than {@link #LENGAUER_TARJAN_THRESHOLD} blocks, where its worst case starts to show, with the almost linear
+ * algorithm of Lengauer and Tarjan. Blocks are then numbered by a depth first walk of the dominator tree, so that the
+ * blocks a block dominates are exactly those numbered within its interval, and {@link #dominates} is a pair of
+ * comparisons.
+ */
+public class Dominators<G extends FlowGraph> {
+    static final int LENGAUER_TARJAN_THRESHOLD = 10_000;
+
+    @NotNull
+    private final G graph;
+    // the immediate dominator of each block, and -1 for the entry
+    private final int[] immediateDominators;
+    private final int[] childOffsets;
+    private final int[] children;
+    // the preorder number of each block in the dominator tree, and the largest preorder number in its subtree
+    private final int[] preorder;
+    private final int[] lastDescendant;
+    private final int[] frontierOffsets;
+    private final int[] frontiers;
+
+    private Dominators(@NotNull G graph, int[] immediateDominators) {
+        this.graph = graph;
+        this.immediateDominators = immediateDominators;
+        final int numBlocks = graph.numBlocks();
+
+        childOffsets = new int[numBlocks + 1];
+        for (int block = 1; block < numBlocks; block++) {
+            childOffsets[immediateDominators[block] + 1]++;
+        }
+        for (int block = 0; block < numBlocks; block++) {
+            childOffsets[block + 1] += childOffsets[block];
+        }
+        children = new int[Math.max(0, numBlocks - 1)];
+        final int[] nextChild = Arrays.copyOf(childOffsets, numBlocks);
+        for (int block = 1; block < numBlocks; block++) {
+            children[nextChild[immediateDominators[block]]++] = block;
+        }
+
+        preorder = new int[numBlocks];
+        lastDescendant = new int[numBlocks];
+        numberDominatorTree();
+
+        frontierOffsets = new int[numBlocks + 1];
+        frontiers = findDominanceFrontiers();
+    }
+
+    /**
+     * @return the dominators of {@code graph}, found by whichever algorithm is faster for its size
+     */
+    public static <G extends FlowGraph> @NotNull Dominators<G> of(@NotNull G graph) {
+        if (graph.numBlocks() > LENGAUER_TARJAN_THRESHOLD) {
+            return lengauerTarjan(graph);
+        }
+        return cooperHarveyKennedy(graph);
+    }
+
+    public static <G extends FlowGraph> @NotNull Dominators<G> cooperHarveyKennedy(@NotNull G graph) {
+        final int numBlocks = graph.numBlocks();
+        final int[] immediateDominators = new int[numBlocks];
+        Arrays.fill(immediateDominators, -1);
+        if (numBlocks == 0) {
+            return new Dominators<>(graph, immediateDominators);
+        }
+        immediateDominators[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            // every predecessor of a block but those along back edges comes before it in reverse postorder
+            for (int block = 1; block < numBlocks; block++) {
+                int newImmediateDominator = -1;
+                for (int index = 0; index < graph.predecessorCount(block); index++) {
+                    final int predecessor = graph.predecessor(block, index);
+                    if (immediateDominators[predecessor] == -1) {
+                        continue;
+                    }
+                    if (newImmediateDominator == -1) {
+                        newImmediateDominator = predecessor;
+                    } else {
+                        newImmediateDominator = intersect(immediateDominators, predecessor, newImmediateDominator);
+                    }
+                }
+                if (immediateDominators[block] != newImmediateDominator) {
+                    immediateDominators[block] = newImmediateDominator;
+                    changed = true;
+                }
+            }
+        }
+        immediateDominators[0] = -1;
+        return new Dominators<>(graph, immediateDominators);
+    }
+
+    /**
+     * @return the nearest common dominator of {@code first} and {@code second}, walking up from whichever of the two
+     * comes later in reverse postorder
+     */
+    private static int intersect(int[] immediateDominators, int first, int second) {
+        while (first != second) {
+            while (first > second) {
+                first = immediateDominators[first];
+            }
+            while (second > first) {
+                second = immediateDominators[second];
+            }
+        }
+        return first;
+    }
+
+    public static <G extends FlowGraph> @NotNull Dominators<G> lengauerTarjan(@NotNull G graph) {
+        final int numBlocks = graph.numBlocks();
+        final int[] immediateDominators = new int[numBlocks];
+        Arrays.fill(immediateDominators, -1);
+        if (numBlocks == 0) {
+            return new Dominators<>(graph, immediateDominators);
+        }
+        // everything below is over depth first preorder numbers rather than block numbers
+        final int[] number = new int[numBlocks];
+        final int[] vertex = new int[numBlocks];
+        final int[] parent = new int[numBlocks];
+        depthFirstNumber(graph, number, vertex, parent);
+
+        final int[] semi = new int[numBlocks];
+        final int[] idom = new int[numBlocks];
+        final int[] ancestor = new int[numBlocks];
+        final int[] label = new int[numBlocks];
+        // the vertices whose semidominator is each vertex, as linked lists
+        final int[] bucketHeads = new int[numBlocks];
+        final int[] bucketNexts = new int[numBlocks];
+        final int[] path = new int[numBlocks];
+        for (int v = 0; v < numBlocks; v++) {
+            semi[v] = v;
+            label[v] = v;
+            ancestor[v] = -1;
+            bucketHeads[v] = -1;
+        }
+        for (int w = numBlocks - 1; w > 0; w--) {
+            final int block = vertex[w];
+            for (int index = 0; index < graph.predecessorCount(block); index++) {
+                final int u = evaluate(number[graph.predecessor(block, index)], ancestor, label, semi, path);
+                if (semi[u] < semi[w]) {
+                    semi[w] = semi[u];
+                }
+            }
+            bucketNexts[w] = bucketHeads[semi[w]];
+            bucketHeads[semi[w]] = w;
+            ancestor[w] = parent[w];
+            for (int v = bucketHeads[parent[w]]; v != -1; v = bucketNexts[v]) {
+                final int u = evaluate(v, ancestor, label, semi, path);
+                idom[v] = semi[u] < semi[v] ? u : parent[w];
+            }
+            bucketHeads[parent[w]] = -1;
+        }
+        for (int w = 1; w < numBlocks; w++) {
+            if (idom[w] != semi[w]) {
+                idom[w] = idom[idom[w]];
+            }
+            immediateDominators[vertex[w]] = vertex[idom[w]];
+        }
+        return new Dominators<>(graph, immediateDominators);
+    }
+
+    private static void depthFirstNumber(@NotNull FlowGraph graph, int[] number, int[] vertex, int[] parent) {
+        final int numBlocks = graph.numBlocks();
+        Arrays.fill(number, -1);
+        // the path from the entry, and the index of the next successor of each to visit
+        final int[] stack = new int[numBlocks];
+        final int[] nextSuccessors = new int[numBlocks];
+        int numbered = 0;
+        number[0] = numbered;
+        vertex[numbered++] = 0;
+        parent[0] = -1;
+        int depth = 1;
+        while (depth > 0) {
+            final int block = stack[depth - 1];
+            final int index = nextSuccessors[depth - 1];
+            if (index < graph.successorCount(block)) {
+                nextSuccessors[depth - 1] = index + 1;
+                final int successor = graph.successor(block, index);
+                if (number[successor] == -1) {
+                    number[successor] = numbered;
+                    vertex[numbered] = successor;
+                    parent[numbered++] = number[block];
+                    stack[depth] = successor;
+                    nextSuccessors[depth++] = 0;
+                }
+            } else {
+                --depth;
+            }
+        }
+    }
+
+    /**
+     * @return the vertex of least semidominator on the path from {@code v} up to the root of its tree in the forest
+     * linked so far, compressing the path on the way
+     */
+    private static int evaluate(int v, int[] ancestor, int[] label, int[] semi, int[] path) {
+        if (ancestor[v] == -1) {
+            return v;
+        }
+        int length = 0;
+        for (int u = v; ancestor[ancestor[u]] != -1; u = ancestor[u]) {
+            path[length++] = u;
+        }
+        // from the top of the path down, so each vertex sees the labels of the already compressed ones above it
+        while (length > 0) {
+            final int u = path[--length];
+            if (semi[label[ancestor[u]]] < semi[label[u]]) {
+                label[u] = label[ancestor[u]];
+            }
+            ancestor[u] = ancestor[ancestor[u]];
+        }
+        return label[v];
+    }
+
+    private void numberDominatorTree() {
+        final int numBlocks = graph.numBlocks();
+        if (numBlocks == 0) {
+            return;
+        }
+        final int[] stack = new int[numBlocks];
+        final int[] nextChildren = new int[numBlocks];
+        int numbered = 0;
+        preorder[0] = numbered++;
+        int depth = 1;
+        while (depth > 0) {
+            final int block = stack[depth - 1];
+            final int index = nextChildren[depth - 1];
+            if (index < childCount(block)) {
+                nextChildren[depth - 1] = index + 1;
+                final int child = child(block, index);
+                preorder[child] = numbered++;
+                stack[depth] = child;
+                nextChildren[depth++] = 0;
+            } else {
+                lastDescendant[block] = numbered - 1;
+                --depth;
+            }
+        }
+    }
+
+    /**
+     * Finds the dominance frontiers by walking up the dominator tree from the predecessors of every block, as Cooper,
+     * Harvey and Kennedy do: once to count them and once to fill them in. The walk from the sole predecessor of a block
+     * stops where it starts, unless the block is the entry, which is why the entry is not skipped along with them.
+     */
+    private int[] findDominanceFrontiers() {
+        final int numBlocks = graph.numBlocks();
+        // the block most recently added to the frontier of each block, so that none is added twice
+        final int[] lastJoinPoint = new int[numBlocks];
+        Arrays.fill(lastJoinPoint, -1);
+        for (int joinPoint = 0; joinPoint < numBlocks; joinPoint++) {
+            for (int index = 0; index < graph.predecessorCount(joinPoint); index++) {
+                for (int runner = graph.predecessor(joinPoint, index);
+                     runner != immediateDominators[joinPoint] && lastJoinPoint[runner] != joinPoint;
+                     runner = immediateDominators[runner]) {
+                    lastJoinPoint[runner] = joinPoint;
+                    frontierOffsets[runner + 1]++;
+                }
+            }
+        }
+        for (int block = 0; block < numBlocks; block++) {
+            frontierOffsets[block + 1] += frontierOffsets[block];
+        }
+        final int[] frontiers = new int[frontierOffsets[numBlocks]];
+        final int[] nextFrontier = Arrays.copyOf(frontierOffsets, numBlocks);
+        Arrays.fill(lastJoinPoint, -1);
+        for (int joinPoint = 0; joinPoint < numBlocks; joinPoint++) {
+            for (int index = 0; index < graph.predecessorCount(joinPoint); index++) {
+                for (int runner = graph.predecessor(joinPoint, index);
+                     runner != immediateDominators[joinPoint] && lastJoinPoint[runner] != joinPoint;
+                     runner = immediateDominators[runner]) {
+                    lastJoinPoint[runner] = joinPoint;
+                    frontiers[nextFrontier[runner]++] = joinPoint;
+                }
+            }
+        }
+        return frontiers;
+    }
+
+    public @NotNull G getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the immediate dominator of {@code block}, or -1 if it is the entry
+     */
+    public int immediateDominator(int block) {
+        return immediateDominators[block];
+    }
+
+    /**
+     * @return whether every path from the entry to {@code block} goes through {@code dominator}, which is true of
+     * every block and itself
+     */
+    public boolean dominates(int dominator, int block) {
+        return preorder[dominator] <= preorder[block] && preorder[block] <= lastDescendant[dominator];
+    }
+
+    public boolean strictlyDominates(int dominator, int block) {
+        return dominator != block && dominates(dominator, block);
+    }
+
+    /**
+     * @return the number of blocks {@code block} immediately dominates
+     */
+    public int childCount(int block) {
+        return childOffsets[block + 1] - childOffsets[block];
+    }
+
+    public int child(int block, int index) {
+        Objects.checkIndex(index, childCount(block));
+        return children[childOffsets[block] + index];
+    }
+
+    /**
+     * @return the number of blocks in the dominance frontier of {@code block}: those it does not strictly dominate
+     * but which have a predecessor it dominates
+     */
+    public int frontierCount(int block) {
+        return frontierOffsets[block + 1] - frontierOffsets[block];
+    }
+
+    public int frontier(int block, int index) {
+        Objects.checkIndex(index, frontierCount(block));
+        return frontiers[frontierOffsets[block] + index];
+    }
+}
@@ -0,0 +1,24 @@
+package decaf.analysis.cfg;
+
+/**
+ * The edges between the blocks of a control flow graph, which are numbered {@code 0..numBlocks()} in reverse postorder
+ * from the entry: the entry is block 0, and every block comes before its successors except along back edges. This is
+ * all {@link Dominators} needs of a graph, so that source level cfgs and IR functions share one implementation.
+ * <p>
+ * Only the blocks reachable from the entry are numbered, and edges from the others are left out.
+ */
+public interface FlowGraph {
+    int numBlocks();
+
+    default int entry() {
+        return 0;
+    }
+
+    int successorCount(int block);
+
+    int successor(int block, int index);
+
+    int predecessorCount(int block);
+
+    int predecessor(int block, int index);
+}
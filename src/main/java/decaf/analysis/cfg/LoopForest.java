@@ -0,0 +1,280 @@
+package decaf.analysis.cfg;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The natural loops of a {@link DenseCfg} and how they nest, over its block numbers.
+ * <p>
+ * An edge is a back edge when its target dominates its source, and the natural loop of a header is the header with
+ * every block that reaches one of its back edges without going through it. Back edges sharing a header, such as those
+ * a {@code continue} adds next to the one closing the body of a loop, make up a single loop with several latches.
+ * Loops are numbered {@code 0..numLoops()} in increasing order of header, so an enclosing loop always comes before
+ * the loops nested in it.
+ * <p>
+ * Decaf only has structured control flow, so every cycle of a {@link Cfg} goes through a dominating header; a cycle
+ * without one would not be found as a loop.
+ */
+public class LoopForest {
+    @NotNull
+    private final Dominators<DenseCfg> dominators;
+    // the innermost loop of each block, or -1 if it is in none
+    private final int[] innermostLoops;
+    private final int[] headers;
+    private final int[] parents;
+    private final int[] depths;
+    private final int[] preheaders;
+    private final int[] latchOffsets;
+    private final int[] latches;
+    private final int[] exitOffsets;
+    private final int[] exits;
+
+    private LoopForest(@NotNull Dominators<DenseCfg> dominators) {
+        this.dominators = dominators;
+        final var denseCfg = dominators.getGraph();
+        final int numBlocks = denseCfg.numBlocks();
+
+        int numLoops = 0;
+        final int[] headersFound = new int[numBlocks];
+        for (int block = 0; block < numBlocks; block++) {
+            if (isBackEdgeTarget(denseCfg, block)) {
+                headersFound[numLoops++] = block;
+            }
+        }
+
+        // the body of a loop is found before the bodies enclosing it, as its header comes later in reverse postorder;
+        // a block already in a loop stands for the whole of its outermost loop found so far
+        innermostLoops = new int[numBlocks];
+        Arrays.fill(innermostLoops, -1);
+        parents = new int[numLoops];
+        Arrays.fill(parents, -1);
+        // each edge is followed at most once per loop
+        final int[] workList = new int[2 * numBlocks];
+        for (int loop = numLoops - 1; loop >= 0; loop--) {
+            final int header = headersFound[loop];
+            innermostLoops[header] = loop;
+            int size = 0;
+            for (int index = 0; index < denseCfg.predecessorCount(header); index++) {
+                final int predecessor = denseCfg.predecessor(header, index);
+                if (dominators.dominates(header, predecessor)) {
+                    workList[size++] = predecessor;
+                }
+            }
+            while (size > 0) {
+                final int block = workList[--size];
+                int blockHeader = block;
+                if (innermostLoops[block] == -1) {
+                    innermostLoops[block] = loop;
+                } else {
+                    int outermost = innermostLoops[block];
+                    while (parents[outermost] != -1) {
+                        outermost = parents[outermost];
+                    }
+                    if (outermost == loop) {
+                        continue;
+                    }
+                    parents[outermost] = loop;
+                    blockHeader = headersFound[outermost];
+                }
+                for (int index = 0; index < denseCfg.predecessorCount(blockHeader); index++) {
+                    workList[size++] = denseCfg.predecessor(blockHeader, index);
+                }
+            }
+        }
+        headers = Arrays.copyOf(headersFound, numLoops);
+
+        depths = new int[numLoops];
+        for (int loop = 0; loop < numLoops; loop++) {
+            depths[loop] = parents[loop] == -1 ? 1 : depths[parents[loop]] + 1;
+        }
+
+        preheaders = new int[numLoops];
+        latchOffsets = new int[numLoops + 1];
+        int numLatches = 0;
+        for (int loop = 0; loop < numLoops; loop++) {
+            preheaders[loop] = findPreheader(denseCfg, loop);
+            for (int index = 0; index < denseCfg.predecessorCount(headers[loop]); index++) {
+                if (contains(loop, denseCfg.predecessor(headers[loop], index))) {
+                    numLatches++;
+                }
+            }
+            latchOffsets[loop + 1] = numLatches;
+        }
+        latches = new int[numLatches];
+        for (int loop = 0, next = 0; loop < numLoops; loop++) {
+            for (int index = 0; index < denseCfg.predecessorCount(headers[loop]); index++) {
+                final int predecessor = denseCfg.predecessor(headers[loop], index);
+                if (contains(loop, predecessor)) {
+                    latches[next++] = predecessor;
+                }
+            }
+        }
+
+        exitOffsets = new int[numLoops + 1];
+        exits = findExits(denseCfg);
+    }
+
+    public static @NotNull LoopForest of(@NotNull Dominators<DenseCfg> dominators) {
+        return new LoopForest(dominators);
+    }
+
+    private boolean isBackEdgeTarget(@NotNull DenseCfg denseCfg, int block) {
+        for (int index = 0; index < denseCfg.predecessorCount(block); index++) {
+            if (dominators.dominates(block, denseCfg.predecessor(block, index))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the only block outside {@code loop} which jumps to its header, if that is all it does, else -1
+     */
+    private int findPreheader(@NotNull DenseCfg denseCfg, int loop) {
+        int preheader = -1;
+        for (int index = 0; index < denseCfg.predecessorCount(headers[loop]); index++) {
+            final int predecessor = denseCfg.predecessor(headers[loop], index);
+            if (!contains(loop, predecessor)) {
+                if (preheader != -1) {
+                    return -1;
+                }
+                preheader = predecessor;
+            }
+        }
+        if (preheader != -1 && denseCfg.successorCount(preheader) != 1) {
+            return -1;
+        }
+        return preheader;
+    }
+
+    /**
+     * Finds the blocks outside each loop with a predecessor inside it, by walking out from the innermost loop of every
+     * predecessor of every block until reaching a loop which contains the block: once to count them and once to fill
+     * them in.
+     */
+    private int[] findExits(@NotNull DenseCfg denseCfg) {
+        final int numBlocks = denseCfg.numBlocks();
+        // the exit most recently added to each loop, so that none is added twice
+        final int[] lastExits = new int[headers.length];
+        Arrays.fill(lastExits, -1);
+        for (int block = 0; block < numBlocks; block++) {
+            for (int index = 0; index < denseCfg.predecessorCount(block); index++) {
+                for (int loop = innermostLoops[denseCfg.predecessor(block, index)];
+                     loop != -1 && !contains(loop, block) && lastExits[loop] != block;
+                     loop = parents[loop]) {
+                    lastExits[loop] = block;
+                    exitOffsets[loop + 1]++;
+                }
+            }
+        }
+        for (int loop = 0; loop < headers.length; loop++) {
+            exitOffsets[loop + 1] += exitOffsets[loop];
+        }
+        final int[] exits = new int[exitOffsets[headers.length]];
+        final int[] nextExit = Arrays.copyOf(exitOffsets, headers.length);
+        Arrays.fill(lastExits, -1);
+        for (int block = 0; block < numBlocks; block++) {
+            for (int index = 0; index < denseCfg.predecessorCount(block); index++) {
+                for (int loop = innermostLoops[denseCfg.predecessor(block, index)];
+                     loop != -1 && !contains(loop, block) && lastExits[loop] != block;
+                     loop = parents[loop]) {
+                    lastExits[loop] = block;
+                    exits[nextExit[loop]++] = block;
+                }
+            }
+        }
+        return exits;
+    }
+
+    public @NotNull Dominators<DenseCfg> getDominators() {
+        return dominators;
+    }
+
+    public int numLoops() {
+        return headers.length;
+    }
+
+    public int header(int loop) {
+        return headers[loop];
+    }
+
+    /**
+     * @return the loop immediately enclosing {@code loop}, or -1 if it is outermost
+     */
+    public int parent(int loop) {
+        return parents[loop];
+    }
+
+    /**
+     * @return how many loops {@code loop} is in, counting itself
+     */
+    public int depth(int loop) {
+        return depths[loop];
+    }
+
+    /**
+     * @return the block from which control enters {@code loop}, if there is exactly one and it jumps nowhere else,
+     * else -1
+     */
+    public int preheader(int loop) {
+        return preheaders[loop];
+    }
+
+    /**
+     * @return the number of blocks of {@code loop} with a back edge to its header
+     */
+    public int latchCount(int loop) {
+        return latchOffsets[loop + 1] - latchOffsets[loop];
+    }
+
+    public int latch(int loop, int index) {
+        Objects.checkIndex(index, latchCount(loop));
+        return latches[latchOffsets[loop] + index];
+    }
+
+    /**
+     * @return the number of blocks outside {@code loop} which control can leave it for
+     */
+    public int exitCount(int loop) {
+        return exitOffsets[loop + 1] - exitOffsets[loop];
+    }
+
+    public int exit(int loop, int index) {
+        Objects.checkIndex(index, exitCount(loop));
+        return exits[exitOffsets[loop] + index];
+    }
+
+    /**
+     * @return the innermost loop containing {@code block}, or -1 if it is in none
+     */
+    public int loopOf(int block) {
+        return innermostLoops[block];
+    }
+
+    /**
+     * @return how many loops {@code block} is in
+     */
+    public int loopDepth(int block) {
+        return innermostLoops[block] == -1 ? 0 : depths[innermostLoops[block]];
+    }
+
+    public int loopDepth(@NotNull CfgBlock cfgBlock) {
+        final int block = dominators.getGraph().indexOf(cfgBlock);
+        return block == -1 ? 0 : loopDepth(block);
+    }
+
+    public boolean isHeader(int block) {
+        return innermostLoops[block] != -1 && headers[innermostLoops[block]] == block;
+    }
+
+    public boolean contains(int loop, int block) {
+        for (int enclosing = innermostLoops[block]; enclosing >= loop; enclosing = parents[enclosing]) {
+            if (enclosing == loop) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,6 +3,9 @@ package decaf.analysis.cfg;
 import decaf.analysis.lexical.Scanner;
 import decaf.analysis.syntax.ast.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Stack;
 
 import static com.google.common.base.Preconditions.checkState;
 
@@ -11,99 +14,115 @@ public class ShortCircuitUtil {
     private ShortCircuitUtil() {
     }
 
-    public static void shortCircuit(@NotNull CfgBlock conditionalBlock) {
-        shortCircuitImpl(conditionalBlock);
+    /**
+     * Splits the branch ending {@code conditionalBlock} into one block per operand of its {@code &&} and {@code ||}
+     * operators, each branching on that operand alone, so that the operands on the right are only evaluated when the
+     * ones on the left do not already decide the condition.
+     * <p>
+     * Testing {@code !e} is testing {@code e} with the successors swapped, so negations are dropped as the condition is
+     * walked, and no branch tests a negated operand. Each node of the condition is visited once, with a work list
+     * rather than recursion, however long the chain of operators is.
+     * <p>
+     * The operands become the conditions of new branch nodes, so the program is told that its nodes changed.
+     */
+    public static void shortCircuit(@NotNull Cfg cfg, @NotNull CfgBlock conditionalBlock) {
+        checkState(conditionalBlock.hasBranch(), "expected a branching block");
+        final var condition = conditionalBlock.getBranchCondition();
+        if (!isShortCircuited(condition)) {
+            return;
+        }
+        final var successor = conditionalBlock.getSuccessorOrThrow();
+        final var alternateSuccessor = conditionalBlock.getAlternateSuccessorOrThrow();
+        conditionalBlock.unlinkFromSuccessor(successor);
+        conditionalBlock.unlinkFromSuccessor(alternateSuccessor);
+        // the statements before the branch still run before the first operand is tested
+        conditionalBlock.remove(conditionalBlock.size() - 1);
+        cfg.getProgram().nodesChanged();
+
+        final var workList = new Stack<Lowering>();
+        workList.push(new Lowering(condition, conditionalBlock, successor, alternateSuccessor));
+        while (!workList.isEmpty()) {
+            final var lowering = workList.pop();
+            final var expression = extractParenthesized(lowering.condition);
+            final var negatedOperand = negatedOperand(expression);
+            if (negatedOperand != null) {
+                workList.push(new Lowering(negatedOperand,
+                                           lowering.cfgBlock,
+                                           lowering.alternateSuccessor,
+                                           lowering.successor
+                ));
+            } else if (expression instanceof BinaryOpExpression binaryOpExpression &&
+                       binaryOpExpression.getOp() instanceof ConditionalOperator conditionalOperator) {
+                final boolean isAnd = conditionalOperator.getLabel().equals(Scanner.CONDITIONAL_AND);
+                checkState(isAnd || conditionalOperator.getLabel().equals(Scanner.CONDITIONAL_OR),
+                           "expected an AND or an OR operator"
+                          );
+                final var rhsBlock = cfg.newBlock();
+                workList.push(new Lowering(binaryOpExpression.getRhs(),
+                                           rhsBlock,
+                                           lowering.successor,
+                                           lowering.alternateSuccessor
+                ));
+                if (isAnd) {
+                    workList.push(new Lowering(binaryOpExpression.getLhs(),
+                                               lowering.cfgBlock,
+                                               rhsBlock,
+                                               lowering.alternateSuccessor
+                    ));
+                } else {
+                    workList.push(new Lowering(binaryOpExpression.getLhs(),
+                                               lowering.cfgBlock,
+                                               lowering.successor,
+                                               rhsBlock
+                    ));
+                }
+            } else {
+                lowering.cfgBlock.add(expression.toEvalCondition());
+                lowering.cfgBlock.addBranchTargets(lowering.successor, lowering.alternateSuccessor);
+            }
+        }
     }
 
     public static @NotNull Expression extractParenthesized(@NotNull Expression expression) {
-        if (expression instanceof ParenthesizedExpression parenthesizedExpression) {
-            return extractParenthesized(parenthesizedExpression.getExpression());
+        while (expression instanceof ParenthesizedExpression parenthesizedExpression) {
+            expression = parenthesizedExpression.getExpression();
         }
         return expression;
     }
 
     /**
-     * This method trys to get rid of parentheses and applies De Morgan's law to compound expressions
-     *
-     * @param expression The expression to simplify
-     * @return A simpler version of the expression if it exists
+     * @return whether {@code condition} has an {@code &&} or {@code ||} to split at, looking through parentheses and
+     * negations
      */
-    public static @NotNull Expression applyDeMorgansLaw(@NotNull Expression expression) {
-        // Remove nested parenthesis
-        expression = extractParenthesized(expression);
-
-        // Apply De Morgan's Laws
-        if (expression instanceof final UnaryOpExpression unaryOpExpression) {
-            if (unaryOpExpression.getUnaryOperator().getLabel().equals(Scanner.NOT)) {
-                final var unaryNot = unaryOpExpression.getUnaryOperator();
-                final var operand = extractParenthesized(unaryOpExpression.operand);
-                if (operand instanceof BinaryOpExpression binaryOpExpression) {
-                    if (binaryOpExpression.getOp() instanceof final ConditionalOperator operator) {
-                        if (operator.getLabel().equals(Scanner.CONDITIONAL_AND)) {
-
-                            // Not (A and B) is the same as Not A or Not B.
-                            return BinaryOpExpression.of(new UnaryOpExpression(unaryNot,
-                                                                               applyDeMorgansLaw(binaryOpExpression.getLhs())
-                                                         ),
-                                                         new ConditionalOperator(binaryOpExpression.getTokenPosition(),
-                                                                                 Scanner.CONDITIONAL_OR
-                                                         ),
-                                                         new UnaryOpExpression(unaryNot,
-                                                                               applyDeMorgansLaw(binaryOpExpression.getRhs())
-                                                         )
-                                                        );
-                        } else {
-                            // Not (A or B) is the same as Not A and Not B.
-                            return BinaryOpExpression.of(new UnaryOpExpression(unaryNot,
-                                                                               applyDeMorgansLaw(binaryOpExpression.getLhs())
-                                                         ),
-                                                         new ConditionalOperator(binaryOpExpression.getTokenPosition(),
-                                                                                 Scanner.CONDITIONAL_AND
-                                                         ),
-                                                         new UnaryOpExpression(unaryNot,
-                                                                               applyDeMorgansLaw(binaryOpExpression.getRhs())
-                                                         )
-                                                        );
-                        }
-                    }
-                }
-            }
+    private static boolean isShortCircuited(@NotNull Expression condition) {
+        var expression = extractParenthesized(condition);
+        for (var operand = negatedOperand(expression); operand != null; operand = negatedOperand(expression)) {
+            expression = extractParenthesized(operand);
         }
-
-        return expression;
+        return expression instanceof BinaryOpExpression binaryOpExpression &&
+               binaryOpExpression.getOp() instanceof ConditionalOperator;
     }
 
-    private static CfgBlock shortCircuitImpl(@NotNull CfgBlock cfgBlockWithBranch) {
-        checkState(cfgBlockWithBranch.hasBranch(), "expected a branching block");
-        final var expression = applyDeMorgansLaw(cfgBlockWithBranch.getBranchCondition());
-
-        if (expression instanceof BinaryOpExpression condition) {
-            if (condition.getOp() instanceof ConditionalOperator conditionalOperator) {
-
-                final var successor = cfgBlockWithBranch.getSuccessorOrThrow();
-                final var alternateSuccessor = cfgBlockWithBranch.getAlternateSuccessorOrThrow();
-
-                cfgBlockWithBranch.unlinkFromSuccessor(successor);
-                cfgBlockWithBranch.unlinkFromSuccessor(alternateSuccessor);
-
-                final var c1 = condition.getLhs();
-                final var c2 = condition.getRhs();
-
-                CfgBlock b1, b2;
-
-                if (conditionalOperator.getLabel().equals(Scanner.CONDITIONAL_AND)) {
-                    b2 = shortCircuitImpl(CfgBlock.withBranch(c2.toEvalCondition(), successor, alternateSuccessor));
-                    b1 = shortCircuitImpl(CfgBlock.withBranch(c1.toEvalCondition(), b2, alternateSuccessor));
-                } else {
-                    checkState(conditionalOperator.getLabel().equals(Scanner.CONDITIONAL_OR),
-                               "expected an OR operator"
-                              );
-                    b2 = shortCircuitImpl(CfgBlock.withBranch(c2.toEvalCondition(), successor, alternateSuccessor));
-                    b1 = shortCircuitImpl(CfgBlock.withBranch(c1.toEvalCondition(), successor, b2));
-                }
-                cfgBlockWithBranch.replaceWith(b1);
-            }
+    /**
+     * @return the operand of {@code expression} if it is a {@code !}, else null
+     */
+    private static @Nullable Expression negatedOperand(@NotNull Expression expression) {
+        if (expression instanceof UnaryOpExpression unaryOpExpression &&
+            unaryOpExpression.getUnaryOperator().getLabel().equals(Scanner.NOT)) {
+            return unaryOpExpression.operand;
         }
-        return cfgBlockWithBranch;
+        return null;
+    }
+
+    /**
+     * The work of making {@code cfgBlock} test {@code condition}, and jump to {@code successor} if that holds or to
+     * {@code alternateSuccessor} if it does not.
+     * <p>
+     * The branches test operands without their parentheses, as the semantic checker gives no type to parentheses.
+     */
+    private record Lowering(@NotNull Expression condition,
+                            @NotNull CfgBlock cfgBlock,
+                            @NotNull CfgBlock successor,
+                            @NotNull CfgBlock alternateSuccessor) {
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,17 @@
 package decaf.analysis.lexical;
 
 import decaf.analysis.Token;
+import decaf.analysis.TokenBuffer;
 import decaf.analysis.TokenPosition;
 import decaf.shared.CompilationContext;
+import decaf.shared.SourceText;
+import decaf.shared.env.SymbolTable;
 import decaf.shared.errors.ScannerError;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.function.Function;
-import java.util.regex.Pattern;
 
 import static decaf.shared.Utils.escapeMetaCharacters;
 
@@ -81,31 +83,154 @@ public class Scanner implements Iterable<Token> {
     public static final String RESERVED_TRUE = "true";
     public static final String RESERVED_FALSE = "false";
 
-    public static final Pattern INT_LITERAL_REGEX = Pattern.compile(
-            "(0[xX](?:_?[0-9a-fA-F])+)|(?:0(?:_?0)*|[1-9](?:_?[0-9])*)|0[bB](?:_?[01])+|(0[oO](?:_?[0-7])+)");
+    private static final int INVALID_CLASS = 0;
+    private static final int WHITESPACE_CLASS = 1;
+    private static final int ID_START_CLASS = 2;
+    private static final int DIGIT_CLASS = 3;
+    private static final int OPERATOR_CLASS = 4;
+    private static final int DOUBLE_QUOTES_CLASS = 5;
+    private static final int SINGLE_QUOTES_CLASS = 6;
+
+    private static final int ASCII_SIZE = 128;
+    private static final byte[] CHARACTER_CLASSES = new byte[ASCII_SIZE];
+    private static final boolean[] ID_PARTS = new boolean[ASCII_SIZE];
+    private static final Token.Type[] SINGLE_OPERATOR_TYPES = new Token.Type[ASCII_SIZE];
+    private static final Token.Type[][] COMPOUND_OPERATOR_TYPES = new Token.Type[ASCII_SIZE][];
+    private static final int MAX_RESERVED_WORD_LENGTH = RESERVED_CONTINUE.length();
+    // reserved word types bucketed by the length of their spelling
+    private static final Token.Type[][] RESERVED_WORD_TYPES = new Token.Type[MAX_RESERVED_WORD_LENGTH + 1][0];
+
+    static {
+        for (char c = 0; c < ASCII_SIZE; c++) {
+            if (Character.isLetter(c) || c == '_') {
+                CHARACTER_CLASSES[c] = ID_START_CLASS;
+                ID_PARTS[c] = true;
+            } else if (Character.isDigit(c)) {
+                CHARACTER_CLASSES[c] = DIGIT_CLASS;
+                ID_PARTS[c] = true;
+            }
+        }
+        CHARACTER_CLASSES[' '] = WHITESPACE_CLASS;
+        CHARACTER_CLASSES['\t'] = WHITESPACE_CLASS;
+        CHARACTER_CLASSES['\n'] = WHITESPACE_CLASS;
+        CHARACTER_CLASSES['\r'] = WHITESPACE_CLASS;
+        CHARACTER_CLASSES['"'] = DOUBLE_QUOTES_CLASS;
+        CHARACTER_CLASSES['\''] = SINGLE_QUOTES_CLASS;
+        // every punctuation and operator terminal is spelled with one or two non-alphanumeric characters
+        for (Token.Type type : Token.Type.values()) {
+            final String lexeme = Token.getScannerSourceCode(type);
+            if (lexeme.length() > 2 || Character.isLetterOrDigit(lexeme.charAt(0))) {
+                continue;
+            }
+            final char first = lexeme.charAt(0);
+            CHARACTER_CLASSES[first] = OPERATOR_CLASS;
+            if (lexeme.length() == 1) {
+                SINGLE_OPERATOR_TYPES[first] = type;
+            } else {
+                if (COMPOUND_OPERATOR_TYPES[first] == null) {
+                    COMPOUND_OPERATOR_TYPES[first] = new Token.Type[ASCII_SIZE];
+                }
+                COMPOUND_OPERATOR_TYPES[first][lexeme.charAt(1)] = type;
+            }
+        }
+        // `/` is already an operator, but it also starts both comment forms
+        CHARACTER_CLASSES['/'] = OPERATOR_CLASS;
+        for (Token.Type type : Token.Type.values()) {
+            if (type.name().startsWith("RESERVED_")) {
+                final int length = Token.getScannerSourceCode(type).length();
+                RESERVED_WORD_TYPES[length] = Arrays.copyOf(RESERVED_WORD_TYPES[length],
+                                                            RESERVED_WORD_TYPES[length].length + 1
+                                                           );
+                RESERVED_WORD_TYPES[length][RESERVED_WORD_TYPES[length].length - 1] = type;
+            }
+        }
+    }
 
     private final CompilationContext context;
-    private final String sourceCode;
+    private final SourceText sourceCode;
+    private final SymbolTable symbolTable;
+    // scanning stops here, as if the source ended at this offset
+    private final int limit;
+    // magnitude of the last scanned int literal
+    private long intLiteralMagnitude;
     private int column;
     private int line;
     private int stringIndex;
-    private Token prevToken = null;
+    // start of the token being scanned
+    private int tokenOffset;
+    private int tokenLine;
+    private int tokenColumn;
+    // start of the last token which was not skipped; the EOF token is reported there
+    private int prevTokenOffset = -1;
+    private int prevTokenLine;
+    private int prevTokenColumn;
 
     public Scanner(CompilationContext context) {
-        sourceCode = maybeAppendNewLineCharacter(context.getSourceCode());
-        stringIndex = 0;
+        this(context, new TokenPosition(0, 0, 0), SourceText.of(context.getSourceCode()).length());
+    }
+
+    /**
+     * Scans only the source in {@code [start.offset(), limit)}, as if it ended at {@code limit}, numbering lines and
+     * columns on from {@code start}.
+     */
+    public Scanner(CompilationContext context, @NotNull TokenPosition start, int limit) {
+        sourceCode = SourceText.of(context.getSourceCode());
+        if (start.offset() < 0 || start.offset() > limit || limit > sourceCode.length()) {
+            throw new IllegalArgumentException("cannot scan [" + start.offset() + ", " + limit + ") of a source of length " +
+                                               sourceCode.length());
+        }
+        stringIndex = start.offset();
+        line = start.line();
+        column = start.column();
+        this.limit = limit;
         this.context = context;
+        this.symbolTable = context.getSymbolTable();
+    }
+
+    private static int characterClassOf(char c) {
+        if (c < ASCII_SIZE) {
+            return CHARACTER_CLASSES[c];
+        }
+        return isValidIdFirstCodePoint(c) ? ID_START_CLASS : INVALID_CLASS;
+    }
+
+    private static boolean isIdPart(char c) {
+        if (c < ASCII_SIZE) {
+            return ID_PARTS[c];
+        }
+        return Character.isLetterOrDigit(c);
+    }
+
+    private static Token.Type compoundOperatorTypeOf(char first, char second) {
+        final Token.Type[] row = COMPOUND_OPERATOR_TYPES[first];
+        return (row == null || second >= ASCII_SIZE) ? null : row[second];
     }
 
     private static boolean isValidIdFirstCodePoint(char c) {
         return Character.isLetter(c) || c == '_';
     }
 
-    private String maybeAppendNewLineCharacter(String string) {
-        if (string.charAt(string.length() - 1) != NEW_LINE.charAt(0)) {
-            return string + NEW_LINE;
-        }
-        return string;
+    private static boolean isSkipAble(Token.Type type) {
+        return type == Token.Type.WHITESPACE ||
+               type == Token.Type.LINE_COMMENT ||
+               type == Token.Type.BLOCK_COMMENT ||
+               type == Token.Type.ERROR;
+    }
+
+    public SourceText getSourceCode() {
+        return sourceCode;
+    }
+
+    public @NotNull SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * @return the position of the next character to be scanned; once the scanner has returned
+     * {@link Token.Type#EOF}, this is exactly the limit unless the last token ran past it
+     */
+    public @NotNull TokenPosition getPosition() {
+        return new TokenPosition(line, column, stringIndex);
     }
 
     private void consumeCharacterNoCheck() {
@@ -117,6 +242,10 @@ public class Scanner implements Iterable<Token> {
         return sourceCode.charAt(stringIndex);
     }
 
+    private TokenPosition tokenStartPosition() {
+        return new TokenPosition(tokenLine, tokenColumn, tokenOffset);
+    }
+
     private void consumeNewlineCharacter(String sc) {
         final char c = sc.charAt(0);
         if (c != '\r' && c != '\n') {
@@ -135,16 +264,12 @@ public class Scanner implements Iterable<Token> {
         }
     }
 
-    private void consumeCharacter(TokenPosition tokenPosition, String c, String errorMessage) {
-        if (sourceCode.charAt(stringIndex) != c.charAt(0)) {
-            logScanningError(ScannerError.ErrorType.INVALID_CHAR, errorMessage, tokenPosition);
-        } else {
-            consumeCharacterNoCheck();
+    private boolean consumeCharacter(char c) {
+        if (sourceCode.charAt(stringIndex) != c) {
+            return false;
         }
-    }
-
-    private void consumeCharacterSpecificDoubleQuotesError(TokenPosition tokenPosition, String errorMessage) {
-        consumeCharacter(tokenPosition, Scanner.DOUBLE_QUOTES, errorMessage);
+        consumeCharacterNoCheck();
+        return true;
     }
 
     private void consumeCompoundCharacter(String compoundOp) {
@@ -152,159 +277,192 @@ public class Scanner implements Iterable<Token> {
             throw new IllegalArgumentException("expected `" +
                                                compoundOp +
                                                "`received " +
-                                               sourceCode.substring(stringIndex, stringIndex + 2));
+                                               sourceCode.subSequence(stringIndex, stringIndex + 2));
         }
         column += 2;
         stringIndex += 2;
     }
 
-    private void consumeCharacter(char c, Function<Character, Boolean> validator) {
-      if (!validator.apply(sourceCode.charAt(stringIndex))) {
-        throw new IllegalArgumentException("expected " + c + " to be accepted by validator" + validator);
-      }
-        consumeCharacterNoCheck();
-    }
-
-    private boolean isSkipAble(Token token) {
-        return token.type == Token.Type.WHITESPACE ||
-               token.type == Token.Type.LINE_COMMENT ||
-               token.type == Token.Type.BLOCK_COMMENT ||
-               token.type == Token.Type.ERROR;
-    }
-
-    private boolean currentSubstringMatches(String s) {
-        return sourceCode.startsWith(s, stringIndex);
-    }
-
-    private Token nextTokenHelper() {
-        if (stringIndex >= sourceCode.length()) {
-          if (prevToken != null) {
-            return makeToken(prevToken.getTokenPosition(), Token.Type.EOF, EOF);
-          } else {
-            return makeToken(new TokenPosition(line, column, stringIndex), Token.Type.EOF, EOF);
-          }
+    /**
+     * Scans the next token, skipped or not, leaving its start in {@code tokenOffset}, {@code tokenLine} and
+     * {@code tokenColumn} and its end at {@code stringIndex}.
+     */
+    private Token.Type nextTokenHelper() {
+        if (stringIndex >= limit) {
+            if (prevTokenOffset >= 0) {
+                tokenOffset = prevTokenOffset;
+                tokenLine = prevTokenLine;
+                tokenColumn = prevTokenColumn;
+            } else {
+                tokenOffset = stringIndex;
+                tokenLine = line;
+                tokenColumn = column;
+            }
+            return Token.Type.EOF;
         }
         final char c = sourceCode.charAt(stringIndex);
-        final TokenPosition tokenPosition = new TokenPosition(line, column, stringIndex);
-        switch (String.valueOf(c)) {
-            case LEFT_CURLY -> {
-                return handleSingleOperator(tokenPosition, Token.Type.LEFT_CURLY, LEFT_CURLY);
+        tokenOffset = stringIndex;
+        tokenLine = line;
+        tokenColumn = column;
+        switch (characterClassOf(c)) {
+            case WHITESPACE_CLASS -> {
+                return handleWhiteSpace();
             }
-            case RIGHT_CURLY -> {
-                return handleSingleOperator(tokenPosition, Token.Type.RIGHT_CURLY, RIGHT_CURLY);
+            case ID_START_CLASS -> {
+                return handleId();
             }
-            case LEFT_PARENTHESIS -> {
-                return handleSingleOperator(tokenPosition, Token.Type.LEFT_PARENTHESIS, LEFT_PARENTHESIS);
+            case DIGIT_CLASS -> {
+                return handleIntLiteral();
             }
-            case RIGHT_PARENTHESIS -> {
-                return handleSingleOperator(tokenPosition, Token.Type.RIGHT_PARENTHESIS, RIGHT_PARENTHESIS);
+            case DOUBLE_QUOTES_CLASS -> {
+                return handleStringLiteral();
             }
-            case LEFT_SQUARE_BRACKET -> {
-                return handleSingleOperator(tokenPosition, Token.Type.LEFT_SQUARE_BRACKET, LEFT_SQUARE_BRACKET);
+            case SINGLE_QUOTES_CLASS -> {
+                return handleCharLiteral();
             }
-            case RIGHT_SQUARE_BRACKET -> {
-                return handleSingleOperator(tokenPosition, Token.Type.RIGHT_SQUARE_BRACKET, RIGHT_SQUARE_BRACKET);
-            }
-            case SEMICOLON -> {
-                return handleSingleOperator(tokenPosition, Token.Type.SEMICOLON, SEMICOLON);
-            }
-            case COMMA -> {
-                return handleSingleOperator(tokenPosition, Token.Type.COMMA, COMMA);
-            }
-            case MOD -> {
-                return handleSingleOperator(tokenPosition, Token.Type.MOD, MOD);
-            }
-            case DOUBLE_QUOTES -> {
-                return handleStringLiteral(tokenPosition);
-            }
-            case SINGLE_QUOTES -> {
-                return handleCharLiteral(tokenPosition);
-            }
-            case " ", "\t", "\n", "\r" -> {
-                return handleWhiteSpace(tokenPosition);
+            case OPERATOR_CLASS -> {
+                final char next = (stringIndex + 1 < sourceCode.length()) ? sourceCode.charAt(stringIndex + 1) : 0;
+                if (c == '/' && next == '/') {
+                    return handleSingleLineComment();
+                } else if (c == '/' && next == '*') {
+                    return handleBlockComment();
+                }
+                final Token.Type compoundType = compoundOperatorTypeOf(c, next);
+                if (compoundType != null) {
+                    consumeMultipleCharactersNoCheck(2);
+                    return compoundType;
+                }
+                final Token.Type singleType = SINGLE_OPERATOR_TYPES[c];
+                if (singleType != null) {
+                    consumeCharacterNoCheck();
+                    return singleType;
+                }
             }
-            default -> {
-              if (currentSubstringMatches(LINE_COMMENT_START)) {
-                return handleSingleLineComment(tokenPosition);
-              } else if (currentSubstringMatches(BLOCK_COMMENT_START)) {
-                return handleBlockComment(tokenPosition);
-              } else if (isValidIdFirstCodePoint(c)) {
-                return handleId(tokenPosition);
-              } else if (INT_LITERAL_REGEX.matcher(sourceCode.substring(stringIndex)).lookingAt()) {
-                return INT_LITERAL_REGEX.matcher(sourceCode.substring(stringIndex))
-                                        .results()
-                                        .findFirst()
-                                        .map(matchResult -> {
-                                          consumeMultipleCharactersNoCheck(matchResult.group().length());
-                                          return makeToken(tokenPosition, Token.Type.INT_LITERAL, matchResult.group());
-                                        })
-                                        .orElseThrow();
-              } else if (currentSubstringMatches(ADD_ASSIGN)) {
-                return handleCompoundOperator(tokenPosition, Token.Type.ADD_ASSIGN, ADD_ASSIGN);
-              } else if (currentSubstringMatches(MINUS_ASSIGN)) {
-                return handleCompoundOperator(tokenPosition, Token.Type.MINUS_ASSIGN, MINUS_ASSIGN);
-              } else if (currentSubstringMatches(MULTIPLY_ASSIGN)) {
-                return handleCompoundOperator(tokenPosition, Token.Type.MULTIPLY_ASSIGN, MULTIPLY_ASSIGN);
-              } else if (currentSubstringMatches(NEQ)) {
-                return handleCompoundOperator(tokenPosition, Token.Type.NEQ, NEQ);
-              } else if (currentSubstringMatches(GEQ)) {
-                return handleCompoundOperator(tokenPosition, Token.Type.GEQ, GEQ);
-              } else if (currentSubstringMatches(LEQ)) {
-                return handleCompoundOperator(tokenPosition, Token.Type.LEQ, LEQ);
-              } else if (currentSubstringMatches(EQ)) {
-                return handleCompoundOperator(tokenPosition, Token.Type.EQ, EQ);
-              } else if (currentSubstringMatches(INCREMENT)) {
-                return handleCompoundOperator(tokenPosition, Token.Type.INCREMENT, INCREMENT);
-              } else if (currentSubstringMatches(DECREMENT)) {
-                return handleCompoundOperator(tokenPosition, Token.Type.DECREMENT, DECREMENT);
-              } else if (currentSubstringMatches(CONDITIONAL_OR)) {
-                return handleCompoundOperator(tokenPosition, Token.Type.CONDITIONAL_OR, CONDITIONAL_OR);
-              } else if (currentSubstringMatches(CONDITIONAL_AND)) {
-                return handleCompoundOperator(tokenPosition, Token.Type.CONDITIONAL_AND, CONDITIONAL_AND);
-              } else {
-                return switch (String.valueOf(c)) {
-                  case NOT -> handleSingleOperator(tokenPosition, Token.Type.NOT, NOT);
-                  case PLUS -> handleSingleOperator(tokenPosition, Token.Type.PLUS, PLUS);
-                  case MINUS -> handleSingleOperator(tokenPosition, Token.Type.MINUS, MINUS);
-                  case MULTIPLY -> handleSingleOperator(tokenPosition, Token.Type.MULTIPLY, MULTIPLY);
-                  case DIVIDE -> handleSingleOperator(tokenPosition, Token.Type.DIVIDE, DIVIDE);
-                  case ASSIGN -> handleSingleOperator(tokenPosition, Token.Type.ASSIGN, ASSIGN);
-                  case LT -> handleSingleOperator(tokenPosition, Token.Type.LT, LT);
-                  case GT -> handleSingleOperator(tokenPosition, Token.Type.GT, GT);
-                  case TERNARY_QUESTION_MARK ->
-                          handleSingleOperator(tokenPosition, Token.Type.TERNARY_QUESTION_MARK, TERNARY_QUESTION_MARK);
-                  case TERNARY_COLON -> handleSingleOperator(tokenPosition, Token.Type.TERNARY_COLON, TERNARY_COLON);
-                  default -> {
-                    logScanningError(ScannerError.ErrorType.INVALID_CHAR,
-                                     String.format("expected a valid character but received `%s`",
-                                                   escapeMetaCharacters(String.valueOf(c))
-                                                  ),
-                                     tokenPosition
-                                    );
-                    yield nextTokenHelper();
-                  }
-                };
-              }
+        }
+        logScanningError(ScannerError.ErrorType.INVALID_CHAR,
+                         String.format("expected a valid character but received `%s`",
+                                       escapeMetaCharacters(String.valueOf(c))
+                                      ),
+                         tokenStartPosition()
+                        );
+        return nextTokenHelper();
+    }
+
+    /**
+     * Scans up to and including the next token which is not whitespace, a comment or an error.
+     */
+    private Token.Type nextSignificantToken() {
+        Token.Type type;
+        do {
+            type = nextTokenHelper();
+        } while (isSkipAble(type));
+        prevTokenOffset = tokenOffset;
+        prevTokenLine = tokenLine;
+        prevTokenColumn = tokenColumn;
+        return type;
+    }
+
+    /**
+     * Scans the next significant token into {@code buffer} at {@code index}, without allocating any objects.
+     *
+     * @return the type of the scanned token, {@link Token.Type#EOF} once the source is exhausted
+     */
+    public Token.Type scanInto(@NotNull TokenBuffer buffer, int index) {
+        final Token.Type type = nextSignificantToken();
+        final int length = (type == Token.Type.EOF) ? 0 : stringIndex - tokenOffset;
+        final long payload = switch (type) {
+            case ID -> symbolTable.intern(sourceCode, tokenOffset, length);
+            case INT_LITERAL -> intLiteralMagnitude;
+            default -> 0L;
+        };
+        buffer.set(index, type, tokenOffset, length, tokenLine, tokenColumn, payload);
+        return type;
+    }
+
+    /**
+     * Scans the whole source into a compact {@link TokenBuffer}, ending with an {@link Token.Type#EOF} token.
+     */
+    public @NotNull TokenBuffer tokenize() {
+        final var buffer = new TokenBuffer(sourceCode, symbolTable);
+        while (scanInto(buffer, buffer.size()) != Token.Type.EOF) {
+        }
+        return buffer;
+    }
+
+    private static int digitValue(char c, int radix) {
+        final int value;
+        if (c >= '0' && c <= '9') {
+            value = c - '0';
+        } else if ((c | 0x20) >= 'a' && (c | 0x20) <= 'f') {
+            value = (c | 0x20) - 'a' + 10;
+        } else {
+            return -1;
+        }
+        return (value < radix) ? value : -1;
+    }
+
+    /**
+     * @return {@code magnitude * radix + digit}, or -1 (all ones, above {@code 2^63}) once the literal can no longer
+     * fit in a long even when negated
+     */
+    private static long accumulateDigit(long magnitude, int radix, int digit) {
+        if (magnitude >>> 58 == 0) {
+            return magnitude * radix + digit;
+        }
+        if (Long.compareUnsigned(magnitude, Long.divideUnsigned(Long.MIN_VALUE - digit, radix)) > 0) {
+            return -1L;
+        }
+        return magnitude * radix + digit;
+    }
+
+    /**
+     * Scans one of {@code 0[xX](_?[0-9a-fA-F])+}, {@code 0(_?0)*} or {@code [1-9](_?[0-9])*}, tried in that order,
+     * and computes the magnitude of the literal on the way into {@link #intLiteralMagnitude}. Underscores only
+     * separate digits.
+     */
+    private Token.Type handleIntLiteral() {
+        int i = stringIndex;
+        final char first = sourceCode.charAt(i);
+        final int radix;
+        final int maxDigit;
+        long magnitude = 0;
+        if (first == '0' && (sourceCode.charAt(i + 1) | 0x20) == 'x' &&
+            digitValue(sourceCode.charAt((sourceCode.charAt(i + 2) == '_') ? i + 3 : i + 2), 16) >= 0) {
+            radix = 16;
+            maxDigit = 15;
+            i += 2;
+        } else {
+            radix = 10;
+            maxDigit = (first == '0') ? 0 : 9;
+            magnitude = first - '0';
+            ++i;
+        }
+        while (true) {
+            final int j = (sourceCode.charAt(i) == '_') ? i + 1 : i;
+            final int digit = digitValue(sourceCode.charAt(j), radix);
+            if (digit < 0 || digit > maxDigit) {
+                break;
             }
+            magnitude = accumulateDigit(magnitude, radix, digit);
+            i = j + 1;
         }
+        intLiteralMagnitude = magnitude;
+        consumeMultipleCharactersNoCheck(i - stringIndex);
+        return Token.Type.INT_LITERAL;
     }
 
-    private Token handleSingleLineComment(TokenPosition tokenPosition) {
+    private Token.Type handleSingleLineComment() {
         consumeCompoundCharacter(LINE_COMMENT_START);
 
-        final int posEndComment = sourceCode.indexOf(NEW_LINE, stringIndex);
+        final int posEndComment = sourceCode.indexOf(NEW_LINE.charAt(0), stringIndex);
         assert posEndComment != -1;
 
-        consumeMultipleCharactersNoCheck(posEndComment - tokenPosition.offset() - 2);
+        consumeMultipleCharactersNoCheck(posEndComment - tokenOffset - 2);
         consumeNewlineCharacter(NEW_LINE);
-
-        return makeToken(tokenPosition,
-                         Token.Type.LINE_COMMENT,
-                         sourceCode.substring(tokenPosition.offset(), stringIndex - 1)
-                        );
+        return Token.Type.LINE_COMMENT;
     }
 
-    private Token handleBlockComment(TokenPosition tokenPosition) {
+    private Token.Type handleBlockComment() {
         consumeCompoundCharacter(BLOCK_COMMENT_START);
 
         int i = stringIndex;
@@ -337,17 +495,15 @@ public class Scanner implements Iterable<Token> {
         if (state != completed) {
             logScanningError(ScannerError.ErrorType.INVALID_COMMENT,
                              "could not finish parsing the comment" +
-                             sourceCode.substring(tokenPosition.offset(),
-                                                  Math.min(sourceCode.length(), tokenPosition.offset() + 10)
-                                                 ) +
+                             sourceCode.subSequence(tokenOffset, Math.min(sourceCode.length(), tokenOffset + 10)) +
                              "...",
-                             tokenPosition
+                             tokenStartPosition()
                             );
         }
-        return makeToken(tokenPosition, Token.Type.BLOCK_COMMENT, sourceCode.substring(tokenPosition.offset(), i));
+        return Token.Type.BLOCK_COMMENT;
     }
 
-    private boolean handleEscape(TokenPosition tokenPosition) {
+    private boolean handleEscape() {
         consumeCharacterNoCheck();
         char c = sourceCode.charAt(stringIndex);
         switch (c) {
@@ -357,7 +513,7 @@ public class Scanner implements Iterable<Token> {
             }
             default -> logScanningError(ScannerError.ErrorType.INVALID_ESCAPE_SEQUENCE,
                                         String.format("found invalid escape sequence `\\%s`", c),
-                                        tokenPosition
+                                        tokenStartPosition()
                                        );
         }
         return true;
@@ -376,110 +532,103 @@ public class Scanner implements Iterable<Token> {
         return c >= ']' && c <= '~';
     }
 
-    private Token handleCharLiteral(TokenPosition tokenPosition) {
+    private Token.Type handleCharLiteral() {
         consumeCharacterNoCheck();
 
         final char c = sourceCode.charAt(stringIndex);
         if (c == '\\' || isValidChar(c)) {
             if (c == '\\') {
-                if (handleEscape(tokenPosition)) {
-                    return logScanningError(ScannerError.ErrorType.INVALID_ESCAPE_SEQUENCE,
-                                            String.format("found invalid char literal `%s`",
-                                                          escapeMetaCharacters(String.valueOf(sourceCode.charAt(
-                                                                  stringIndex)))
-                                                         ),
-                                            tokenPosition
-                                           );
+                if (handleEscape()) {
+                    logScanningError(ScannerError.ErrorType.INVALID_ESCAPE_SEQUENCE,
+                                     String.format("found invalid char literal `%s`",
+                                                   escapeMetaCharacters(String.valueOf(sourceCode.charAt(
+                                                           stringIndex)))
+                                                  ),
+                                     tokenStartPosition()
+                                    );
+                    return Token.Type.ERROR;
                 }
-            } else if (isValidChar(c)) {
-                consumeCharacter(c, this::isValidChar);
+            } else {
+                consumeCharacterNoCheck();
             }
-            consumeCharacter(tokenPosition,
-                             SINGLE_QUOTES,
-                             String.format("missing closing single quotes on `%s`",
-                                           escapeMetaCharacters(sourceCode.substring(tokenPosition.offset(),
-                                                                                     stringIndex + 1
-                                                                                    ))
-                                          )
-                            );
-            return makeToken(tokenPosition,
-                             Token.Type.CHAR_LITERAL,
-                             sourceCode.substring(tokenPosition.offset(), stringIndex)
-                            );
+            if (!consumeCharacter(SINGLE_QUOTES.charAt(0))) {
+                logScanningError(ScannerError.ErrorType.INVALID_CHAR,
+                                 String.format("missing closing single quotes on `%s`",
+                                               escapeMetaCharacters(sourceCode.subSequence(tokenOffset,
+                                                                                         stringIndex + 1
+                                                                                        ))
+                                              ),
+                                 tokenStartPosition()
+                                );
+            }
+            return Token.Type.CHAR_LITERAL;
         } else {
-            return logScanningError(ScannerError.ErrorType.INVALID_CHAR_LITERAL,
-                                    String.format("found invalid char literal `%s`",
-                                                  escapeMetaCharacters(String.valueOf(c))
-                                                 ),
-                                    tokenPosition
-                                   );
+            logScanningError(ScannerError.ErrorType.INVALID_CHAR_LITERAL,
+                             String.format("found invalid char literal `%s`",
+                                           escapeMetaCharacters(String.valueOf(c))
+                                          ),
+                             tokenStartPosition()
+                            );
+            return Token.Type.ERROR;
         }
     }
 
-    private Token handleStringLiteral(TokenPosition tokenPosition) {
+    private Token.Type handleStringLiteral() {
         consumeCharacterNoCheck();
 
         char c;
         while (true) {
             c = sourceCode.charAt(stringIndex);
             if (c == '\\') {
-                if (handleEscape(tokenPosition)) {
-                    return logScanningError(ScannerError.ErrorType.INVALID_ESCAPE_SEQUENCE,
-                                            String.format("found invalid string literal \\%s",
-                                                          sourceCode.charAt(stringIndex)
-                                                         ),
-                                            tokenPosition
-                                           );
+                if (handleEscape()) {
+                    logScanningError(ScannerError.ErrorType.INVALID_ESCAPE_SEQUENCE,
+                                     String.format("found invalid string literal \\%s", sourceCode.charAt(stringIndex)),
+                                     tokenStartPosition()
+                                    );
+                    return Token.Type.ERROR;
                 }
             } else if (isValidChar(c)) {
-              consumeCharacter(c, this::isValidChar);
+                consumeCharacterNoCheck();
             } else {
-              break;
+                break;
             }
         }
-        consumeCharacterSpecificDoubleQuotesError(tokenPosition,
-                                                  String.format("expected %s to close string literal, not `%s`",
-                                                                DOUBLE_QUOTES,
-                                                                escapeMetaCharacters(String.valueOf(c))
-                                                               )
-                                                 );
-        return makeToken(tokenPosition,
-                         Token.Type.STRING_LITERAL,
-                         sourceCode.substring(tokenPosition.offset(), stringIndex)
-                        );
+        if (!consumeCharacter(DOUBLE_QUOTES.charAt(0))) {
+            logScanningError(ScannerError.ErrorType.INVALID_CHAR,
+                             String.format("expected %s to close string literal, not `%s`",
+                                           DOUBLE_QUOTES,
+                                           escapeMetaCharacters(String.valueOf(c))
+                                          ),
+                             tokenStartPosition()
+                            );
+        }
+        return Token.Type.STRING_LITERAL;
     }
 
-    private Token handleId(TokenPosition tokenPosition) {
+    private Token.Type handleId() {
         int i = stringIndex;
         while (i < sourceCode.length()) {
             final char alphaNum = sourceCode.charAt(i);
-          if (!(Character.isLetterOrDigit(alphaNum) || alphaNum == '_')) {
+          if (!isIdPart(alphaNum)) {
             break;
           }
             ++i;
         }
-        String idLexeme = sourceCode.substring(stringIndex, i);
-        Token.Type type;
-        switch (idLexeme) {
-            case RESERVED_FOR -> type = Token.Type.RESERVED_FOR;
-            case RESERVED_IF -> type = Token.Type.RESERVED_IF;
-            case RESERVED_IMPORT -> type = Token.Type.RESERVED_IMPORT;
-            case RESERVED_INT -> type = Token.Type.RESERVED_INT;
-            case RESERVED_LEN -> type = Token.Type.RESERVED_LEN;
-            case RESERVED_RETURN -> type = Token.Type.RESERVED_RETURN;
-            case RESERVED_ELSE -> type = Token.Type.RESERVED_ELSE;
-            case RESERVED_CONTINUE -> type = Token.Type.RESERVED_CONTINUE;
-            case RESERVED_BREAK -> type = Token.Type.RESERVED_BREAK;
-            case RESERVED_WHILE -> type = Token.Type.RESERVED_WHILE;
-            case RESERVED_VOID -> type = Token.Type.RESERVED_VOID;
-            case RESERVED_BOOL -> type = Token.Type.RESERVED_BOOL;
-            case RESERVED_TRUE -> type = Token.Type.RESERVED_TRUE;
-            case RESERVED_FALSE -> type = Token.Type.RESERVED_FALSE;
-            default -> type = Token.Type.ID;
-        }
-
+        final Token.Type type = reservedWordTypeOf(stringIndex, i - stringIndex);
         consumeMultipleCharactersNoCheck(i - stringIndex);
-        return makeToken(tokenPosition, type, idLexeme);
+        return type;
+    }
+
+    private Token.Type reservedWordTypeOf(int offset, int length) {
+        if (length < 2 || length > MAX_RESERVED_WORD_LENGTH) {
+            return Token.Type.ID;
+        }
+        for (Token.Type reservedWordType : RESERVED_WORD_TYPES[length]) {
+            if (sourceCode.startsWith(Token.getScannerSourceCode(reservedWordType), offset)) {
+                return reservedWordType;
+            }
+        }
+        return Token.Type.ID;
     }
 
     private void consumeMultipleCharactersNoCheck(int nChars) {
@@ -487,20 +636,6 @@ public class Scanner implements Iterable<Token> {
         column += nChars;
     }
 
-    private Token handleSingleOperator(TokenPosition tokenPosition, Token.Type type, String lexeme) {
-        consumeCharacterNoCheck();
-        return makeToken(tokenPosition, type, lexeme);
-    }
-
-    private Token handleCompoundOperator(TokenPosition tokenPosition, Token.Type type, String lexeme) {
-        consumeMultipleCharactersNoCheck(lexeme.length());
-        return makeToken(tokenPosition, type, lexeme);
-    }
-
-    private Token makeToken(TokenPosition tokenPosition, Token.Type type, String lexeme) {
-        return new Token(tokenPosition, type, lexeme);
-    }
-
     private ScannerError logScanningError(ScannerError.ErrorType errorType,
                                           String detail,
                                           TokenPosition tokenPosition) {
@@ -513,18 +648,33 @@ public class Scanner implements Iterable<Token> {
         return error;
     }
 
-    private Token handleWhiteSpace(TokenPosition tokenPosition) {
+    private Token.Type handleWhiteSpace() {
         final char c = sourceCode.charAt(stringIndex);
-
         switch (c) {
-            case '\r', '\n' -> consumeNewlineCharacter(String.valueOf(c));
+            case '\r' -> consumeNewlineCharacter("\r");
+            case '\n' -> consumeNewlineCharacter(NEW_LINE);
             case ' ', '\t' -> consumeCharacterNoCheck();
             default -> logScanningError(ScannerError.ErrorType.INVALID_WHITESPACE,
                                         String.format("found invalid whitespace %s", c),
-                                        tokenPosition
+                                        tokenStartPosition()
                                        );
         }
-        return makeToken(tokenPosition, Token.Type.WHITESPACE, String.valueOf(c));
+        return Token.Type.WHITESPACE;
+    }
+
+    private Token makeToken(Token.Type type) {
+        if (type == Token.Type.ID) {
+            final int symbol = symbolTable.intern(sourceCode, tokenOffset, stringIndex - tokenOffset);
+            return new Token(tokenStartPosition(), type, symbolTable.nameOf(symbol), symbol);
+        }
+        return new Token(tokenStartPosition(),
+                         type,
+                         (type == Token.Type.EOF) ? EOF : TokenBuffer.lexemeOf(sourceCode,
+                                                                                type,
+                                                                                tokenOffset,
+                                                                                stringIndex - tokenOffset
+                                                                               )
+        );
     }
 
     @NotNull
@@ -534,18 +684,7 @@ public class Scanner implements Iterable<Token> {
     }
 
     class TokensIterator implements Iterator<Token> {
-        private @Nullable Token token = nextHelper();
-
-        private Token nextHelper() {
-            Token token;
-            do {
-                token = nextTokenHelper();
-              if (!isSkipAble(token)) {
-                prevToken = token;
-              }
-            } while (isSkipAble(token));
-            return token;
-        }
+        private @Nullable Token token = makeToken(nextSignificantToken());
 
         public Token next() {
             final Token token = this.token;
@@ -554,7 +693,7 @@ public class Scanner implements Iterable<Token> {
           } else if (token.type == Token.Type.EOF) {
             this.token = null;
           } else {
-            this.token = nextHelper();
+            this.token = makeToken(nextSignificantToken());
           }
             return token;
         }
@@ -564,4 +703,4 @@ public class Scanner implements Iterable<Token> {
             return token != null;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package decaf.analysis.lexical;
+
+import decaf.analysis.Token;
+import decaf.analysis.TokenBuffer;
+import decaf.analysis.TokenPosition;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Gives the parser a cursor over tokens with a fixed window around the current token.
+ * <p>
+ * When built from a {@link Scanner}, tokens are scanned on demand into a ring {@link TokenBuffer} holding
+ * {@link #LOOK_BEHIND} consumed tokens and {@link #LOOKAHEAD} upcoming ones, which is all the Decaf grammar ever
+ * inspects, so memory does not grow with the size of the source. When built from an already filled
+ * {@link TokenBuffer}, the cursor reads it in place.
+ */
+public class TokenStream {
+    public static final int LOOKAHEAD = 3;
+    public static final int LOOK_BEHIND = 1;
+    private static final int CAPACITY = Integer.highestOneBit(LOOKAHEAD + LOOK_BEHIND - 1) << 1;
+    private static final int MASK = CAPACITY - 1;
+
+    @Nullable
+    private final Scanner scanner;
+    @NotNull
+    private final TokenBuffer window;
+    // absolute index of the current token
+    private int position;
+    // absolute number of tokens scanned so far
+    private int filled;
+    private boolean exhausted;
+
+    public TokenStream(@NotNull Scanner scanner) {
+        this.scanner = scanner;
+        this.window = new TokenBuffer(scanner.getSourceCode(), scanner.getSymbolTable(), CAPACITY);
+        this.position = 0;
+        this.filled = 0;
+        this.exhausted = false;
+    }
+
+    public TokenStream(@NotNull TokenBuffer tokens) {
+        if (tokens.size() == 0 || tokens.type(tokens.size() - 1) != Token.Type.EOF) {
+            throw new IllegalArgumentException("a token buffer must end with an EOF token");
+        }
+        this.scanner = null;
+        this.window = tokens;
+        this.position = 0;
+        this.filled = tokens.size();
+        this.exhausted = true;
+    }
+
+    /**
+     * @param offset distance from the current token; negative offsets look at consumed tokens
+     * @return the index in {@link #getWindow()} of the token at {@code offset}; past the end of the source this is the
+     * EOF token
+     */
+    public int slotOf(int offset) {
+        if (offset < -LOOK_BEHIND || offset >= LOOKAHEAD) {
+            throw new IllegalArgumentException("offset " + offset + " outside of window [-" + LOOK_BEHIND + ", " +
+                                               LOOKAHEAD + ")");
+        }
+        final int target = position + offset;
+        if (target < 0) {
+            throw new IllegalStateException("no token has been consumed yet");
+        }
+        if (scanner == null) {
+            return Math.min(target, filled - 1);
+        }
+        while (filled <= target) {
+            exhausted = scanner.scanInto(window, filled & MASK) == Token.Type.EOF;
+            ++filled;
+        }
+        return target & MASK;
+    }
+
+    public @NotNull TokenBuffer getWindow() {
+        return window;
+    }
+
+    public @NotNull Token.Type type(int offset) {
+        return window.type(slotOf(offset));
+    }
+
+    /**
+     * @return the offset in the source of the first character of the token at {@code offset}
+     */
+    public int offset(int offset) {
+        return window.offset(slotOf(offset));
+    }
+
+    public int length(int offset) {
+        return window.length(slotOf(offset));
+    }
+
+    public @NotNull String lexeme(int offset) {
+        return window.lexeme(slotOf(offset));
+    }
+
+    public int symbol(int offset) {
+        return window.symbol(slotOf(offset));
+    }
+
+    public long literalMagnitude(int offset) {
+        return window.literalMagnitude(slotOf(offset));
+    }
+
+    public @NotNull TokenPosition tokenPosition(int offset) {
+        return window.tokenPosition(slotOf(offset));
+    }
+
+    /**
+     * Moves past the current token, which stays readable at offset -1 until the next call.
+     */
+    public void advance() {
+        slotOf(0);
+        ++position;
+    }
+
+    /**
+     * Runs the scanner to the end of the source, discarding tokens, so that every scanning error gets logged
+     * even when parsing stops early.
+     */
+    public void drain() {
+        if (scanner == null) {
+            return;
+        }
+        while (!exhausted) {
+            exhausted = scanner.scanInto(window, filled & MASK) == Token.Type.EOF;
+            ++filled;
+        }
+    }
+}
@@ -7,22 +7,32 @@ import decaf.analysis.syntax.ast.types.ArrayType;
 import decaf.analysis.syntax.ast.types.Type;
 import decaf.shared.AstVisitor;
 import decaf.shared.CompilationContext;
+import decaf.shared.MethodWorkers;
 import decaf.shared.Utils;
 import decaf.shared.descriptors.Descriptor;
 import decaf.shared.descriptors.MethodDescriptor;
 import decaf.shared.env.Scope;
+import decaf.shared.env.ScopeStack;
+import decaf.shared.errors.SemanticError;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static decaf.shared.errors.SemanticError.ErrorType;
 
 public class SemanticChecker implements AstVisitor<Type, Scope> {
     @NotNull
-    private final Scope globalScope = Scope.forGlobals();
+    private final Scope globalScope;
     @NotNull
     private final CompilationContext context;
+    // the scopes enclosing the node we are currently visiting, for resolving names
+    @NotNull
+    private final ScopeStack scopeStack;
+    // the errors of the method body being checked, or null when logging straight to the context
+    @Nullable
+    private final List<SemanticError> bufferedErrors;
 
     // BEGIN: state variables
 
@@ -35,6 +45,9 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
 
     public SemanticChecker(@NotNull Program root, @NotNull CompilationContext context) {
         this.context = context;
+        this.globalScope = Scope.forGlobals(context.getSymbolTable());
+        this.scopeStack = new ScopeStack(globalScope);
+        this.bufferedErrors = null;
         visit(root, getGlobalScope());
         if (context.debugModeOn()) {
             context.printSemanticErrors();
@@ -42,8 +55,22 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
         context.setGlobalScope(getGlobalScope());
     }
 
+    private SemanticChecker(@NotNull CompilationContext context,
+                            @NotNull Scope globalScope,
+                            @NotNull ScopeStack scopeStack,
+                            @NotNull List<SemanticError> bufferedErrors) {
+        this.context = context;
+        this.globalScope = globalScope;
+        this.scopeStack = scopeStack;
+        this.bufferedErrors = bufferedErrors;
+    }
+
     private void logSemanticError(TokenPosition tokenPosition, ErrorType errorType, String message) {
-        context.logSemanticError(tokenPosition, errorType, message);
+        if (bufferedErrors == null) {
+            context.logSemanticError(tokenPosition, errorType, message);
+        } else {
+            bufferedErrors.add(new SemanticError(tokenPosition, errorType, message));
+        }
     }
 
     @Override
@@ -57,53 +84,81 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
         return Type.getBoolType();
     }
 
+    /**
+     * Checks the body of a method, which {@link #checkMethodDefinitions(List)} must already have declared
+     */
     @Override
     public Type visit(@NotNull MethodDefinition methodDefinition, @NotNull Scope scope) {
         final var methodId = methodDefinition.getName();
         final var block = methodDefinition.getBody();
+        final var methodDescriptor = (MethodDescriptor) scopeStack.lookupGlobal(methodDefinition.getSymbol())
+                                                                  .orElseThrow();
+        final var formalArgumentScope = methodDescriptor.scope;
 
-        var formalArgumentScope = Scope.forArguments(getGlobalScope());
-        if (getGlobalScope().containsKey(methodId)) {
-
+        scopeStack.pushArguments(formalArgumentScope);
+        for (var formalArgument : methodDefinition.getFormalArguments()) {
+            formalArgument.accept(this, formalArgumentScope);
+        }
+        setInferredReturnType(Type.getUnsetType());
+        block.accept(this, formalArgumentScope);
+        scopeStack.pop();
+        if (getInferredReturnType() != Type.getUnsetType() &&
+            methodDefinition.getReturnType() != getInferredReturnType()) {
             logSemanticError(methodDefinition.getTokenPosition(),
-                             ErrorType.METHOD_ALREADY_DEFINED,
-                             String.format("method ``%s`` already defined", methodId)
+                             ErrorType.SHOULD_RETURN_VOID,
+                             String.format("method `%s` must not return a value of type `%s` in a void method",
+                                           methodId,
+                                           getInferredReturnType()
+                                          )
                             );
-            return Type.getUnsetType();
-        } else {
-            for (var formalArgument : methodDefinition.getFormalArguments()) {
-                formalArgument.accept(this, formalArgumentScope);
-            }
-            getGlobalScope().addDescriptor(methodId,
-                                           new MethodDescriptor(methodDefinition, formalArgumentScope)
-                                          );
-            setInferredReturnType(Type.getUnsetType());
-            block.accept(this, formalArgumentScope);
-            if (getInferredReturnType() != Type.getUnsetType() &&
-                methodDefinition.getReturnType() != getInferredReturnType()) {
-                logSemanticError(methodDefinition.getTokenPosition(),
-                                 ErrorType.SHOULD_RETURN_VOID,
-                                 String.format("method `%s` must not return a value of type `%s` in a void method",
-                                               methodId,
-                                               getInferredReturnType()
-                                              )
-                                );
+        }
+        setInferredReturnType(Type.getUnsetType());
+        return methodDefinition.getReturnType();
+    }
+
+    /**
+     * Declares the methods one by one, then checks their bodies concurrently on the {@link MethodWorkers}.
+     * <p>
+     * Each body only sees the globals declared up to and including its own method, as in a single pass in source
+     * order, and logs to its own buffer; the buffers are merged in source order, so the diagnostics do not depend on
+     * how the checks were scheduled.
+     */
+    private void checkMethodDefinitions(@NotNull List<MethodDefinition> methodDefinitions) {
+        final var declaredMethods = new ArrayList<DeclaredMethod>(methodDefinitions.size());
+        for (var methodDefinition : methodDefinitions) {
+            final var errors = new ArrayList<SemanticError>();
+            var formalArgumentScope = Scope.forArguments(getGlobalScope());
+            if (getGlobalScope().contains(methodDefinition.getSymbol())) {
+                errors.add(new SemanticError(methodDefinition.getTokenPosition(),
+                                             ErrorType.METHOD_ALREADY_DEFINED,
+                                             String.format("method ``%s`` already defined", methodDefinition.getName())
+                ));
+                declaredMethods.add(new DeclaredMethod(methodDefinition, -1, errors));
+            } else {
+                scopeStack.declare(methodDefinition.getSymbol(),
+                                   new MethodDescriptor(methodDefinition, formalArgumentScope)
+                                  );
+                declaredMethods.add(new DeclaredMethod(methodDefinition, scopeStack.numBindings(), errors));
             }
-            setInferredReturnType(Type.getUnsetType());
-            return methodDefinition.getReturnType();
+        }
+        MethodWorkers.forEachRange(declaredMethods.size(),
+                                   (from, to) -> checkMethodBodies(declaredMethods.subList(from, to))
+                                  );
+        for (var declaredMethod : declaredMethods) {
+            context.logSemanticErrors(declaredMethod.errors());
         }
     }
 
     @Override
     public Type visit(@NotNull ImportDeclaration importDeclaration, @NotNull Scope scope) {
-        if (scope.isShadowingParameter(importDeclaration.importName.getLabel())) {
+        if (scopeStack.isShadowingParameter(importDeclaration.importName.getSymbol())) {
             logSemanticError(importDeclaration.importName.getTokenPosition(),
                              ErrorType.SHADOWING_FORMAL_ARGUMENT,
                              String.format("Import identifier `%s` shadows a parameter",
                                            importDeclaration.importName.getLabel()
                                           )
                             );
-        } else if (getGlobalScope().lookup(importDeclaration.importName.getLabel()).isPresent()) {
+        } else if (getGlobalScope().lookup(importDeclaration.importName.getSymbol()).isPresent()) {
             logSemanticError(new TokenPosition(0, 0, 0),
                              ErrorType.IDENTIFIER_ALREADY_DECLARED,
                              String.format("import identifier `%s` already declared",
@@ -111,13 +166,16 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
                                           )
                             );
         }
-        getGlobalScope().addDescriptor(importDeclaration.importName.getLabel(), Descriptor.forImport());
+        scopeStack.declare(importDeclaration.importName.getSymbol(), Descriptor.forImport());
         return Type.getUnsetType();
     }
 
     @Override
     public Type visit(For forStatement, Scope scope) {
-        return scope.lookup(forStatement.getInitialization().getInitLocation().getLabel()).map(initDescriptor -> {
+        final var initLocation = forStatement.getInitialization().getInitLocation();
+        final var initDescriptorOpt = scopeStack.lookup(initLocation.getSymbol());
+        initLocation.bind(initDescriptorOpt.orElse(null));
+        return initDescriptorOpt.map(initDescriptor -> {
             if (!initDescriptor.typeIs(Type.getIntType())) {
                 logSemanticError(forStatement.getTokenPosition(),
                                  ErrorType.UNSUPPORTED_TYPE,
@@ -147,7 +205,8 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
             forStatement.getBody().accept(this, scope);
             --loopDepth;
             var updateId = forStatement.getUpdate().getLocation().getLabel();
-            var updatingDescriptorOpt = scope.lookupNonMethod(updateId);
+            var updatingDescriptorOpt = scopeStack.lookupNonMethod(forStatement.getUpdate().getLocation().getSymbol());
+            forStatement.getUpdate().getLocation().bind(updatingDescriptorOpt.orElse(null));
             if (updatingDescriptorOpt.isPresent()) {
                 var updatingDescriptor = updatingDescriptorOpt.get();
                 if (!updatingDescriptor.typeIs(Type.getIntType())) {
@@ -250,9 +309,7 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
         for (var fieldDeclaration : program.getFieldDeclarations()) {
             fieldDeclaration.accept(this, scope);
         }
-        for (var methodDefinition : program.getMethodDefinitions()) {
-            methodDefinition.accept(this, scope);
-        }
+        checkMethodDefinitions(program.getMethodDefinitions());
         return Type.getUnsetType();
     }
 
@@ -365,12 +422,14 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
     @Override
     public Type visit(@NotNull Block block, @NotNull Scope parentScope) {
         var localScope = Scope.forBlock(block, parentScope);
+        scopeStack.pushBlock(localScope);
         for (var fieldDeclaration : block.getFieldDeclarations()) {
             fieldDeclaration.accept(this, localScope);
         }
         for (Statement statement : block.getStatements()) {
             statement.accept(this, localScope);
         }
+        scopeStack.pop();
         return Type.getUnsetType();
     }
 
@@ -387,7 +446,9 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
                              "array index must evaluate to int"
                             );
         }
-        return scope.lookup(locationArray.getLabel()).map(descriptor -> {
+        final var descriptorOpt = scopeStack.lookup(locationArray.getSymbol());
+        locationArray.bind(descriptorOpt.orElse(null));
+        return descriptorOpt.map(descriptor -> {
             if (descriptor.isForArray()) {
                 var type = descriptor.getType();
                 assert type.isDerivedArrayType();
@@ -456,13 +517,13 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
 
     public Type visit(@NotNull FormalArgument formalArgument, @NotNull Scope scope) {
         var formalArgumentId = formalArgument.getName();
-        if (scope.isShadowingParameter(formalArgumentId)) {
+        if (scopeStack.isShadowingParameter(formalArgument.getSymbol())) {
             logSemanticError(formalArgument.getTokenPosition(),
                              ErrorType.SHADOWING_FORMAL_ARGUMENT,
                              String.format("Formal argument `%s` shadows a parameter", formalArgumentId)
                             );
         } else {
-            scope.addDescriptor(formalArgumentId, Descriptor.forFormalArgument(formalArgument.getType()));
+            scopeStack.declare(formalArgument.getSymbol(), Descriptor.forFormalArgument(formalArgument.getType()));
         }
         return formalArgument.getType();
     }
@@ -505,8 +566,11 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
     @Override
     public Type visit(@NotNull MethodCall methodCall, @NotNull Scope scope) {
         var methodName = methodCall.methodId.getLabel();
-        return getGlobalScope().lookup(methodName).map(descriptor -> {
-            if (scope.containsKey(methodName)) {
+        var methodSymbol = methodCall.methodId.getSymbol();
+        final var descriptorOpt = scopeStack.lookupGlobal(methodSymbol);
+        methodCall.methodId.bind(descriptorOpt.orElse(null));
+        return descriptorOpt.map(descriptor -> {
+            if (scopeStack.isDeclaredInInnermostScope(methodSymbol)) {
                 logSemanticError(methodCall.getTokenPosition(),
                                  ErrorType.METHOD_CALL_CONFLICTS_WITH_LOCALLY_DEFINED_IDENTIFIER,
                                  String.format("method call to `%s` conflicts with locally defined identifier",
@@ -534,7 +598,10 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
     @Override
     public Type visit(MethodCallStatement methodCallStatement, Scope scope) {
         final var methodId = methodCallStatement.methodCall.methodId.getLabel();
-        if (getGlobalScope().lookupMethod(methodId).isEmpty() && getGlobalScope().lookupImport(methodId).isEmpty()) {
+        final var methodSymbol = methodCallStatement.methodCall.methodId.getSymbol();
+        if (scopeStack.lookupGlobal(methodSymbol)
+                      .filter(descriptor -> descriptor instanceof MethodDescriptor || descriptor.isImport())
+                      .isEmpty()) {
             logSemanticError(methodCallStatement.getTokenPosition(),
                              ErrorType.IDENTIFIER_NOT_IN_SCOPE,
                              String.format("identifier `%s` in a method statement must be a declared method or import",
@@ -550,7 +617,7 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
     @Override
     public Type visit(LocationAssignExpr locationAssignExpr, Scope scope) {
         final var location = locationAssignExpr.location;
-        return scope.lookupNonMethod(location.getLabel()).map(descriptor -> {
+        return scopeStack.lookupNonMethod(location.getSymbol()).map(descriptor -> {
             if (descriptor.isForArray()) {
                 if (location instanceof LocationArray locationArray) {
                     final var indexType = locationArray.expression.accept(this, scope);
@@ -629,7 +696,9 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
 
     @Override
     public Type visit(@NotNull LocationVariable locationVariable, @NotNull Scope scope) {
-        return scope.lookup(locationVariable.getLabel()).map(descriptor -> {
+        final var descriptorOpt = scopeStack.lookup(locationVariable.getSymbol());
+        locationVariable.bind(descriptorOpt.orElse(null));
+        return descriptorOpt.map(descriptor -> {
             locationVariable.setType(descriptor.getType());
             return locationVariable.getType();
         }).orElseGet(() -> {
@@ -646,7 +715,9 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
     @Override
     public Type visit(Len len, Scope scope) {
         final var arrayLabel = len.getArrayLabel();
-        return scope.lookup(arrayLabel).map(descriptor -> {
+        final var descriptorOpt = scopeStack.lookup(len.getArraySymbol());
+        len.getArrayName().bind(descriptorOpt.orElse(null));
+        return descriptorOpt.map(descriptor -> {
             if (!(descriptor.isForArray())) {
                 logSemanticError(len.getTokenPosition(),
                                  ErrorType.UNSUPPORTED_TYPE,
@@ -719,9 +790,7 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
     }
 
     private void checkIntBounds(@NotNull IntLiteral intLiteral) {
-        try {
-            intLiteral.convertToLong();
-        } catch (Exception e) {
+        if (!intLiteral.isInRange()) {
             logSemanticError(intLiteral.getTokenPosition(),
                              ErrorType.INT_LITERAL_TOO_BIG,
                              "Encountered int literal that's out of bounds; -9223372036854775808 <= x <= 9223372036854775807"
@@ -740,35 +809,37 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
     public Type visit(@NotNull FieldDeclaration fieldDeclaration, @NotNull Scope scope) {
         var type = fieldDeclaration.getType();
         for (var rValue : fieldDeclaration.vars) {
-            if (scope.isShadowingParameter(rValue.getLabel())) {
+            if (scopeStack.isShadowingParameter(rValue.getSymbol())) {
                 logSemanticError(fieldDeclaration.getTokenPosition(),
                                  ErrorType.SHADOWING_FORMAL_ARGUMENT,
                                  String.format("`%s` shadows a parameter", rValue.getLabel())
                                 );
-            } else if (scope.containsKey(rValue.getLabel())) {
+            } else if (scopeStack.isDeclaredInInnermostScope(rValue.getSymbol())) {
                 logSemanticError(fieldDeclaration.getTokenPosition(),
                                  ErrorType.IDENTIFIER_ALREADY_DECLARED,
                                  String.format("`%s` already declared", rValue.getLabel())
                                 );
             } else {
-                scope.addDescriptor(rValue.getLabel(), Descriptor.forValue(type));
+                scopeStack.declare(rValue.getSymbol(), Descriptor.forValue(type));
             }
         }
 
         for (var array : fieldDeclaration.arrays) {
             var arrayIdLabel = array.getLabel();
-            if (scope.isShadowingParameter(array.getLabel())) {
+            if (scopeStack.isShadowingParameter(array.getSymbol())) {
                 logSemanticError(fieldDeclaration.getTokenPosition(),
                                  ErrorType.SHADOWING_FORMAL_ARGUMENT,
                                  String.format("`%s` shadows a parameter", arrayIdLabel)
                                 );
-            } else if (scope.lookup(array.getLabel()).isPresent()) {
+            } else if (scopeStack.lookup(array.getSymbol()).isPresent()) {
                 logSemanticError(fieldDeclaration.getTokenPosition(),
                                  ErrorType.IDENTIFIER_ALREADY_DECLARED,
                                  String.format("`%s` already declared", arrayIdLabel)
                                 );
+            } else if (!array.getSize().isInRange()) {
+                checkIntBounds(array.getSize());
             } else {
-                if (Integer.parseInt(array.getSize().literal) <= 0) {
+                if (array.getSize().convertToLong() <= 0) {
                     logSemanticError(array.getSize().getTokenPosition(),
                                      ErrorType.INVALID_ARRAY_SIZE,
                                      String.format("declared array size must be greater than 0, not `%s`",
@@ -776,9 +847,9 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
                                                   )
                                     );
                 } else {
-                    scope.addDescriptor(arrayIdLabel,
-                                        Descriptor.forArray(ArrayType.get(type, array.getSize().convertToLong()))
-                                       );
+                    scopeStack.declare(array.getSymbol(),
+                                       Descriptor.forArray(ArrayType.get(type, array.getSize().convertToLong()))
+                                      );
                 }
             }
         }
@@ -808,4 +879,34 @@ public class SemanticChecker implements AstVisitor<Type, Scope> {
     public @NotNull Scope getGlobalScope() {
         return globalScope;
     }
+
+    /**
+     * A method whose body is still to be checked, seeing its first {@code numVisibleGlobals} global bindings, or none
+     * if it was not declared
+     */
+    private record DeclaredMethod(@NotNull MethodDefinition methodDefinition,
+                                  int numVisibleGlobals,
+                                  @NotNull List<SemanticError> errors) {
+    }
+
+    /**
+     * Checks the bodies of a range of declared methods, which share one forked scope stack, as it only has to show more
+     * globals from one method to the next
+     */
+    private void checkMethodBodies(@NotNull List<DeclaredMethod> declaredMethods) {
+        final var methodScopeStack = scopeStack.fork();
+        for (var declaredMethod : declaredMethods) {
+            if (declaredMethod.numVisibleGlobals() >= 0) {
+                methodScopeStack.showGlobals(declaredMethod.numVisibleGlobals());
+                declaredMethod.methodDefinition()
+                              .accept(new SemanticChecker(context,
+                                                          getGlobalScope(),
+                                                          methodScopeStack,
+                                                          declaredMethod.errors()
+                                      ),
+                                      getGlobalScope()
+                                     );
+            }
+        }
+    }
 }
@@ -47,46 +47,202 @@ import static decaf.analysis.Token.Type.RIGHT_SQUARE_BRACKET;
 import static decaf.analysis.Token.Type.SEMICOLON;
 import static decaf.analysis.Token.Type.STRING_LITERAL;
 
-import com.google.common.collect.Lists;
-
 import decaf.analysis.syntax.ast.*;
 import decaf.analysis.syntax.ast.types.Type;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 import decaf.analysis.Token;
+import decaf.analysis.TokenBuffer;
+import decaf.analysis.TokenPosition;
 import decaf.analysis.lexical.Scanner;
+import decaf.analysis.lexical.TokenStream;
 import decaf.shared.CompilationContext;
+import decaf.shared.SourceText;
+import decaf.shared.TextEdit;
 import decaf.shared.Utils;
 import decaf.shared.errors.ParserError;
 
 public class Parser {
+    private static final int NOT_A_BINARY_OPERATOR = -1;
+    private static final int[] BINARY_OPERATOR_PRECEDENCES = new int[Token.Type.values().length];
+
+    static {
+        Arrays.fill(BINARY_OPERATOR_PRECEDENCES, NOT_A_BINARY_OPERATOR);
+        for (Token.Type type : List.of(CONDITIONAL_OR,
+                                       CONDITIONAL_AND,
+                                       EQ,
+                                       NEQ,
+                                       LT,
+                                       GT,
+                                       LEQ,
+                                       GEQ,
+                                       PLUS,
+                                       MINUS,
+                                       MULTIPLY,
+                                       DIVIDE,
+                                       MOD
+                                      )) {
+            BINARY_OPERATOR_PRECEDENCES[type.ordinal()] =
+                    BinaryOpExpression.operatorPrecedence.get(Token.getScannerSourceCode(type));
+        }
+    }
+
+    private static final int IMPORT_DECLARATION = 0;
+    private static final int FIELD_DECLARATION = 1;
+    private static final int METHOD_DEFINITION = 2;
+
     @NotNull
     private final CompilationContext context;
     @NotNull
-    private final List<Token> tokens;
+    private final TokenStream tokens;
     @NotNull
-    private final Program root;
-    private int currentTokenIndex;
+    private Program root;
 
     public Parser(@NotNull Scanner scanner, @NotNull CompilationContext context) {
+        this(new TokenStream(scanner), context);
+        setRoot(parseCompleteProgram());
+    }
+
+    public Parser(@NotNull TokenBuffer tokens, @NotNull CompilationContext context) {
+        this(new TokenStream(tokens), context);
+        setRoot(parseCompleteProgram());
+    }
+
+    private Parser(@NotNull TokenStream tokens, @NotNull CompilationContext context) {
         this.context = context;
-        this.tokens = Lists.newArrayList(scanner);
-        this.currentTokenIndex = 0;
-        this.root = parseProgram().map(program -> {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Parses the source of {@code previous} after {@code edit}, reusing the subtree of every top level declaration
+     * of {@code previous}'s program which the edit leaves untouched.
+     * <p>
+     * A declaration spans from its first token up to the first token of the next one, and the edit touches every
+     * declaration whose span it overlaps. Only the text of the touched declarations is rescanned and reparsed. The
+     * declarations before them are kept as they are, and the ones after them are moved to their new positions in
+     * place, so {@code previous}'s program must not be used afterwards. The whole edited source is parsed again
+     * instead when {@code previous} did not parse cleanly, or when the reparsed text does not fit back between its
+     * neighbours, for instance because the edit leaves a comment open or a declaration unfinished.
+     *
+     * @return the parser of the edited source, whose context shares the symbol table of {@code previous}
+     */
+    public static @NotNull Parser reparse(@NotNull CompilationContext previous, @NotNull TextEdit edit) {
+        return reparseTouchedDeclarations(previous, edit).orElseGet(() -> {
+            final var context = previous.afterEdit(edit);
+            return new Parser(new Scanner(context), context);
+        });
+    }
+
+    private static @NotNull Optional<Parser> reparseTouchedDeclarations(@NotNull CompilationContext previous,
+                                                                        @NotNull TextEdit edit) {
+        if (!previous.scanningSuccessful() || !previous.parsingSuccessful()) {
+            return Optional.empty();
+        }
+        final List<AST> declarations = declarationsOf(previous.getProgram());
+        if (declarations.isEmpty()) {
+            return Optional.empty();
+        }
+        final int[] starts = new int[declarations.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = startOf(declarations.get(i)).offset();
+        }
+        // the last declaration starting at or before the edit, up to the first one starting after it
+        int first = Arrays.binarySearch(starts, edit.offset());
+        if (first < 0) {
+            first = Math.max(0, -first - 2);
+        }
+        int next = Arrays.binarySearch(starts, edit.end());
+        if (next < 0) {
+            next = -next - 1;
+        }
+        next = Math.max(next, first + 1);
+
+        final var context = previous.afterEdit(edit);
+        final var regionStart = (first == 0) ? new TokenPosition(0, 0, 0) : startOf(declarations.get(first));
+        final int regionEnd = (next < starts.length) ? starts[next] + edit.delta() : SourceText.of(context.getSourceCode())
+                                                                                               .length();
+        final var scanner = new Scanner(context, regionStart, regionEnd);
+        final var parser = new Parser(new TokenStream(scanner), context);
+        final Optional<Program> fragment = parser.parseProgram();
+        if (fragment.isEmpty() || parser.getCurrentTokenType() != EOF || context.encounteredParsingErrors() ||
+            !context.scanningSuccessful() || scanner.getPosition().offset() != regionEnd) {
+            return Optional.empty();
+        }
+
+        final var spliced = new ArrayList<>(declarations.subList(0, first));
+        spliced.addAll(declarationsOf(fragment.get()));
+        spliced.addAll(declarations.subList(next, declarations.size()));
+        for (int i = 1; i < spliced.size(); i++) {
+            if (declarationKindOf(spliced.get(i - 1)) > declarationKindOf(spliced.get(i))) {
+                return Optional.empty();
+            }
+        }
+        if (next < starts.length) {
+            final var shifter = new TokenPositionShifter(startOf(declarations.get(next)), scanner.getPosition());
+            for (AST declaration : declarations.subList(next, declarations.size())) {
+                shifter.shift(declaration);
+            }
+        }
+
+        final var importDeclarations = new ArrayList<ImportDeclaration>();
+        final var fieldDeclarations = new ArrayList<FieldDeclaration>();
+        final var methodDefinitions = new ArrayList<MethodDefinition>();
+        for (AST declaration : spliced) {
+            if (declaration instanceof ImportDeclaration importDeclaration) {
+                importDeclarations.add(importDeclaration);
+            } else if (declaration instanceof FieldDeclaration fieldDeclaration) {
+                fieldDeclarations.add(fieldDeclaration);
+            } else {
+                methodDefinitions.add((MethodDefinition) declaration);
+            }
+        }
+        parser.setRoot(new Program(importDeclarations, fieldDeclarations, methodDefinitions));
+        return Optional.of(parser);
+    }
+
+    private static @NotNull List<AST> declarationsOf(@NotNull Program program) {
+        final var declarations = new ArrayList<AST>(program.getImportDeclaration());
+        declarations.addAll(program.getFieldDeclarations());
+        declarations.addAll(program.getMethodDefinitions());
+        return declarations;
+    }
+
+    private static @NotNull TokenPosition startOf(@NotNull AST declaration) {
+        if (declaration instanceof FieldDeclaration fieldDeclaration) {
+            return fieldDeclaration.getTypeTokenPosition();
+        }
+        return declaration.getTokenPosition();
+    }
+
+    private static int declarationKindOf(@NotNull AST declaration) {
+        if (declaration instanceof ImportDeclaration) {
+            return IMPORT_DECLARATION;
+        } else if (declaration instanceof FieldDeclaration) {
+            return FIELD_DECLARATION;
+        }
+        return METHOD_DEFINITION;
+    }
+
+    private @NotNull Program parseCompleteProgram() {
+        final Program program = parseProgram().map(parsed -> {
             if (getCurrentTokenType() != EOF && !context.encounteredParsingErrors()) {
-                logParsingError(getCurrentToken(),
-                                ParserError.ErrorType.DID_NOT_FINISH_PARSING,
-                                "did not finish parsing the program"
-                               );
+                logParsingError(ParserError.ErrorType.DID_NOT_FINISH_PARSING, "did not finish parsing the program");
             }
-            return program;
+            return parsed;
         }).orElse(new Program(Collections.emptyList(), Collections.emptyList(), Collections.emptyList()));
+        tokens.drain();
+        return program;
+    }
+
+    private void setRoot(@NotNull Program root) {
+        this.root = root;
         if (context.debugModeOn()) {
             context.printParsingErrors();
             Utils.printParseTree(root);
@@ -98,84 +254,81 @@ public class Parser {
         return root;
     }
 
-    private Token getCurrentToken() {
-        return tokens.get(currentTokenIndex);
+    public @NotNull CompilationContext getContext() {
+        return context;
     }
 
     private Token.Type getCurrentTokenType() {
-        return getCurrentToken().type;
+        return tokens.type(0);
     }
 
-    private Token consumeTokenNoCheck() {
-        var token = getCurrentToken();
-        currentTokenIndex += 1;
-        return token;
+    private String getCurrentLexeme() {
+        return tokens.lexeme(0);
     }
 
-    private void logParsingError(@NotNull Token token,
-                                 @NotNull ParserError.ErrorType errorType,
-                                 @NotNull String errorMessage) {
-        context.logParsingError(token, errorType, errorMessage);
+    private @NotNull TokenPosition consumeTokenNoCheck() {
+        final var tokenPosition = tokens.tokenPosition(0);
+        tokens.advance();
+        return tokenPosition;
     }
 
-    private @NotNull Optional<Token> consumeToken(@NotNull Token.Type expectedType,
-                                                  @NotNull ParserError.ErrorType errorType,
-                                                  @NotNull String errorMessage) {
+    private void logParsingError(@NotNull ParserError.ErrorType errorType, @NotNull String errorMessage) {
+        context.logParsingError(tokens.getWindow(), tokens.slotOf(0), errorType, errorMessage);
+    }
+
+    private @NotNull Optional<TokenPosition> consumeToken(@NotNull Token.Type expectedType,
+                                                          @NotNull ParserError.ErrorType errorType,
+                                                          @NotNull String errorMessage) {
         if (getCurrentTokenType() != expectedType) {
-            logParsingError(getCurrentToken(), errorType, errorMessage);
+            logParsingError(errorType, errorMessage);
             return Optional.empty();
         } else {
             return Optional.of(consumeTokenNoCheck());
         }
     }
 
-    private @NotNull Optional<Token> consumeToken(@NotNull Token.Type expectedType) {
-        String s = getCurrentToken().lexeme;
-        if (getCurrentToken().type.toString().startsWith("RESERVED")) {
+    private @NotNull Optional<TokenPosition> consumeToken(@NotNull Token.Type expectedType) {
+        if (getCurrentTokenType() == expectedType) {
+            return Optional.of(consumeTokenNoCheck());
+        }
+        String s = getCurrentLexeme();
+        if (getCurrentTokenType().toString().startsWith("RESERVED")) {
             s = "reserved keyword " + "\"" + s + "\"";
         }
         var errMessage = "expected " + "\"" + Token.getScannerSourceCode(expectedType) + "\"" + " received " + s;
         return consumeToken(expectedType, ParserError.ErrorType.UNEXPECTED_TOKEN, errMessage);
     }
 
-    private @NotNull Optional<Token> consumeOneOfTokens(@NotNull ParserError.ErrorType errorType,
-                                                        @NotNull String errorMessage,
-                                                        @NotNull Token.Type... expectedTypes) {
+    private @NotNull Optional<TokenPosition> consumeOneOfTokens(@NotNull ParserError.ErrorType errorType,
+                                                                @NotNull String errorMessage,
+                                                                @NotNull Token.Type... expectedTypes) {
         for (Token.Type expectedType : expectedTypes) {
             if (getCurrentTokenType() == expectedType) {
-                var token = getCurrentToken();
-                currentTokenIndex += 1;
-                return Optional.of(token);
+                return Optional.of(consumeTokenNoCheck());
             }
         }
-        logParsingError(getCurrentToken(), errorType, errorMessage);
+        logParsingError(errorType, errorMessage);
         return Optional.empty();
     }
 
     private boolean canParseField() {
         return (getCurrentTokenType() == RESERVED_BOOL || getCurrentTokenType() == RESERVED_INT) &&
-               currentTokenIndex + 1 < tokens.size() &&
-               tokens.get(currentTokenIndex + 1).type == ID &&
-               currentTokenIndex + 2 < tokens.size() &&
-               tokens.get(currentTokenIndex + 2).type != LEFT_PARENTHESIS;
+               tokens.type(1) == ID &&
+               tokens.type(2) != LEFT_PARENTHESIS;
     }
 
     private boolean canParseMethod() {
-        if (getCurrentTokenType() == RESERVED_VOID &&
-            currentTokenIndex + 1 < tokens.size() &&
-            tokens.get(currentTokenIndex + 1).type == ID) {
+        if (getCurrentTokenType() == RESERVED_VOID && tokens.type(1) == ID) {
             return true;
         }
         return (getCurrentTokenType() == RESERVED_BOOL ||
                 getCurrentTokenType() == RESERVED_INT &&
-                currentTokenIndex + 1 < tokens.size() &&
-                tokens.get(currentTokenIndex + 1).type == ID &&
-                currentTokenIndex + 2 < tokens.size() &&
-                tokens.get(currentTokenIndex + 2).type == LEFT_PARENTHESIS);
+                tokens.type(1) == ID &&
+                tokens.type(2) == LEFT_PARENTHESIS);
     }
 
     private boolean canParseArray() {
-        return getCurrentTokenType() == ID && tokens.get(currentTokenIndex + 1).type == LEFT_SQUARE_BRACKET;
+        return getCurrentTokenType() == ID && tokens.type(1) == LEFT_SQUARE_BRACKET;
     }
 
     private Optional<Program> parseProgram() {
@@ -186,119 +339,75 @@ public class Parser {
                 ))));
     }
 
-    private Optional<Expression> parseOrExpr() {
-        return parseAndExpr().flatMap(andExpr -> {
-            if (getCurrentTokenType() == CONDITIONAL_OR) {
-                var tokenPosition = consumeTokenNoCheck().getTokenPosition();
-                return parseOrExpr().map(orExpr -> BinaryOpExpression.of(andExpr,
-                                                                         new ConditionalOperator(tokenPosition,
-                                                                                                 Scanner.CONDITIONAL_OR
-                                                                         ),
-                                                                         orExpr
-                                                                        ));
-            }
-            return Optional.of(andExpr);
-        });
-    }
-
-    private Optional<Expression> parseAndExpr() {
-        return parseEqualityExpr().flatMap(equalityExpr -> {
-            if (getCurrentTokenType() == CONDITIONAL_AND) {
-                return consumeToken(CONDITIONAL_AND,
-                                    ParserError.ErrorType.IMPLEMENTATION_ERROR,
-                                    "was promised conditional and ('&&') by implementation"
-                                   ).flatMap(token -> parseAndExpr().map(andExpr -> BinaryOpExpression.of(equalityExpr,
-                                                                                                          new ConditionalOperator(
-                                                                                                                  token.getTokenPosition(),
-                                                                                                                  Scanner.CONDITIONAL_AND
-                                                                                                          ),
-                                                                                                          andExpr
-                                                                                                         )));
-            }
-            return Optional.of(equalityExpr);
-        });
+    private static int binaryOperatorPrecedenceOf(@NotNull Token.Type type) {
+        return BINARY_OPERATOR_PRECEDENCES[type.ordinal()];
     }
 
-    private Optional<Expression> parseEqualityExpr() {
-        return parseRelationalExpr().flatMap(relationalExpr -> {
-            if (getCurrentTokenType() == EQ || getCurrentTokenType() == NEQ) {
-                return consumeToken(getCurrentTokenType()).flatMap(token -> parseEqualityExpr().map(equalityExpr -> BinaryOpExpression.of(
-                        relationalExpr,
-                        new EqualityOperator(token.getTokenPosition(), (token.type == EQ) ? Scanner.EQ : Scanner.NEQ),
-                        equalityExpr
-                                                                                                                                         )));
-            }
-            return Optional.of(relationalExpr);
-        });
+    private static @NotNull BinOperator makeBinaryOperator(@NotNull Token.Type type,
+                                                           @NotNull TokenPosition tokenPosition) {
+        final String label = Token.getScannerSourceCode(type);
+        return switch (type) {
+            case CONDITIONAL_OR, CONDITIONAL_AND -> new ConditionalOperator(tokenPosition, label);
+            case EQ, NEQ -> new EqualityOperator(tokenPosition, label);
+            case LT, GT, LEQ, GEQ -> new RelationalOperator(tokenPosition, label);
+            default -> new ArithmeticOperator(tokenPosition, label);
+        };
     }
 
-    private Optional<Expression> parseRelationalExpr() {
-        return parseAddSubExpr().flatMap(addSubExpr -> {
-            if (getCurrentTokenType() == GT ||
-                getCurrentTokenType() == LT ||
-                getCurrentTokenType() == GEQ ||
-                getCurrentTokenType() == LEQ) {
-                return consumeToken(getCurrentTokenType()).flatMap(token -> parseRelationalExpr().map(relationalExpr -> switch (token.type) {
-                    case GT -> BinaryOpExpression.of(addSubExpr,
-                                                     new RelationalOperator(token.getTokenPosition(), Scanner.GT),
-                                                     relationalExpr
-                                                    );
-                    case LT -> BinaryOpExpression.of(addSubExpr,
-                                                     new RelationalOperator(token.getTokenPosition(), Scanner.LT),
-                                                     relationalExpr
-                                                    );
-                    case LEQ -> BinaryOpExpression.of(addSubExpr,
-                                                      new RelationalOperator(token.getTokenPosition(), Scanner.LEQ),
-                                                      relationalExpr
-                                                     );
-                    default -> BinaryOpExpression.of(addSubExpr,
-                                                     new RelationalOperator(token.getTokenPosition(), Scanner.GEQ),
-                                                     relationalExpr
-                                                    );
-                }));
-            }
-            return Optional.of(addSubExpr);
-        });
+    /**
+     * Pops and combines pending operators which bind tighter than {@code precedence}.
+     * <p>
+     * Operators of equal precedence are left pending, so each run of them is combined right to left through
+     * {@link BinaryOpExpression#of}, exactly as a right-recursive descent would, and the trees come out the same.
+     */
+    private static void reduceBinaryOperators(@NotNull List<Expression> operands,
+                                              @NotNull List<BinOperator> operators,
+                                              @NotNull List<Integer> precedences,
+                                              int precedence) {
+        while (!operators.isEmpty() && precedences.get(precedences.size() - 1) > precedence) {
+            final Expression rhs = operands.remove(operands.size() - 1);
+            final Expression lhs = operands.remove(operands.size() - 1);
+            precedences.remove(precedences.size() - 1);
+            operands.add(BinaryOpExpression.of(lhs, operators.remove(operators.size() - 1), rhs));
+        }
     }
 
-    private Optional<Expression> parseAddSubExpr() {
-        return parseMulDivRemExpr().flatMap(mulDivRemExpr -> {
-            if (getCurrentTokenType() == PLUS || getCurrentTokenType() == MINUS) {
-                return consumeToken(getCurrentTokenType()).flatMap(token -> parseAddSubExpr().map(addSubExpr -> BinaryOpExpression.of(
-                        mulDivRemExpr,
-                        new ArithmeticOperator(token.getTokenPosition(),
-                                               (token.type == PLUS) ? Scanner.PLUS : Scanner.MINUS
-                        ),
-                        addSubExpr
-                                                                                                                                     )));
+    /**
+     * Parses a chain of binary operations by precedence climbing over {@link #BINARY_OPERATOR_PRECEDENCES}, using
+     * explicit stacks instead of one recursive call per precedence level, so arbitrarily long chains cannot overflow
+     * the Java stack.
+     */
+    private Optional<Expression> parseOrExpr() {
+        final var operands = new ArrayList<Expression>();
+        final var operators = new ArrayList<BinOperator>();
+        final var precedences = new ArrayList<Integer>();
+        while (true) {
+            final Optional<? extends Expression> operand = parseExpr();
+            if (operand.isEmpty()) {
+                return Optional.empty();
             }
-            return Optional.of(mulDivRemExpr);
-        });
-    }
-
-    private Optional<Expression> parseMulDivRemExpr() {
-        return parseExpr().flatMap(expression -> {
-            if (getCurrentTokenType() == MULTIPLY || getCurrentTokenType() == DIVIDE || getCurrentTokenType() == MOD) {
-                return consumeToken(getCurrentTokenType()).flatMap(token -> parseMulDivRemExpr().map(mulDivRemExpr -> BinaryOpExpression.of(
-                        expression,
-                        new ArithmeticOperator(token.getTokenPosition(),
-                                               (token.type == MULTIPLY) ? Scanner.MULTIPLY : (token.type ==
-                                                                                              DIVIDE) ? Scanner.DIVIDE : Scanner.MOD
-                        ),
-                        mulDivRemExpr
-                                                                                                                                           )));
+            operands.add(operand.get());
+            final Token.Type operatorType = getCurrentTokenType();
+            final int precedence = binaryOperatorPrecedenceOf(operatorType);
+            if (precedence == NOT_A_BINARY_OPERATOR) {
+                break;
             }
-            return Optional.of(expression);
-        });
+            reduceBinaryOperators(operands, operators, precedences, precedence);
+            operators.add(makeBinaryOperator(operatorType, consumeTokenNoCheck()));
+            precedences.add(precedence);
+        }
+        reduceBinaryOperators(operands, operators, precedences, NOT_A_BINARY_OPERATOR);
+        return Optional.of(operands.get(0));
     }
 
     private Optional<Expression> parseUnaryOpExpr() {
-        return consumeToken(getCurrentTokenType()).flatMap(unaryOp -> parseExpr().map(expression -> (Objects.equals(
-                unaryOp.lexeme,
+        final String unaryOpLexeme = getCurrentLexeme();
+        return consumeToken(getCurrentTokenType()).flatMap(unaryOpPosition -> parseExpr().map(expression -> (Objects.equals(
+                unaryOpLexeme,
                 Scanner.MINUS
-                                                                                                                   ) &&
-                                                                                                     expression instanceof IntLiteral intLiteral) ? intLiteral.negate() : new UnaryOpExpression(
-                new UnaryOperator(unaryOp.getTokenPosition(), unaryOp.lexeme),
+                                                                                                                           ) &&
+                                                                                                             expression instanceof IntLiteral intLiteral) ? intLiteral.negate() : new UnaryOpExpression(
+                new UnaryOperator(unaryOpPosition, unaryOpLexeme),
                 expression
         )));
     }
@@ -311,7 +420,7 @@ public class Parser {
                                                                                       ParserError.ErrorType.UNCLOSED_PARENTHESIS,
                                                                                       "expected a right parenthesis to close a parenthesized expression"
                                                                                      ).map(tk1 -> new ParenthesizedExpression(
-                tk.getTokenPosition(),
+                tk,
                 expr
         ))));
     }
@@ -376,18 +485,21 @@ public class Parser {
                 intLiteral -> consumeToken(RIGHT_SQUARE_BRACKET,
                                            ParserError.ErrorType.UNCLOSED_PARENTHESIS,
                                            "expected a right square bracket to close an array declaration, but found " +
-                                           getCurrentToken().lexeme
+                                           getCurrentLexeme()
                                           ).map(tk1 -> new Array(arrayNameId.getTokenPosition(),
                                                                  intLiteral,
-                                                                 arrayNameId.getLabel()
+                                                                 arrayNameId.getLabel(),
+                                                                 arrayNameId.getSymbol()
                 )))));
     }
 
     private Optional<IntLiteral> parseIntLiteral() {
+        final String lexeme = getCurrentLexeme();
+        final long magnitude = tokens.literalMagnitude(0);
         return consumeToken(INT_LITERAL,
                             ParserError.ErrorType.IMPLEMENTATION_ERROR,
                             "was promised an int literal by the implementation"
-                           ).map(token -> new IntLiteral(token.getTokenPosition(), token.lexeme));
+                           ).map(tokenPosition -> new IntLiteral(tokenPosition, lexeme, magnitude));
     }
 
     private Optional<List<Statement>> parseStatements() {
@@ -450,13 +562,14 @@ public class Parser {
     }
 
     private Optional<Type> parseMethodReturnType() {
+        final Token.Type returnType = getCurrentTokenType();
         return consumeOneOfTokens(ParserError.ErrorType.MISSING_RETURN_TYPE,
                                   "expected a valid return type, one of (int, bool, void) but found " +
-                                  getCurrentToken().lexeme,
+                                  getCurrentLexeme(),
                                   RESERVED_BOOL,
                                   RESERVED_INT,
                                   RESERVED_VOID
-                                 ).map(token -> switch (token.type) {
+                                 ).map(tokenPosition -> switch (returnType) {
             case RESERVED_BOOL -> Type.getBoolType();
             case RESERVED_INT -> Type.getIntType();
             case RESERVED_VOID -> Type.getVoidType();
@@ -465,11 +578,12 @@ public class Parser {
     }
 
     private Optional<FormalArgument> parseFormalArgument() {
-        final var tokenPosition = getCurrentToken().getTokenPosition();
+        final var tokenPosition = tokens.tokenPosition(0);
         return parseType("expected a valid type, one of (int, bool) but found ").flatMap(type -> parseName(
                 "expected a valid name for the method argument but found").map(nameId -> new FormalArgument(
                 tokenPosition,
                 nameId.getLabel(),
+                nameId.getSymbol(),
                 type
         )));
     }
@@ -503,14 +617,12 @@ public class Parser {
                                    ).map(tk1 -> formalArguments);
             } else {
                 if (getCurrentTokenType() == ID) {
-                    logParsingError(getCurrentToken(),
-                                    ParserError.ErrorType.MISSING_METHOD_ARGUMENT_TYPE,
-                                    String.format("method parameter `%s` missing type", getCurrentToken().lexeme)
+                    logParsingError(ParserError.ErrorType.MISSING_METHOD_ARGUMENT_TYPE,
+                                    String.format("method parameter `%s` missing type", getCurrentLexeme())
                                    );
                 } else {
-                    logParsingError(getCurrentToken(),
-                                    ParserError.ErrorType.ILLEGAL_ARGUMENT_TYPE,
-                                    String.format("illegal method arg type: %s", getCurrentToken().lexeme)
+                    logParsingError(ParserError.ErrorType.ILLEGAL_ARGUMENT_TYPE,
+                                    String.format("illegal method arg type: %s", getCurrentLexeme())
                                    );
                 }
                 return Optional.empty();
@@ -519,7 +631,7 @@ public class Parser {
     }
 
     private Optional<MethodDefinition> parseMethodDefinition() {
-        final var tokenPosition = getCurrentToken().getTokenPosition();
+        final var tokenPosition = tokens.tokenPosition(0);
         return parseMethodReturnType().flatMap(returnType -> parseName("expected method to have an identifier").flatMap(
                 nameId -> parseFormalArguments().flatMap(formalArguments -> parseBlock().map(block -> new MethodDefinition(
                         tokenPosition,
@@ -532,10 +644,11 @@ public class Parser {
 
     private Optional<ActualArgument> parseActualArgument() {
         if (getCurrentTokenType() == STRING_LITERAL) {
+            final String lexeme = getCurrentLexeme();
             return consumeToken(STRING_LITERAL,
                                 ParserError.ErrorType.IMPLEMENTATION_ERROR,
                                 "was promised a string literal by implementation"
-                               ).map(token -> new StringLiteral(token.getTokenPosition(), token.lexeme));
+                               ).map(tokenPosition -> new StringLiteral(tokenPosition, lexeme));
         } else {
             return parseOrExpr().map(ExpressionParameter::new);
         }
@@ -576,52 +689,55 @@ public class Parser {
     }
 
     private Optional<Statement> parseLocationAndAssignExprOrMethodCall() {
+        final String label = getCurrentLexeme();
+        final int symbol = tokens.symbol(0);
         return consumeToken(ID,
                             ParserError.ErrorType.IMPLEMENTATION_ERROR,
                             "Expected a valid identifier, `var` or fn_name()"
-                           ).flatMap(token -> {
+                           ).flatMap(tokenPosition -> {
+            final var name = new RValue(tokenPosition, label, symbol);
             if (getCurrentTokenType() == LEFT_PARENTHESIS) {
-                return parseMethodCall(new RValue(token.getTokenPosition(),
-                                                  token.lexeme
-                )).flatMap(methodCall -> consumeToken(SEMICOLON,
-                                                      ParserError.ErrorType.MISSING_SEMICOLON,
-                                                      "expected a semicolon to terminate a method call"
-                                                     ).map(tk -> new MethodCallStatement(token.getTokenPosition(),
-                                                                                         methodCall
+                return parseMethodCall(name).flatMap(methodCall -> consumeToken(SEMICOLON,
+                                                                                ParserError.ErrorType.MISSING_SEMICOLON,
+                                                                                "expected a semicolon to terminate a method call"
+                                                                               ).map(tk -> new MethodCallStatement(tokenPosition,
+                                                                                                                   methodCall
                 )));
             } else {
-                return parseLocationAndAssignExpr(token).flatMap(locationAssignExpr -> consumeToken(SEMICOLON,
-                                                                                                    ParserError.ErrorType.MISSING_SEMICOLON,
-                                                                                                    "expected a semicolon to terminate an assignment expression"
-                                                                                                   ).map(tk -> locationAssignExpr));
+                return parseLocationAndAssignExpr(name).flatMap(locationAssignExpr -> consumeToken(SEMICOLON,
+                                                                                                   ParserError.ErrorType.MISSING_SEMICOLON,
+                                                                                                   "expected a semicolon to terminate an assignment expression"
+                                                                                                  ).map(tk -> locationAssignExpr));
             }
         });
     }
 
-    private Optional<LocationAssignExpr> parseLocationAndAssignExpr(@NotNull Token token) {
-        return parseLocation(token).flatMap(location -> parseAssignExpr().map(assignExpr -> new LocationAssignExpr(token.getTokenPosition(),
-                                                                                                                   location,
-                                                                                                                   assignExpr
+    private Optional<LocationAssignExpr> parseLocationAndAssignExpr(@NotNull RValue name) {
+        return parseLocation(name).flatMap(location -> parseAssignExpr().map(assignExpr -> new LocationAssignExpr(name.getTokenPosition(),
+                                                                                                                  location,
+                                                                                                                  assignExpr
         )));
     }
 
     private Optional<AssignOperator> parseAssignOp() {
+        final String lexeme = getCurrentLexeme();
         return consumeOneOfTokens(ParserError.ErrorType.UNEXPECTED_TOKEN,
-                                  "expected =, +=, -=, *= but found " + getCurrentToken().lexeme,
+                                  "expected =, +=, -=, *= but found " + lexeme,
                                   ASSIGN,
                                   ADD_ASSIGN,
                                   MINUS_ASSIGN,
                                   MULTIPLY_ASSIGN
-                                 ).map(token -> new AssignOperator(token.getTokenPosition(), token.lexeme));
+                                 ).map(tokenPosition -> new AssignOperator(tokenPosition, lexeme));
     }
 
     private Optional<CompoundAssignOperator> parseCompoundAssignOp() {
+        final String lexeme = getCurrentLexeme();
         return consumeOneOfTokens(ParserError.ErrorType.UNEXPECTED_TOKEN,
-                                  "expected +=, -=, *= but found " + getCurrentToken().lexeme,
+                                  "expected +=, -=, *= but found " + lexeme,
                                   ADD_ASSIGN,
                                   MINUS_ASSIGN,
                                   MULTIPLY_ASSIGN
-                                 ).map(token -> new CompoundAssignOperator(token.getTokenPosition(), token.lexeme));
+                                 ).map(tokenPosition -> new CompoundAssignOperator(tokenPosition, lexeme));
     }
 
     private Optional<AssignOpExpr> parseAssignOpExpr() {
@@ -640,27 +756,27 @@ public class Parser {
     }
 
     private Optional<AssignExpr> parseIncrement() {
+        final Token.Type type = getCurrentTokenType();
         return consumeOneOfTokens(ParserError.ErrorType.UNEXPECTED_TOKEN,
-                                  "expected ++ or -- but found " + getCurrentToken().lexeme,
+                                  "expected ++ or -- but found " + getCurrentLexeme(),
                                   INCREMENT,
                                   DECREMENT
-                                 ).map(token -> (token.type ==
-                                                 INCREMENT) ? new Increment(token.getTokenPosition()) : new Decrement(
-                token.getTokenPosition()));
+                                 ).map(tokenPosition -> (type ==
+                                                         INCREMENT) ? new Increment(tokenPosition) : new Decrement(
+                tokenPosition));
     }
 
     private Optional<? extends AssignExpr> parseAssignExpr() {
-        return switch (getCurrentToken().type) {
+        return switch (getCurrentTokenType()) {
             case ASSIGN, ADD_ASSIGN, MINUS_ASSIGN, MULTIPLY_ASSIGN -> parseAssignOpExpr();
             case DECREMENT, INCREMENT -> parseIncrement();
             default -> {
-                if (tokens.get(currentTokenIndex - 1).type == ID) {
-                    logParsingError(getCurrentToken(),
-                                    ParserError.ErrorType.INVALID_TYPE,
-                                    "invalid type " + "\"" + tokens.get(currentTokenIndex - 1).lexeme + "\""
+                if (tokens.type(-1) == ID) {
+                    logParsingError(ParserError.ErrorType.INVALID_TYPE,
+                                    "invalid type " + "\"" + tokens.lexeme(-1) + "\""
                                    );
                 } else {
-                    logParsingError(getCurrentToken(), ParserError.ErrorType.UNEXPECTED_TOKEN, "expected assign expr");
+                    logParsingError(ParserError.ErrorType.UNEXPECTED_TOKEN, "expected assign expr");
                 }
                 yield Optional.empty();
             }
@@ -668,12 +784,11 @@ public class Parser {
     }
 
     private Optional<? extends AssignExpr> parseCompoundAssignExpr() {
-        return switch (getCurrentToken().type) {
+        return switch (getCurrentTokenType()) {
             case DECREMENT, INCREMENT -> parseIncrement();
             case ADD_ASSIGN, MINUS_ASSIGN, MULTIPLY_ASSIGN -> parseCompoundAssignOpExpr();
             default -> {
-                logParsingError(getCurrentToken(),
-                                ParserError.ErrorType.UNEXPECTED_TOKEN,
+                logParsingError(ParserError.ErrorType.UNEXPECTED_TOKEN,
                                 "expected compound assign expr"
                                );
                 yield Optional.empty();
@@ -694,21 +809,15 @@ public class Parser {
         ))));
     }
 
-    private Optional<? extends Location> parseLocation(@NotNull Token token) {
-        if (getCurrentToken().type == LEFT_SQUARE_BRACKET) {
-            return parseLocationArray(new RValue(token.getTokenPosition(), token.lexeme));
+    private Optional<? extends Location> parseLocation(@NotNull RValue name) {
+        if (getCurrentTokenType() == LEFT_SQUARE_BRACKET) {
+            return parseLocationArray(name);
         }
-        return Optional.of(new LocationVariable(new RValue(token.getTokenPosition(), token.lexeme)));
+        return Optional.of(new LocationVariable(name));
     }
 
     private Optional<? extends Location> parseLocation() {
-        return parseName("expected a valid identifier").flatMap(name -> {
-            if (getCurrentTokenType() == LEFT_SQUARE_BRACKET) {
-                return parseLocationArray(name);
-            } else {
-                return Optional.of(new LocationVariable(name));
-            }
-        });
+        return parseName("expected a valid identifier").flatMap(this::parseLocation);
     }
 
     private Optional<? extends Expression> parseExpr() {
@@ -722,7 +831,7 @@ public class Parser {
             case RESERVED_TRUE -> parseLiteral(RESERVED_TRUE);
             case ID -> parseLocationOrMethodCall();
             default -> {
-                logParsingError(getCurrentToken(), ParserError.ErrorType.UNEXPECTED_TOKEN, "expected an expression");
+                logParsingError(ParserError.ErrorType.UNEXPECTED_TOKEN, "expected an expression");
                 yield Optional.empty();
             }
         };
@@ -732,25 +841,27 @@ public class Parser {
         return consumeToken(RESERVED_LEN,
                             ParserError.ErrorType.IMPLEMENTATION_ERROR,
                             "was promised a len statement by implementation"
-                           ).flatMap(token -> consumeToken(LEFT_PARENTHESIS,
-                                                           ParserError.ErrorType.UNEXPECTED_TOKEN,
-                                                           "expected a `(` to open a len statement but got " +
-                                                           getCurrentToken().lexeme
-                                                          ).flatMap(tk -> parseName(
-                "len can only be applied to arrays, not " + getCurrentToken().type).flatMap(name -> consumeToken(
+                           ).flatMap(tokenPosition -> consumeToken(LEFT_PARENTHESIS,
+                                                                   ParserError.ErrorType.UNEXPECTED_TOKEN,
+                                                                   "expected a `(` to open a len statement but got " +
+                                                                   getCurrentLexeme()
+                                                                  ).flatMap(tk -> parseName(
+                "len can only be applied to arrays, not " + getCurrentTokenType()).flatMap(name -> consumeToken(
                 RIGHT_PARENTHESIS,
                 ParserError.ErrorType.UNCLOSED_PARENTHESIS,
                 "expected a `)` to close len statement"
                                                                                                                 ).map(
-                tk1 -> new Len(token.getTokenPosition(), name)))));
+                tk1 -> new Len(tokenPosition, name)))));
     }
 
     private Optional<Literal> parseLiteral(Token.Type expectedLiteralType) {
-        return consumeToken(expectedLiteralType).map(token -> switch (expectedLiteralType) {
-            case CHAR_LITERAL -> new CharLiteral(token.getTokenPosition(), token.lexeme);
-            case RESERVED_FALSE -> new BooleanLiteral(token.getTokenPosition(), Scanner.RESERVED_FALSE);
-            case RESERVED_TRUE -> new BooleanLiteral(token.getTokenPosition(), Scanner.RESERVED_TRUE);
-            default -> new IntLiteral(token.getTokenPosition(), token.lexeme);
+        final String lexeme = getCurrentLexeme();
+        final long magnitude = tokens.literalMagnitude(0);
+        return consumeToken(expectedLiteralType).map(tokenPosition -> switch (expectedLiteralType) {
+            case CHAR_LITERAL -> new CharLiteral(tokenPosition, lexeme);
+            case RESERVED_FALSE -> new BooleanLiteral(tokenPosition, Scanner.RESERVED_FALSE);
+            case RESERVED_TRUE -> new BooleanLiteral(tokenPosition, Scanner.RESERVED_TRUE);
+            default -> new IntLiteral(tokenPosition, lexeme, magnitude);
         });
     }
 
@@ -758,18 +869,18 @@ public class Parser {
         return consumeToken(RESERVED_RETURN,
                             ParserError.ErrorType.IMPLEMENTATION_ERROR,
                             "was promised a return statement by implementation"
-                           ).flatMap(token -> {
+                           ).flatMap(tokenPosition -> {
             if (getCurrentTokenType() == SEMICOLON) {
                 consumeToken(SEMICOLON,
                              ParserError.ErrorType.IMPLEMENTATION_ERROR,
                              "was promised a semicolon by implementation"
                             );
-                return Optional.of(new Return(token.getTokenPosition(), new VoidExpression(token.getTokenPosition())));
+                return Optional.of(new Return(tokenPosition, new VoidExpression(tokenPosition)));
             } else {
                 return parseOrExpr().flatMap(expression -> consumeToken(SEMICOLON,
                                                                         ParserError.ErrorType.MISSING_SEMICOLON,
                                                                         "was expecting semicolon after return statement"
-                                                                       ).flatMap(tk -> Optional.of(new Return(token.getTokenPosition(),
+                                                                       ).flatMap(tk -> Optional.of(new Return(tokenPosition,
                                                                                                               expression
                 ))));
             }
@@ -780,45 +891,45 @@ public class Parser {
         return consumeToken(RESERVED_WHILE,
                             ParserError.ErrorType.IMPLEMENTATION_ERROR,
                             "was promised a `while statement` by implementation"
-                           ).flatMap(token -> consumeToken(LEFT_PARENTHESIS,
-                                                           ParserError.ErrorType.UNEXPECTED_TOKEN,
-                                                           "expected a `(` after " +
-                                                           Scanner.RESERVED_WHILE +
-                                                           " to denote beginning of while statement"
-                                                          ).flatMap(tk -> parseOrExpr().flatMap(expression -> consumeToken(
+                           ).flatMap(tokenPosition -> consumeToken(LEFT_PARENTHESIS,
+                                                                   ParserError.ErrorType.UNEXPECTED_TOKEN,
+                                                                   "expected a `(` after " +
+                                                                   Scanner.RESERVED_WHILE +
+                                                                   " to denote beginning of while statement"
+                                                                  ).flatMap(tk -> parseOrExpr().flatMap(expression -> consumeToken(
                 RIGHT_PARENTHESIS,
                 ParserError.ErrorType.UNCLOSED_PARENTHESIS,
                 "expected `)` to close out while statement condition"
-                                                                                                                          ).flatMap(
-                tk1 -> parseBlock().map(block -> new While(token.getTokenPosition(), expression, block))))));
+                                                                                                                                  ).flatMap(
+                tk1 -> parseBlock().map(block -> new While(tokenPosition, expression, block))))));
     }
 
     private Optional<If> parseIfStatement() {
         return consumeToken(RESERVED_IF,
                             ParserError.ErrorType.IMPLEMENTATION_ERROR,
                             "was promised an `if statement` by implementation"
-                           ).flatMap(token -> consumeToken(LEFT_PARENTHESIS,
-                                                           ParserError.ErrorType.UNEXPECTED_TOKEN,
-                                                           "expected a `(` after " +
-                                                           Scanner.RESERVED_IF +
-                                                           " to denote beginning of if statement"
-                                                          ).flatMap(tk -> parseOrExpr().flatMap(expression -> consumeToken(
+                           ).flatMap(tokenPosition -> consumeToken(LEFT_PARENTHESIS,
+                                                                   ParserError.ErrorType.UNEXPECTED_TOKEN,
+                                                                   "expected a `(` after " +
+                                                                   Scanner.RESERVED_IF +
+                                                                   " to denote beginning of if statement"
+                                                                  ).flatMap(tk -> parseOrExpr().flatMap(expression -> consumeToken(
                 RIGHT_PARENTHESIS,
                 ParserError.ErrorType.UNCLOSED_PARENTHESIS,
                 "expected `)` to close out if statement condition"
-                                                                                                                          ).flatMap(
+                                                                                                                                  ).flatMap(
                 tk1 -> parseBlock().flatMap(block -> {
                     if (getCurrentTokenType() == RESERVED_ELSE) {
                         return consumeToken(RESERVED_ELSE,
                                             ParserError.ErrorType.IMPLEMENTATION_ERROR,
                                             "was promised an `else statement` by implementation"
-                                           ).flatMap(tk2 -> parseBlock().map(elseBlock -> new If(token.getTokenPosition(),
+                                           ).flatMap(tk2 -> parseBlock().map(elseBlock -> new If(tokenPosition,
                                                                                                  expression,
                                                                                                  block,
                                                                                                  elseBlock
                         )));
                     } else {
-                        return Optional.of(new If(token.getTokenPosition(), expression, block, null));
+                        return Optional.of(new If(tokenPosition, expression, block, null));
                     }
                 })))));
     }
@@ -827,13 +938,13 @@ public class Parser {
         return consumeToken(RESERVED_FOR,
                             ParserError.ErrorType.IMPLEMENTATION_ERROR,
                             "was promised a `for statement` by implementation"
-                           ).flatMap(token -> consumeToken(LEFT_PARENTHESIS,
-                                                           ParserError.ErrorType.UNEXPECTED_TOKEN,
-                                                           "expected a `(` after " +
-                                                           Scanner.RESERVED_FOR +
-                                                           " to denote beginning of for statement but found " +
-                                                           getCurrentToken().lexeme
-                                                          ).flatMap(tk -> parseName("expected initialization variable").flatMap(
+                           ).flatMap(tokenPosition -> consumeToken(LEFT_PARENTHESIS,
+                                                                   ParserError.ErrorType.UNEXPECTED_TOKEN,
+                                                                   "expected a `(` after " +
+                                                                   Scanner.RESERVED_FOR +
+                                                                   " to denote beginning of for statement but found " +
+                                                                   getCurrentLexeme()
+                                                                  ).flatMap(tk -> parseName("expected initialization variable").flatMap(
                 initId -> consumeToken(ASSIGN,
                                        ParserError.ErrorType.UNEXPECTED_TOKEN,
                                        "expected `=` to split initialization variable and expression"
@@ -848,7 +959,7 @@ public class Parser {
                                 updateAssignExpr -> consumeToken(RIGHT_PARENTHESIS,
                                                                  ParserError.ErrorType.UNCLOSED_PARENTHESIS,
                                                                  "expected a `)` to close out for statement"
-                                                                ).flatMap(tk4 -> parseBlock().map(block -> new For(token.getTokenPosition(),
+                                                                ).flatMap(tk4 -> parseBlock().map(block -> new For(tokenPosition,
                                                                                                                    new Initialization(
                                                                                                                            initId,
                                                                                                                            initExpr
@@ -868,33 +979,33 @@ public class Parser {
         return consumeToken(RESERVED_BREAK,
                             ParserError.ErrorType.IMPLEMENTATION_ERROR,
                             "was promised keyword `break` by implementation"
-                           ).flatMap(token -> consumeToken(SEMICOLON,
-                                                           ParserError.ErrorType.MISSING_SEMICOLON,
-                                                           "expected semicolon after break statement"
-                                                          ).map(tk -> new Break(token.getTokenPosition())));
+                           ).flatMap(tokenPosition -> consumeToken(SEMICOLON,
+                                                                   ParserError.ErrorType.MISSING_SEMICOLON,
+                                                                   "expected semicolon after break statement"
+                                                                  ).map(tk -> new Break(tokenPosition)));
     }
 
     private Optional<Continue> parseContinueStatement() {
         return consumeToken(RESERVED_CONTINUE,
                             ParserError.ErrorType.IMPLEMENTATION_ERROR,
                             "was promised keyword `continue` by implementation"
-                           ).flatMap(token -> consumeToken(SEMICOLON,
-                                                           ParserError.ErrorType.MISSING_SEMICOLON,
-                                                           "expected semicolon after continue statement"
-                                                          ).map(tk -> new Continue(token.getTokenPosition())));
+                           ).flatMap(tokenPosition -> consumeToken(SEMICOLON,
+                                                                   ParserError.ErrorType.MISSING_SEMICOLON,
+                                                                   "expected semicolon after continue statement"
+                                                                  ).map(tk -> new Continue(tokenPosition)));
     }
 
     private Optional<Block> parseBlock() {
         return consumeToken(LEFT_CURLY,
                             ParserError.ErrorType.UNEXPECTED_TOKEN,
                             "expected a left curly brace to start a block"
-                           ).flatMap(leftCurlyToken -> parseFieldDeclarations().flatMap(fieldDeclarations -> parseStatements().flatMap(
+                           ).flatMap(leftCurlyPosition -> parseFieldDeclarations().flatMap(fieldDeclarations -> parseStatements().flatMap(
                 statements -> consumeToken(RIGHT_CURLY,
                                            ParserError.ErrorType.UNCLOSED_PARENTHESIS,
                                            "expected a right curly brace to end a block"
-                                          ).map(rightCurlyToken -> new Block(leftCurlyToken.getTokenPosition(),
-                                                                             fieldDeclarations,
-                                                                             statements
+                                          ).map(rightCurlyPosition -> new Block(leftCurlyPosition,
+                                                                                fieldDeclarations,
+                                                                                statements
                 )))));
     }
 
@@ -902,24 +1013,26 @@ public class Parser {
         return (consumeToken(RESERVED_IMPORT,
                              ParserError.ErrorType.IMPLEMENTATION_ERROR,
                              "was promised keyword `import` by implementation"
-                            ).flatMap(importKeywordToken -> parseName("expected valid import name not " +
-                                                                      getCurrentToken().lexeme).flatMap(importName -> consumeToken(
+                            ).flatMap(importKeywordPosition -> parseName("expected valid import name not " +
+                                                                         getCurrentLexeme()).flatMap(importName -> consumeToken(
                 SEMICOLON,
                 ParserError.ErrorType.MISSING_SEMICOLON,
                 "expected semicolon after import statement"
-                                                                                                                                  ).map(
-                tk -> new ImportDeclaration(importKeywordToken.getTokenPosition(), importName)))));
+                                                                                                                                     ).map(
+                tk -> new ImportDeclaration(importKeywordPosition, importName)))));
     }
 
     private Optional<FieldDeclaration> parseFieldDeclaration() {
+        final var typeTokenPosition = tokens.tokenPosition(0);
         return parseType("expected a valid type, one of (int, bool) but found " +
-                         getCurrentToken().lexeme).flatMap(this::parseFieldDeclarationWithType);
+                         getCurrentLexeme()).flatMap(type -> parseFieldDeclarationWithType(typeTokenPosition, type));
     }
 
-    private Optional<FieldDeclaration> parseFieldDeclarationWithType(@NotNull Type type) {
+    private Optional<FieldDeclaration> parseFieldDeclarationWithType(@NotNull TokenPosition typeTokenPosition,
+                                                                     @NotNull Type type) {
         assert type == Type.getIntType() || type == Type.getBoolType();
 
-        var tokenPosition = getCurrentToken().getTokenPosition();
+        var tokenPosition = tokens.tokenPosition(0);
         var variables = new ArrayList<RValue>();
         var arrays = new ArrayList<Array>();
 
@@ -944,23 +1057,26 @@ public class Parser {
         return consumeToken(SEMICOLON,
                             ParserError.ErrorType.MISSING_SEMICOLON,
                             "expected a semicolon to terminate a field declaration"
-                           ).map(tk -> new FieldDeclaration(tokenPosition, type, variables, arrays));
+                           ).map(tk -> new FieldDeclaration(tokenPosition, typeTokenPosition, type, variables, arrays));
 
     }
 
     private Optional<RValue> parseName(@NotNull String errorMessage) {
+        final String label = getCurrentLexeme();
+        final int symbol = tokens.symbol(0);
         return consumeToken(ID,
                             ParserError.ErrorType.MISSING_NAME,
                             errorMessage
-                           ).map(token -> new RValue(token.getTokenPosition(), token.lexeme));
+                           ).map(tokenPosition -> new RValue(tokenPosition, label, symbol));
     }
 
     private Optional<Type> parseType(@NotNull String errorMessage) {
+        final Token.Type type = getCurrentTokenType();
         return consumeOneOfTokens(ParserError.ErrorType.INVALID_FIELD_TYPE,
                                   errorMessage,
                                   RESERVED_INT,
                                   RESERVED_BOOL
-                                 ).map(token -> switch (token.type) {
+                                 ).map(tokenPosition -> switch (type) {
             case RESERVED_INT -> Type.getIntType();
             case RESERVED_BOOL -> Type.getBoolType();
             default -> Type.getUnsetType();
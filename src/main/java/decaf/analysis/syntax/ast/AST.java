@@ -1,22 +1,37 @@
 package decaf.analysis.syntax.ast;
 
 
-import java.util.List;
-
 import decaf.analysis.TokenPosition;
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
 import org.jetbrains.annotations.NotNull;
 
 public abstract class AST {
-  @NotNull final private TokenPosition tokenPosition;
+  @NotNull private TokenPosition tokenPosition;
 
   protected AST(@NotNull TokenPosition tokenPosition) {
     this.tokenPosition = tokenPosition;
   }
 
-  public abstract List<Pair<String, AST>> getChildren();
+  /**
+   * @return the number of children of this node, which {@link #childAt(int)} indexes without allocating
+   */
+  public abstract int childCount();
+
+  public abstract @NotNull AST childAt(int index);
+
+  /**
+   * @return what the child at {@code index} is to this node, for printing the tree
+   */
+  public abstract @NotNull String childLabelAt(int index);
+
+  protected @NotNull IndexOutOfBoundsException noChildAt(int index) {
+    return new IndexOutOfBoundsException(String.format("%s has no child %d, only %d",
+                                                       getClass().getSimpleName(),
+                                                       index,
+                                                       childCount()
+                                                      ));
+  }
 
   public abstract boolean isTerminal();
 
@@ -32,4 +47,8 @@ public abstract class AST {
   public @NotNull TokenPosition getTokenPosition() {
     return tokenPosition;
   }
+
+  void setTokenPosition(@NotNull TokenPosition tokenPosition) {
+    this.tokenPosition = tokenPosition;
+  }
 }
@@ -1,26 +1,27 @@
 package decaf.analysis.syntax.ast;
 
 
-import java.util.Collections;
-import java.util.List;
 
 import decaf.analysis.TokenPosition;
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
 
 public class Array extends AST {
   private final IntLiteral size;
   private final String label;
+  private final int symbol;
 
   public Array(
       TokenPosition tokenPosition,
       IntLiteral size,
-      String label
+      String label,
+      int symbol
   ) {
       super(tokenPosition);
     this.size = size;
     this.label = label;
+    this.symbol = symbol;
   }
 
   public IntLiteral getSize() {
@@ -31,9 +32,23 @@ public class Array extends AST {
     return label;
   }
 
+  public int getSymbol() {
+    return symbol;
+  }
+
+  @Override
+  public int childCount() {
+    return 0;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    throw noChildAt(index);
+  }
+
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return Collections.emptyList();
+  public @NotNull String childLabelAt(int index) {
+    throw noChildAt(index);
   }
 
   @Override
@@ -5,7 +5,6 @@ import java.util.List;
 
 import decaf.analysis.TokenPosition;
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
 import org.jetbrains.annotations.NotNull;
 
 public class AssignOpExpr extends AssignExpr implements HasExpression {
@@ -26,17 +25,26 @@ public class AssignOpExpr extends AssignExpr implements HasExpression {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(
-        new Pair<>(
-            "assignOp",
-            getAssignOp()
-        ),
-        new Pair<>(
-            "expression",
-            getExpression()
-        )
-    );
+  public int childCount() {
+    return 2;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> getAssignOp();
+      case 1 -> getExpression();
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "assignOp";
+      case 1 -> "expression";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
@@ -1,12 +1,11 @@
 package decaf.analysis.syntax.ast;
 
 
-import java.util.List;
 
 import decaf.analysis.TokenPosition;
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
 
 public class Assignment extends Statement {
   private final String operator;
@@ -34,17 +33,26 @@ public class Assignment extends Statement {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(
-        new Pair<>(
-            "location",
-            location
-        ),
-        new Pair<>(
-            "assignExpr",
-            assignExpr
-        )
-    );
+  public int childCount() {
+    return 2;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> location;
+      case 1 -> assignExpr;
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "location";
+      case 1 -> "assignExpr";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
@@ -2,7 +2,6 @@ package decaf.analysis.syntax.ast;
 
 
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.HashMap;
@@ -70,7 +69,7 @@ public class BinaryOpExpression extends Expression implements HasExpression {
   @NotNull private BinOperator op;
   @NotNull private Expression rhs;
 
-  private BinaryOpExpression(
+  BinaryOpExpression(
       @NotNull Expression lhs,
       @NotNull BinOperator binaryOp,
       @NotNull Expression rhs
@@ -91,9 +90,6 @@ public class BinaryOpExpression extends Expression implements HasExpression {
         binaryOp,
         rhs
     );
-    binaryOpExpression.setLhs(lhs);
-    binaryOpExpression.setRhs(rhs);
-    binaryOpExpression.setOp(binaryOp);
     return maybeRotate(binaryOpExpression);
   }
 
@@ -116,21 +112,28 @@ public class BinaryOpExpression extends Expression implements HasExpression {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(
-        new Pair<>(
-            "op",
-            getOp()
-        ),
-        new Pair<>(
-            "lhs",
-            getLhs()
-        ),
-        new Pair<>(
-            "rhs",
-            getRhs()
-        )
-    );
+  public int childCount() {
+    return 3;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> getOp();
+      case 1 -> getLhs();
+      case 2 -> getRhs();
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "op";
+      case 1 -> "lhs";
+      case 2 -> "rhs";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
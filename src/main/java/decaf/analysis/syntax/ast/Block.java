@@ -3,11 +3,12 @@ package decaf.analysis.syntax.ast;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import decaf.analysis.TokenPosition;
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
 
 public class Block extends Statement {
   final private List<FieldDeclaration> fieldDeclarationList;
@@ -33,19 +34,22 @@ public class Block extends Statement {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    ArrayList<Pair<String, AST>> nodeArrayList = new ArrayList<>();
-    for (FieldDeclaration fieldDeclaration : fieldDeclarationList)
-      nodeArrayList.add(new Pair<>(
-          "fieldDeclaration",
-          fieldDeclaration
-      ));
-    for (Statement statement : statementList)
-      nodeArrayList.add(new Pair<>(
-          "statement",
-          statement
-      ));
-    return nodeArrayList;
+  public int childCount() {
+    return fieldDeclarationList.size() + statementList.size();
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    if (index < fieldDeclarationList.size()) {
+      return fieldDeclarationList.get(index);
+    }
+    return statementList.get(index - fieldDeclarationList.size());
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    Objects.checkIndex(index, childCount());
+    return (index < fieldDeclarationList.size()) ? "fieldDeclaration" : "statement";
   }
 
   @Override
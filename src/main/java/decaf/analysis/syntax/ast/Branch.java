@@ -2,11 +2,8 @@ package decaf.analysis.syntax.ast;
 
 import decaf.analysis.syntax.ast.types.Type;
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-
 public class Branch extends Statement {
     @NotNull private final Expression condition;
 
@@ -18,8 +15,24 @@ public class Branch extends Statement {
         this.condition = condition;
     }
     @Override
-    public List<Pair<String, AST>> getChildren() {
-        return List.of(new Pair<>("condition", condition));
+    public int childCount() {
+        return 1;
+    }
+
+    @Override
+    public @NotNull AST childAt(int index) {
+        return switch (index) {
+            case 0 -> condition;
+            default -> throw noChildAt(index);
+        };
+    }
+
+    @Override
+    public @NotNull String childLabelAt(int index) {
+        return switch (index) {
+            case 0 -> "condition";
+            default -> throw noChildAt(index);
+        };
     }
 
     @Override
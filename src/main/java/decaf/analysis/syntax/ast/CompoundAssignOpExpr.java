@@ -5,7 +5,7 @@ import java.util.List;
 
 import decaf.analysis.TokenPosition;
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
+import org.jetbrains.annotations.NotNull;
 
 public class CompoundAssignOpExpr extends AssignExpr implements HasExpression {
   public final CompoundAssignOperator compoundAssignOp;
@@ -23,17 +23,26 @@ public class CompoundAssignOpExpr extends AssignExpr implements HasExpression {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(
-        new Pair<>(
-            "compoundAssign",
-            compoundAssignOp
-        ),
-        new Pair<>(
-            "expression",
-            expression
-        )
-    );
+  public int childCount() {
+    return 2;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> compoundAssignOp;
+      case 1 -> expression;
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "compoundAssign";
+      case 1 -> "expression";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
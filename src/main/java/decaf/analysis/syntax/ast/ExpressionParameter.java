@@ -4,12 +4,10 @@ package decaf.analysis.syntax.ast;
 import decaf.analysis.syntax.ast.types.Type;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collections;
 import java.util.List;
 
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
 
 public class ExpressionParameter extends ActualArgument implements HasExpression, Typed {
@@ -21,11 +19,24 @@ public class ExpressionParameter extends ActualArgument implements HasExpression
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return Collections.singletonList(new Pair<>(
-        "expression",
-        expression
-    ));
+  public int childCount() {
+    return 1;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> expression;
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "expression";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
@@ -6,11 +6,11 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import decaf.analysis.TokenPosition;
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
 
 public class FieldDeclaration extends Declaration {
@@ -20,46 +20,62 @@ public class FieldDeclaration extends Declaration {
   final public List<Array> arrays;
   @NotNull
   final private Type type;
+  @NotNull
+  private TokenPosition typeTokenPosition;
 
   public FieldDeclaration(
       @NotNull TokenPosition tokenPosition,
+      @NotNull TokenPosition typeTokenPosition,
       @NotNull Type type,
       @NotNull List<RValue> vars,
       @NotNull List<Array> arrays
   ) {
     super(tokenPosition);
+    this.typeTokenPosition = typeTokenPosition;
     this.type = type;
     this.vars = vars;
     this.arrays = arrays;
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-   var pairArrayList = new ArrayList<Pair<String, AST>>();
-    pairArrayList.add(new Pair<>(
-        "type",
-        new RValue(
-                getTokenPosition(),
-            type.toString()
-        )
-    ));
-    for (RValue RValue : vars)
-      pairArrayList.add(new Pair<>(
-          "var",
-          RValue
-      ));
-    for (Array array : arrays)
-      pairArrayList.add(new Pair<>(
-          "array",
-          array
-      ));
-    return pairArrayList;
+  public int childCount() {
+    return 1 + vars.size() + arrays.size();
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    if (index == 0) {
+      return type;
+    } else if (index <= vars.size()) {
+      return vars.get(index - 1);
+    }
+    return arrays.get(index - 1 - vars.size());
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    Objects.checkIndex(index, childCount());
+    if (index == 0) {
+      return "type";
+    }
+    return (index <= vars.size()) ? "var" : "array";
   }
 
   public @NotNull Type getType() {
     return type;
   }
 
+  /**
+   * @return the position of the type keyword, where the declaration starts in the source
+   */
+  public @NotNull TokenPosition getTypeTokenPosition() {
+    return typeTokenPosition;
+  }
+
+  void setTypeTokenPosition(@NotNull TokenPosition typeTokenPosition) {
+    this.typeTokenPosition = typeTokenPosition;
+  }
+
   @Override
   public boolean isTerminal() {
     return false;
@@ -7,8 +7,8 @@ import decaf.analysis.TokenPosition;
 import decaf.analysis.lexical.Scanner;
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
 import decaf.shared.Utils;
+import org.jetbrains.annotations.NotNull;
 
 public class For extends Statement implements HasExpression {
   private final Initialization initialization;
@@ -31,25 +31,30 @@ public class For extends Statement implements HasExpression {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(
-        new Pair<>(
-            "initialization",
-            getInitialization()
-        ),
-        new Pair<>(
-            "terminatingCondition",
-            getTerminatingCondition()
-        ),
-        new Pair<>(
-            "update",
-            getUpdate()
-        ),
-        new Pair<>(
-                "block",
-                getBody()
-        )
-    );
+  public int childCount() {
+    return 4;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> getInitialization();
+      case 1 -> getTerminatingCondition();
+      case 2 -> getUpdate();
+      case 3 -> getBody();
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "initialization";
+      case 1 -> "terminatingCondition";
+      case 2 -> "update";
+      case 3 -> "block";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
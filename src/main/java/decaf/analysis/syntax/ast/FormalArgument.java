@@ -1,26 +1,28 @@
 package decaf.analysis.syntax.ast;
 
 
-import java.util.List;
 
 import decaf.analysis.TokenPosition;
 import decaf.analysis.syntax.ast.types.Type;
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
 
 public class FormalArgument extends Declaration {
   final private String name;
+  final private int symbol;
   final private Type type;
 
   public FormalArgument(
       TokenPosition tokenPosition,
       String name,
+      int symbol,
       Type type
   ) {
     super(tokenPosition);
     this.name = name;
+    this.symbol = symbol;
     this.type = type;
   }
 
@@ -28,15 +30,29 @@ public class FormalArgument extends Declaration {
     return name;
   }
 
+  public int getSymbol() {
+    return symbol;
+  }
+
+  @Override
+  public int childCount() {
+    return 1;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> type;
+      default -> throw noChildAt(index);
+    };
+  }
+
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(new Pair<>(
-        "type",
-        new RValue(
-                getTokenPosition(),
-            type.toString()
-        )
-    ));
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "type";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
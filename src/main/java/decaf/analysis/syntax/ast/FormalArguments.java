@@ -2,12 +2,12 @@ package decaf.analysis.syntax.ast;
 
 import decaf.analysis.TokenPosition;
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 public class FormalArguments extends Statement implements Iterable<FormalArgument> {
@@ -19,12 +19,19 @@ public class FormalArguments extends Statement implements Iterable<FormalArgumen
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public List<Pair<String, AST>> getChildren() {
-        return (List<Pair<String, AST>>) formalArguments.stream()
-                                                        .map(formalArgument -> new Pair<>("formalArgument",
-                                                                                          formalArgument
-                                                        ));
+    public int childCount() {
+        return formalArguments.size();
+    }
+
+    @Override
+    public @NotNull AST childAt(int index) {
+        return formalArguments.get(index);
+    }
+
+    @Override
+    public @NotNull String childLabelAt(int index) {
+        Objects.checkIndex(index, childCount());
+        return "formalArgument";
     }
 
     @Override
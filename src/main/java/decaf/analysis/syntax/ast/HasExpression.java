@@ -5,6 +5,11 @@ import java.util.List;
 public interface HasExpression {
   List<Expression> getExpressions();
 
+  /**
+   * Replaces the child {@code oldExpr} of this node, if it has it, with {@code newExpr}; for a node of a
+   * {@link Program}, use {@link Program#replaceExpression(HasExpression, Expression, Expression)} so that the program
+   * knows its nodes changed
+   */
   void compareAndSwapExpression(
       Expression oldExpr,
       Expression newExpr
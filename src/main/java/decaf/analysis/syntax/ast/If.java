@@ -4,14 +4,13 @@ package decaf.analysis.syntax.ast;
 import decaf.analysis.TokenPosition;
 import decaf.analysis.lexical.Scanner;
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
 import decaf.shared.Utils;
 import decaf.shared.env.Scope;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 public class If extends Statement implements HasExpression {
@@ -35,14 +34,33 @@ public class If extends Statement implements HasExpression {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    List<Pair<String, AST>> commonChildren = new ArrayList<>();
-    commonChildren.add(new Pair<>("condition", getCondition()));
-    commonChildren.add(new Pair<>("thenBlock", getThenBlock()));
-    if (elseBlock != null) {
-      commonChildren.add(new Pair<>("elseBlock", elseBlock));
-    }
-      return List.copyOf(commonChildren);
+  public int childCount() {
+    return (elseBlock == null) ? 2 : 3;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> getCondition();
+      case 1 -> getThenBlock();
+      case 2 -> {
+        if (elseBlock == null) {
+          throw noChildAt(index);
+        }
+        yield elseBlock;
+      }
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    Objects.checkIndex(index, childCount());
+    return switch (index) {
+      case 0 -> "condition";
+      case 1 -> "thenBlock";
+      default -> "elseBlock";
+    };
   }
 
   @Override
@@ -1,13 +1,11 @@
 package decaf.analysis.syntax.ast;
 
 
-import java.util.List;
 
 import decaf.analysis.TokenPosition;
 import decaf.analysis.lexical.Scanner;
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
 import org.jetbrains.annotations.NotNull;
 
@@ -20,11 +18,24 @@ public class ImportDeclaration extends Declaration {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(new Pair<>(
-        "name",
-        importName
-    ));
+  public int childCount() {
+    return 1;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> importName;
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "name";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
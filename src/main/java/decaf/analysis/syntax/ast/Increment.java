@@ -1,15 +1,13 @@
 package decaf.analysis.syntax.ast;
 
 
-import java.util.Collections;
-import java.util.List;
 
 import decaf.analysis.TokenPosition;
 import decaf.analysis.lexical.Scanner;
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
 
 public class Increment extends AssignExpr {
   public Increment(TokenPosition tokenPosition) {
@@ -20,8 +18,18 @@ public class Increment extends AssignExpr {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return Collections.emptyList();
+  public int childCount() {
+    return 0;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    throw noChildAt(index);
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    throw noChildAt(index);
   }
 
   @Override
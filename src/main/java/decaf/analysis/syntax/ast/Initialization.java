@@ -4,8 +4,7 @@ package decaf.analysis.syntax.ast;
 import java.util.List;
 
 import decaf.shared.AstVisitor;
-
-import decaf.shared.Pair;
+import org.jetbrains.annotations.NotNull;
 
 public class Initialization extends Statement implements HasExpression {
   private final RValue initLocation;
@@ -21,17 +20,26 @@ public class Initialization extends Statement implements HasExpression {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(
-        new Pair<>(
-            "initLocation",
-            getInitLocation()
-        ),
-        new Pair<>(
-            "initExpression",
-            getInitExpression()
-        )
-    );
+  public int childCount() {
+    return 2;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> getInitLocation();
+      case 1 -> getInitExpression();
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "initLocation";
+      case 1 -> "initExpression";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
@@ -9,32 +9,91 @@ import org.jetbrains.annotations.NotNull;
 import java.util.Objects;
 
 public class IntLiteral extends Literal {
-  public IntLiteral(
+  // the absolute value as an unsigned long, computed by the scanner; above 2^63 it does not fit in a long
+  private final long magnitude;
+  private final boolean negated;
+
+  /**
+   * For literals which are not spelled as a number; they compute their value in {@link #convertToLong()} and are never
+   * in range as an int literal, so negating one yields an out of bounds int literal
+   */
+  protected IntLiteral(
       TokenPosition tokenPosition,
       String literalToken
+  ) {
+    this(
+        tokenPosition,
+        literalToken,
+        -1L
+    );
+  }
+
+  public IntLiteral(
+      TokenPosition tokenPosition,
+      String literalToken,
+      long magnitude
+  ) {
+    this(
+        tokenPosition,
+        literalToken,
+        magnitude,
+        false
+    );
+  }
+
+  IntLiteral(
+      TokenPosition tokenPosition,
+      String literalToken,
+      long magnitude,
+      boolean negated
   ) {
     super(
         tokenPosition,
         literalToken
     );
+    this.magnitude = magnitude;
+    this.negated = negated;
+  }
+
+  /**
+   * @return whether the value is within [-9223372036854775808, 9223372036854775807]
+   */
+  public boolean isInRange() {
+    return Long.compareUnsigned(
+        magnitude,
+        negated ? Long.MIN_VALUE : Long.MAX_VALUE
+    ) <= 0;
+  }
+
+  long getMagnitude() {
+    return magnitude;
+  }
+
+  boolean isNegated() {
+    return negated;
   }
 
   public Long convertToLong() {
-    return Long.decode(
-        literal
-    );
+    if (!isInRange()) {
+      throw new NumberFormatException("int literal out of range: " + literal);
+    }
+    return negated ? -magnitude : magnitude;
   }
 
   public IntLiteral negate() {
     if (literal.startsWith("-")) {
       return new IntLiteral(
           getTokenPosition(),
-          literal.substring(1)
+          literal.substring(1),
+          magnitude,
+          !negated
       );
     } else {
       return new IntLiteral(
           getTokenPosition(),
-          "-" + literal
+          "-" + literal,
+          magnitude,
+          !negated
       );
     }
   }
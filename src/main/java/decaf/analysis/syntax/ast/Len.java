@@ -1,15 +1,16 @@
 package decaf.analysis.syntax.ast;
 
 
-import java.util.List;
+import java.util.Optional;
 
 import decaf.analysis.TokenPosition;
 import decaf.analysis.lexical.Scanner;
 import decaf.analysis.syntax.ast.types.Type;
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
+import decaf.shared.descriptors.Descriptor;
 import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
 
 public class Len extends Expression {
   final private RValue arrayName;
@@ -23,16 +24,41 @@ public class Len extends Expression {
     this.arrayName = arrayName;
   }
 
+  public RValue getArrayName() {
+    return arrayName;
+  }
+
   public String getArrayLabel() {
     return arrayName.getLabel();
   }
 
+  public int getArraySymbol() {
+    return arrayName.getSymbol();
+  }
+
+  public Optional<Descriptor> getArrayDescriptor() {
+    return arrayName.getDescriptor();
+  }
+
+  @Override
+  public int childCount() {
+    return 1;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> arrayName;
+      default -> throw noChildAt(index);
+    };
+  }
+
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(new Pair<>(
-        "id",
-        arrayName
-    ));
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "id";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
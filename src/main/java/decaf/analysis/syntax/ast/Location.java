@@ -1,7 +1,11 @@
 package decaf.analysis.syntax.ast;
 
 
+import decaf.shared.descriptors.Descriptor;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Optional;
 
 public abstract class Location extends Expression {
   @NotNull protected final RValue rValue;
@@ -14,4 +18,16 @@ public abstract class Location extends Expression {
   public String getLabel() {
     return rValue.getLabel();
   }
+
+  public int getSymbol() {
+    return rValue.getSymbol();
+  }
+
+  public Optional<Descriptor> getDescriptor() {
+    return rValue.getDescriptor();
+  }
+
+  public void bind(@Nullable Descriptor descriptor) {
+    rValue.bind(descriptor);
+  }
 }
@@ -5,8 +5,8 @@ import java.util.List;
 
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
 
 public class LocationArray extends Location implements HasExpression {
   public Expression expression;
@@ -20,17 +20,26 @@ public class LocationArray extends Location implements HasExpression {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(
-        new Pair<>(
-            "id",
-            rValue
-        ),
-        new Pair<>(
-            "expression",
-            expression
-        )
-    );
+  public int childCount() {
+    return 2;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> rValue;
+      case 1 -> expression;
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "id";
+      case 1 -> "expression";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
@@ -1,13 +1,12 @@
 package decaf.analysis.syntax.ast;
 
 
-import java.util.List;
 
 import decaf.analysis.TokenPosition;
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
 
 public class LocationAssignExpr extends Statement {
   public final Location location;
@@ -24,17 +23,26 @@ public class LocationAssignExpr extends Statement {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(
-        new Pair<>(
-            "location",
-            location
-        ),
-        new Pair<>(
-            "assignExpr",
-            assignExpr
-        )
-    );
+  public int childCount() {
+    return 2;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> location;
+      case 1 -> assignExpr;
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "location";
+      case 1 -> "assignExpr";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
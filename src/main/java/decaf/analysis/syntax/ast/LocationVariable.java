@@ -1,13 +1,11 @@
 package decaf.analysis.syntax.ast;
 
 
-import java.util.Collections;
-import java.util.List;
 
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
 
 public class LocationVariable extends Location {
   public LocationVariable(RValue RValue) {
@@ -15,11 +13,24 @@ public class LocationVariable extends Location {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return Collections.singletonList(new Pair<>(
-        "name",
-        rValue
-    ));
+  public int childCount() {
+    return 1;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> rValue;
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "name";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
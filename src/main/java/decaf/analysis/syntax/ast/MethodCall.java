@@ -3,11 +3,14 @@ package decaf.analysis.syntax.ast;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
+import decaf.shared.descriptors.Descriptor;
 import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
 
 public class MethodCall extends Expression {
   final public RValue methodId;
@@ -21,19 +24,24 @@ public class MethodCall extends Expression {
     this.actualArgumentList = actualArgumentList;
   }
 
+  public Optional<Descriptor> getDescriptor() {
+    return methodId.getDescriptor();
+  }
+
+  @Override
+  public int childCount() {
+    return 1 + actualArgumentList.size();
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return (index == 0) ? methodId : actualArgumentList.get(index - 1);
+  }
+
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    ArrayList<Pair<String, AST>> nodeArrayList = new ArrayList<>();
-    nodeArrayList.add(new Pair<>(
-        "methodName",
-        methodId
-    ));
-    for (ActualArgument actualArgument : actualArgumentList)
-      nodeArrayList.add(new Pair<>(
-          "arg",
-          actualArgument
-      ));
-    return nodeArrayList;
+  public @NotNull String childLabelAt(int index) {
+    Objects.checkIndex(index, childCount());
+    return (index == 0) ? "methodName" : "arg";
   }
 
   @Override
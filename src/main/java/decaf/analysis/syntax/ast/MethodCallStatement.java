@@ -1,13 +1,12 @@
 package decaf.analysis.syntax.ast;
 
 
-import java.util.List;
 
 import decaf.analysis.TokenPosition;
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
 
 public class MethodCallStatement extends Statement {
   public final MethodCall methodCall;
@@ -21,8 +20,18 @@ public class MethodCallStatement extends Statement {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return methodCall.getChildren();
+  public int childCount() {
+    return methodCall.childCount();
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return methodCall.childAt(index);
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return methodCall.childLabelAt(index);
   }
 
   @Override
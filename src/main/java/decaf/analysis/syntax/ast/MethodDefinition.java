@@ -4,11 +4,11 @@ package decaf.analysis.syntax.ast;
 import decaf.analysis.TokenPosition;
 import decaf.analysis.syntax.ast.types.Type;
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class MethodDefinition extends Statement {
   private final Type returnType;
@@ -30,36 +30,45 @@ public class MethodDefinition extends Statement {
     this.block = block;
   }
 
+  public RValue getMethodAstName() {
+    return methodAstName;
+  }
+
   public String getName() {
     return methodAstName.getLabel();
   }
 
+  public int getSymbol() {
+    return methodAstName.getSymbol();
+  }
+
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    List<Pair<String, AST>> nodes = new ArrayList<>();
-    nodes.add(new Pair<>(
-        "returnType",
-        new RValue(
-                getReturnType().getTokenPosition(),
-            getReturnType().toString()
-        )
-    ));
-    nodes.add(new Pair<>(
-        "methodName",
-        methodAstName
-    ));
-    for (FormalArgument formalArgument : getFormalArguments()) {
-      nodes.add(new Pair<>(
-          "arg",
-          formalArgument
-      ));
+  public int childCount() {
+    return 3 + formalArguments.size();
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    Objects.checkIndex(index, childCount());
+    if (index == 0) {
+      return returnType;
+    } else if (index == 1) {
+      return methodAstName;
+    } else if (index < childCount() - 1) {
+      return formalArguments.get(index - 2);
     }
-    nodes.add(new Pair<>(
-        "block",
-        getBody()
-    ));
+    return block;
+  }
 
-    return nodes;
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    Objects.checkIndex(index, childCount());
+    if (index == 0) {
+      return "returnType";
+    } else if (index == 1) {
+      return "methodName";
+    }
+    return (index < childCount() - 1) ? "arg" : "block";
   }
 
   @Override
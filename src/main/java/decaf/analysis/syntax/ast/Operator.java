@@ -1,12 +1,9 @@
 package decaf.analysis.syntax.ast;
 
 
-import java.util.Collections;
-import java.util.List;
 
 import decaf.analysis.TokenPosition;
-import decaf.shared.Pair;
-
+import org.jetbrains.annotations.NotNull;
 
 public abstract class Operator extends AST {
   private final String label;
@@ -20,8 +17,18 @@ public abstract class Operator extends AST {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return Collections.emptyList();
+  public int childCount() {
+    return 0;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    throw noChildAt(index);
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    throw noChildAt(index);
   }
 
   public abstract String opRep();
@@ -5,8 +5,7 @@ import java.util.List;
 
 import decaf.analysis.TokenPosition;
 import decaf.shared.AstVisitor;
-
-import decaf.shared.Pair;
+import org.jetbrains.annotations.NotNull;
 
 public class ParenthesizedExpression extends Expression implements HasExpression {
   private Expression expression;
@@ -16,15 +15,28 @@ public class ParenthesizedExpression extends Expression implements HasExpression
       Expression expression
   ) {
     super(tokenPosition);
-    this.setExpression(expression);
+    this.expression = expression;
+  }
+
+  @Override
+  public int childCount() {
+    return 1;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> getExpression();
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(new Pair<>(
-        "expression",
-        getExpression()
-    ));
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "expression";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
@@ -3,13 +3,18 @@ package decaf.analysis.syntax.ast;
 
 import decaf.analysis.TokenPosition;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import decaf.shared.AstVisitor;
+import decaf.shared.AstWalker;
 
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
 
 public class Program extends AST {
@@ -19,6 +24,16 @@ public class Program extends AST {
   private final List<FieldDeclaration> fieldDeclarationList;
   @NotNull
   private final List<MethodDefinition> methodDefinitionList;
+  // the nodes of this program by their exact class, in pre-order, built on the first query
+  @Nullable
+  private Map<Class<?>, List<AST>> nodesByClass;
+  // the answers to the queries made since nodesByClass was built
+  @NotNull
+  private final Map<Class<?>, List<?>> nodesByType = new HashMap<>();
+  // how many times the nodes of this program have been rewritten, see nodesChanged()
+  private long modCount;
+  // the value of modCount when nodesByClass was built
+  private long indexedModCount;
 
   public Program(
       @NotNull List<ImportDeclaration> importDeclarationList,
@@ -32,24 +47,94 @@ public class Program extends AST {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    ArrayList<Pair<String, AST>> nodeList = new ArrayList<>();
-    for (ImportDeclaration importDeclaration : getImportDeclaration())
-      nodeList.add(new Pair<>(
-          "import",
-          importDeclaration
-      ));
-    for (FieldDeclaration fieldDeclaration : getFieldDeclarations())
-      nodeList.add(new Pair<>(
-          "field",
-          fieldDeclaration
-      ));
-    for (MethodDefinition methodDefinition : getMethodDefinitions())
-      nodeList.add(new Pair<>(
-          "method",
-          methodDefinition
-      ));
-    return nodeList;
+  public int childCount() {
+    return importDeclarationList.size() + fieldDeclarationList.size() + methodDefinitionList.size();
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    if (index < importDeclarationList.size()) {
+      return importDeclarationList.get(index);
+    }
+    index -= importDeclarationList.size();
+    if (index < fieldDeclarationList.size()) {
+      return fieldDeclarationList.get(index);
+    }
+    return methodDefinitionList.get(index - fieldDeclarationList.size());
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    Objects.checkIndex(index, childCount());
+    if (index < importDeclarationList.size()) {
+      return "import";
+    }
+    return (index < importDeclarationList.size() + fieldDeclarationList.size()) ? "field" : "method";
+  }
+
+  /**
+   * @return every node of this program that is an instance of {@code type}, in pre-order
+   * <p>
+   * The first query walks the program once to index its nodes by class, and every query after it is answered by a
+   * lookup. The index is rebuilt on the first query after {@link #nodesChanged()}.
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized <T> @NotNull List<T> getNodesOfType(@NotNull Class<T> type) {
+    if (nodesByClass == null || indexedModCount != modCount) {
+      indexNodes();
+    }
+    return (List<T>) nodesByType.computeIfAbsent(type, this::collectNodesOfType);
+  }
+
+  /**
+   * Replaces the child {@code oldExpr} of {@code parent}, a node of this program, with {@code newExpr}
+   */
+  public void replaceExpression(
+      @NotNull HasExpression parent,
+      @NotNull Expression oldExpr,
+      @NotNull Expression newExpr
+  ) {
+    parent.compareAndSwapExpression(oldExpr, newExpr);
+    nodesChanged();
+  }
+
+  /**
+   * Must be called after any node of this program is rewritten other than through
+   * {@link #replaceExpression(HasExpression, Expression, Expression)}, as nodes do not know which program they are in
+   */
+  public synchronized void nodesChanged() {
+    modCount++;
+  }
+
+  private void indexNodes() {
+    final var index = new HashMap<Class<?>, List<AST>>();
+    indexedModCount = modCount;
+    new AstWalker().walk(this, (parent, childIndex, node) -> {
+      index.computeIfAbsent(node.getClass(), nodeClass -> new ArrayList<>())
+           .add(node);
+      return true;
+    });
+    nodesByClass = index;
+    nodesByType.clear();
+  }
+
+  private @NotNull List<?> collectNodesOfType(@NotNull Class<?> type) {
+    assert nodesByClass != null;
+    final var nodesOfExactType = nodesByClass.get(type);
+    if (nodesOfExactType != null && nodesByClass.keySet()
+                                                .stream()
+                                                .noneMatch(nodeClass -> nodeClass != type &&
+                                                                        type.isAssignableFrom(nodeClass))) {
+      return Collections.unmodifiableList(nodesOfExactType);
+    }
+    final var nodes = new ArrayList<AST>();
+    new AstWalker().walk(this, (parent, childIndex, node) -> {
+      if (type.isInstance(node)) {
+        nodes.add(node);
+      }
+      return true;
+    });
+    return Collections.unmodifiableList(nodes);
   }
 
   @Override
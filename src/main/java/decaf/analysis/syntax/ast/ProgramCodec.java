@@ -0,0 +1,1136 @@
+package decaf.analysis.syntax.ast;
+
+
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import decaf.analysis.TokenPosition;
+import decaf.analysis.syntax.ast.types.ArrayType;
+import decaf.analysis.syntax.ast.types.Type;
+import decaf.shared.AstVisitor;
+import decaf.shared.CompilationCache;
+import decaf.shared.descriptors.Descriptor;
+import decaf.shared.descriptors.MethodDescriptor;
+import decaf.shared.env.Scope;
+import decaf.shared.env.SymbolTable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A compact binary encoding of a semantically checked program: its symbol table, its AST with the types the checker
+ * gave its expressions, the tree of scopes under the global scope, every descriptor declared in them, and the
+ * descriptor each name was bound to.
+ * <p>
+ * Nodes are written in pre-order, each as a tag followed by its token position, the fields which are not nodes, and
+ * then its children, and numbered in that order so that scopes, descriptors and bindings can refer to them. Both
+ * directions keep the nodes still to be written or built on a stack of their own rather than the call stack, so no
+ * nesting depth is too deep to cache. Types are written by value and read back as the
+ * shared instances, since they are compared by identity. Decoding builds the nodes directly, without rotating binary
+ * expressions or checking anything, so it is only meant for bytes produced by {@link #encode}; anything malformed
+ * makes it throw an unchecked exception.
+ */
+public class ProgramCodec implements AstVisitor<Void, Void> {
+  private enum Tag {
+    NULL,
+    INT_LITERAL,
+    BOOLEAN_LITERAL,
+    CHAR_LITERAL,
+    STRING_LITERAL,
+    FIELD_DECLARATION,
+    METHOD_DEFINITION,
+    IMPORT_DECLARATION,
+    FOR,
+    BREAK,
+    CONTINUE,
+    WHILE,
+    UNARY_OP_EXPRESSION,
+    BINARY_OP_EXPRESSION,
+    BLOCK,
+    PARENTHESIZED_EXPRESSION,
+    LOCATION_ARRAY,
+    LOCATION_VARIABLE,
+    EXPRESSION_PARAMETER,
+    IF,
+    RETURN,
+    ARRAY,
+    METHOD_CALL,
+    METHOD_CALL_STATEMENT,
+    LOCATION_ASSIGN_EXPR,
+    ASSIGN_OP_EXPR,
+    COMPOUND_ASSIGN_OP_EXPR,
+    INCREMENT,
+    DECREMENT,
+    FORMAL_ARGUMENT,
+    FORMAL_ARGUMENTS,
+    R_VALUE,
+    LEN,
+    INITIALIZATION,
+    ASSIGNMENT,
+    VOID_EXPRESSION
+  }
+
+  private enum OperatorTag {
+    ARITHMETIC, CONDITIONAL, EQUALITY, RELATIONAL, UNARY, ASSIGN, COMPOUND_ASSIGN
+  }
+
+  private enum TypeTag {
+    INT, BOOL, VOID, STRING, UNSET, ARRAY
+  }
+
+  private enum DescriptorTag {
+    LOCAL_VARIABLE, FORMAL_ARGUMENT, ARRAY, IMPORT, METHOD
+  }
+
+  private static final Tag[] TAGS = Tag.values();
+  private static final OperatorTag[] OPERATOR_TAGS = OperatorTag.values();
+  private static final TypeTag[] TYPE_TAGS = TypeTag.values();
+  private static final DescriptorTag[] DESCRIPTOR_TAGS = DescriptorTag.values();
+  private static final int NONE = -1;
+  // stands for an absent child on the stack of children to write
+  private static final Object NO_NODE = new Object();
+
+  private final ByteArrayDataOutput out = ByteStreams.newDataOutput();
+  // the pre-order number of every node written so far
+  private final Map<AST, Integer> nodeIds = new IdentityHashMap<>();
+  // the children of the node being written, each a node, NO_NODE or a list of nodes
+  private final List<Object> children = new ArrayList<>();
+
+  private ProgramCodec() {
+  }
+
+  /**
+   * @throws IllegalStateException if the program cannot be encoded, such as when a node is shared by two parents or a
+   *                               name is bound to a descriptor no scope declares
+   */
+  public static byte[] encode(
+      @NotNull SymbolTable symbolTable,
+      @NotNull Program program,
+      @NotNull Scope globalScope
+  ) {
+    final var codec = new ProgramCodec();
+    codec.writeSymbolTable(symbolTable);
+    codec.writeTree(program);
+    codec.writeScopes(globalScope);
+    return codec.out.toByteArray();
+  }
+
+  public static @NotNull CompilationCache.Entry decode(byte[] bytes) {
+    return new Decoder(ByteStreams.newDataInput(bytes)).read();
+  }
+
+  private void writeSymbolTable(@NotNull SymbolTable symbolTable) {
+    out.writeInt(symbolTable.size());
+    for (int symbol = 0; symbol < symbolTable.size(); symbol++) {
+      out.writeUTF(symbolTable.nameOf(symbol));
+    }
+  }
+
+  private void writeScopes(@NotNull Scope globalScope) {
+    final List<Scope> scopes = new ArrayList<>();
+    final Map<Scope, Integer> scopeIds = new IdentityHashMap<>();
+    final List<Descriptor> descriptors = new ArrayList<>();
+    final Map<Descriptor, Integer> descriptorIds = new IdentityHashMap<>();
+    collectScopes(globalScope, scopes, scopeIds);
+    for (Scope scope : scopes) {
+      for (int position = 0; position < scope.size(); position++) {
+        final Descriptor descriptor = scope.descriptorAt(position);
+        if (!descriptorIds.containsKey(descriptor)) {
+          descriptorIds.put(descriptor, descriptors.size());
+          descriptors.add(descriptor);
+        }
+      }
+    }
+
+    // the scopes in pre-order, each after its parent
+    out.writeInt(scopes.size());
+    for (Scope scope : scopes) {
+      out.writeInt((scope.parent == null) ? NONE : scopeIds.get(scope.parent));
+      out.writeInt((scope.owner == null) ? NONE : nodeIdOf(scope.owner));
+    }
+
+    out.writeInt(descriptors.size());
+    for (Descriptor descriptor : descriptors) {
+      if (descriptor instanceof MethodDescriptor methodDescriptor) {
+        out.writeByte(DescriptorTag.METHOD.ordinal());
+        out.writeInt(nodeIdOf(methodDescriptor.methodDefinition));
+        out.writeInt(idOf(scopeIds, methodDescriptor.scope));
+      } else {
+        out.writeByte(tagOf(descriptor).ordinal());
+        writeType(descriptor.getType());
+      }
+      out.writeInt((descriptor.getEnclosingScope() == null) ? NONE : idOf(scopeIds, descriptor.getEnclosingScope()));
+    }
+
+    for (Scope scope : scopes) {
+      out.writeInt(scope.size());
+      for (int position = 0; position < scope.size(); position++) {
+        out.writeInt(scope.symbolAt(position));
+        out.writeInt(descriptorIds.get(scope.descriptorAt(position)));
+      }
+    }
+
+    final List<RValue> boundNames = new ArrayList<>();
+    for (AST node : nodeIds.keySet()) {
+      if (node instanceof RValue rValue && rValue.getDescriptor()
+                                                 .isPresent()) {
+        boundNames.add(rValue);
+      }
+    }
+    out.writeInt(boundNames.size());
+    for (RValue rValue : boundNames) {
+      out.writeInt(nodeIdOf(rValue));
+      out.writeInt(idOf(descriptorIds, rValue.getDescriptor()
+                                             .orElseThrow()));
+    }
+  }
+
+  private static void collectScopes(
+      @NotNull Scope globalScope,
+      @NotNull List<Scope> scopes,
+      @NotNull Map<Scope, Integer> scopeIds
+  ) {
+    final Deque<Scope> toVisit = new ArrayDeque<>();
+    toVisit.push(globalScope);
+    while (!toVisit.isEmpty()) {
+      final Scope scope = toVisit.pop();
+      scopeIds.put(scope, scopes.size());
+      scopes.add(scope);
+      for (int i = scope.children.size() - 1; i >= 0; i--) {
+        toVisit.push(scope.children.get(i));
+      }
+    }
+  }
+
+  private static <T> int idOf(@NotNull Map<T, Integer> ids, @NotNull T value) {
+    final Integer id = ids.get(value);
+    if (id == null) {
+      throw new IllegalStateException("not reachable from the global scope: " + value);
+    }
+    return id;
+  }
+
+  private int nodeIdOf(@NotNull AST node) {
+    final Integer id = nodeIds.get(node);
+    if (id == null) {
+      throw new IllegalStateException("not a node of the program: " + node);
+    }
+    return id;
+  }
+
+  private static @NotNull DescriptorTag tagOf(@NotNull Descriptor descriptor) {
+    if (descriptor.isFormalArgument()) {
+      return DescriptorTag.FORMAL_ARGUMENT;
+    } else if (descriptor.isForArray()) {
+      return DescriptorTag.ARRAY;
+    } else if (descriptor.isImport()) {
+      return DescriptorTag.IMPORT;
+    } else {
+      return DescriptorTag.LOCAL_VARIABLE;
+    }
+  }
+
+  private void writeTag(@NotNull Tag tag, @NotNull AST node) {
+    if (nodeIds.putIfAbsent(node, nodeIds.size()) != null) {
+      throw new IllegalStateException("node shared by two parents: " + node);
+    }
+    out.writeByte(tag.ordinal());
+    writeTokenPosition(node.getTokenPosition());
+  }
+
+  private void writeTokenPosition(@NotNull TokenPosition tokenPosition) {
+    out.writeInt(tokenPosition.line());
+    out.writeInt(tokenPosition.column());
+    out.writeInt(tokenPosition.offset());
+  }
+
+  /**
+   * Writes {@code root} and everything under it; each node's visit writes the node itself and leaves its children in
+   * {@link #children}, which are then written in order
+   */
+  private void writeTree(@NotNull AST root) {
+    final Deque<Object> toWrite = new ArrayDeque<>();
+    toWrite.push(root);
+    while (!toWrite.isEmpty()) {
+      final Object item = toWrite.pop();
+      if (item == NO_NODE) {
+        out.writeByte(Tag.NULL.ordinal());
+      } else if (item instanceof AST node) {
+        node.accept(this, null);
+        for (int i = children.size() - 1; i >= 0; i--) {
+          toWrite.push(children.get(i));
+        }
+        children.clear();
+      } else {
+        final List<?> nodes = (List<?>) item;
+        out.writeInt(nodes.size());
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+          toWrite.push(Objects.requireNonNullElse(nodes.get(i), NO_NODE));
+        }
+      }
+    }
+  }
+
+  private void writeNode(@Nullable AST node) {
+    children.add((node == null) ? NO_NODE : node);
+  }
+
+  private void writeNodes(@NotNull List<? extends AST> nodes) {
+    children.add(nodes);
+  }
+
+  private void writeExpressionType(@NotNull Expression expression) {
+    writeType(expression.getType());
+  }
+
+  private void writeType(@NotNull Type type) {
+    // the tags of the nested array types from the outside in, then the contained type, then their lengths from the
+    // inside out
+    final List<ArrayType> arrayTypes = new ArrayList<>();
+    while (type instanceof ArrayType arrayType) {
+      out.writeByte(TypeTag.ARRAY.ordinal());
+      arrayTypes.add(arrayType);
+      type = arrayType.getContainedType();
+    }
+    writeScalarType(type);
+    for (int i = arrayTypes.size() - 1; i >= 0; i--) {
+      out.writeLong(arrayTypes.get(i)
+                              .getNumElements());
+    }
+  }
+
+  private void writeScalarType(@NotNull Type type) {
+    if (type == Type.getIntType()) {
+      out.writeByte(TypeTag.INT.ordinal());
+    } else if (type == Type.getBoolType()) {
+      out.writeByte(TypeTag.BOOL.ordinal());
+    } else if (type == Type.getVoidType()) {
+      out.writeByte(TypeTag.VOID.ordinal());
+    } else if (type == Type.getStringType()) {
+      out.writeByte(TypeTag.STRING.ordinal());
+    } else if (type == Type.getUnsetType()) {
+      out.writeByte(TypeTag.UNSET.ordinal());
+    } else {
+      throw new IllegalStateException("not a shared type: " + type);
+    }
+  }
+
+  private void writeOperator(@NotNull Operator operator) {
+    final OperatorTag tag;
+    if (operator instanceof ArithmeticOperator) {
+      tag = OperatorTag.ARITHMETIC;
+    } else if (operator instanceof ConditionalOperator) {
+      tag = OperatorTag.CONDITIONAL;
+    } else if (operator instanceof EqualityOperator) {
+      tag = OperatorTag.EQUALITY;
+    } else if (operator instanceof RelationalOperator) {
+      tag = OperatorTag.RELATIONAL;
+    } else if (operator instanceof UnaryOperator) {
+      tag = OperatorTag.UNARY;
+    } else if (operator instanceof AssignOperator) {
+      tag = OperatorTag.ASSIGN;
+    } else if (operator instanceof CompoundAssignOperator) {
+      tag = OperatorTag.COMPOUND_ASSIGN;
+    } else {
+      throw new IllegalStateException("unexpected operator: " + operator.getClass());
+    }
+    out.writeByte(tag.ordinal());
+    writeTokenPosition(operator.getTokenPosition());
+    out.writeUTF(operator.getLabel());
+  }
+
+  @Override
+  public Void visit(IntLiteral intLiteral, Void input) {
+    writeTag(Tag.INT_LITERAL, intLiteral);
+    out.writeUTF(intLiteral.literal);
+    out.writeLong(intLiteral.getMagnitude());
+    out.writeBoolean(intLiteral.isNegated());
+    return null;
+  }
+
+  @Override
+  public Void visit(BooleanLiteral booleanLiteral, Void input) {
+    writeTag(Tag.BOOLEAN_LITERAL, booleanLiteral);
+    out.writeUTF(booleanLiteral.literal);
+    return null;
+  }
+
+  @Override
+  public Void visit(CharLiteral charLiteral, Void input) {
+    writeTag(Tag.CHAR_LITERAL, charLiteral);
+    out.writeUTF(charLiteral.literal);
+    return null;
+  }
+
+  @Override
+  public Void visit(StringLiteral stringLiteral, Void input) {
+    writeTag(Tag.STRING_LITERAL, stringLiteral);
+    out.writeUTF(stringLiteral.literal);
+    return null;
+  }
+
+  @Override
+  public Void visit(FieldDeclaration fieldDeclaration, Void input) {
+    writeTag(Tag.FIELD_DECLARATION, fieldDeclaration);
+    writeTokenPosition(fieldDeclaration.getTypeTokenPosition());
+    writeType(fieldDeclaration.getType());
+    writeNodes(fieldDeclaration.vars);
+    writeNodes(fieldDeclaration.arrays);
+    return null;
+  }
+
+  @Override
+  public Void visit(MethodDefinition methodDefinition, Void input) {
+    writeTag(Tag.METHOD_DEFINITION, methodDefinition);
+    writeType(methodDefinition.getReturnType());
+    writeNode(methodDefinition.getFormalArguments());
+    writeNode(methodDefinition.getMethodAstName());
+    writeNode(methodDefinition.getBody());
+    return null;
+  }
+
+  @Override
+  public Void visit(ImportDeclaration importDeclaration, Void input) {
+    writeTag(Tag.IMPORT_DECLARATION, importDeclaration);
+    writeNode(importDeclaration.importName);
+    return null;
+  }
+
+  @Override
+  public Void visit(For forStatement, Void input) {
+    writeTag(Tag.FOR, forStatement);
+    writeNode(forStatement.getInitialization());
+    writeNode(forStatement.getTerminatingCondition());
+    writeNode(forStatement.getUpdate());
+    writeNode(forStatement.getBody());
+    return null;
+  }
+
+  @Override
+  public Void visit(Break breakStatement, Void input) {
+    writeTag(Tag.BREAK, breakStatement);
+    return null;
+  }
+
+  @Override
+  public Void visit(Continue continueStatement, Void input) {
+    writeTag(Tag.CONTINUE, continueStatement);
+    return null;
+  }
+
+  @Override
+  public Void visit(While whileStatement, Void input) {
+    writeTag(Tag.WHILE, whileStatement);
+    writeNode(whileStatement.getTest());
+    writeNode(whileStatement.getBody());
+    return null;
+  }
+
+  @Override
+  public Void visit(Program program, Void input) {
+    nodeIds.put(program, nodeIds.size());
+    writeNodes(program.getImportDeclaration());
+    writeNodes(program.getFieldDeclarations());
+    writeNodes(program.getMethodDefinitions());
+    return null;
+  }
+
+  @Override
+  public Void visit(UnaryOpExpression unaryOpExpression, Void input) {
+    writeTag(Tag.UNARY_OP_EXPRESSION, unaryOpExpression);
+    writeExpressionType(unaryOpExpression);
+    writeOperator(unaryOpExpression.getUnaryOperator());
+    writeNode(unaryOpExpression.operand);
+    return null;
+  }
+
+  @Override
+  public Void visit(BinaryOpExpression binaryOpExpression, Void input) {
+    writeTag(Tag.BINARY_OP_EXPRESSION, binaryOpExpression);
+    writeExpressionType(binaryOpExpression);
+    writeOperator(binaryOpExpression.getOp());
+    writeNode(binaryOpExpression.getLhs());
+    writeNode(binaryOpExpression.getRhs());
+    return null;
+  }
+
+  @Override
+  public Void visit(Block block, Void input) {
+    writeTag(Tag.BLOCK, block);
+    writeNodes(block.getFieldDeclarations());
+    writeNodes(block.getStatements());
+    return null;
+  }
+
+  @Override
+  public Void visit(ParenthesizedExpression parenthesizedExpression, Void input) {
+    writeTag(Tag.PARENTHESIZED_EXPRESSION, parenthesizedExpression);
+    writeExpressionType(parenthesizedExpression);
+    writeNode(parenthesizedExpression.getExpression());
+    return null;
+  }
+
+  @Override
+  public Void visit(LocationArray locationArray, Void input) {
+    writeTag(Tag.LOCATION_ARRAY, locationArray);
+    writeExpressionType(locationArray);
+    writeNode(locationArray.rValue);
+    writeNode(locationArray.expression);
+    return null;
+  }
+
+  @Override
+  public Void visit(ExpressionParameter expressionParameter, Void input) {
+    writeTag(Tag.EXPRESSION_PARAMETER, expressionParameter);
+    writeNode(expressionParameter.expression);
+    return null;
+  }
+
+  @Override
+  public Void visit(If ifStatement, Void input) {
+    writeTag(Tag.IF, ifStatement);
+    writeNode(ifStatement.getCondition());
+    writeNode(ifStatement.getThenBlock());
+    writeNode(ifStatement.getElseBlock()
+                         .orElse(null));
+    return null;
+  }
+
+  @Override
+  public Void visit(Return returnStatement, Void input) {
+    writeTag(Tag.RETURN, returnStatement);
+    writeNode(returnStatement.retExpression);
+    return null;
+  }
+
+  @Override
+  public Void visit(Array array, Void input) {
+    writeTag(Tag.ARRAY, array);
+    out.writeUTF(array.getLabel());
+    out.writeInt(array.getSymbol());
+    writeNode(array.getSize());
+    return null;
+  }
+
+  @Override
+  public Void visit(MethodCall methodCall, Void input) {
+    writeTag(Tag.METHOD_CALL, methodCall);
+    writeExpressionType(methodCall);
+    writeNode(methodCall.methodId);
+    writeNodes(methodCall.actualArgumentList);
+    return null;
+  }
+
+  @Override
+  public Void visit(MethodCallStatement methodCallStatement, Void input) {
+    writeTag(Tag.METHOD_CALL_STATEMENT, methodCallStatement);
+    writeNode(methodCallStatement.methodCall);
+    return null;
+  }
+
+  @Override
+  public Void visit(LocationAssignExpr locationAssignExpr, Void input) {
+    writeTag(Tag.LOCATION_ASSIGN_EXPR, locationAssignExpr);
+    writeNode(locationAssignExpr.location);
+    writeNode(locationAssignExpr.assignExpr);
+    return null;
+  }
+
+  @Override
+  public Void visit(AssignOpExpr assignOpExpr, Void input) {
+    writeTag(Tag.ASSIGN_OP_EXPR, assignOpExpr);
+    writeOperator(assignOpExpr.getAssignOp());
+    writeNode(assignOpExpr.getExpression());
+    return null;
+  }
+
+  @Override
+  public Void visit(CompoundAssignOpExpr compoundAssignOpExpr, Void input) {
+    writeTag(Tag.COMPOUND_ASSIGN_OP_EXPR, compoundAssignOpExpr);
+    writeOperator(compoundAssignOpExpr.compoundAssignOp);
+    writeNode(compoundAssignOpExpr.expression);
+    return null;
+  }
+
+  @Override
+  public Void visit(Increment increment, Void input) {
+    writeTag(Tag.INCREMENT, increment);
+    return null;
+  }
+
+  @Override
+  public Void visit(Decrement decrement, Void input) {
+    writeTag(Tag.DECREMENT, decrement);
+    return null;
+  }
+
+  @Override
+  public Void visit(FormalArgument formalArgument, Void input) {
+    writeTag(Tag.FORMAL_ARGUMENT, formalArgument);
+    out.writeUTF(formalArgument.getName());
+    out.writeInt(formalArgument.getSymbol());
+    writeType(formalArgument.getType());
+    return null;
+  }
+
+  @Override
+  public Void visit(FormalArguments formalArguments, Void input) {
+    writeTag(Tag.FORMAL_ARGUMENTS, formalArguments);
+    final List<FormalArgument> arguments = new ArrayList<>(formalArguments.childCount());
+    formalArguments.forEach(arguments::add);
+    writeNodes(arguments);
+    return null;
+  }
+
+  @Override
+  public Void visit(RValue rValue, Void input) {
+    writeTag(Tag.R_VALUE, rValue);
+    out.writeUTF(rValue.getLabel());
+    out.writeInt(rValue.getSymbol());
+    return null;
+  }
+
+  @Override
+  public Void visit(LocationVariable locationVariable, Void input) {
+    writeTag(Tag.LOCATION_VARIABLE, locationVariable);
+    writeExpressionType(locationVariable);
+    writeNode(locationVariable.rValue);
+    return null;
+  }
+
+  @Override
+  public Void visit(Len len, Void input) {
+    writeTag(Tag.LEN, len);
+    writeExpressionType(len);
+    writeNode(len.getArrayName());
+    return null;
+  }
+
+  @Override
+  public Void visit(Initialization initialization, Void input) {
+    writeTag(Tag.INITIALIZATION, initialization);
+    writeNode(initialization.getInitLocation());
+    writeNode(initialization.getInitExpression());
+    return null;
+  }
+
+  @Override
+  public Void visit(Assignment assignment, Void input) {
+    writeTag(Tag.ASSIGNMENT, assignment);
+    out.writeUTF(assignment.getOperator());
+    writeNode(assignment.getLocation());
+    writeNode(assignment.assignExpr);
+    return null;
+  }
+
+  @Override
+  public Void visit(VoidExpression voidExpression, Void input) {
+    writeTag(Tag.VOID_EXPRESSION, voidExpression);
+    writeExpressionType(voidExpression);
+    return null;
+  }
+
+  @Override
+  public Void visit(Type type, Void input) {
+    throw new IllegalStateException("types are written by value");
+  }
+
+  private static class Decoder {
+    @NotNull
+    private final ByteArrayDataInput in;
+    // the nodes in pre-order, each added as soon as its tag is read so that the numbering matches the encoder's
+    private final List<AST> nodes = new ArrayList<>();
+
+    private Decoder(@NotNull ByteArrayDataInput in) {
+      this.in = in;
+    }
+
+    private @NotNull CompilationCache.Entry read() {
+      final SymbolTable symbolTable = readSymbolTable();
+      final Program program = readProgram();
+      final Scope globalScope = readScopes(symbolTable);
+      return new CompilationCache.Entry(symbolTable, program, globalScope);
+    }
+
+    private @NotNull SymbolTable readSymbolTable() {
+      final var symbolTable = new SymbolTable();
+      final int size = in.readInt();
+      for (int symbol = 0; symbol < size; symbol++) {
+        if (symbolTable.intern(in.readUTF()) != symbol) {
+          throw new IllegalStateException("duplicate symbol " + symbol);
+        }
+      }
+      return symbolTable;
+    }
+
+    private @NotNull Program readProgram() {
+      nodes.add(null);
+      final var root = new PendingNode(0, null, new Slot[]{Slot.LIST, Slot.LIST, Slot.LIST}, children -> new Program(
+          children.list(0, ImportDeclaration.class),
+          children.list(1, FieldDeclaration.class),
+          children.list(2, MethodDefinition.class)
+      ));
+      return (Program) readTree(root);
+    }
+
+    private @NotNull Scope readScopes(@NotNull SymbolTable symbolTable) {
+      final int numScopes = in.readInt();
+      final List<Scope> scopes = new ArrayList<>(numScopes);
+      for (int i = 0; i < numScopes; i++) {
+        final int parent = in.readInt();
+        final int owner = in.readInt();
+        if (parent == NONE) {
+          if (i != 0) {
+            throw new IllegalStateException("more than one global scope");
+          }
+          scopes.add(Scope.forGlobals(symbolTable));
+        } else if (owner == NONE) {
+          scopes.add(Scope.forArguments(scopes.get(parent)));
+        } else {
+          scopes.add(Scope.forBlock((Block) nodes.get(owner), scopes.get(parent)));
+        }
+      }
+
+      final int numDescriptors = in.readInt();
+      final List<Descriptor> descriptors = new ArrayList<>(numDescriptors);
+      final int[] enclosingScopes = new int[numDescriptors];
+      for (int i = 0; i < numDescriptors; i++) {
+        descriptors.add(switch (DESCRIPTOR_TAGS[in.readByte()]) {
+          case LOCAL_VARIABLE -> Descriptor.forValue(readType());
+          case FORMAL_ARGUMENT -> Descriptor.forFormalArgument(readType());
+          case ARRAY -> Descriptor.forArray((ArrayType) readType());
+          case IMPORT -> {
+            readType();
+            yield Descriptor.forImport();
+          }
+          case METHOD -> {
+            final var methodDefinition = (MethodDefinition) nodes.get(in.readInt());
+            yield new MethodDescriptor(methodDefinition, scopes.get(in.readInt()));
+          }
+        });
+        enclosingScopes[i] = in.readInt();
+      }
+
+      for (Scope scope : scopes) {
+        final int size = in.readInt();
+        for (int position = 0; position < size; position++) {
+          final int symbol = in.readInt();
+          scope.addDescriptor(symbol, descriptors.get(in.readInt()));
+        }
+      }
+      for (int i = 0; i < numDescriptors; i++) {
+        descriptors.get(i)
+                   .setEnclosingScope((enclosingScopes[i] == NONE) ? null : scopes.get(enclosingScopes[i]));
+      }
+
+      final int numBoundNames = in.readInt();
+      for (int i = 0; i < numBoundNames; i++) {
+        final var rValue = (RValue) nodes.get(in.readInt());
+        rValue.bind(descriptors.get(in.readInt()));
+      }
+      return scopes.get(0);
+    }
+
+    private @NotNull TokenPosition readTokenPosition() {
+      return new TokenPosition(in.readInt(), in.readInt(), in.readInt());
+    }
+
+    private @NotNull Type readType() {
+      int arrayDepth = 0;
+      TypeTag tag = TYPE_TAGS[in.readByte()];
+      while (tag == TypeTag.ARRAY) {
+        arrayDepth++;
+        tag = TYPE_TAGS[in.readByte()];
+      }
+      Type type = switch (tag) {
+        case INT -> Type.getIntType();
+        case BOOL -> Type.getBoolType();
+        case VOID -> Type.getVoidType();
+        case STRING -> Type.getStringType();
+        case UNSET -> Type.getUnsetType();
+        case ARRAY -> throw new IllegalStateException();
+      };
+      for (int i = 0; i < arrayDepth; i++) {
+        type = ArrayType.get(type, in.readLong());
+      }
+      return type;
+    }
+
+    private <T extends Operator> @NotNull T readOperator(@NotNull Class<T> operatorClass) {
+      final OperatorTag tag = OPERATOR_TAGS[in.readByte()];
+      final TokenPosition tokenPosition = readTokenPosition();
+      final String label = in.readUTF();
+      return operatorClass.cast(switch (tag) {
+        case ARITHMETIC -> new ArithmeticOperator(tokenPosition, label);
+        case CONDITIONAL -> new ConditionalOperator(tokenPosition, label);
+        case EQUALITY -> new EqualityOperator(tokenPosition, label);
+        case RELATIONAL -> new RelationalOperator(tokenPosition, label);
+        case UNARY -> new UnaryOperator(tokenPosition, label);
+        case ASSIGN -> new AssignOperator(tokenPosition, label);
+        case COMPOUND_ASSIGN -> new CompoundAssignOperator(tokenPosition, label);
+      });
+    }
+
+    private static <T extends Expression> @NotNull T typed(@NotNull Type type, @NotNull T expression) {
+      // some expressions have a type of their own which cannot be set
+      if (expression.getType() != type) {
+        expression.setType(type);
+      }
+      return expression;
+    }
+
+    /**
+     * Reads the children of {@code root} and every node under them, building each node once its last child is read
+     */
+    private @NotNull AST readTree(@NotNull PendingNode root) {
+      final Deque<PendingNode> pending = new ArrayDeque<>();
+      pending.push(root);
+      startSlot(root);
+      while (true) {
+        final PendingNode parent = pending.element();
+        if (parent.isComplete()) {
+          pending.pop();
+          final AST node = build(parent);
+          if (pending.isEmpty()) {
+            return node;
+          }
+          accept(pending.element(), node);
+          continue;
+        }
+        final Tag tag = TAGS[in.readByte()];
+        if (tag == Tag.NULL) {
+          accept(parent, null);
+        } else {
+          final PendingNode child = readFields(tag);
+          pending.push(child);
+          startSlot(child);
+        }
+      }
+    }
+
+    private @NotNull AST build(@NotNull PendingNode pendingNode) {
+      final AST node = pendingNode.builder.build(pendingNode);
+      if (pendingNode.tokenPosition != null && !node.getTokenPosition().equals(pendingNode.tokenPosition)) {
+        // the nodes which take their position from a child may have been given another one since
+        node.setTokenPosition(pendingNode.tokenPosition);
+      }
+      nodes.set(pendingNode.id, node);
+      return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void accept(@NotNull PendingNode parent, @Nullable AST child) {
+      if (parent.slots[parent.slot] == Slot.LIST) {
+        ((List<AST>) parent.values[parent.slot]).add(child);
+        if (--parent.remaining > 0) {
+          return;
+        }
+      } else {
+        parent.values[parent.slot] = child;
+      }
+      parent.slot++;
+      startSlot(parent);
+    }
+
+    /**
+     * Reads the length of the list {@code pendingNode} expects next, skipping past it if it is empty
+     */
+    private void startSlot(@NotNull PendingNode pendingNode) {
+      while (!pendingNode.isComplete() && pendingNode.slots[pendingNode.slot] == Slot.LIST) {
+        final int size = in.readInt();
+        if (size < 0) {
+          throw new IllegalStateException("negative length " + size);
+        }
+        pendingNode.values[pendingNode.slot] = new ArrayList<AST>();
+        if (size > 0) {
+          pendingNode.remaining = size;
+          return;
+        }
+        pendingNode.slot++;
+      }
+    }
+
+    private static @NotNull PendingNode expect(
+        int id,
+        @NotNull TokenPosition tokenPosition,
+        @NotNull NodeBuilder builder,
+        @NotNull Slot... slots
+    ) {
+      return new PendingNode(id, tokenPosition, slots, builder);
+    }
+
+    private static @NotNull PendingNode leaf(int id, @NotNull TokenPosition tokenPosition, @NotNull AST node) {
+      return new PendingNode(id, tokenPosition, new Slot[0], children -> node);
+    }
+
+    /**
+     * Reads the token position and the fields which are not nodes of a node with the given {@code tag}, numbering it
+     * before any of its children
+     */
+    private @NotNull PendingNode readFields(@NotNull Tag tag) {
+      final int id = nodes.size();
+      nodes.add(null);
+      final TokenPosition tokenPosition = readTokenPosition();
+      return switch (tag) {
+        case NULL -> throw new IllegalStateException();
+        case INT_LITERAL -> leaf(id, tokenPosition, new IntLiteral(
+            tokenPosition,
+            in.readUTF(),
+            in.readLong(),
+            in.readBoolean()
+        ));
+        case BOOLEAN_LITERAL -> leaf(id, tokenPosition, new BooleanLiteral(tokenPosition, in.readUTF()));
+        case CHAR_LITERAL -> leaf(id, tokenPosition, new CharLiteral(tokenPosition, in.readUTF()));
+        case STRING_LITERAL -> leaf(id, tokenPosition, new StringLiteral(tokenPosition, in.readUTF()));
+        case FIELD_DECLARATION -> {
+          final TokenPosition typeTokenPosition = readTokenPosition();
+          final Type type = readType();
+          yield expect(id, tokenPosition, children -> new FieldDeclaration(
+              tokenPosition,
+              typeTokenPosition,
+              type,
+              children.list(0, RValue.class),
+              children.list(1, Array.class)
+          ), Slot.LIST, Slot.LIST);
+        }
+        case METHOD_DEFINITION -> {
+          final Type returnType = readType();
+          yield expect(id, tokenPosition, children -> new MethodDefinition(
+              tokenPosition,
+              returnType,
+              children.node(0, FormalArguments.class),
+              children.node(1, RValue.class),
+              children.node(2, Block.class)
+          ), Slot.NODE, Slot.NODE, Slot.NODE);
+        }
+        case IMPORT_DECLARATION -> expect(id, tokenPosition, children -> new ImportDeclaration(
+            tokenPosition,
+            children.node(0, RValue.class)
+        ), Slot.NODE);
+        case FOR -> expect(id, tokenPosition, children -> new For(
+            tokenPosition,
+            children.node(0, Initialization.class),
+            children.node(1, Expression.class),
+            children.node(2, Assignment.class),
+            children.node(3, Block.class)
+        ), Slot.NODE, Slot.NODE, Slot.NODE, Slot.NODE);
+        case BREAK -> leaf(id, tokenPosition, new Break(tokenPosition));
+        case CONTINUE -> leaf(id, tokenPosition, new Continue(tokenPosition));
+        case WHILE -> expect(id, tokenPosition, children -> new While(
+            tokenPosition,
+            children.node(0, Expression.class),
+            children.node(1, Block.class)
+        ), Slot.NODE, Slot.NODE);
+        case UNARY_OP_EXPRESSION -> {
+          final Type type = readType();
+          final UnaryOperator unaryOperator = readOperator(UnaryOperator.class);
+          yield expect(id, tokenPosition, children -> typed(type, new UnaryOpExpression(
+              unaryOperator,
+              children.node(0, Expression.class)
+          )), Slot.NODE);
+        }
+        case BINARY_OP_EXPRESSION -> {
+          final Type type = readType();
+          final BinOperator op = readOperator(BinOperator.class);
+          yield expect(id, tokenPosition, children -> typed(type, new BinaryOpExpression(
+              children.node(0, Expression.class),
+              op,
+              children.node(1, Expression.class)
+          )), Slot.NODE, Slot.NODE);
+        }
+        case BLOCK -> expect(id, tokenPosition, children -> new Block(
+            tokenPosition,
+            children.list(0, FieldDeclaration.class),
+            children.list(1, Statement.class)
+        ), Slot.LIST, Slot.LIST);
+        case PARENTHESIZED_EXPRESSION -> {
+          final Type type = readType();
+          yield expect(id, tokenPosition, children -> typed(type, new ParenthesizedExpression(
+              tokenPosition,
+              children.node(0, Expression.class)
+          )), Slot.NODE);
+        }
+        case LOCATION_ARRAY -> {
+          final Type type = readType();
+          yield expect(id, tokenPosition, children -> typed(type, new LocationArray(
+              children.node(0, RValue.class),
+              children.node(1, Expression.class)
+          )), Slot.NODE, Slot.NODE);
+        }
+        case LOCATION_VARIABLE -> {
+          final Type type = readType();
+          yield expect(id, tokenPosition, children -> typed(type, new LocationVariable(
+              children.node(0, RValue.class)
+          )), Slot.NODE);
+        }
+        case EXPRESSION_PARAMETER -> expect(id, tokenPosition, children -> new ExpressionParameter(
+            children.node(0, Expression.class)
+        ), Slot.NODE);
+        case IF -> expect(id, tokenPosition, children -> new If(
+            tokenPosition,
+            children.node(0, Expression.class),
+            children.node(1, Block.class),
+            children.nullableNode(2, Block.class)
+        ), Slot.NODE, Slot.NODE, Slot.NULLABLE_NODE);
+        case RETURN -> expect(id, tokenPosition, children -> new Return(
+            tokenPosition,
+            children.nullableNode(0, Expression.class)
+        ), Slot.NULLABLE_NODE);
+        case ARRAY -> {
+          final String label = in.readUTF();
+          final int symbol = in.readInt();
+          yield expect(id, tokenPosition, children -> new Array(
+              tokenPosition,
+              children.node(0, IntLiteral.class),
+              label,
+              symbol
+          ), Slot.NODE);
+        }
+        case METHOD_CALL -> {
+          final Type type = readType();
+          yield expect(id, tokenPosition, children -> typed(type, new MethodCall(
+              children.node(0, RValue.class),
+              children.list(1, ActualArgument.class)
+          )), Slot.NODE, Slot.LIST);
+        }
+        case METHOD_CALL_STATEMENT -> expect(id, tokenPosition, children -> new MethodCallStatement(
+            tokenPosition,
+            children.node(0, MethodCall.class)
+        ), Slot.NODE);
+        case LOCATION_ASSIGN_EXPR -> expect(id, tokenPosition, children -> new LocationAssignExpr(
+            tokenPosition,
+            children.node(0, Location.class),
+            children.node(1, AssignExpr.class)
+        ), Slot.NODE, Slot.NODE);
+        case ASSIGN_OP_EXPR -> {
+          final AssignOperator assignOperator = readOperator(AssignOperator.class);
+          yield expect(id, tokenPosition, children -> new AssignOpExpr(
+              tokenPosition,
+              assignOperator,
+              children.node(0, Expression.class)
+          ), Slot.NODE);
+        }
+        case COMPOUND_ASSIGN_OP_EXPR -> {
+          final CompoundAssignOperator compoundAssignOperator = readOperator(CompoundAssignOperator.class);
+          yield expect(id, tokenPosition, children -> new CompoundAssignOpExpr(
+              tokenPosition,
+              compoundAssignOperator,
+              children.node(0, Expression.class)
+          ), Slot.NODE);
+        }
+        case INCREMENT -> leaf(id, tokenPosition, new Increment(tokenPosition));
+        case DECREMENT -> leaf(id, tokenPosition, new Decrement(tokenPosition));
+        case FORMAL_ARGUMENT -> leaf(id, tokenPosition, new FormalArgument(
+            tokenPosition,
+            in.readUTF(),
+            in.readInt(),
+            readType()
+        ));
+        case FORMAL_ARGUMENTS -> expect(id, tokenPosition, children -> new FormalArguments(
+            tokenPosition,
+            children.list(0, FormalArgument.class)
+        ), Slot.LIST);
+        case R_VALUE -> leaf(id, tokenPosition, new RValue(tokenPosition, in.readUTF(), in.readInt()));
+        case LEN -> {
+          final Type type = readType();
+          yield expect(id, tokenPosition, children -> typed(type, new Len(
+              tokenPosition,
+              children.node(0, RValue.class)
+          )), Slot.NODE);
+        }
+        case INITIALIZATION -> expect(id, tokenPosition, children -> new Initialization(
+            children.node(0, RValue.class),
+            children.node(1, Expression.class)
+        ), Slot.NODE, Slot.NODE);
+        case ASSIGNMENT -> {
+          final String operator = in.readUTF();
+          yield expect(id, tokenPosition, children -> new Assignment(
+              tokenPosition,
+              children.node(0, Location.class),
+              children.node(1, AssignExpr.class),
+              operator
+          ), Slot.NODE, Slot.NODE);
+        }
+        case VOID_EXPRESSION -> leaf(id, tokenPosition, typed(readType(), new VoidExpression(tokenPosition)));
+      };
+    }
+  }
+
+  // what a node expects to read next, in the order its children were written
+  private enum Slot {
+    NODE, NULLABLE_NODE, LIST
+  }
+
+  @FunctionalInterface
+  private interface NodeBuilder {
+    @NotNull AST build(@NotNull PendingNode children);
+  }
+
+  /**
+   * A node whose own fields have been read, collecting its children until it can be built
+   */
+  private static final class PendingNode {
+    private final int id;
+    // null only for the program, which has no position of its own
+    @Nullable
+    private final TokenPosition tokenPosition;
+    @NotNull
+    private final Slot[] slots;
+    // a node or a list of nodes for each slot
+    private final Object[] values;
+    @NotNull
+    private final NodeBuilder builder;
+    // the slot being read
+    private int slot;
+    // the number of nodes still to be read into the list being read
+    private int remaining;
+
+    private PendingNode(
+        int id,
+        @Nullable TokenPosition tokenPosition,
+        @NotNull Slot[] slots,
+        @NotNull NodeBuilder builder
+    ) {
+      this.id = id;
+      this.tokenPosition = tokenPosition;
+      this.slots = slots;
+      this.values = new Object[slots.length];
+      this.builder = builder;
+    }
+
+    private boolean isComplete() {
+      return slot == slots.length;
+    }
+
+    private <T extends AST> @NotNull T node(int index, @NotNull Class<T> nodeClass) {
+      final T node = nullableNode(index, nodeClass);
+      if (node == null) {
+        throw new IllegalStateException("missing " + nodeClass.getSimpleName());
+      }
+      return node;
+    }
+
+    private <T extends AST> @Nullable T nullableNode(int index, @NotNull Class<T> nodeClass) {
+      return nodeClass.cast(values[index]);
+    }
+
+    private <T extends AST> @NotNull List<T> list(int index, @NotNull Class<T> nodeClass) {
+      final List<?> nodes = (List<?>) values[index];
+      final List<T> list = new ArrayList<>(nodes.size());
+      for (Object node : nodes) {
+        if (node == null) {
+          throw new IllegalStateException("missing " + nodeClass.getSimpleName());
+        }
+        list.add(nodeClass.cast(node));
+      }
+      return list;
+    }
+  }
+}
@@ -3,26 +3,51 @@ package decaf.analysis.syntax.ast;
 
 import decaf.analysis.TokenPosition;
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
-
-import java.util.Collections;
-import java.util.List;
+import decaf.shared.descriptors.Descriptor;
+import decaf.shared.env.SymbolTable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Optional;
 
 public class RValue extends AST {
     private String label;
+    private int symbol;
+    @Nullable
+    private Descriptor descriptor;
 
     public RValue(TokenPosition tokenPosition, String label) {
+        this(tokenPosition, label, SymbolTable.NO_SYMBOL);
+    }
+
+    public RValue(TokenPosition tokenPosition, String label, int symbol) {
         super(tokenPosition);
         this.label = label;
+        this.symbol = symbol;
     }
 
     public String getLabel() {
         return label;
     }
 
-    public void setLabel(String label) {
+    public int getSymbol() {
+        return symbol;
+    }
+
+    public void setLabel(String label, int symbol) {
         this.label = label;
+        this.symbol = symbol;
+    }
+
+    /**
+     * @return the declaration this use of the name resolved to, once the semantic checker has bound it
+     */
+    public Optional<Descriptor> getDescriptor() {
+        return Optional.ofNullable(descriptor);
+    }
+
+    public void bind(@Nullable Descriptor descriptor) {
+        this.descriptor = descriptor;
     }
 
     @Override
@@ -36,8 +61,18 @@ public class RValue extends AST {
     }
 
     @Override
-    public List<Pair<String, AST>> getChildren() {
-        return Collections.emptyList();
+    public int childCount() {
+        return 0;
+    }
+
+    @Override
+    public @NotNull AST childAt(int index) {
+        throw noChildAt(index);
+    }
+
+    @Override
+    public @NotNull String childLabelAt(int index) {
+        throw noChildAt(index);
     }
 
     @Override
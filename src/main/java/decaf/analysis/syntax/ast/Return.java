@@ -8,8 +8,8 @@ import decaf.analysis.TokenPosition;
 import decaf.analysis.lexical.Scanner;
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
 import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
 
 public class Return extends Statement implements HasExpression {
   public Expression retExpression;
@@ -23,11 +23,24 @@ public class Return extends Statement implements HasExpression {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return (retExpression == null) ? Collections.emptyList(): List.of(new Pair<>(
-        "return",
-        retExpression
-    ));
+  public int childCount() {
+    return (retExpression == null) ? 0 : 1;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    if (index != 0 || retExpression == null) {
+      throw noChildAt(index);
+    }
+    return retExpression;
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    if (index != 0 || retExpression == null) {
+      throw noChildAt(index);
+    }
+    return "return";
   }
 
   @Override
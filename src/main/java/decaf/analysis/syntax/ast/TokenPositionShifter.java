@@ -0,0 +1,79 @@
+package decaf.analysis.syntax.ast;
+
+
+import decaf.analysis.TokenPosition;
+import decaf.analysis.syntax.ast.types.Type;
+import decaf.shared.AstWalker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Moves every token position in a subtree as if the source text starting at {@code from} had been moved to
+ * {@code to}, for reusing a subtree after an edit earlier in the source.
+ * <p>
+ * Offsets and lines move by the same amount everywhere, but columns only change on the line of {@code from}, as
+ * every later line still starts at column 0. The shared {@link Type} singletons are never moved.
+ */
+public class TokenPositionShifter implements AstWalker.Listener {
+  private final int anchorLine;
+  private final int lineDelta;
+  private final int columnDelta;
+  private final int offsetDelta;
+  private final AstWalker astWalker = new AstWalker();
+
+  public TokenPositionShifter(
+      @NotNull TokenPosition from,
+      @NotNull TokenPosition to
+  ) {
+    this.anchorLine = from.line();
+    this.lineDelta = to.line() - from.line();
+    this.columnDelta = to.column() - from.column();
+    this.offsetDelta = to.offset() - from.offset();
+  }
+
+  public boolean isIdentity() {
+    return lineDelta == 0 && columnDelta == 0 && offsetDelta == 0;
+  }
+
+  public void shift(@NotNull AST ast) {
+    if (!isIdentity()) {
+      astWalker.walk(
+          ast,
+          this
+      );
+    }
+  }
+
+  private @NotNull TokenPosition shifted(@NotNull TokenPosition tokenPosition) {
+    return new TokenPosition(
+        tokenPosition.line() + lineDelta,
+        (tokenPosition.line() == anchorLine) ? tokenPosition.column() + columnDelta : tokenPosition.column(),
+        tokenPosition.offset() + offsetDelta
+    );
+  }
+
+  private void shiftNode(@NotNull AST ast) {
+    ast.setTokenPosition(shifted(ast.getTokenPosition()));
+  }
+
+  @Override
+  public boolean enter(@Nullable AST parent, int index, @NotNull AST node) {
+    if (node instanceof Type) {
+      return false;
+    }
+    if (!(node instanceof Program)) {
+      shiftNode(node);
+    }
+    // these nodes hold positions, or nodes of their own, which are not among their children
+    if (node instanceof FieldDeclaration fieldDeclaration) {
+      fieldDeclaration.setTypeTokenPosition(shifted(fieldDeclaration.getTypeTokenPosition()));
+    } else if (node instanceof MethodDefinition methodDefinition) {
+      shiftNode(methodDefinition.getFormalArguments());
+    } else if (node instanceof MethodCallStatement methodCallStatement) {
+      shiftNode(methodCallStatement.methodCall);
+    } else if (node instanceof Array array) {
+      shiftNode(array.getSize());
+    }
+    return true;
+  }
+}
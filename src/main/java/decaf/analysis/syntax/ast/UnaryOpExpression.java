@@ -2,7 +2,7 @@ package decaf.analysis.syntax.ast;
 
 
 import decaf.shared.AstVisitor;
-import decaf.shared.Pair;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 
@@ -24,17 +24,26 @@ public class UnaryOpExpression extends Expression implements HasExpression {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(
-        new Pair<>(
-            "op",
-            unaryOperator
-        ),
-        new Pair<>(
-            "operand",
-            operand
-        )
-    );
+  public int childCount() {
+    return 2;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> unaryOperator;
+      case 1 -> operand;
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "op";
+      case 1 -> "operand";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
@@ -7,7 +7,6 @@ import decaf.analysis.TokenPosition;
 import decaf.analysis.lexical.Scanner;
 import decaf.shared.AstVisitor;
 
-import decaf.shared.Pair;
 import decaf.shared.Utils;
 import decaf.shared.env.Scope;
 import org.jetbrains.annotations.NotNull;
@@ -27,17 +26,26 @@ public class While extends Statement implements HasExpression {
   }
 
   @Override
-  public List<Pair<String, AST>> getChildren() {
-    return List.of(
-        new Pair<>(
-            "test",
-            getTest()
-        ),
-        new Pair<>(
-            "body",
-            getBody()
-        )
-    );
+  public int childCount() {
+    return 2;
+  }
+
+  @Override
+  public @NotNull AST childAt(int index) {
+    return switch (index) {
+      case 0 -> getTest();
+      case 1 -> getBody();
+      default -> throw noChildAt(index);
+    };
+  }
+
+  @Override
+  public @NotNull String childLabelAt(int index) {
+    return switch (index) {
+      case 0 -> "test";
+      case 1 -> "body";
+      default -> throw noChildAt(index);
+    };
   }
 
   @Override
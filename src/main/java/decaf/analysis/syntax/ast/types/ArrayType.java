@@ -11,7 +11,7 @@ public class ArrayType extends Type {
 
     static private final HashMap<Type, HashMap<Long, ArrayType>> arrayTypesCache = new HashMap<>();
 
-    public static @NotNull ArrayType get(@NotNull Type containedType, long numElements) {
+    public static synchronized @NotNull ArrayType get(@NotNull Type containedType, long numElements) {
         var numElementsCache = arrayTypesCache.get(containedType);
         if (numElementsCache != null) {
             var cachedType = numElementsCache.get(numElements);
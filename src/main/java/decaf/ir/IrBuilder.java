@@ -0,0 +1,466 @@
+package decaf.ir;
+
+import decaf.analysis.cfg.Cfg;
+import decaf.analysis.cfg.CfgBlock;
+import decaf.analysis.lexical.Scanner;
+import decaf.analysis.syntax.ast.*;
+import decaf.analysis.syntax.ast.types.ArrayType;
+import decaf.analysis.syntax.ast.types.Type;
+import decaf.ir.instructions.*;
+import decaf.ir.types.IrArrayType;
+import decaf.ir.types.IrFunctionType;
+import decaf.ir.types.IrIntType;
+import decaf.ir.types.IrType;
+import decaf.ir.types.IrVoidType;
+import decaf.ir.values.*;
+import decaf.shared.CompilationContext;
+import decaf.shared.descriptors.Descriptor;
+import decaf.shared.env.Scope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Lowers the {@link Cfg} of every method to an {@link IrFunction}, with one {@link BasicBlock} per block of the cfg.
+ * <p>
+ * The code is what mem2reg expects to start from: every local lives in memory, allocated by an {@link AllocaInstruction}
+ * in the entry block of its function, and is read by a {@link LoadInstruction} at each use and written by a
+ * {@link StoreInstruction} at each assignment. Scalar locals are zeroed in the entry block, and parameters are stored
+ * to their allocas there. Arrays, local or global, are left for the backend to zero.
+ * <p>
+ * Array bounds and falling off the end of a method which returns a value are not checked; such a method returns zero.
+ */
+public class IrBuilder {
+    @NotNull
+    private final CompilationContext compilationContext;
+    @NotNull
+    private final IrContext irContext;
+    @NotNull
+    private final Map<Descriptor, IrPointer> globals = new HashMap<>();
+    @NotNull
+    private final Map<String, IrFunctionPointer> methods = new HashMap<>();
+
+    // the state of the method being lowered
+    private IrFunction function;
+    private Map<Descriptor, IrPointer> locals;
+    private Map<CfgBlock, IrLabel> labels;
+    private BasicBlock currentBlock;
+    private int nextBlockId;
+
+    private IrBuilder(@NotNull CompilationContext compilationContext) {
+        this.compilationContext = compilationContext;
+        this.irContext = IrContext.create(compilationContext.getSymbolTable());
+    }
+
+    /**
+     * @return the functions lowered from the cfgs of {@code compilationContext}, which must have been built, along
+     * with the globals they use
+     */
+    public static @NotNull IrContext build(@NotNull CompilationContext compilationContext) {
+        final var irBuilder = new IrBuilder(compilationContext);
+        irBuilder.declareGlobals();
+        for (var methodDefinition : compilationContext.getProgram().getMethodDefinitions()) {
+            irBuilder.irContext.addFunctionDefinition(irBuilder.lowerMethod(methodDefinition));
+        }
+        return irBuilder.irContext;
+    }
+
+    private static @NotNull IrType irTypeOf(@NotNull Type type) {
+        if (type instanceof ArrayType arrayType) {
+            return IrArrayType.get(irTypeOf(arrayType.getContainedType()), (int) arrayType.getNumElements());
+        } else if (type == Type.getBoolType()) {
+            return IrIntType.getBoolType();
+        } else if (type == Type.getIntType()) {
+            return IrIntType.getInt64();
+        } else if (type == Type.getVoidType()) {
+            return IrVoidType.get();
+        }
+        throw new IllegalArgumentException(String.format("type %s has no IR type", type));
+    }
+
+    private static @NotNull IrType irScalarTypeOf(@NotNull Type type) {
+        if (type instanceof ArrayType arrayType) {
+            return irTypeOf(arrayType.getContainedType());
+        }
+        return irTypeOf(type);
+    }
+
+    private static @NotNull IrConstantInt zero(@NotNull IrType type) {
+        return IrConstantInt.create(0L, (IrIntType) type);
+    }
+
+    private void declareGlobals() {
+        final var program = compilationContext.getProgram();
+        for (var importDeclaration : program.getImportDeclaration()) {
+            irContext.addFunction(importDeclaration.importName.getLabel());
+        }
+        final Scope globalScope = compilationContext.getGlobalScope();
+        checkState(globalScope != null, "the program must be semantically checked before lowering it");
+        for (int position = 0; position < globalScope.size(); position++) {
+            final var descriptor = globalScope.descriptorAt(position);
+            if (descriptor.isMethod() || descriptor.isImport()) {
+                continue;
+            }
+            final var global = IrGlobalPointer.createNamed(globalScope.symbols.nameOf(globalScope.symbolAt(position)));
+            irContext.addGlobal(global, irTypeOf(descriptor.getType()));
+            globals.put(descriptor, global);
+        }
+        for (var methodDefinition : program.getMethodDefinitions()) {
+            final var paramTypes = new ArrayList<IrType>();
+            for (var formalArgument : methodDefinition.getFormalArguments()) {
+                paramTypes.add(irTypeOf(formalArgument.getType()));
+            }
+            methods.put(methodDefinition.getName(),
+                        IrFunctionPointer.create(methodDefinition.getName(),
+                                                 IrFunctionType.create(irTypeOf(methodDefinition.getReturnType()),
+                                                                       paramTypes.toArray(IrType[]::new)
+                                                                      )
+                                                )
+                       );
+            irContext.addFunction(methodDefinition.getName());
+        }
+    }
+
+    private @NotNull IrFunction lowerMethod(@NotNull MethodDefinition methodDefinition) {
+        final var name = methodDefinition.getName();
+        final Cfg cfg = compilationContext.getCfg(name);
+        function = IrFunction.create(name, (IrFunctionType) methods.get(name).getType());
+        locals = new HashMap<>();
+        labels = new HashMap<>();
+        nextBlockId = cfg.getNumBlockIds();
+
+        final var denseCfg = cfg.getDenseCfg();
+        for (int block = 0; block < denseCfg.numBlocks(); block++) {
+            final var cfgBlock = denseCfg.block(block);
+            labels.put(cfgBlock, newLabel(cfgBlock.getBlockId()));
+        }
+
+        startBlock(IrLabel.createNamed(String.format("%s.entry", name)));
+        allocateLocals(methodDefinition);
+        currentBlock.add(UnconditionalBranchInstruction.create(labels.get(cfg.getEntryBlock())));
+
+        for (int block = 0; block < denseCfg.numBlocks(); block++) {
+            final var cfgBlock = denseCfg.block(block);
+            startBlock(labels.get(cfgBlock));
+            lowerBlock(cfgBlock);
+        }
+        return function;
+    }
+
+    private void allocateLocals(@NotNull MethodDefinition methodDefinition) {
+        final var methodScope = compilationContext.getGlobalScope()
+                                                  .lookupMethod(methodDefinition.getSymbol())
+                                                  .orElseThrow()
+                                                  .scope;
+        final var scopes = new Stack<Scope>();
+        scopes.push(methodScope);
+        while (!scopes.isEmpty()) {
+            final var scope = scopes.pop();
+            for (int position = 0; position < scope.size(); position++) {
+                final var descriptor = scope.descriptorAt(position);
+                final var irType = irTypeOf(descriptor.getType());
+                final var alloca = AllocaInstruction.create(function, irType);
+                currentBlock.add(alloca);
+                locals.put(descriptor, alloca.getDestination());
+                if (!descriptor.isFormalArgument() && irType.isFirstClassType()) {
+                    currentBlock.add(StoreInstruction.create(zero(irType), alloca.getDestination()));
+                }
+            }
+            scopes.addAll(scope.children);
+        }
+        final var parameters = function.getParameters();
+        for (int index = 0; index < parameters.size(); index++) {
+            final var descriptor = methodScope.get(methodDefinition.get(index).getSymbol());
+            checkState(descriptor != null, "formal argument %s is not in its method's scope", index);
+            currentBlock.add(StoreInstruction.create(parameters.get(index), locals.get(descriptor)));
+        }
+    }
+
+    private @NotNull IrLabel newLabel(int blockId) {
+        final var label = IrLabel.createNamed(String.format("%s.L%d", function.getFunctionName(), blockId));
+        irContext.addLabel(label);
+        return label;
+    }
+
+    private @NotNull IrLabel newLabel() {
+        return newLabel(nextBlockId++);
+    }
+
+    private void startBlock(@NotNull IrLabel label) {
+        irContext.addLabel(label);
+        currentBlock = BasicBlock.create(label);
+        function.addBasicBlock(currentBlock);
+    }
+
+    private void lowerBlock(@NotNull CfgBlock cfgBlock) {
+        for (var statement : cfgBlock) {
+            if (statement instanceof Return returnStatement) {
+                lowerReturn(returnStatement);
+                // nothing after a return is reachable
+                return;
+            } else if (statement instanceof Branch branch) {
+                lowerBranch(branch, cfgBlock);
+                return;
+            } else {
+                lowerStatement(statement);
+            }
+        }
+        if (cfgBlock.getSuccessor().isPresent()) {
+            currentBlock.add(UnconditionalBranchInstruction.create(labels.get(cfgBlock.getSoleSuccessor())));
+        } else if (function.getReturnType() == IrVoidType.get()) {
+            currentBlock.add(ReturnInstruction.createVoid());
+        } else {
+            currentBlock.add(ReturnInstruction.create(zero(function.getReturnType())));
+        }
+    }
+
+    private void lowerStatement(@NotNull Statement statement) {
+        if (statement instanceof MethodCallStatement methodCallStatement) {
+            lowerMethodCall(methodCallStatement.methodCall);
+        } else if (statement instanceof Initialization initialization) {
+            final var descriptor = initialization.getInitLocation().getDescriptor().orElseThrow();
+            final var value = lowerExpression(initialization.getInitExpression());
+            currentBlock.add(StoreInstruction.create(value, addressOf(descriptor)));
+        } else if (statement instanceof Assignment assignment) {
+            lowerAssignment(assignment.getLocation(),
+                            assignment.getOperator(),
+                            assignment.assignExpr == null ? null : assignment.assignExpr.expression
+                           );
+        } else if (statement instanceof LocationAssignExpr locationAssignExpr) {
+            lowerAssignment(locationAssignExpr.location,
+                            locationAssignExpr.assignExpr.getOperator(),
+                            locationAssignExpr.assignExpr.expression
+                           );
+        } else if (!(statement instanceof FormalArguments || statement instanceof FieldDeclaration)) {
+            // parameters and locals are set up in the entry block
+            throw new IllegalStateException(String.format("cannot lower statement %s", statement.getSourceCode()));
+        }
+    }
+
+    private void lowerReturn(@NotNull Return returnStatement) {
+        if (returnStatement.retExpression == null || returnStatement.retExpression instanceof VoidExpression) {
+            currentBlock.add(ReturnInstruction.createVoid());
+        } else {
+            // lowering a conditional moves on to a new block, so the value comes first
+            final var value = lowerExpression(returnStatement.retExpression);
+            currentBlock.add(ReturnInstruction.create(value));
+        }
+    }
+
+    private void lowerBranch(@NotNull Branch branch, @NotNull CfgBlock cfgBlock) {
+        final var trueTarget = labels.get(cfgBlock.getSuccessorOrThrow());
+        final var falseTarget = labels.get(cfgBlock.getAlternateSuccessorOrThrow());
+        final var condition = lowerExpression(branch.getCondition());
+        if (condition instanceof IrConstantInt constant) {
+            currentBlock.add(UnconditionalBranchInstruction.create(constant.getValue() != 0 ? trueTarget : falseTarget));
+        } else {
+            currentBlock.add(BranchInstruction.create(condition, trueTarget, falseTarget));
+        }
+    }
+
+    /**
+     * Lowers {@code location op rhs}, where {@code rhs} is null for {@code ++} and {@code --}. The index of an array
+     * element is evaluated before {@code rhs}.
+     */
+    private void lowerAssignment(@NotNull Location location, @NotNull String op, @Nullable Expression rhs) {
+        final var address = addressOf(location);
+        final var type = irScalarTypeOf(location.getDescriptor().orElseThrow().getType());
+        final IrDirectValue value = rhs == null ? IrConstantInt.create(1L, (IrIntType) type) : lowerExpression(rhs);
+        if (op.equals(Scanner.ASSIGN)) {
+            currentBlock.add(StoreInstruction.create(value, address));
+            return;
+        }
+        final var load = LoadInstruction.create(function, address, type);
+        currentBlock.add(load);
+        final var update = switch (op) {
+            case Scanner.ADD_ASSIGN, Scanner.INCREMENT ->
+                    BinaryInstruction.createAddGenDest(function, load.getDestination(), value);
+            case Scanner.MINUS_ASSIGN, Scanner.DECREMENT ->
+                    BinaryInstruction.createSubGenDest(function, load.getDestination(), value);
+            case Scanner.MULTIPLY_ASSIGN -> BinaryInstruction.createMulGenDest(function, load.getDestination(), value);
+            default -> throw new IllegalStateException(String.format("unknown assignment operator %s", op));
+        };
+        currentBlock.add(update);
+        currentBlock.add(StoreInstruction.create(update.getDestination(), address));
+    }
+
+    private @NotNull IrPointer addressOf(@NotNull Descriptor descriptor) {
+        final var address = locals.containsKey(descriptor) ? locals.get(descriptor) : globals.get(descriptor);
+        checkState(address != null, "no memory was allocated for %s", descriptor);
+        return address;
+    }
+
+    private @NotNull IrPointer addressOf(@NotNull Location location) {
+        final var descriptor = location.getDescriptor().orElseThrow();
+        if (location instanceof LocationArray locationArray) {
+            final var index = lowerExpression(locationArray.expression);
+            final var getAddress = GetAddressInstruction.createGenDest(function,
+                                                                      addressOf(descriptor),
+                                                                      index,
+                                                                      irScalarTypeOf(descriptor.getType())
+                                                                     );
+            currentBlock.add(getAddress);
+            return getAddress.getDestination();
+        }
+        return addressOf(descriptor);
+    }
+
+    private @NotNull IrDirectValue lowerExpression(@NotNull Expression expression) {
+        if (expression instanceof BooleanLiteral booleanLiteral) {
+            return IrConstantInt.create(booleanLiteral.convertToLong(), IrIntType.getBoolType());
+        } else if (expression instanceof IntLiteral intLiteral) {
+            return IrConstantInt.create(intLiteral.convertToLong(), IrIntType.getInt64());
+        } else if (expression instanceof ParenthesizedExpression parenthesizedExpression) {
+            return lowerExpression(parenthesizedExpression.getExpression());
+        } else if (expression instanceof Location location) {
+            final var type = irScalarTypeOf(location.getDescriptor().orElseThrow().getType());
+            final var load = LoadInstruction.create(function, addressOf(location), type);
+            currentBlock.add(load);
+            return load.getDestination();
+        } else if (expression instanceof Len len) {
+            final var arrayType = (ArrayType) len.getArrayDescriptor().orElseThrow().getType();
+            return IrConstantInt.create(arrayType.getNumElements(), IrIntType.getInt64());
+        } else if (expression instanceof UnaryOpExpression unaryOpExpression) {
+            return lowerUnaryOpExpression(unaryOpExpression);
+        } else if (expression instanceof BinaryOpExpression binaryOpExpression) {
+            return lowerBinaryOpExpression(binaryOpExpression);
+        } else if (expression instanceof MethodCall methodCall) {
+            final var result = lowerMethodCall(methodCall);
+            checkState(result != null, "the value of void method %s cannot be used", methodCall.methodId.getLabel());
+            return result;
+        }
+        throw new IllegalStateException(String.format("cannot lower expression %s", expression.getSourceCode()));
+    }
+
+    private @NotNull IrDirectValue lowerUnaryOpExpression(@NotNull UnaryOpExpression unaryOpExpression) {
+        final var operand = lowerExpression(unaryOpExpression.operand);
+        final var label = unaryOpExpression.getUnaryOperator().getLabel();
+        final Instruction instruction;
+        final IrRegister destination;
+        if (label.equals(Scanner.NOT)) {
+            final var not = UnaryInstruction.createNotGenDest(function, operand);
+            instruction = not;
+            destination = not.getDestination();
+        } else if (label.equals(Scanner.MINUS)) {
+            final var negate = BranchInstruction.negateGenDest(function, operand);
+            instruction = negate;
+            destination = negate.getDestination();
+        } else {
+            throw new IllegalStateException(String.format("unknown unary operator %s", label));
+        }
+        currentBlock.add(instruction);
+        return destination;
+    }
+
+    private @NotNull IrDirectValue lowerBinaryOpExpression(@NotNull BinaryOpExpression binaryOpExpression) {
+        final var label = binaryOpExpression.getOp().getLabel();
+        if (label.equals(Scanner.CONDITIONAL_AND) || label.equals(Scanner.CONDITIONAL_OR)) {
+            return lowerConditional(binaryOpExpression, label.equals(Scanner.CONDITIONAL_AND));
+        }
+        final var lhs = lowerExpression(binaryOpExpression.getLhs());
+        final var rhs = lowerExpression(binaryOpExpression.getRhs());
+        final Instruction instruction;
+        final IrRegister destination;
+        switch (label) {
+            case Scanner.PLUS, Scanner.MINUS, Scanner.MULTIPLY, Scanner.DIVIDE, Scanner.MOD -> {
+                final var binaryInstruction = switch (label) {
+                    case Scanner.PLUS -> BinaryInstruction.createAddGenDest(function, lhs, rhs);
+                    case Scanner.MINUS -> BinaryInstruction.createSubGenDest(function, lhs, rhs);
+                    case Scanner.MULTIPLY -> BinaryInstruction.createMulGenDest(function, lhs, rhs);
+                    case Scanner.DIVIDE -> BinaryInstruction.createDivGenDest(function, lhs, rhs);
+                    default -> BinaryInstruction.createModGenDest(function, lhs, rhs);
+                };
+                instruction = binaryInstruction;
+                destination = binaryInstruction.getDestination();
+            }
+            case Scanner.LT, Scanner.GT, Scanner.LEQ, Scanner.GEQ, Scanner.EQ, Scanner.NEQ -> {
+                final var compareInstruction = switch (label) {
+                    case Scanner.LT -> CompareInstruction.createLtGenDest(function, lhs, rhs);
+                    case Scanner.GT -> CompareInstruction.createGtGenDest(function, lhs, rhs);
+                    case Scanner.LEQ -> CompareInstruction.createLeGenDest(function, lhs, rhs);
+                    case Scanner.GEQ -> CompareInstruction.createGeGenDest(function, lhs, rhs);
+                    case Scanner.EQ -> CompareInstruction.createEqGenDest(function, lhs, rhs);
+                    default -> CompareInstruction.createNeGenDest(function, lhs, rhs);
+                };
+                instruction = compareInstruction;
+                destination = compareInstruction.getDestination();
+            }
+            default -> throw new IllegalStateException(String.format("unknown binary operator %s", label));
+        }
+        currentBlock.add(instruction);
+        return destination;
+    }
+
+    /**
+     * Lowers {@code lhs && rhs} or {@code lhs || rhs} outside of a branch condition, where the cfg has not already split
+     * it, to a branch around the evaluation of {@code rhs} and a phi of the two outcomes.
+     */
+    private @NotNull IrDirectValue lowerConditional(@NotNull BinaryOpExpression binaryOpExpression, boolean isAnd) {
+        final var lhs = lowerExpression(binaryOpExpression.getLhs());
+        // the value of the whole expression when the lhs decides it
+        final var shortCircuited = IrConstantInt.create(isAnd ? 0L : 1L, IrIntType.getBoolType());
+        if (lhs instanceof IrConstantInt constant) {
+            return (constant.getValue() != 0) == isAnd ? lowerExpression(binaryOpExpression.getRhs()) : shortCircuited;
+        }
+        final var lhsLabel = currentBlock.getLabel();
+        final var rhsLabel = newLabel();
+        final var endLabel = newLabel();
+        currentBlock.add(isAnd ?
+                         BranchInstruction.create(lhs, rhsLabel, endLabel) :
+                         BranchInstruction.create(lhs, endLabel, rhsLabel));
+
+        startBlock(rhsLabel);
+        final var rhs = lowerExpression(binaryOpExpression.getRhs());
+        final var rhsEndLabel = currentBlock.getLabel();
+        currentBlock.add(UnconditionalBranchInstruction.create(endLabel));
+
+        startBlock(endLabel);
+        // the sources are listed in the order of the predecessors, so the printed phi is the same on every run
+        final var phiSources = List.of(PhiInstruction.createPhiSource(lhsLabel, shortCircuited),
+                                       PhiInstruction.createPhiSource(rhsEndLabel, rhs));
+        final var phi = PhiInstruction.createFromPairsGenDest(function, phiSources);
+        currentBlock.add(phi);
+        return phi.getDestination();
+    }
+
+    /**
+     * @return the value returned by {@code methodCall}, or null if it returns void
+     */
+    private @Nullable IrRegister lowerMethodCall(@NotNull MethodCall methodCall) {
+        final var arguments = new ArrayList<IrDirectValue>();
+        for (var actualArgument : methodCall.actualArgumentList) {
+            if (actualArgument instanceof ExpressionParameter expressionParameter) {
+                arguments.add(lowerExpression(expressionParameter.expression));
+            } else {
+                arguments.add(IrConstantString.create(((StringLiteral) actualArgument).literal));
+            }
+        }
+        final var name = methodCall.methodId.getLabel();
+        var functionPointer = methods.get(name);
+        if (functionPointer == null) {
+            // imports are variadic and return an int
+            functionPointer = IrFunctionPointer.create(name,
+                                                       IrFunctionType.create(IrIntType.getInt64(),
+                                                                             arguments.stream()
+                                                                                      .map(IrValue::getType)
+                                                                                      .toArray(IrType[]::new)
+                                                                            )
+                                                      );
+        }
+        final CallInstruction callInstruction;
+        if (functionPointer.getReturnType() == IrVoidType.get()) {
+            callInstruction = CallInstruction.create(functionPointer, arguments, null);
+        } else {
+            callInstruction = CallInstruction.createGenDest(function, functionPointer, arguments);
+        }
+        currentBlock.add(callInstruction);
+        return callInstruction.getDestination();
+    }
+}
@@ -1,28 +1,44 @@
 package decaf.ir;
 
 import decaf.ir.instructions.IrFunction;
+import decaf.ir.types.IrType;
+import decaf.ir.values.IrGlobalPointer;
 import decaf.ir.values.IrLabel;
 import decaf.shared.LinkedListSet;
+import decaf.shared.env.SymbolTable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkState;
 
 public class IrContext {
     private final LinkedListSet<IrLabel> usedLabels;
-    private final LinkedListSet<String> usedFunctions = new LinkedListSet<>();
+    @NotNull
+    private final SymbolTable symbolTable;
+    // symbol ids of the used functions, and their names in the order they were added
+    private final BitSet usedFunctions = new BitSet();
+    private final List<String> usedFunctionNames = new ArrayList<>();
+    // the globals and the types of what they point to, in the order they were added
+    private final Map<IrGlobalPointer, IrType> globals = new LinkedHashMap<>();
+    private final List<IrFunction> functions = new ArrayList<>();
 
     @Nullable
     private IrFunction currentFunction;
 
-    private IrContext() {
-        usedLabels = new LinkedListSet<>();
+    private IrContext(@NotNull SymbolTable symbolTable) {
+        this.usedLabels = new LinkedListSet<>();
+        this.symbolTable = symbolTable;
     }
 
-    public static IrContext create() {
-        return new IrContext();
+    public static IrContext create(@NotNull SymbolTable symbolTable) {
+        return new IrContext(symbolTable);
     }
 
     public void addLabel(@NotNull IrLabel label) {
@@ -50,15 +66,44 @@ public class IrContext {
         return currentFunction;
     }
 
+    public void addFunction(int symbol) {
+        if (!usedFunctions.get(symbol)) {
+            usedFunctions.set(symbol);
+            usedFunctionNames.add(symbolTable.nameOf(symbol));
+        }
+    }
+
     public void addFunction(@NotNull String function) {
-        usedFunctions.add(function);
+        addFunction(symbolTable.intern(function));
+    }
+
+    public boolean hasFunction(int symbol) {
+        return symbol != SymbolTable.NO_SYMBOL && usedFunctions.get(symbol);
     }
 
     public boolean hasFunction(@NotNull String function) {
-        return usedFunctions.contains(function);
+        return hasFunction(symbolTable.symbolOf(function));
     }
 
     public List<String> getUsedFunctions() {
-        return List.copyOf(usedFunctions);
+        return List.copyOf(usedFunctionNames);
+    }
+
+    public void addGlobal(@NotNull IrGlobalPointer global, @NotNull IrType pointeeType) {
+        checkState(!globals.containsKey(global), "global %s already added", global.prettyPrint());
+        globals.put(global, pointeeType);
+    }
+
+    public Map<IrGlobalPointer, IrType> getGlobals() {
+        return Collections.unmodifiableMap(globals);
+    }
+
+    public void addFunctionDefinition(@NotNull IrFunction function) {
+        addFunction(function.getFunctionName());
+        functions.add(function);
+    }
+
+    public List<IrFunction> getFunctionDefinitions() {
+        return List.copyOf(functions);
     }
 }
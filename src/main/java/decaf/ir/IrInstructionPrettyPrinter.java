@@ -4,12 +4,14 @@ import decaf.ir.instructions.*;
 import decaf.ir.types.IrPointerType;
 import decaf.ir.types.IrType;
 import decaf.ir.types.IrVoidType;
-import decaf.ir.values.IrConstantInt;
+import decaf.ir.values.IrConstant;
 import decaf.ir.values.IrLabel;
 import decaf.ir.values.IrValue;
 import decaf.shared.ColorPrint;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.stream.Collectors;
+
 public class IrInstructionPrettyPrinter implements IrInstructionVisitor<Void, String> {
     private static final StyleConfig reservedWordStyle = new StyleConfig(ColorPrint.Color.GREEN,
                                                                          ColorPrint.Format.BOLD
@@ -42,8 +44,8 @@ public class IrInstructionPrettyPrinter implements IrInstructionVisitor<Void, St
     }
 
     private @NotNull String colorPrintValue(@NotNull IrValue irValue) {
-        if (irValue instanceof IrConstantInt irConstantInt) {
-            return colorPrintConstants(irConstantInt.prettyPrint());
+        if (irValue instanceof IrConstant irConstant) {
+            return colorPrintConstants(irConstant.prettyPrint());
         } else {
             return irValue.prettyPrint();
         }
@@ -106,17 +108,27 @@ public class IrInstructionPrettyPrinter implements IrInstructionVisitor<Void, St
 
     @Override
     public @NotNull String visit(@NotNull CallInstruction callInstruction, Void argument) {
+        final var arguments = callInstruction.getArguments()
+                                             .stream()
+                                             .map(irValue -> String.format("%s %s",
+                                                                           colorPrintType(irValue.getType()),
+                                                                           colorPrintValue(irValue)
+                                                                          ))
+                                             .collect(Collectors.joining(", "));
         if (callInstruction.getDestination() == null) {
-            return String.format("%s %s",
+            return String.format("%s %s, %s(%s)",
                                  colorPrintReservedWord("call"),
-                                 colorPrintType(callInstruction.getFunctionPointer().getType())
+                                 colorPrintMetadata(callInstruction.getFunctionPointer().getFunctionName()),
+                                 colorPrintType(callInstruction.getFunctionPointer().getType()),
+                                 arguments
                                 );
         } else {
-            return String.format("%s = %s %s, %s",
+            return String.format("%s = %s %s, %s(%s)",
                                  colorPrintValue(callInstruction.getDestination()),
                                  colorPrintReservedWord("call"),
                                  colorPrintMetadata(callInstruction.getFunctionPointer().getFunctionName()),
-                                 colorPrintType(callInstruction.getFunctionPointer().getType())
+                                 colorPrintType(callInstruction.getFunctionPointer().getType()),
+                                 arguments
                                 );
         }
     }
@@ -146,7 +158,15 @@ public class IrInstructionPrettyPrinter implements IrInstructionVisitor<Void, St
 
     @Override
     public @NotNull String visit(@NotNull GetAddressInstruction getElementPtrInstruction, Void argument) {
-        throw new UnsupportedOperationException();
+        return String.format("%s = %s %s, %s %s, %s %s",
+                             colorPrintValue(getElementPtrInstruction.getDestination()),
+                             colorPrintReservedWord("getaddr"),
+                             colorPrintType(getElementPtrInstruction.getElementType()),
+                             colorPrintType(getElementPtrInstruction.getBaseAddress().getType()),
+                             colorPrintValue(getElementPtrInstruction.getBaseAddress()),
+                             colorPrintType(getElementPtrInstruction.getIndex().getType()),
+                             colorPrintValue(getElementPtrInstruction.getIndex())
+                            );
     }
 
     @Override
@@ -4,6 +4,7 @@ import decaf.ir.instructions.*;
 import decaf.ir.types.IrFunctionType;
 import decaf.ir.types.IrIntType;
 import decaf.ir.types.IrVoidType;
+import decaf.ir.values.IrValue;
 import org.jetbrains.annotations.NotNull;
 
 import static com.google.common.base.Preconditions.checkState;
@@ -50,8 +51,18 @@ public class IrInstructionValidator implements IrInstructionVisitor<IrContext, V
                                  callInstruction.getFunctionPointer().getFunctionName()
                                 )
                   );
-        checkState(callInstruction.getType() instanceof IrFunctionType, "call function must be a function type");
-        var functionType = (IrFunctionType) callInstruction.getType();
+        checkState(callInstruction.getFunctionPointer().getType() instanceof IrFunctionType,
+                   "call function must be a function type"
+                  );
+        var functionType = (IrFunctionType) callInstruction.getFunctionPointer().getType();
+        checkState(functionType.getNumParams() == callInstruction.getArguments().size(),
+                   "call must pass one argument for each parameter of the function"
+                  );
+        for (int index = 0; index < functionType.getNumParams(); index++) {
+            checkState(functionType.getParamType(index) == callInstruction.getArguments().get(index).getType(),
+                       "call argument and function parameter must have the same type"
+                      );
+        }
         if (callInstruction.getDestination() == null) {
             checkState(functionType.getReturnType() == IrVoidType.get(),
                        "call destination and function return type must have the same type"
@@ -93,6 +104,11 @@ public class IrInstructionValidator implements IrInstructionVisitor<IrContext, V
 
     @Override
     public @NotNull Void visit(@NotNull GetAddressInstruction getElementPtrInstruction, IrContext irContext) {
+        checkState(getElementPtrInstruction.getIndex().getType().isIntType(), "getaddr index must be an int type");
+        checkState(getElementPtrInstruction.getDestination().getType() ==
+                   getElementPtrInstruction.getBaseAddress().getType(),
+                   "getaddr destination and base address must be the same kind of pointer"
+                  );
         return null;
     }
 
@@ -121,17 +137,12 @@ public class IrInstructionValidator implements IrInstructionVisitor<IrContext, V
 
         var currentFunction = irContext.getCurrentFunctionNonNull();
         var currentFunctionType = (IrFunctionType) currentFunction.getType();
-        return (Void) returnInstruction.getReturnValue().map(irValue -> {
-            checkState(currentFunctionType.getReturnType() == irValue.getType(),
-                       "return value and function return type must have the same type"
-                      );
-            return null;
-        }).orElseGet(() -> {
-            checkState(currentFunctionType.getReturnType() == IrVoidType.get(),
-                       "return value and function return type must have the same type"
-                      );
-            return null;
-        });
+        // the return type is void exactly when there is no return value
+        var returnType = returnInstruction.getReturnValue().map(IrValue::getType).orElse(IrVoidType.get());
+        checkState(currentFunctionType.getReturnType() == returnType,
+                   "return value and function return type must have the same type"
+                  );
+        return null;
     }
 
     @Override
@@ -167,6 +178,7 @@ public class IrInstructionValidator implements IrInstructionVisitor<IrContext, V
                 checkState(unaryInstruction.getDestination().getType().isFirstClassType(),
                            "unary operand must be a first class type"
                           );
+                break;
             default:
                 throw new IllegalStateException("unary op type must be `not` or `copy`");
         }
@@ -0,0 +1,259 @@
+package decaf.ir;
+
+import decaf.analysis.cfg.Dominators;
+import decaf.ir.instructions.AllocaInstruction;
+import decaf.ir.instructions.IrFunction;
+import decaf.ir.instructions.LoadInstruction;
+import decaf.ir.instructions.PhiInstruction;
+import decaf.ir.instructions.StoreInstruction;
+import decaf.ir.types.IrIntType;
+import decaf.ir.types.IrType;
+import decaf.ir.values.IrConstantInt;
+import decaf.ir.values.IrDirectValue;
+import decaf.ir.values.IrLabel;
+import decaf.ir.values.IrPointer;
+import decaf.ir.values.IrRegister;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+/**
+ * Promotes the scalar locals of an {@link IrFunction} from the stack to registers, turning it into SSA form.
+ * <p>
+ * A local is promoted when every use of the pointer returned by its {@link AllocaInstruction} is the address of a load
+ * or a store, which is the case for every scalar local lowered by {@link IrBuilder}; a pointer used in any other way,
+ * such as stored to memory or indexed into, may be read through where the renaming cannot see it. Its loads, stores and alloca are removed:
+ * <ul>
+ *     <li>a {@link PhiInstruction} is placed at each block in the iterated dominance frontier of the blocks storing to
+ *     the local, but only where the local is live on entry to the block, so no phi is ever dead (pruned SSA)</li>
+ *     <li>the dominator tree is walked from the entry, keeping the value of each local reaching the current block on
+ *     a stack, and the register each load defined is replaced in all its uses by the value reaching the load</li>
+ * </ul>
+ * Blocks which cannot be reached from the entry are removed first, as they would otherwise still load from the removed
+ * allocas, and the dominators are then found over the blocks of the function as a {@link decaf.analysis.cfg.FlowGraph}.
+ */
+public class Mem2Reg {
+    @NotNull
+    private final IrFunction function;
+    @NotNull
+    private final Dominators<IrFunction> dominators;
+    // the promoted locals, numbered in the order of their allocas
+    private final Map<IrPointer, Integer> locals = new HashMap<>();
+    private final List<IrType> localTypes = new ArrayList<>();
+    // the phis placed at each block, in the order they will appear
+    private final List<List<PendingPhi>> phis = new ArrayList<>();
+
+    private Mem2Reg(@NotNull IrFunction function) {
+        this.function = function;
+        this.dominators = Dominators.of(function);
+    }
+
+    public static void run(@NotNull IrFunction function) {
+        function.removeUnreachableBlocks();
+        final var mem2Reg = new Mem2Reg(function);
+        mem2Reg.findPromotableLocals();
+        if (mem2Reg.locals.isEmpty()) {
+            return;
+        }
+        mem2Reg.placePhis();
+        mem2Reg.rename();
+    }
+
+    private void findPromotableLocals() {
+        for (var basicBlock : function.getBasicBlocks()) {
+            for (var instruction : basicBlock) {
+                if (instruction instanceof AllocaInstruction allocaInstruction &&
+                    allocaInstruction.getPointeeType().isFirstClassType() &&
+                    isOnlyLoadedAndStored(allocaInstruction.getDestination())) {
+                    locals.put(allocaInstruction.getDestination(), localTypes.size());
+                    localTypes.add(allocaInstruction.getPointeeType());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether every use of {@code pointer} is the address of a load or a store; a pointer is not a direct value,
+     * so it cannot be the value a store writes
+     */
+    private static boolean isOnlyLoadedAndStored(@NotNull IrPointer pointer) {
+        for (var use : pointer.getUses()) {
+            if (!(use.getUser() instanceof LoadInstruction || use.getUser() instanceof StoreInstruction)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int localOf(@NotNull IrPointer pointer) {
+        return locals.getOrDefault(pointer, -1);
+    }
+
+    private void placePhis() {
+        final int numBlocks = function.numBlocks();
+        final int numLocals = localTypes.size();
+        final var definingBlocks = new BitSet[numLocals];
+        final var liveInBlocks = new BitSet[numLocals];
+        for (int local = 0; local < numLocals; local++) {
+            definingBlocks[local] = new BitSet(numBlocks);
+            liveInBlocks[local] = new BitSet(numBlocks);
+        }
+        for (int block = 0; block < numBlocks; block++) {
+            phis.add(new ArrayList<>());
+            final var storedInBlock = new BitSet(numLocals);
+            for (var instruction : function.block(block)) {
+                if (instruction instanceof StoreInstruction storeInstruction) {
+                    final int local = localOf(storeInstruction.getAddress());
+                    if (local != -1) {
+                        storedInBlock.set(local);
+                        definingBlocks[local].set(block);
+                    }
+                } else if (instruction instanceof LoadInstruction loadInstruction) {
+                    // a load before any store in the block reads the value the block was entered with
+                    final int local = localOf(loadInstruction.getAddress());
+                    if (local != -1 && !storedInBlock.get(local)) {
+                        liveInBlocks[local].set(block);
+                    }
+                }
+            }
+        }
+
+        for (int local = 0; local < numLocals; local++) {
+            findLiveInBlocks(definingBlocks[local], liveInBlocks[local]);
+            final var hasPhi = new BitSet(numBlocks);
+            final var workList = new Stack<Integer>();
+            definingBlocks[local].stream().forEach(workList::push);
+            while (!workList.isEmpty()) {
+                final int block = workList.pop();
+                for (int index = 0; index < dominators.frontierCount(block); index++) {
+                    final int joinPoint = dominators.frontier(block, index);
+                    if (hasPhi.get(joinPoint)) {
+                        continue;
+                    }
+                    hasPhi.set(joinPoint);
+                    if (liveInBlocks[local].get(joinPoint)) {
+                        phis.get(joinPoint).add(new PendingPhi(local, function.newRegister(localTypes.get(local))));
+                    }
+                    // the frontier is iterated over every join point, so that pruning cannot hide one beyond it
+                    if (!definingBlocks[local].get(joinPoint)) {
+                        workList.push(joinPoint);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Extends {@code liveInBlocks}, which holds the blocks loading a local before storing to it, to every block the local
+     * is live on entry to: those from which such a load can be reached without passing through a store.
+     */
+    private void findLiveInBlocks(@NotNull BitSet definingBlocks, @NotNull BitSet liveInBlocks) {
+        final var workList = new Stack<Integer>();
+        liveInBlocks.stream().forEach(workList::push);
+        while (!workList.isEmpty()) {
+            final int block = workList.pop();
+            for (int index = 0; index < function.predecessorCount(block); index++) {
+                final int predecessor = function.predecessor(block, index);
+                if (!liveInBlocks.get(predecessor) && !definingBlocks.get(predecessor)) {
+                    liveInBlocks.set(predecessor);
+                    workList.push(predecessor);
+                }
+            }
+        }
+    }
+
+    private void rename() {
+        final int numLocals = localTypes.size();
+        final List<Stack<IrDirectValue>> values = new ArrayList<>();
+        for (int local = 0; local < numLocals; local++) {
+            values.add(new Stack<>());
+        }
+        final var workList = new Stack<Visit>();
+        workList.push(new Visit(0, null));
+        while (!workList.isEmpty()) {
+            final var visit = workList.pop();
+            final int block = visit.block;
+            if (visit.pushed != null) {
+                // the subtree of the block is done, so the values it pushed no longer reach
+                for (int local : visit.pushed) {
+                    values.get(local).pop();
+                }
+                continue;
+            }
+            final var pushed = new ArrayList<Integer>();
+            for (var phi : phis.get(block)) {
+                values.get(phi.local).push(phi.destination);
+                pushed.add(phi.local);
+            }
+            final var basicBlock = function.block(block);
+            for (var instruction : basicBlock) {
+                if (instruction instanceof AllocaInstruction allocaInstruction &&
+                    localOf(allocaInstruction.getDestination()) != -1) {
+                    basicBlock.erase(instruction);
+                } else if (instruction instanceof StoreInstruction storeInstruction &&
+                           localOf(storeInstruction.getAddress()) != -1) {
+                    final int local = localOf(storeInstruction.getAddress());
+                    values.get(local).push(storeInstruction.getValue());
+                    pushed.add(local);
+                    basicBlock.erase(instruction);
+                } else if (instruction instanceof LoadInstruction loadInstruction &&
+                           localOf(loadInstruction.getAddress()) != -1) {
+                    // the load dominates its uses, so the stores using its register have not been visited yet
+                    final var value = currentValue(values, localOf(loadInstruction.getAddress()));
+                    loadInstruction.getDestination().replaceAllUsesWith(value);
+                    basicBlock.erase(instruction);
+                }
+            }
+            final var label = basicBlock.getLabel();
+            for (int index = 0; index < function.successorCount(block); index++) {
+                for (var phi : phis.get(function.successor(block, index))) {
+                    phi.sources.put(label, currentValue(values, phi.local));
+                }
+            }
+            workList.push(new Visit(block, pushed));
+            for (int index = dominators.childCount(block) - 1; index >= 0; index--) {
+                workList.push(new Visit(dominators.child(block, index), null));
+            }
+        }
+
+        for (int block = 0; block < function.numBlocks(); block++) {
+            final var basicBlock = function.block(block);
+            final var blockPhis = phis.get(block);
+            for (int index = blockPhis.size() - 1; index >= 0; index--) {
+                final var phi = blockPhis.get(index);
+                basicBlock.addFirst(PhiInstruction.createFromMap(phi.destination, phi.sources));
+            }
+        }
+    }
+
+    private @NotNull IrDirectValue currentValue(@NotNull List<Stack<IrDirectValue>> values, int local) {
+        final var stack = values.get(local);
+        if (stack.isEmpty()) {
+            // read before it is ever written; locals start out as zero
+            return IrConstantInt.create(0L, (IrIntType) localTypes.get(local));
+        }
+        return stack.peek();
+    }
+
+    /**
+     * A block of the dominator tree to enter, or with the locals it pushed values for, to leave
+     */
+    private record Visit(int block, @Nullable List<Integer> pushed) {
+    }
+
+    /**
+     * A phi for {@code local} whose sources are filled in as its predecessors are renamed
+     */
+    private record PendingPhi(int local, @NotNull IrRegister destination, @NotNull Map<IrLabel, IrDirectValue> sources) {
+        PendingPhi(int local, @NotNull IrRegister destination) {
+            this(local, destination, new LinkedHashMap<>());
+        }
+    }
+}
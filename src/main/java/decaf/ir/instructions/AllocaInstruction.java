@@ -5,11 +5,8 @@ import decaf.ir.types.IrStackAddressType;
 import decaf.ir.types.IrType;
 import decaf.ir.values.IrPointer;
 import decaf.ir.values.IrStackPointer;
-import decaf.ir.values.IrValue;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-
 public class AllocaInstruction extends Instruction {
     /**
      * Given a type, this alloca instruction gives you a pointer to a memory address that can hold a value of that type.
@@ -31,16 +28,17 @@ public class AllocaInstruction extends Instruction {
     /**
      * Create an alloca instruction.
      *
-     * @param type The type of the value to be allocated.
+     * @param type        The type of the value to be allocated.
+     * @param destination The pointer to the allocated memory.
      */
-    private AllocaInstruction(@NotNull IrType type) {
+    private AllocaInstruction(@NotNull IrType type, @NotNull IrStackPointer destination) {
         super(IrStackAddressType.get());
         this.pointeeType = type;
-        this.destination = IrStackPointer.create();
+        this.destination = destination;
     }
 
-    public static AllocaInstruction create(@NotNull IrType type) {
-        return new AllocaInstruction(type);
+    public static AllocaInstruction create(@NotNull IrFunction function, @NotNull IrType type) {
+        return new AllocaInstruction(type, function.newStackPointer());
     }
 
     @Override
@@ -54,11 +52,6 @@ public class AllocaInstruction extends Instruction {
         return visitor.visit(this, argument);
     }
 
-    @Override
-    public List<? extends IrValue> getUsedValues() {
-        return List.of(destination);
-    }
-
     public IrType getPointeeType() {
         return pointeeType;
     }
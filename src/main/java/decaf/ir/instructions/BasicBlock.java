@@ -0,0 +1,229 @@
+package decaf.ir.instructions;
+
+import decaf.ir.values.IrLabel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A labelled sequence of instructions, the last of which is a terminator once the block is complete.
+ * <p>
+ * The instructions are linked to each other and to the block they are in through {@link Instruction#getPrevious()},
+ * {@link Instruction#getNext()} and {@link Instruction#getParent()}, so an instruction can be inserted next to, erased
+ * or moved given only the instruction, in constant time. An instruction is in at most one block at a time.
+ * <p>
+ * The iterator of a block reads the instruction after the one it returns before returning it, so the instruction it
+ * last returned may be erased or moved without invalidating it.
+ * <p>
+ * The successors of a block follow from its last instruction, so adding or removing the last instruction tells the
+ * function the block is in that its edges changed.
+ */
+public class BasicBlock implements Iterable<Instruction> {
+    @NotNull private final IrLabel label;
+    @Nullable private Instruction first;
+    @Nullable private Instruction last;
+    private int size;
+    // the function this block is in, which is maintained by that function
+    @Nullable IrFunction function;
+
+    protected BasicBlock(@NotNull IrLabel label) {
+        this.label = label;
+    }
+
+    public static BasicBlock create(@NotNull IrLabel label) {
+        return new BasicBlock(label);
+    }
+
+    public @NotNull IrLabel getLabel() {
+        return label;
+    }
+
+    public boolean isEmpty() {
+        return first == null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public @NotNull Instruction getFirst() {
+        if (first == null) {
+            throw new NoSuchElementException(String.format("block %s is empty", label.prettyPrint()));
+        }
+        return first;
+    }
+
+    public @NotNull Instruction getLast() {
+        if (last == null) {
+            throw new NoSuchElementException(String.format("block %s is empty", label.prettyPrint()));
+        }
+        return last;
+    }
+
+    public void add(@NotNull Instruction instruction) {
+        link(instruction, last, null);
+    }
+
+    public void addFirst(@NotNull Instruction instruction) {
+        link(instruction, null, first);
+    }
+
+    public void addAll(@NotNull Collection<? extends Instruction> instructions) {
+        instructions.forEach(this::add);
+    }
+
+    /**
+     * Inserts {@code instruction}, which must not be in a block, just before {@code position}, which must be in this one
+     */
+    public void insertBefore(@NotNull Instruction position, @NotNull Instruction instruction) {
+        checkArgument(position.parent == this, "%s is not in block %s", position, label.prettyPrint());
+        link(instruction, position.previous, position);
+    }
+
+    /**
+     * Inserts {@code instruction}, which must not be in a block, just after {@code position}, which must be in this one
+     */
+    public void insertAfter(@NotNull Instruction position, @NotNull Instruction instruction) {
+        checkArgument(position.parent == this, "%s is not in block %s", position, label.prettyPrint());
+        link(instruction, position, position.next);
+    }
+
+    /**
+     * Removes {@code instruction} from this block and from the uses of its operands, for good
+     */
+    public void erase(@NotNull Instruction instruction) {
+        checkArgument(instruction.parent == this, "%s is not in block %s", instruction, label.prettyPrint());
+        unlink(instruction);
+        instruction.dropOperands();
+    }
+
+    /**
+     * Moves {@code instruction} from whichever block it is in to just before {@code position} in this block, or to the
+     * end of this block if {@code position} is null. The instruction keeps its operands.
+     */
+    public void moveTo(@NotNull Instruction instruction, @Nullable Instruction position) {
+        checkArgument(instruction.parent != null, "%s is not in a block", instruction);
+        checkArgument(instruction != position, "%s cannot be moved before itself", instruction);
+        // checked before unlinking, so that a bad position leaves the instruction where it was
+        checkArgument(position == null || position.parent == this,
+                      "%s is not in block %s",
+                      position,
+                      label.prettyPrint()
+                     );
+        instruction.parent.unlink(instruction);
+        if (position == null) {
+            add(instruction);
+        } else {
+            insertBefore(position, instruction);
+        }
+    }
+
+    private void link(@NotNull Instruction instruction, @Nullable Instruction previous, @Nullable Instruction next) {
+        checkArgument(instruction.parent == null, "%s is already in a block", instruction);
+        instruction.parent = this;
+        instruction.previous = previous;
+        instruction.next = next;
+        if (previous == null) {
+            first = instruction;
+        } else {
+            previous.next = instruction;
+        }
+        if (next == null) {
+            last = instruction;
+            successorsChanged();
+        } else {
+            next.previous = instruction;
+        }
+        size++;
+    }
+
+    private void unlink(@NotNull Instruction instruction) {
+        if (instruction.previous == null) {
+            first = instruction.next;
+        } else {
+            instruction.previous.next = instruction.next;
+        }
+        if (instruction.next == null) {
+            last = instruction.previous;
+            successorsChanged();
+        } else {
+            instruction.next.previous = instruction.previous;
+        }
+        instruction.parent = null;
+        instruction.previous = null;
+        instruction.next = null;
+        size--;
+    }
+
+    @Override
+    public @NotNull Iterator<Instruction> iterator() {
+        return new Iterator<>() {
+            @Nullable private Instruction next = first;
+            @Nullable private Instruction current;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Instruction next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                current = next;
+                next = next.next;
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                erase(current);
+                current = null;
+            }
+        };
+    }
+
+    /**
+     * Tells the function this block is in, if any, that the blocks this block jumps to changed
+     */
+    public void successorsChanged() {
+        if (function != null) {
+            function.blocksChanged();
+        }
+    }
+
+    /**
+     * @return the labels of the blocks this block jumps to, in the order of its terminator's targets
+     */
+    public @NotNull List<IrLabel> getSuccessors() {
+        if (isEmpty()) {
+            return List.of();
+        }
+        final var terminator = getLast();
+        if (terminator instanceof BranchInstruction branchInstruction) {
+            return List.of(branchInstruction.getTrueTarget(), branchInstruction.getFalseTarget());
+        } else if (terminator instanceof UnconditionalBranchInstruction unconditionalBranchInstruction) {
+            return List.of(unconditionalBranchInstruction.getTarget());
+        }
+        return List.of();
+    }
+
+    public String prettyPrint() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(label.prettyPrint()).append(":\n");
+        for (Instruction instruction : this) {
+            sb.append(instruction.toString()).append("\n");
+        }
+        return sb.toString();
+    }
+}
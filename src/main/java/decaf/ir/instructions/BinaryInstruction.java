@@ -3,19 +3,16 @@ package decaf.ir.instructions;
 import decaf.ir.IrInstructionVisitor;
 import decaf.ir.values.IrDirectValue;
 import decaf.ir.values.IrRegister;
+import decaf.ir.values.IrUse;
 import org.jetbrains.annotations.NotNull;
 
-import decaf.ir.values.IrValue;
-
-import java.util.List;
-
 public class BinaryInstruction extends Instruction implements WithDestination<BinaryInstruction> {
     @NotNull
     private final BinaryOperatorType binaryOperatorType;
     @NotNull
-    private final IrDirectValue lhs;
+    private final IrUse lhs;
     @NotNull
-    private final IrDirectValue rhs;
+    private final IrUse rhs;
     @NotNull
     private final IrRegister destination;
 
@@ -25,8 +22,8 @@ public class BinaryInstruction extends Instruction implements WithDestination<Bi
                                 @NotNull IrRegister destination) {
         super(lhs.getType());
         this.binaryOperatorType = binaryOperatorType;
-        this.lhs = lhs;
-        this.rhs = rhs;
+        this.lhs = use(lhs);
+        this.rhs = use(rhs);
         this.destination = destination;
     }
 
@@ -90,45 +87,64 @@ public class BinaryInstruction extends Instruction implements WithDestination<Bi
         return new BinaryInstruction(BinaryOperatorType.XOR, lhs, rhs, destination);
     }
 
-    public static BinaryInstruction createAddGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new BinaryInstruction(BinaryOperatorType.ADD, lhs, rhs, IrRegister.create(lhs.getType()));
+    public static BinaryInstruction createAddGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new BinaryInstruction(BinaryOperatorType.ADD, lhs, rhs, function.newRegister(lhs.getType()));
     }
 
-
-    public static BinaryInstruction createSubGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new BinaryInstruction(BinaryOperatorType.SUB, lhs, rhs, IrRegister.create(lhs.getType()));
+    public static BinaryInstruction createSubGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new BinaryInstruction(BinaryOperatorType.SUB, lhs, rhs, function.newRegister(lhs.getType()));
     }
 
-    public static BinaryInstruction createMulGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new BinaryInstruction(BinaryOperatorType.MUL, lhs, rhs, IrRegister.create(lhs.getType()));
+    public static BinaryInstruction createMulGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new BinaryInstruction(BinaryOperatorType.MUL, lhs, rhs, function.newRegister(lhs.getType()));
     }
 
-    public static BinaryInstruction createDivGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new BinaryInstruction(BinaryOperatorType.DIV, lhs, rhs, IrRegister.create(lhs.getType()));
+    public static BinaryInstruction createDivGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new BinaryInstruction(BinaryOperatorType.DIV, lhs, rhs, function.newRegister(lhs.getType()));
     }
 
-    public static BinaryInstruction createModGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new BinaryInstruction(BinaryOperatorType.MOD, lhs, rhs, IrRegister.create(lhs.getType()));
+    public static BinaryInstruction createModGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new BinaryInstruction(BinaryOperatorType.MOD, lhs, rhs, function.newRegister(lhs.getType()));
     }
 
-    public static BinaryInstruction createShlGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new BinaryInstruction(BinaryOperatorType.SHL, lhs, rhs, IrRegister.create(lhs.getType()));
+    public static BinaryInstruction createShlGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new BinaryInstruction(BinaryOperatorType.SHL, lhs, rhs, function.newRegister(lhs.getType()));
     }
 
-    public static BinaryInstruction createShrGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new BinaryInstruction(BinaryOperatorType.SHR, lhs, rhs, IrRegister.create(lhs.getType()));
+    public static BinaryInstruction createShrGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new BinaryInstruction(BinaryOperatorType.SHR, lhs, rhs, function.newRegister(lhs.getType()));
     }
 
-    public static BinaryInstruction createAndGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new BinaryInstruction(BinaryOperatorType.AND, lhs, rhs, IrRegister.create(lhs.getType()));
+    public static BinaryInstruction createAndGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new BinaryInstruction(BinaryOperatorType.AND, lhs, rhs, function.newRegister(lhs.getType()));
     }
 
-    public static BinaryInstruction createOrGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new BinaryInstruction(BinaryOperatorType.OR, lhs, rhs, IrRegister.create(lhs.getType()));
+    public static BinaryInstruction createOrGenDest(@NotNull IrFunction function,
+                                                    @NotNull IrDirectValue lhs,
+                                                    @NotNull IrDirectValue rhs) {
+        return new BinaryInstruction(BinaryOperatorType.OR, lhs, rhs, function.newRegister(lhs.getType()));
     }
 
-    public static BinaryInstruction createXorGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new BinaryInstruction(BinaryOperatorType.XOR, lhs, rhs, IrRegister.create(lhs.getType()));
+    public static BinaryInstruction createXorGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new BinaryInstruction(BinaryOperatorType.XOR, lhs, rhs, function.newRegister(lhs.getType()));
     }
 
     @Override
@@ -137,8 +153,8 @@ public class BinaryInstruction extends Instruction implements WithDestination<Bi
                              destination.prettyPrint(),
                              getBinaryOpString(),
                              destination.getType().prettyPrint(),
-                             lhs.prettyPrint(),
-                             rhs.prettyPrint()
+                             getLhs().prettyPrint(),
+                             getRhs().prettyPrint()
                             );
     }
 
@@ -147,11 +163,6 @@ public class BinaryInstruction extends Instruction implements WithDestination<Bi
         return visitor.visit(this, argument);
     }
 
-    @Override
-    public List<? extends IrValue> getUsedValues() {
-        return List.of(lhs, rhs, destination);
-    }
-
     public String getBinaryOpString() {
         return switch (binaryOperatorType) {
             case ADD -> "add";
@@ -171,16 +182,15 @@ public class BinaryInstruction extends Instruction implements WithDestination<Bi
         return destination;
     }
 
-
     protected enum BinaryOperatorType {
         ADD, SUB, MUL, DIV, MOD, SHL, SHR, AND, OR, XOR
     }
 
     public @NotNull IrDirectValue getRhs() {
-        return rhs;
+        return (IrDirectValue) rhs.getValue();
     }
 
     public @NotNull IrDirectValue getLhs() {
-        return lhs;
+        return (IrDirectValue) lhs.getValue();
     }
 }
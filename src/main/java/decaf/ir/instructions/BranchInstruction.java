@@ -6,29 +6,27 @@ import decaf.ir.types.IrVoidType;
 import decaf.ir.values.*;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 
 public class BranchInstruction extends Instruction {
     @NotNull
-    private final IrRegister condition;
+    private final IrUse condition;
     @NotNull
-    private final IrLabel trueLabel;
+    private final IrUse trueLabel;
     @NotNull
-    private final IrLabel falseLabel;
+    private final IrUse falseLabel;
 
-    protected BranchInstruction(@NotNull IrRegister condition,
+    protected BranchInstruction(@NotNull IrDirectValue condition,
                                 @NotNull IrLabel trueLabel,
                                 @NotNull IrLabel falseLabel) {
         super(IrVoidType.get());
-        this.condition = condition;
-        this.trueLabel = trueLabel;
-        this.falseLabel = falseLabel;
+        this.condition = use(condition);
+        this.trueLabel = use(trueLabel);
+        this.falseLabel = use(falseLabel);
     }
 
-    public static BranchInstruction create(@NotNull IrRegister condition,
+    public static BranchInstruction create(@NotNull IrDirectValue condition,
                                            @NotNull IrLabel trueLabel,
                                            @NotNull IrLabel falseLabel) {
         checkArgument(condition.getType().isBoolType(), "Condition must be a boolean");
@@ -45,34 +43,34 @@ public class BranchInstruction extends Instruction {
         );
     }
 
-    public static BinaryInstruction negateGenDest(@NotNull IrDirectValue irDirectValue) {
+    public static BinaryInstruction negateGenDest(@NotNull IrFunction function, @NotNull IrDirectValue irDirectValue) {
         checkArgument(irDirectValue.getType() instanceof IrIntType);
         final var intType = (IrIntType) irDirectValue.getType();
         return new BinaryInstruction(BinaryInstruction.BinaryOperatorType.SUB,
                                      IrConstantInt.create(0, intType.getBitWidth()),
                                      irDirectValue,
-                                     IrRegister.create(intType)
+                                     function.newRegister(intType)
         );
     }
 
-    public @NotNull IrRegister getCondition() {
-        return condition;
+    public @NotNull IrDirectValue getCondition() {
+        return (IrDirectValue) condition.getValue();
     }
 
     public @NotNull IrLabel getTrueTarget() {
-        return trueLabel;
+        return (IrLabel) trueLabel.getValue();
     }
 
     public @NotNull IrLabel getFalseTarget() {
-        return falseLabel;
+        return (IrLabel) falseLabel.getValue();
     }
 
     @Override
     public String toString() {
         return String.format("br %s, %s, %s",
-                             condition.typedPrettyPrint(),
-                             trueLabel.typedPrettyPrint(),
-                             falseLabel.typedPrettyPrint()
+                             getCondition().typedPrettyPrint(),
+                             getTrueTarget().typedPrettyPrint(),
+                             getFalseTarget().typedPrettyPrint()
                             );
     }
 
@@ -82,8 +80,4 @@ public class BranchInstruction extends Instruction {
         return visitor.visit(this, argument);
     }
 
-    @Override
-    public List<? extends IrValue> getUsedValues() {
-        return List.of(condition, trueLabel, falseLabel);
-    }
 }
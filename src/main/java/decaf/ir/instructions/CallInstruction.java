@@ -1,45 +1,74 @@
 package decaf.ir.instructions;
 
 import decaf.ir.IrInstructionVisitor;
+import decaf.ir.values.IrDirectValue;
 import decaf.ir.values.IrFunctionPointer;
 import decaf.ir.values.IrRegister;
-import decaf.ir.values.IrValue;
+import decaf.ir.values.IrUse;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class CallInstruction extends Instruction {
   @Nullable
   private final IrRegister result;
 
   @NotNull
-  private final IrFunctionPointer functionPointer;
+  private final IrUse functionPointer;
 
-  protected CallInstruction(@NotNull IrFunctionPointer functionPointer, @Nullable IrRegister result) {
+  @NotNull
+  private final List<IrUse> arguments = new ArrayList<>();
+
+  protected CallInstruction(@NotNull IrFunctionPointer functionPointer,
+                            @NotNull List<? extends IrDirectValue> arguments,
+                            @Nullable IrRegister result) {
     super(functionPointer.getReturnType());
     this.result = result;
-    this.functionPointer = functionPointer;
+    this.functionPointer = use(functionPointer);
+    for (IrDirectValue argument : arguments) {
+      this.arguments.add(use(argument));
+    }
   }
 
     public static CallInstruction create(@NotNull IrFunctionPointer functionPointer, @Nullable IrRegister result) {
-        return new CallInstruction(functionPointer, result);
+        return new CallInstruction(functionPointer, List.of(), result);
+    }
+
+    public static CallInstruction create(@NotNull IrFunctionPointer functionPointer,
+                                         @NotNull List<? extends IrDirectValue> arguments,
+                                         @Nullable IrRegister result) {
+        return new CallInstruction(functionPointer, arguments, result);
+    }
+
+    public static CallInstruction createGenDest(@NotNull IrFunction function,
+                                                @NotNull IrFunctionPointer functionPointer) {
+        return createGenDest(function, functionPointer, List.of());
     }
 
-    public static CallInstruction createGenDest(@NotNull IrFunctionPointer functionPointer) {
-        return new CallInstruction(functionPointer, IrRegister.create(functionPointer.getReturnType()));
+    public static CallInstruction createGenDest(@NotNull IrFunction function,
+                                                @NotNull IrFunctionPointer functionPointer,
+                                                @NotNull List<? extends IrDirectValue> arguments) {
+        return new CallInstruction(functionPointer, arguments, function.newRegister(functionPointer.getReturnType()));
     }
 
   @Override
   public String toString() {
+    final String arguments = getArguments().stream()
+                                           .map(IrDirectValue::typedPrettyPrint)
+                                           .collect(Collectors.joining(", "));
     if (result == null) {
-      return String.format("call %s",
-                           functionPointer.typedPrettyPrint()
+      return String.format("call %s(%s)",
+                           getFunctionPointer().typedPrettyPrint(),
+                           arguments
                           );
     } else {
-      return String.format("%s = call %s",
+      return String.format("%s = call %s(%s)",
                            result.prettyPrint(),
-                           functionPointer.typedPrettyPrint()
+                           getFunctionPointer().typedPrettyPrint(),
+                           arguments
                           );
     }
   }
@@ -49,17 +78,16 @@ public class CallInstruction extends Instruction {
     return visitor.visit(this, argument);
   }
 
-  @Override
-  public List<? extends IrValue> getUsedValues() {
-    if (result == null) {
-      return List.of(functionPointer);
-    } else {
-      return List.of(functionPointer, result);
+    public @NotNull IrFunctionPointer getFunctionPointer() {
+        return (IrFunctionPointer) functionPointer.getValue();
     }
-  }
 
-    public @NotNull IrFunctionPointer getFunctionPointer() {
-        return functionPointer;
+    public @NotNull List<IrDirectValue> getArguments() {
+        final var arguments = new ArrayList<IrDirectValue>(this.arguments.size());
+        for (var argument : this.arguments) {
+            arguments.add((IrDirectValue) argument.getValue());
+        }
+        return arguments;
     }
 
     public @Nullable IrRegister getDestination() {
@@ -4,14 +4,12 @@ import decaf.ir.IrInstructionVisitor;
 import decaf.ir.types.IrIntType;
 import decaf.ir.values.IrDirectValue;
 import decaf.ir.values.IrRegister;
-import decaf.ir.values.IrValue;
+import decaf.ir.values.IrUse;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-
 public class CompareInstruction extends Instruction {
-    protected final IrDirectValue lhs;
-    protected final IrDirectValue rhs;
+    protected final IrUse lhs;
+    protected final IrUse rhs;
     protected final IrRegister destination;
     protected final CompareType compareType;
     protected CompareInstruction(@NotNull CompareType compareType,
@@ -20,33 +18,45 @@ public class CompareInstruction extends Instruction {
                                  @NotNull IrRegister destination) {
         super(IrIntType.getBoolType());
         this.compareType = compareType;
-        this.lhs = lhs;
-        this.rhs = rhs;
+        this.lhs = use(lhs);
+        this.rhs = use(rhs);
         this.destination = destination;
     }
 
-    public static CompareInstruction createEqGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new CompareInstruction(CompareType.EQ, lhs, rhs, IrRegister.create(IrIntType.getInt1()));
+    public static CompareInstruction createEqGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new CompareInstruction(CompareType.EQ, lhs, rhs, function.newRegister(IrIntType.getInt1()));
     }
 
-    public static CompareInstruction createNeGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new CompareInstruction(CompareType.NE, lhs, rhs, IrRegister.create(IrIntType.getInt1()));
+    public static CompareInstruction createNeGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new CompareInstruction(CompareType.NE, lhs, rhs, function.newRegister(IrIntType.getInt1()));
     }
 
-    public static CompareInstruction createLtGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new CompareInstruction(CompareType.SLT, lhs, rhs, IrRegister.create(IrIntType.getInt1()));
+    public static CompareInstruction createLtGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new CompareInstruction(CompareType.SLT, lhs, rhs, function.newRegister(IrIntType.getInt1()));
     }
 
-    public static CompareInstruction createLeGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new CompareInstruction(CompareType.SLE, lhs, rhs, IrRegister.create(IrIntType.getInt1()));
+    public static CompareInstruction createLeGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new CompareInstruction(CompareType.SLE, lhs, rhs, function.newRegister(IrIntType.getInt1()));
     }
 
-    public static CompareInstruction createGtGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new CompareInstruction(CompareType.SGT, lhs, rhs, IrRegister.create(IrIntType.getInt1()));
+    public static CompareInstruction createGtGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new CompareInstruction(CompareType.SGT, lhs, rhs, function.newRegister(IrIntType.getInt1()));
     }
 
-    public static CompareInstruction createGeGenDest(@NotNull IrDirectValue lhs, @NotNull IrDirectValue rhs) {
-        return new CompareInstruction(CompareType.SGE, lhs, rhs, IrRegister.create(IrIntType.getInt1()));
+    public static CompareInstruction createGeGenDest(@NotNull IrFunction function,
+                                                     @NotNull IrDirectValue lhs,
+                                                     @NotNull IrDirectValue rhs) {
+        return new CompareInstruction(CompareType.SGE, lhs, rhs, function.newRegister(IrIntType.getInt1()));
     }
 
     public static CompareInstruction createEq(@NotNull IrDirectValue lhs,
@@ -90,13 +100,8 @@ public class CompareInstruction extends Instruction {
         return String.format("%s = %s %s %s",
                 destination.prettyPrint(),
                 getCompareOpString(),
-                lhs.typedPrettyPrint(),
-                rhs.typedPrettyPrint());
-    }
-
-    @Override
-    public List<? extends IrValue> getUsedValues() {
-        return null;
+                getLhs().typedPrettyPrint(),
+                getRhs().typedPrettyPrint());
     }
 
     @Override
@@ -120,11 +125,11 @@ public class CompareInstruction extends Instruction {
     }
 
     public IrDirectValue getRhs() {
-        return rhs;
+        return (IrDirectValue) rhs.getValue();
     }
 
     public IrDirectValue getLhs() {
-        return lhs;
+        return (IrDirectValue) lhs.getValue();
     }
 
     public IrRegister getDestination() {
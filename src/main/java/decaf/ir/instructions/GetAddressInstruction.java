@@ -1,21 +1,57 @@
 package decaf.ir.instructions;
 
 import decaf.ir.IrInstructionVisitor;
+import decaf.ir.types.IrStackAddressType;
 import decaf.ir.types.IrType;
-import decaf.ir.values.IrValue;
+import decaf.ir.values.IrDirectValue;
+import decaf.ir.values.IrPointer;
+import decaf.ir.values.IrUse;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-
+/**
+ * Computes the address of element {@code index} of the array starting at {@code baseAddress}, whose elements are of
+ * type {@code elementType}. The address is in the same kind of memory as the array, so the element of a global array
+ * is pointed to by a global pointer.
+ */
 public class GetAddressInstruction extends Instruction {
-  public GetAddressInstruction(@NotNull IrType type) {
-    super(type);
+  @NotNull
+  private final IrUse baseAddress;
+  @NotNull
+  private final IrUse index;
+  @NotNull
+  private final IrType elementType;
+  @NotNull
+  private final IrPointer destination;
+
+  protected GetAddressInstruction(@NotNull IrPointer baseAddress,
+                                  @NotNull IrDirectValue index,
+                                  @NotNull IrType elementType,
+                                  @NotNull IrPointer destination) {
+    super(destination.getType());
+    this.baseAddress = use(baseAddress);
+    this.index = use(index);
+    this.elementType = elementType;
+    this.destination = destination;
   }
 
+  public static GetAddressInstruction createGenDest(@NotNull IrFunction function,
+                                                    @NotNull IrPointer baseAddress,
+                                                    @NotNull IrDirectValue index,
+                                                    @NotNull IrType elementType) {
+    final IrPointer destination = baseAddress.getType() == IrStackAddressType.get() ?
+                                  function.newStackPointer() :
+                                  function.newGlobalPointer();
+    return new GetAddressInstruction(baseAddress, index, elementType, destination);
+  }
 
   @Override
   public String toString() {
-    return null;
+    return String.format("%s = getaddr %s, %s, %s",
+                         destination.prettyPrint(),
+                         elementType.prettyPrint(),
+                         getBaseAddress().typedPrettyPrint(),
+                         getIndex().typedPrettyPrint()
+                        );
   }
 
   @Override
@@ -23,8 +59,19 @@ public class GetAddressInstruction extends Instruction {
     return visitor.visit(this, argument);
   }
 
-  @Override
-  public List<? extends IrValue> getUsedValues() {
-    return null;
+  public @NotNull IrPointer getBaseAddress() {
+    return (IrPointer) baseAddress.getValue();
+  }
+
+  public @NotNull IrDirectValue getIndex() {
+    return (IrDirectValue) index.getValue();
+  }
+
+  public @NotNull IrType getElementType() {
+    return elementType;
+  }
+
+  public @NotNull IrPointer getDestination() {
+    return destination;
   }
 }
@@ -2,15 +2,33 @@ package decaf.ir.instructions;
 
 import decaf.ir.IrInstructionVisitor;
 import decaf.ir.types.IrType;
+import decaf.ir.values.IrUse;
 import decaf.ir.values.IrValue;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class Instruction {
     private @NotNull
     final IrType type;
 
+    /**
+     * The uses of the values this instruction reads, in the order they were added. The registers and pointers an
+     * instruction defines are not uses.
+     */
+    private final List<IrUse> operands = new ArrayList<>();
+
+    // the block this instruction is in and its neighbours there, which are maintained by that block
+    @Nullable
+    BasicBlock parent;
+    @Nullable
+    Instruction previous;
+    @Nullable
+    Instruction next;
+
     public Instruction(@NotNull IrType type) {
         this.type = type;
     }
@@ -21,7 +39,48 @@ public abstract class Instruction {
         return type;
     }
 
-    public abstract List<? extends IrValue> getUsedValues();
+    public @Nullable BasicBlock getParent() {
+        return parent;
+    }
+
+    public @Nullable Instruction getPrevious() {
+        return previous;
+    }
+
+    public @Nullable Instruction getNext() {
+        return next;
+    }
+
+    /**
+     * Adds {@code value} to the operands of this instruction, linking it into the uses of {@code value}
+     */
+    protected @NotNull IrUse use(@NotNull IrValue value) {
+        final var use = IrUse.create(this, value);
+        operands.add(use);
+        return use;
+    }
+
+    public @NotNull List<IrUse> getOperands() {
+        return Collections.unmodifiableList(operands);
+    }
+
+    public List<? extends IrValue> getUsedValues() {
+        final var usedValues = new ArrayList<IrValue>(operands.size());
+        for (var operand : operands) {
+            usedValues.add(operand.getValue());
+        }
+        return usedValues;
+    }
+
+    /**
+     * Drops the uses of this instruction from the use lists of its operands, as {@link BasicBlock#erase(Instruction)}
+     * does when the instruction is removed from its function.
+     */
+    public void dropOperands() {
+        for (var operand : operands) {
+            operand.drop();
+        }
+    }
 
     protected abstract <ArgumentType, ReturnType> ReturnType accept(@NotNull IrInstructionVisitor<ArgumentType, ReturnType> visitor,
                                                                  ArgumentType argument);
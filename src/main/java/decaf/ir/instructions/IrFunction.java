@@ -1,26 +1,211 @@
 package decaf.ir.instructions;
 
+import decaf.analysis.cfg.FlowGraph;
 import decaf.ir.IrInstructionVisitor;
 import decaf.ir.types.IrFunctionType;
 import decaf.ir.types.IrType;
-import decaf.ir.values.IrValue;
+import decaf.ir.values.IrGlobalPointer;
+import decaf.ir.values.IrLabel;
+import decaf.ir.values.IrRegister;
+import decaf.ir.values.IrStackPointer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
-public class IrFunction extends Instruction {
-    public IrFunction(@NotNull IrFunctionType irFunctionType) {
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A function definition: its parameters, which are registers holding the arguments it was called with, and its basic
+ * blocks, the first of which is where it starts.
+ * <p>
+ * The function numbers the registers and pointers defined in it, so every register and pointer an instruction of the
+ * function defines must be created by {@link #newRegister(IrType)}, {@link #newStackPointer()} or
+ * {@link #newGlobalPointer()}. The parameters are registers {@code 0..numParams}.
+ * <p>
+ * As a {@link FlowGraph}, the blocks reachable from the entry are numbered in reverse postorder. The numbering is found
+ * on first use and dropped whenever a block is added or removed, or the last instruction of a block or the target of a
+ * branch changes, so it never goes out of date; other edits of the instructions keep it.
+ */
+public class IrFunction extends Instruction implements FlowGraph {
+    @NotNull
+    private final String functionName;
+    @NotNull
+    private final List<IrRegister> parameters;
+    @NotNull
+    private final List<BasicBlock> basicBlocks = new ArrayList<>();
+    private int numRegisters = 0;
+    private int numPointers = 0;
+    @Nullable
+    private BlockNumbering blockNumbering;
+
+    protected IrFunction(@NotNull String functionName, @NotNull IrFunctionType irFunctionType) {
         super(irFunctionType);
+        this.functionName = functionName;
+        final var parameters = new ArrayList<IrRegister>();
+        for (IrType paramType : irFunctionType.getParamTypes()) {
+            parameters.add(newRegister(paramType));
+        }
+        this.parameters = List.copyOf(parameters);
+    }
+
+    public static IrFunction create(@NotNull String functionName, @NotNull IrFunctionType irFunctionType) {
+        return new IrFunction(functionName, irFunctionType);
+    }
+
+    public @NotNull IrRegister newRegister(@NotNull IrType type) {
+        return new Register(type, numRegisters++);
+    }
+
+    /**
+     * @return one more than the largest id of a register of this function; ids of registers whose definitions were
+     * removed are not reused
+     */
+    public int getNumRegisters() {
+        return numRegisters;
+    }
+
+    public @NotNull IrStackPointer newStackPointer() {
+        return IrStackPointer.create(numPointers++);
+    }
+
+    public @NotNull IrGlobalPointer newGlobalPointer() {
+        return IrGlobalPointer.create(numPointers++);
+    }
+
+    public @NotNull String getFunctionName() {
+        return functionName;
+    }
+
+    public @NotNull IrType getReturnType() {
+        return ((IrFunctionType) getType()).getReturnType();
+    }
+
+    public @NotNull List<IrRegister> getParameters() {
+        return parameters;
+    }
+
+    public void addBasicBlock(@NotNull BasicBlock basicBlock) {
+        checkArgument(basicBlock.function == null, "block %s is already in a function", basicBlock.getLabel());
+        basicBlock.function = this;
+        basicBlocks.add(basicBlock);
+        blocksChanged();
+    }
+
+    /**
+     * @return the blocks of this function in the order they were added, which blocks are added to and removed from
+     * through this function
+     */
+    public @NotNull List<BasicBlock> getBasicBlocks() {
+        return Collections.unmodifiableList(basicBlocks);
+    }
+
+    /**
+     * Removes the blocks which cannot be reached from the entry, erasing their instructions
+     */
+    public void removeUnreachableBlocks() {
+        final var numbering = blockNumbering();
+        final var unreachable = new ArrayList<BasicBlock>();
+        for (var basicBlock : basicBlocks) {
+            if (!numbering.indices.containsKey(basicBlock.getLabel())) {
+                unreachable.add(basicBlock);
+            }
+        }
+        if (unreachable.isEmpty()) {
+            return;
+        }
+        for (var basicBlock : unreachable) {
+            basicBlock.forEach(basicBlock::erase);
+            basicBlock.function = null;
+        }
+        basicBlocks.removeIf(basicBlock -> basicBlock.function == null);
+        blocksChanged();
+    }
+
+    /**
+     * Drops the numbering of the blocks, as the edges between them changed
+     */
+    void blocksChanged() {
+        blockNumbering = null;
+    }
+
+    private @NotNull BlockNumbering blockNumbering() {
+        if (blockNumbering == null) {
+            blockNumbering = new BlockNumbering(basicBlocks);
+        }
+        return blockNumbering;
     }
 
     @Override
-    public String toString() {
-        return null;
+    public int numBlocks() {
+        return blockNumbering().blocks.length;
+    }
+
+    public @NotNull BasicBlock block(int block) {
+        return blockNumbering().blocks[block];
+    }
+
+    /**
+     * @return the number of the block labelled {@code label}, or -1 if it cannot be reached from the entry
+     */
+    public int indexOf(@NotNull IrLabel label) {
+        return blockNumbering().indices.getOrDefault(label, -1);
+    }
+
+    @Override
+    public int successorCount(int block) {
+        final var numbering = blockNumbering();
+        return numbering.successorOffsets[block + 1] - numbering.successorOffsets[block];
+    }
+
+    @Override
+    public int successor(int block, int index) {
+        Objects.checkIndex(index, successorCount(block));
+        final var numbering = blockNumbering();
+        return numbering.successors[numbering.successorOffsets[block] + index];
+    }
+
+    @Override
+    public int predecessorCount(int block) {
+        final var numbering = blockNumbering();
+        return numbering.predecessorOffsets[block + 1] - numbering.predecessorOffsets[block];
     }
 
     @Override
-    public List<? extends IrValue> getUsedValues() {
-        return null;
+    public int predecessor(int block, int index) {
+        Objects.checkIndex(index, predecessorCount(block));
+        final var numbering = blockNumbering();
+        return numbering.predecessors[numbering.predecessorOffsets[block] + index];
+    }
+
+    public @NotNull BasicBlock getEntryBlock() {
+        checkState(!basicBlocks.isEmpty(), "function %s has no basic blocks", functionName);
+        return basicBlocks.get(0);
+    }
+
+    @Override
+    public String toString() {
+        final var sb = new StringBuilder();
+        sb.append(String.format("define %s @%s(%s) {\n",
+                                getReturnType().prettyPrint(),
+                                functionName,
+                                parameters.stream()
+                                          .map(IrRegister::typedPrettyPrint)
+                                          .collect(Collectors.joining(", "))
+                               ));
+        for (BasicBlock basicBlock : basicBlocks) {
+            sb.append(basicBlock.prettyPrint());
+        }
+        sb.append("}\n");
+        return sb.toString();
     }
 
     @Override
@@ -28,4 +213,106 @@ public class IrFunction extends Instruction {
                                                            ArgumentType argument) {
         return visitor.visit(this, argument);
     }
+
+    // the only way to create an IrRegister, whose constructor is protected, so that every register has a function
+    private static final class Register extends IrRegister {
+        private Register(@NotNull IrType type, int id) {
+            super(type, id);
+        }
+    }
+
+    /**
+     * The blocks reachable from the entry in reverse postorder, and the edges between them stored compressed-row style,
+     * as {@link decaf.analysis.cfg.DenseCfg} stores them. A branch with both targets the same block is one edge.
+     */
+    private static final class BlockNumbering {
+        private final BasicBlock[] blocks;
+        private final Map<IrLabel, Integer> indices;
+        private final int[] successorOffsets;
+        private final int[] successors;
+        private final int[] predecessorOffsets;
+        private final int[] predecessors;
+
+        private BlockNumbering(@NotNull List<BasicBlock> basicBlocks) {
+            final Map<IrLabel, BasicBlock> blocksByLabel = new HashMap<>();
+            for (var basicBlock : basicBlocks) {
+                blocksByLabel.put(basicBlock.getLabel(), basicBlock);
+            }
+            blocks = basicBlocks.isEmpty() ? new BasicBlock[0] : reversePostOrder(basicBlocks.get(0), blocksByLabel);
+            indices = new HashMap<>(blocks.length * 2);
+            for (int index = 0; index < blocks.length; index++) {
+                indices.put(blocks[index].getLabel(), index);
+            }
+
+            final int numBlocks = blocks.length;
+            successorOffsets = new int[numBlocks + 1];
+            final var successorList = new int[numBlocks * 2];
+            int numSuccessors = 0;
+            for (int index = 0; index < numBlocks; index++) {
+                for (var label : blocks[index].getSuccessors()) {
+                    final int successor = indices.get(label);
+                    if (numSuccessors == successorOffsets[index] || successorList[numSuccessors - 1] != successor) {
+                        successorList[numSuccessors++] = successor;
+                    }
+                }
+                successorOffsets[index + 1] = numSuccessors;
+            }
+            successors = Arrays.copyOf(successorList, numSuccessors);
+
+            predecessorOffsets = new int[numBlocks + 1];
+            for (int successor : successors) {
+                predecessorOffsets[successor + 1]++;
+            }
+            for (int index = 0; index < numBlocks; index++) {
+                predecessorOffsets[index + 1] += predecessorOffsets[index];
+            }
+            predecessors = new int[numSuccessors];
+            final int[] nextPredecessor = Arrays.copyOf(predecessorOffsets, numBlocks);
+            for (int index = 0; index < numBlocks; index++) {
+                for (int edge = successorOffsets[index]; edge < successorOffsets[index + 1]; edge++) {
+                    predecessors[nextPredecessor[successors[edge]]++] = index;
+                }
+            }
+        }
+
+        private static BasicBlock[] reversePostOrder(@NotNull BasicBlock entry,
+                                                     @NotNull Map<IrLabel, BasicBlock> blocksByLabel) {
+            final var postOrder = new ArrayList<BasicBlock>();
+            final var seen = new HashMap<BasicBlock, List<IrLabel>>();
+            // the path from the entry, and the index of the next successor of each to visit
+            BasicBlock[] path = new BasicBlock[16];
+            int[] nextSuccessors = new int[16];
+            path[0] = entry;
+            seen.put(entry, entry.getSuccessors());
+            int depth = 1;
+            while (depth > 0) {
+                final var block = path[depth - 1];
+                final var blockSuccessors = seen.get(block);
+                final int index = nextSuccessors[depth - 1];
+                if (index < blockSuccessors.size()) {
+                    nextSuccessors[depth - 1] = index + 1;
+                    final var successor = blocksByLabel.get(blockSuccessors.get(index));
+                    checkArgument(successor != null, "no block is labelled %s", blockSuccessors.get(index));
+                    if (!seen.containsKey(successor)) {
+                        seen.put(successor, successor.getSuccessors());
+                        if (depth == path.length) {
+                            path = Arrays.copyOf(path, depth << 1);
+                            nextSuccessors = Arrays.copyOf(nextSuccessors, depth << 1);
+                        }
+                        path[depth] = successor;
+                        nextSuccessors[depth] = 0;
+                        ++depth;
+                    }
+                } else {
+                    path[--depth] = null;
+                    postOrder.add(block);
+                }
+            }
+            final var blocks = new BasicBlock[postOrder.size()];
+            for (int index = 0; index < blocks.length; index++) {
+                blocks[index] = postOrder.get(blocks.length - 1 - index);
+            }
+            return blocks;
+        }
+    }
 }
@@ -4,20 +4,18 @@ import decaf.ir.IrInstructionVisitor;
 import decaf.ir.types.IrType;
 import decaf.ir.values.IrPointer;
 import decaf.ir.values.IrRegister;
-import decaf.ir.values.IrValue;
+import decaf.ir.values.IrUse;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-
 public class LoadInstruction extends Instruction {
     @NotNull
     private final IrRegister destination;
     @NotNull
-    private final IrPointer memoryAddress;
+    private final IrUse memoryAddress;
 
     protected LoadInstruction(@NotNull IrPointer memoryAddress, @NotNull IrRegister destination) {
         super(destination.getType());
-        this.memoryAddress = memoryAddress;
+        this.memoryAddress = use(memoryAddress);
         this.destination = destination;
     }
 
@@ -25,8 +23,10 @@ public class LoadInstruction extends Instruction {
         return new LoadInstruction(memoryAddress, destination);
     }
 
-    public static LoadInstruction create(@NotNull IrPointer memoryAddress, @NotNull IrType type) {
-        return new LoadInstruction(memoryAddress, IrRegister.create(type));
+    public static LoadInstruction create(@NotNull IrFunction function,
+                                         @NotNull IrPointer memoryAddress,
+                                         @NotNull IrType type) {
+        return new LoadInstruction(memoryAddress, function.newRegister(type));
     }
 
     @Override
@@ -34,7 +34,7 @@ public class LoadInstruction extends Instruction {
         return String.format("%s = load %s, %s",
                              destination.prettyPrint(),
                              destination.getType().prettyPrint(),
-                             memoryAddress.typedPrettyPrint()
+                             getAddress().typedPrettyPrint()
                             );
     }
 
@@ -43,13 +43,8 @@ public class LoadInstruction extends Instruction {
         return visitor.visit(this, argument);
     }
 
-    @Override
-    public List<? extends IrValue> getUsedValues() {
-        return List.of(memoryAddress, destination);
-    }
-
     public @NotNull IrPointer getAddress() {
-        return memoryAddress;
+        return (IrPointer) memoryAddress.getValue();
     }
 
     public @NotNull IrRegister getDestination() {
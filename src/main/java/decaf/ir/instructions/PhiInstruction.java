@@ -4,7 +4,7 @@ import decaf.ir.IrInstructionVisitor;
 import decaf.ir.values.IrLabel;
 import decaf.ir.values.IrDirectValue;
 import decaf.ir.values.IrRegister;
-import decaf.ir.values.IrValue;
+import decaf.ir.values.IrUse;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
@@ -15,13 +15,14 @@ public class PhiInstruction extends Instruction {
     @NotNull
     private final IrRegister destination;
 
+    // the value flowing in from each predecessor; the labels of the predecessors are not uses
     @NotNull
-    private final Map<IrLabel, IrDirectValue> sources;
+    private final Map<IrLabel, IrUse> sources = new LinkedHashMap<>();
 
     protected PhiInstruction(@NotNull IrRegister destination, @NotNull Map<IrLabel, IrDirectValue> sources) {
         super(destination.getType());
         this.destination = destination;
-        this.sources = sources;
+        sources.forEach((label, value) -> this.sources.put(label, use(value)));
     }
 
     public static PhiInstruction createFromMap(@NotNull IrRegister destination,
@@ -31,19 +32,21 @@ public class PhiInstruction extends Instruction {
 
     public static PhiInstruction createFromPairs(@NotNull IrRegister destination,
                                                  @NotNull Collection<PhiSource> phiSources) {
-        var map = new HashMap<IrLabel, IrDirectValue>();
+        var map = new LinkedHashMap<IrLabel, IrDirectValue>();
         phiSources.forEach(phiSource -> map.put(phiSource.label, phiSource.value));
         return new PhiInstruction(destination, map);
     }
 
-    public static PhiInstruction createFromMapGenDest(@NotNull Map<IrLabel, IrDirectValue> sources) {
-        return new PhiInstruction(IrRegister.create(sources.values().iterator().next().getType()), sources);
+    public static PhiInstruction createFromMapGenDest(@NotNull IrFunction function,
+                                                      @NotNull Map<IrLabel, IrDirectValue> sources) {
+        return new PhiInstruction(function.newRegister(sources.values().iterator().next().getType()), sources);
     }
 
-    public static PhiInstruction createFromPairsGenDest(@NotNull Collection<PhiSource> phiSources) {
-        var map = new HashMap<IrLabel, IrDirectValue>();
+    public static PhiInstruction createFromPairsGenDest(@NotNull IrFunction function,
+                                                        @NotNull Collection<PhiSource> phiSources) {
+        var map = new LinkedHashMap<IrLabel, IrDirectValue>();
         phiSources.forEach(phiSource -> map.put(phiSource.label, phiSource.value));
-        return new PhiInstruction(IrRegister.create(map.values().iterator().next().getType()), map);
+        return new PhiInstruction(function.newRegister(map.values().iterator().next().getType()), map);
     }
 
     @Override
@@ -55,19 +58,12 @@ public class PhiInstruction extends Instruction {
                                     .stream()
                                     .map(entry -> String.format("[%s, %s]",
                                                                 entry.getKey().typedPrettyPrint(),
-                                                                entry.getValue().prettyPrint()
+                                                                entry.getValue().getValue().prettyPrint()
                                                                ))
                                     .collect(Collectors.joining(", "))
                             );
     }
 
-    @Override
-    public List<? extends IrValue> getUsedValues() {
-        var rhs = new ArrayList<>(sources.values());
-        rhs.add(destination);
-        return rhs;
-    }
-
     public static PhiSource createPhiSource(@NotNull IrLabel label, @NotNull IrDirectValue value) {
         return new PhiSource(label, value);
     }
@@ -80,12 +76,14 @@ public class PhiInstruction extends Instruction {
     public List<PhiSource> getPhiSources() {
         return sources.entrySet()
                       .stream()
-                      .map(entry -> new PhiSource(entry.getKey(), entry.getValue()))
+                      .map(entry -> new PhiSource(entry.getKey(), (IrDirectValue) entry.getValue().getValue()))
                       .collect(Collectors.toList());
     }
 
     public @NotNull Map<IrLabel, IrDirectValue> getSources() {
-        return Map.copyOf(sources);
+        final var sources = new LinkedHashMap<IrLabel, IrDirectValue>();
+        this.sources.forEach((label, use) -> sources.put(label, (IrDirectValue) use.getValue()));
+        return sources;
     }
 
     public @NotNull IrRegister getDestination() {
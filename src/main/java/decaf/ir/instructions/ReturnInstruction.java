@@ -3,21 +3,20 @@ package decaf.ir.instructions;
 import decaf.ir.IrInstructionVisitor;
 import decaf.ir.types.IrVoidType;
 import decaf.ir.values.IrDirectValue;
-import decaf.ir.values.IrValue;
+import decaf.ir.values.IrUse;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
 import java.util.Optional;
 
 public class ReturnInstruction extends Instruction {
     // note the return type is either a register or a constant
     @Nullable
-    private final IrDirectValue returnValue;
+    private final IrUse returnValue;
 
     public ReturnInstruction(@Nullable IrDirectValue irDirectValue) {
         super(irDirectValue == null ? IrVoidType.get() : irDirectValue.getType());
-        this.returnValue = irDirectValue;
+        this.returnValue = irDirectValue == null ? null : use(irDirectValue);
     }
 
     public static ReturnInstruction createVoid() {
@@ -32,7 +31,7 @@ public class ReturnInstruction extends Instruction {
     public String toString() {
         return String.format("return %s %s",
                              getType().prettyPrint(),
-                             (returnValue == null) ? "" : returnValue.prettyPrint()
+                             getReturnValue().map(IrDirectValue::prettyPrint).orElse("")
                             );
     }
 
@@ -41,12 +40,7 @@ public class ReturnInstruction extends Instruction {
         return visitor.visit(this, argument);
     }
 
-    @Override
-    public List<? extends IrValue> getUsedValues() {
-        return (returnValue == null) ? List.of() : List.of(returnValue);
-    }
-
     public @NotNull Optional<IrDirectValue> getReturnValue() {
-        return Optional.ofNullable(returnValue);
+        return Optional.ofNullable(returnValue).map(use -> (IrDirectValue) use.getValue());
     }
 }
@@ -5,25 +5,23 @@ import decaf.ir.types.IrType;
 import decaf.ir.types.IrUndefinedType;
 import decaf.ir.values.IrDirectValue;
 import decaf.ir.values.IrPointer;
-import decaf.ir.values.IrValue;
+import decaf.ir.values.IrUse;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-
 /**
  * The ‘store’ instruction is used to write to memory. The first operand is the value to be written, the second is the
  * address to write to. The type of the value must match the type of the pointer.
  */
 public class StoreInstruction extends Instruction {
     @NotNull
-    private final IrDirectValue value;
+    private final IrUse value;
     @NotNull
-    private final IrPointer irPointer;
+    private final IrUse irPointer;
 
     protected StoreInstruction(@NotNull IrDirectValue value, @NotNull IrPointer irPointer) {
         super(value.getType());
-        this.value = value;
-        this.irPointer = irPointer;
+        this.value = use(value);
+        this.irPointer = use(irPointer);
     }
 
     public static StoreInstruction create(@NotNull IrDirectValue irDirectValue, @NotNull IrPointer irPointer) {
@@ -32,7 +30,7 @@ public class StoreInstruction extends Instruction {
 
     @Override
     public String toString() {
-        return String.format("store %s, %s", value.typedPrettyPrint(), irPointer.typedPrettyPrint());
+        return String.format("store %s, %s", getValue().typedPrettyPrint(), getAddress().typedPrettyPrint());
     }
 
     @Override
@@ -40,16 +38,11 @@ public class StoreInstruction extends Instruction {
         return visitor.visit(this, argument);
     }
 
-    @Override
-    public List<? extends IrValue> getUsedValues() {
-        return List.of(value, irPointer);
-    }
-
     public @NotNull IrDirectValue getValue() {
-        return value;
+        return (IrDirectValue) value.getValue();
     }
 
     public @NotNull IrPointer getAddress() {
-        return irPointer;
+        return (IrPointer) irPointer.getValue();
     }
 }
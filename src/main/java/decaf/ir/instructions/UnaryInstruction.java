@@ -3,14 +3,12 @@ package decaf.ir.instructions;
 import decaf.ir.IrInstructionVisitor;
 import decaf.ir.values.IrDirectValue;
 import decaf.ir.values.IrRegister;
-import decaf.ir.values.IrValue;
+import decaf.ir.values.IrUse;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-
 public class UnaryInstruction extends Instruction implements WithDestination<UnaryInstruction> {
     @NotNull
-    private final IrDirectValue operand;
+    private final IrUse operand;
     @NotNull
     private final UnaryOpType unaryOpType;
     @NotNull
@@ -20,7 +18,7 @@ public class UnaryInstruction extends Instruction implements WithDestination<Una
                                @NotNull IrRegister destination,
                                @NotNull UnaryOpType unaryOpType) {
         super(operand.getType());
-        this.operand = operand;
+        this.operand = use(operand);
         this.unaryOpType = unaryOpType;
         this.destination = destination;
     }
@@ -29,16 +27,16 @@ public class UnaryInstruction extends Instruction implements WithDestination<Una
         return new UnaryInstruction(operand, destination, UnaryOpType.NOT);
     }
 
-    public static UnaryInstruction createNotGenDest(@NotNull IrDirectValue operand) {
-        return new UnaryInstruction(operand, IrRegister.create(operand.getType()), UnaryOpType.NOT);
+    public static UnaryInstruction createNotGenDest(@NotNull IrFunction function, @NotNull IrDirectValue operand) {
+        return new UnaryInstruction(operand, function.newRegister(operand.getType()), UnaryOpType.NOT);
     }
 
     public static UnaryInstruction createCopy(@NotNull IrDirectValue operand, @NotNull IrRegister destination) {
         return new UnaryInstruction(operand, destination, UnaryOpType.COPY);
     }
 
-    public static UnaryInstruction createCopyGenDest(@NotNull IrDirectValue operand) {
-        return new UnaryInstruction(operand, IrRegister.create(operand.getType()), UnaryOpType.COPY);
+    public static UnaryInstruction createCopyGenDest(@NotNull IrFunction function, @NotNull IrDirectValue operand) {
+        return new UnaryInstruction(operand, function.newRegister(operand.getType()), UnaryOpType.COPY);
     }
 
     @Override
@@ -46,7 +44,7 @@ public class UnaryInstruction extends Instruction implements WithDestination<Una
         return String.format("%s = %s %s",
                              destination.prettyPrint(),
                              getUnaryOpString(),
-                             operand.typedPrettyPrint()
+                             getOperand().typedPrettyPrint()
                             );
     }
 
@@ -56,18 +54,13 @@ public class UnaryInstruction extends Instruction implements WithDestination<Una
         return visitor.visit(this, argument);
     }
 
-    @Override
-    public List<? extends IrValue> getUsedValues() {
-        return List.of(operand, destination);
-    }
-
     @Override
     public @NotNull IrRegister getDestination() {
         return destination;
     }
 
     public @NotNull IrDirectValue getOperand() {
-        return operand;
+        return (IrDirectValue) operand.getValue();
     }
 
     public @NotNull UnaryOpType getUnaryOpType() {
@@ -3,17 +3,15 @@ package decaf.ir.instructions;
 import decaf.ir.IrInstructionVisitor;
 import decaf.ir.values.IrDirectValue;
 import decaf.ir.values.IrRegister;
-import decaf.ir.values.IrValue;
+import decaf.ir.values.IrUse;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-
 public class ZextInstruction extends Instruction {
-    @NotNull private final IrDirectValue source;
+    @NotNull private final IrUse source;
     @NotNull private final IrRegister destination;
     protected ZextInstruction(@NotNull IrDirectValue source, @NotNull IrRegister destination) {
         super(destination.getType());
-        this.source = source;
+        this.source = use(source);
         this.destination = destination;
     }
 
@@ -30,17 +28,12 @@ public class ZextInstruction extends Instruction {
     public String toString() {
         return String.format("%s = zext %s to %s",
                              destination.prettyPrint(),
-                source.typedPrettyPrint(),
+                             getSource().typedPrettyPrint(),
                              destination.getType().prettyPrint());
     }
 
-    @Override
-    public List<? extends IrValue> getUsedValues() {
-        return null;
-    }
-
     public @NotNull IrDirectValue getSource() {
-        return source;
+        return (IrDirectValue) source.getValue();
     }
 
     public @NotNull IrRegister getDestination() {
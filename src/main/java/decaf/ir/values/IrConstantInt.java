@@ -9,19 +9,27 @@ import static com.google.common.base.Preconditions.checkState;
 
 public class IrConstantInt extends IrConstant {
     // by default, integers are 32-bit, i.e 4 bytes
-    private final int value;
+    private final long value;
 
-    protected IrConstantInt(int value, int bitWidth) {
-        super(IrIntType.createIntN(bitWidth));
+    protected IrConstantInt(long value, @NotNull IrIntType type) {
+        super(type);
         this.value = value;
     }
 
     public static IrConstantInt create(int value, int numBytes) {
-        return new IrConstantInt(value, numBytes);
+        return new IrConstantInt(value, IrIntType.createIntN(numBytes));
     }
 
     public static IrConstantInt create(int value) {
-        return new IrConstantInt(value, 4);
+        return new IrConstantInt(value, IrIntType.createIntN(4));
+    }
+
+    public static IrConstantInt create(long value, @NotNull IrIntType type) {
+        return new IrConstantInt(value, type);
+    }
+
+    public long getValue() {
+        return value;
     }
 
     @Override
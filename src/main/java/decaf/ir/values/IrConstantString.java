@@ -0,0 +1,41 @@
+package decaf.ir.values;
+
+import decaf.ir.types.IrStringType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A string literal, such as the format string of a call to {@code printf}
+ */
+public class IrConstantString extends IrConstant {
+    // the literal as it appears in the source, with its quotes and escape sequences
+    @NotNull
+    private final String value;
+
+    protected IrConstantString(@NotNull String value) {
+        super(IrStringType.get(value.length()));
+        this.value = value;
+    }
+
+    public static IrConstantString create(@NotNull String value) {
+        return new IrConstantString(value);
+    }
+
+    public @NotNull String getValue() {
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return getType().getBitWidth();
+    }
+
+    @Override
+    public String prettyPrint() {
+        return value;
+    }
+
+    @Override
+    public String typedPrettyPrint() {
+        return String.format("%s %s", getType().prettyPrint(), prettyPrint());
+    }
+}
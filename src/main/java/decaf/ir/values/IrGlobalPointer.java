@@ -1,7 +1,6 @@
 package decaf.ir.values;
 
 import decaf.ir.types.IrGlobalAddressType;
-import decaf.ir.types.IrType;
 import org.jetbrains.annotations.NotNull;
 
 public class IrGlobalPointer extends IrPointer {
@@ -11,22 +10,33 @@ public class IrGlobalPointer extends IrPointer {
      * Must be initialized
      * // constant pointers
      */
-    protected IrGlobalPointer(@NotNull IrType type) {
+    @NotNull private final String identifier;
+
+    protected IrGlobalPointer(@NotNull String identifier) {
         super(IrGlobalAddressType.get());
+        this.identifier = identifier;
+    }
+
+    public static IrGlobalPointer create(int id) {
+        return new IrGlobalPointer(String.valueOf(id));
+    }
+
+    public static IrGlobalPointer createNamed(@NotNull String name) {
+        return new IrGlobalPointer(name);
     }
 
     @Override
     public int size() {
-        return 0;
+        return 8; // assuming 64-bit architecture
     }
 
     @Override
     public String prettyPrint() {
-        return "global ptr";
+        return String.format("@%s", identifier);
     }
 
     @Override
     public String typedPrettyPrint() {
-        return prettyPrint();
+        return String.format("%s %s", getType().prettyPrint(), prettyPrint());
     }
 }
@@ -1,6 +1,5 @@
 package decaf.ir.values;
 
-import decaf.ir.Counter;
 import decaf.ir.types.IrLabelType;
 import decaf.ir.types.IrType;
 import org.jetbrains.annotations.NotNull;
@@ -17,10 +16,6 @@ public class IrLabel extends IrValue {
         return new IrLabel(id);
     }
 
-    public static IrLabel create() {
-        return new IrLabel(String.format("L%s", Counter.getInstance().nextId()));
-    }
-
     @Override
     public int size() {
         return 8; // TODO: This is a guess
@@ -1,34 +1,22 @@
 package decaf.ir.values;
 
-import decaf.ir.Counter;
 import decaf.ir.types.IrType;
-import decaf.shared.CompilationContext;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * Represents a register in the IR
+ * <p>
+ * Registers are numbered densely by the function defining them, starting from 0, so an analysis can keep what it
+ * knows about each register of a function in an array indexed by {@link #getId()}. Two registers of different
+ * functions may therefore have the same id, so registers are only equal to themselves, and are only created by
+ * {@code IrFunction.newRegister}.
  */
 public class IrRegister extends IrDirectValue {
-    /**
-     * The SSA id of this register
-     * By default it is zero
-     */
-    private final int ssaId;
+    private final int id;
 
-    /**
-     * The label id of this register
-     * This is allocated by a counter tied to the scope of the function
-     */
-    private final int labelId;
-
-    protected IrRegister(@NotNull IrType type) {
+    protected IrRegister(@NotNull IrType type, int id) {
         super(type);
-        this.ssaId = 0;
-        this.labelId = Counter.getInstance().nextId();
-    }
-
-    public static IrRegister create(@NotNull IrType type) {
-        return new IrRegister(type);
+        this.id = id;
     }
 
     @Override
@@ -38,7 +26,7 @@ public class IrRegister extends IrDirectValue {
 
     @Override
     public String prettyPrint() {
-        return String.format("%%r%d", ssaId);
+        return String.format("%%r%d", id);
     }
 
     @Override
@@ -46,15 +34,7 @@ public class IrRegister extends IrDirectValue {
         return String.format("%s %s", getType().prettyPrint(), prettyPrint());
     }
 
-    public int getSsaId() {
-        return ssaId;
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        if (obj instanceof IrRegister other) {
-            return this.labelId == other.labelId && this.ssaId == other.ssaId;
-        }
-        return false;
+    public int getId() {
+        return id;
     }
 }
@@ -1,6 +1,5 @@
 package decaf.ir.values;
 
-import decaf.ir.Counter;
 import decaf.ir.types.IrStackAddressType;
 import decaf.ir.types.IrType;
 import org.jetbrains.annotations.NotNull;
@@ -12,8 +11,8 @@ public class IrStackPointer extends IrPointer {
         this.identifier = identifier;
     }
 
-    public static IrStackPointer create() {
-        return new IrStackPointer(String.valueOf(Counter.getInstance().nextId()));
+    public static IrStackPointer create(int id) {
+        return new IrStackPointer(String.valueOf(id));
     }
 
     public static IrStackPointer createNamed(@NotNull String name) {
@@ -0,0 +1,66 @@
+package decaf.ir.values;
+
+import decaf.ir.instructions.Instruction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * An operand of an {@link Instruction}: a use of {@link #getValue()} by {@link #getUser()}.
+ * <p>
+ * Each use is linked into a list held by its value, so the users of a value can be found, and the value replaced in all
+ * of them, without scanning the function. A use stays in the list until it is dropped, which happens when its user is
+ * removed from the function.
+ */
+public class IrUse {
+    @NotNull
+    private final Instruction user;
+    @NotNull
+    private IrValue value;
+    private boolean dropped = false;
+    // the neighbours of this use in the list of uses of value
+    @Nullable
+    IrUse previous;
+    @Nullable
+    IrUse next;
+
+    private IrUse(@NotNull Instruction user, @NotNull IrValue value) {
+        this.user = user;
+        this.value = value;
+        value.addUse(this);
+    }
+
+    public static IrUse create(@NotNull Instruction user, @NotNull IrValue value) {
+        return new IrUse(user, value);
+    }
+
+    public @NotNull Instruction getUser() {
+        return user;
+    }
+
+    public @NotNull IrValue getValue() {
+        return value;
+    }
+
+    /**
+     * Makes {@link #getUser()} use {@code value} in place of the value it used here
+     */
+    public void set(@NotNull IrValue value) {
+        checkState(!dropped, "a dropped use cannot be set");
+        this.value.removeUse(this);
+        this.value = value;
+        value.addUse(this);
+        if (value instanceof IrLabel && user.getParent() != null) {
+            // a branch going elsewhere changes the edges between the blocks of its function
+            user.getParent().successorsChanged();
+        }
+    }
+
+    public void drop() {
+        if (!dropped) {
+            value.removeUse(this);
+            dropped = true;
+        }
+    }
+}
@@ -2,26 +2,33 @@ package decaf.ir.values;
 
 import decaf.ir.instructions.Instruction;
 import decaf.ir.types.IrType;
-import decaf.shared.LinkedListSet;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 public abstract class IrValue {
     /**
-     * The instructions that use this value.
-     * So far we are only considering instructions that use this value
-     */
-    private LinkedListSet<Instruction> users;
-    /**
-     * Get the size of this value in bytes.
+     * The first of the uses of this value by instructions, which are linked through {@link IrUse#next}
      */
+    @Nullable
+    private IrUse firstUse;
+    private int numUses;
 
     private final @NotNull IrType type;
 
     public IrValue(@NotNull IrType type) {
         this.type = type;
-        this.users = new LinkedListSet<>();
     }
 
+    /**
+     * Get the size of this value in bytes.
+     */
     public abstract int size();
 
     public abstract String prettyPrint();
@@ -31,4 +38,71 @@ public abstract class IrValue {
     public @NotNull IrType getType() {
         return type;
     }
+
+    void addUse(@NotNull IrUse use) {
+        use.previous = null;
+        use.next = firstUse;
+        if (firstUse != null) {
+            firstUse.previous = use;
+        }
+        firstUse = use;
+        numUses++;
+    }
+
+    void removeUse(@NotNull IrUse use) {
+        if (use.previous == null) {
+            firstUse = use.next;
+        } else {
+            use.previous.next = use.next;
+        }
+        if (use.next != null) {
+            use.next.previous = use.previous;
+        }
+        use.previous = null;
+        use.next = null;
+        numUses--;
+    }
+
+    public boolean hasUses() {
+        return firstUse != null;
+    }
+
+    public int getNumUses() {
+        return numUses;
+    }
+
+    public @NotNull List<IrUse> getUses() {
+        final var uses = new ArrayList<IrUse>(numUses);
+        for (var use = firstUse; use != null; use = use.next) {
+            uses.add(use);
+        }
+        return uses;
+    }
+
+    /**
+     * @return the instructions using this value, each once however many of its operands it is
+     */
+    public @NotNull Set<Instruction> getUsers() {
+        final var users = new LinkedHashSet<Instruction>();
+        for (var use = firstUse; use != null; use = use.next) {
+            users.add(use.getUser());
+        }
+        return users;
+    }
+
+    /**
+     * Makes every instruction using this value use {@code replacement} instead, in time proportional to the number of
+     * uses. Afterwards this value has no uses.
+     */
+    public void replaceAllUsesWith(@NotNull IrValue replacement) {
+        checkArgument(replacement != this, "a value cannot replace itself");
+        checkArgument(replacement.getType() == type,
+                      "%s cannot replace %s of a different type",
+                      replacement.typedPrettyPrint(),
+                      typedPrettyPrint()
+                     );
+        while (firstUse != null) {
+            firstUse.set(replacement);
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package decaf.shared;
+
+import decaf.analysis.syntax.ast.AST;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Walks an AST depth first without recursion, telling a {@link Listener} about each node before and after its
+ * children.
+ * <p>
+ * Children are reached through {@link AST#childCount()} and {@link AST#childAt(int)}, and the path from the root is
+ * kept on an explicit stack which is reused from one walk to the next, so once the stack is as deep as the tree a walk
+ * allocates nothing.
+ */
+public class AstWalker {
+    private static final int INITIAL_DEPTH = 32;
+
+    // the nodes on the path from the root, and the index of the next child of each to walk
+    private AST[] path = new AST[INITIAL_DEPTH];
+    private int[] nextChildren = new int[INITIAL_DEPTH];
+
+    public interface Listener {
+        /**
+         * Called in pre-order, with {@code node} being child {@code index} of {@code parent}, or the root if
+         * {@code parent} is null
+         *
+         * @return whether to walk the children of {@code node}
+         */
+        boolean enter(@Nullable AST parent, int index, @NotNull AST node);
+
+        /**
+         * Called in post-order, after the children of {@code node} if they were walked
+         */
+        default void exit(@Nullable AST parent, int index, @NotNull AST node) {
+        }
+    }
+
+    public void walk(@NotNull AST root, @NotNull Listener listener) {
+        path[0] = root;
+        nextChildren[0] = listener.enter(null, -1, root) ? 0 : root.childCount();
+        int depth = 1;
+        while (depth > 0) {
+            final AST node = path[depth - 1];
+            final int index = nextChildren[depth - 1];
+            if (index < node.childCount()) {
+                nextChildren[depth - 1] = index + 1;
+                final AST child = node.childAt(index);
+                if (depth == path.length) {
+                    path = Arrays.copyOf(path, depth << 1);
+                    nextChildren = Arrays.copyOf(nextChildren, depth << 1);
+                }
+                path[depth] = child;
+                nextChildren[depth] = listener.enter(node, index, child) ? 0 : child.childCount();
+                ++depth;
+            } else {
+                path[--depth] = null;
+                if (depth == 0) {
+                    listener.exit(null, -1, node);
+                } else {
+                    listener.exit(path[depth - 1], nextChildren[depth - 1] - 1, node);
+                }
+            }
+        }
+    }
+}
@@ -4,6 +4,11 @@ import decaf.analysis.lexical.Scanner;
 import decaf.analysis.semantic.SemanticChecker;
 import decaf.analysis.syntax.Parser;
 import decaf.analysis.cfg.Cfg;
+import decaf.ir.IrBuilder;
+import decaf.ir.IrContext;
+import decaf.ir.Mem2Reg;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
 import java.util.Locale;
@@ -14,46 +19,64 @@ import java.util.logging.Logger;
 public class Compilation {
     private final static String osName = System.getProperty("os.name").replaceAll("\\s", "").toLowerCase(Locale.ROOT);
     private static final Logger logger = Logger.getLogger(Compilation.class.getName());
-    private final CompilationContext compilationContext;
+    private CompilationContext compilationContext;
     String output = null;
     private Scanner scanner;
     private Parser parser;
     private SemanticChecker semanticChecker;
     private PrintStream outputStream;
     private CompilationState compilationState;
+    @Nullable
+    private IrContext irContext;
+    @Nullable
+    private CompilationCache cache;
 
-    private Compilation(String filenameOrSourceCode, boolean debug, boolean isFilename) throws FileNotFoundException {
+    private Compilation(String filenameOrSourceCode, boolean debug, boolean isFilename) throws IOException {
         if (isFilename) {
-            compilationContext = specificTestFileInitialize(new FileInputStream(filenameOrSourceCode));
+            compilationContext = specificTestFileInitialize(filenameOrSourceCode);
         } else {
             compilationContext = CompilationContext.fromSourceCode(filenameOrSourceCode, debug);
         }
         initialize();
         compilationContext.setDebugMode(debug);
+        cache = CompilationCache.fromSystemProperties()
+                                .orElse(null);
     }
 
-    public static Compilation forSourceCode(String sourceCode, boolean debug) throws FileNotFoundException {
+    public static Compilation forSourceCode(String sourceCode, boolean debug) throws IOException {
         return new Compilation(sourceCode, debug, false);
     }
 
-    public static Compilation forSourceCode(String sourceCode) throws FileNotFoundException {
+    public static Compilation forSourceCode(String sourceCode) throws IOException {
         return new Compilation(sourceCode, false, false);
     }
 
-    public static Compilation forTestFile(String filename, boolean debug) throws FileNotFoundException {
+    public static Compilation forTestFile(String filename, boolean debug) throws IOException {
         return new Compilation(filename, debug, true);
     }
 
-    public static Compilation forTestFile(String filename) throws FileNotFoundException {
+    public static Compilation forTestFile(String filename) throws IOException {
         return new Compilation(filename, false, true);
     }
 
+    /**
+     * Makes this compilation skip straight to the checked program when {@code cache} holds one for its source, and
+     * store the checked program there otherwise, in place of the cache named by the system properties of
+     * {@link CompilationCache}
+     */
+    public Compilation withCache(@NotNull CompilationCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
     private void runNextStep() {
         switch (compilationState) {
             case INITIALIZED -> System.out.println("starting!");
             case SCANNED -> runParser();
             case PARSED -> runSemanticsChecker();
             case SEM_CHECKED -> createSourceLevelCFGs();
+            case CFG_GENERATED -> generateIr();
+            case IR_GENERATED -> promoteLocalsToSsa();
             default -> {
               if (compilationContext.debugModeOn()) {
                 System.out.println("compilation completed!");
@@ -106,17 +129,16 @@ public class Compilation {
     }
 
     public void run() {
-        runScanner();
+        if (!loadFromCache()) {
+            runScanner();
+        }
         while (compilationState != CompilationState.COMPLETED) {
             runNextStep();
         }
     }
 
-    private CompilationContext specificTestFileInitialize(InputStream inputStream) {
-        var sourceCode = Utils.getStringFromInputStream(inputStream, logger);
-        var compilationContext = CompilationContext.fromSourceCode(sourceCode);
-        compilationContext.setDebugMode(true);
-        return compilationContext;
+    private CompilationContext specificTestFileInitialize(String filename) throws IOException {
+        return CompilationContext.fromFile(filename, true);
     }
 
     private void initialize() {
@@ -124,6 +146,20 @@ public class Compilation {
         compilationState = CompilationState.INITIALIZED;
     }
 
+    private boolean loadFromCache() {
+        assert compilationState == CompilationState.INITIALIZED;
+        if (cache == null) {
+            return false;
+        }
+        final var entry = cache.load(compilationContext.getSourceCode());
+        if (entry.isEmpty()) {
+            return false;
+        }
+        compilationContext = compilationContext.fromCache(entry.get());
+        compilationState = CompilationState.SEM_CHECKED;
+        return true;
+    }
+
     private void runScanner() {
         assert compilationState == CompilationState.INITIALIZED;
         scanner = new Scanner(compilationContext);
@@ -152,6 +188,9 @@ public class Compilation {
         if (compilationContext.semanticCheckingUnsuccessful()) {
             System.exit(1);
         }
+        if (cache != null) {
+            cache.store(compilationContext.getSourceCode(), compilationContext.toCacheEntry());
+        }
         compilationState = CompilationState.SEM_CHECKED;
     }
 
@@ -161,6 +200,22 @@ public class Compilation {
         compilationState = CompilationState.CFG_GENERATED;
     }
 
+    private void generateIr() {
+        assert compilationState == CompilationState.CFG_GENERATED;
+        irContext = IrBuilder.build(compilationContext);
+        compilationState = CompilationState.IR_GENERATED;
+    }
+
+    private void promoteLocalsToSsa() {
+        assert compilationState == CompilationState.IR_GENERATED;
+        assert irContext != null;
+        irContext.getFunctionDefinitions().forEach(Mem2Reg::run);
+        if (compilationContext.debugModeOn()) {
+            irContext.getFunctionDefinitions().forEach(System.out::print);
+        }
+        compilationState = CompilationState.SSA_GENERATED;
+    }
+
     enum CompilationState {
         INITIALIZED, SCANNED, PARSED, SEM_CHECKED, CFG_GENERATED, SSA_GENERATED, IR_GENERATED, DATAFLOW_OPTIMIZED, ASSEMBLED, COMPLETED
     }
@@ -0,0 +1,322 @@
+package decaf.shared;
+
+import decaf.analysis.syntax.ast.Program;
+import decaf.analysis.syntax.ast.ProgramCodec;
+import decaf.shared.env.Scope;
+import decaf.shared.env.SymbolTable;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A directory of semantically checked programs, so that a compilation of source code which has been checked before
+ * can skip scanning, parsing and semantic checking.
+ * <p>
+ * Entries are addressed by the SHA-256 of a fingerprint of the compiler's build and the source code, and hold the
+ * {@link Program}, the global {@link Scope} with every scope and descriptor reachable from it, and the
+ * {@link SymbolTable} their symbol ids refer to, encoded by {@link ProgramCodec} and deflated. Each entry records its
+ * key, length and checksum, and an entry which does not match them or fails to deserialize is deleted and treated as a
+ * miss, so a corrupt cache costs a recompilation and nothing else.
+ * <p>
+ * Every hit touches the modification time of its entry, and once the entries take up more than the size bound the
+ * least recently used ones are evicted.
+ * <p>
+ * Every {@link Compilation} uses the cache named by the {@value #DIRECTORY_PROPERTY} system property when it is set,
+ * for example with {@code -Ddecaf.cache.dir=build/decaf-cache}, bounded by {@value #MAX_SIZE_PROPERTY} bytes.
+ */
+public class CompilationCache {
+    public static final long DEFAULT_MAX_SIZE = 256L << 20;
+    public static final String DIRECTORY_PROPERTY = "decaf.cache.dir";
+    public static final String MAX_SIZE_PROPERTY = "decaf.cache.maxSize";
+    private static final Logger logger = Logger.getLogger(CompilationCache.class.getName());
+    private static final int MAGIC = 0xDECAFCAC;
+    // part of every key, so must change along with the encoding of ProgramCodec
+    private static final int FORMAT_VERSION = 2;
+    private static final String ENTRY_SUFFIX = ".bin";
+
+    @NotNull
+    private final Path directory;
+    private final long maxSize;
+    @NotNull
+    private final String compilerFingerprint;
+
+    public record Entry(@NotNull SymbolTable symbolTable, @NotNull Program program, @NotNull Scope globalScope) {
+    }
+
+    private CompilationCache(@NotNull Path directory, long maxSize) throws IOException {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("cache size must be positive, not " + maxSize);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.maxSize = maxSize;
+        this.compilerFingerprint = compilerFingerprint();
+    }
+
+    public static CompilationCache inDirectory(@NotNull Path directory, long maxSize) throws IOException {
+        return new CompilationCache(directory, maxSize);
+    }
+
+    public static CompilationCache inDirectory(@NotNull Path directory) throws IOException {
+        return new CompilationCache(directory, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @return the cache configured by the {@value #DIRECTORY_PROPERTY} and {@value #MAX_SIZE_PROPERTY} system
+     * properties, or nothing if caching is not enabled or its directory cannot be created
+     */
+    public static Optional<CompilationCache> fromSystemProperties() {
+        final String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory == null || directory.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(inDirectory(Path.of(directory), Long.getLong(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE)));
+        } catch (IOException | IllegalArgumentException e) {
+            logger.log(Level.WARNING, "not caching compilations in " + directory, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return a fingerprint of the build of this compiler, which entries are keyed on so that a compiler built from
+     * other code never reuses what this one produced: the SHA-256 of the jar it was loaded from, or of the path and
+     * contents of every file under the directory it was loaded from
+     */
+    private static @NotNull String compilerFingerprint() {
+        return FORMAT_VERSION + "/" + BuildFingerprint.VALUE;
+    }
+
+    // computed on first use, once per run
+    private static class BuildFingerprint {
+        private static final String VALUE = compute();
+
+        private static @NotNull String compute() {
+            try {
+                final var codeSource = CompilationCache.class.getProtectionDomain().getCodeSource();
+                if (codeSource == null || codeSource.getLocation() == null) {
+                    throw new IOException("the compiler was not loaded from a jar or a directory");
+                }
+                final Path location = Path.of(codeSource.getLocation().toURI());
+                final var digest = MessageDigest.getInstance("SHA-256");
+                if (Files.isDirectory(location)) {
+                    final List<Path> files;
+                    try (Stream<Path> paths = Files.walk(location)) {
+                        files = paths.filter(Files::isRegularFile)
+                                     .sorted(Comparator.comparing(path -> location.relativize(path).toString()))
+                                     .toList();
+                    }
+                    for (var file : files) {
+                        digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                        digest.update((byte) 0);
+                        digest.update(Files.readAllBytes(file));
+                    }
+                } else {
+                    digest.update(Files.readAllBytes(location));
+                }
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (IOException | URISyntaxException | IllegalArgumentException | SecurityException e) {
+                logger.log(Level.WARNING, "cannot fingerprint the compiler, so no entry of another run is reused", e);
+                return "run-" + UUID.randomUUID();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+
+    private byte[] keyOf(@NotNull CharSequence sourceCode) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(compilerFingerprint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            final ByteBuffer source = StandardCharsets.UTF_8.encode(CharBuffer.wrap(sourceCode));
+            digest.update(source);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private @NotNull Path pathOf(byte[] key) {
+        return directory.resolve(HexFormat.of()
+                                          .formatHex(key) + ENTRY_SUFFIX);
+    }
+
+    /**
+     * @return the checked program of {@code sourceCode}, if it is in the cache
+     */
+    public Optional<Entry> load(@NotNull CharSequence sourceCode) {
+        final byte[] key = keyOf(sourceCode);
+        final Path path = pathOf(key);
+        final byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "could not read cache entry " + path, e);
+            return Optional.empty();
+        }
+        final Entry entry;
+        try {
+            entry = decode(key, bytes);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "discarding corrupt cache entry " + path, e);
+            delete(path);
+            return Optional.empty();
+        }
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // the entry is still good, it just looks older than it is to eviction
+            logger.log(Level.WARNING, "could not touch cache entry " + path, e);
+        }
+        return Optional.of(entry);
+    }
+
+    /**
+     * Adds the checked program of {@code sourceCode} to the cache, then evicts the least recently used entries if the
+     * cache has outgrown its bound. Failing to write the entry is not an error, only a missed chance to cache.
+     */
+    public void store(@NotNull CharSequence sourceCode, @NotNull Entry entry) {
+        final byte[] key = keyOf(sourceCode);
+        final Path path = pathOf(key);
+        Path temporary = null;
+        try {
+            final byte[] bytes = encode(key, entry);
+            temporary = Files.createTempFile(directory, path.getFileName()
+                                                            .toString(), ".tmp");
+            Files.write(temporary, bytes);
+            try {
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.log(Level.WARNING, "could not write cache entry " + path, e);
+            if (temporary != null) {
+                delete(temporary);
+            }
+            return;
+        }
+        evict();
+    }
+
+    private byte[] encode(byte[] key, @NotNull Entry entry) throws IOException {
+        final var payload = new ByteArrayOutputStream();
+        // the fastest level, as entries are written on every miss and are small either way
+        final var deflater = new Deflater(Deflater.BEST_SPEED);
+        try (var deflated = new DeflaterOutputStream(payload, deflater)) {
+            deflated.write(ProgramCodec.encode(entry.symbolTable(), entry.program(), entry.globalScope()));
+        } finally {
+            deflater.end();
+        }
+        final byte[] payloadBytes = payload.toByteArray();
+        final var checksum = new CRC32();
+        checksum.update(payloadBytes);
+
+        final var bytes = new ByteArrayOutputStream(payloadBytes.length + 64);
+        try (var header = new DataOutputStream(bytes)) {
+            header.writeInt(MAGIC);
+            header.writeUTF(compilerFingerprint);
+            header.write(key);
+            header.writeInt(payloadBytes.length);
+            header.writeLong(checksum.getValue());
+            header.write(payloadBytes);
+        }
+        return bytes.toByteArray();
+    }
+
+    private @NotNull Entry decode(byte[] key, byte[] bytes) throws IOException {
+        final var header = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (header.readInt() != MAGIC || !header.readUTF()
+                                                .equals(compilerFingerprint)) {
+            throw new IllegalStateException("not an entry of this compiler");
+        }
+        final byte[] storedKey = header.readNBytes(key.length);
+        final int payloadLength = header.readInt();
+        final long storedChecksum = header.readLong();
+        if (!Arrays.equals(storedKey, key) || payloadLength != header.available()) {
+            throw new IllegalStateException("entry does not match its key");
+        }
+        final byte[] payloadBytes = header.readNBytes(payloadLength);
+        final var checksum = new CRC32();
+        checksum.update(payloadBytes);
+        if (checksum.getValue() != storedChecksum) {
+            throw new IllegalStateException("entry does not match its checksum");
+        }
+
+        try (var inflater = new InflaterInputStream(new ByteArrayInputStream(payloadBytes))) {
+            return ProgramCodec.decode(inflater.readAllBytes());
+        }
+    }
+
+    private record CachedFile(@NotNull Path path, long size, @NotNull FileTime lastUsed) {
+    }
+
+    /**
+     * Deletes the least recently used entries until the rest fit in the size bound.
+     */
+    private void evict() {
+        final List<CachedFile> entries = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (path.getFileName()
+                        .toString()
+                        .endsWith(ENTRY_SUFFIX)) {
+                    try {
+                        entries.add(new CachedFile(path, Files.size(path), Files.getLastModifiedTime(path)));
+                    } catch (NoSuchFileException e) {
+                        // evicted by another compilation
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            logger.log(Level.WARNING, "could not list cache directory " + directory, e);
+            return;
+        }
+        long totalSize = entries.stream()
+                                .mapToLong(CachedFile::size)
+                                .sum();
+        if (totalSize <= maxSize) {
+            return;
+        }
+        entries.sort(Comparator.comparing(CachedFile::lastUsed));
+        for (CachedFile entry : entries) {
+            if (totalSize <= maxSize) {
+                break;
+            }
+            delete(entry.path());
+            totalSize -= entry.size();
+        }
+    }
+
+    private static void delete(@NotNull Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "could not delete cache entry " + path, e);
+        }
+    }
+}
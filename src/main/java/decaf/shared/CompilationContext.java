@@ -1,21 +1,23 @@
 package decaf.shared;
 
 import decaf.analysis.Token;
+import decaf.analysis.TokenBuffer;
 import decaf.analysis.TokenPosition;
 import decaf.analysis.syntax.ast.MethodDefinition;
 import decaf.analysis.syntax.ast.Program;
 import decaf.analysis.cfg.Cfg;
 import decaf.analysis.cfg.CfgBlock;
-import decaf.ir.Counter;
 import decaf.shared.descriptors.Descriptor;
 import decaf.shared.env.Scope;
+import decaf.shared.env.SymbolTable;
 import decaf.shared.errors.*;
 import decaf.shared.errors.Error;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -26,7 +28,7 @@ import static com.google.common.base.Preconditions.checkState;
 
 public class CompilationContext {
     public static final String NEW_LINE = "\n";
-    private final String sourceCode;
+    private final CharSequence sourceCode;
     @NotNull
     private final Logger logger;
     private final String filePath;
@@ -35,10 +37,13 @@ public class CompilationContext {
     private final List<ParserError> parsingErrors = new ArrayList<>();
     private final List<SemanticError> semanticErrors = new ArrayList<>();
     private final List<CfgBuildingError> cfgBuildingErrors = new ArrayList<>();
-    private final Map<String, CfgBlock> exitBlocks = new HashMap<>();
-    private final Map<String, CfgBlock> entryBlocks = new HashMap<>();
+    // registered concurrently, as the cfgs of methods are built in parallel
+    private final Map<String, CfgBlock> exitBlocks = new ConcurrentHashMap<>();
+    private final Map<String, CfgBlock> entryBlocks = new ConcurrentHashMap<>();
 
-    private final Map<String, Cfg> cfgs = new HashMap<>();
+    private final Map<String, Cfg> cfgs = new ConcurrentHashMap<>();
+    @NotNull
+    private final SymbolTable symbolTable;
     @Nullable Program program;
     @Nullable CfgBlock globalEntryBlock;
     @NotNull
@@ -46,11 +51,19 @@ public class CompilationContext {
     @Nullable
     private Scope globalScope;
 
-    public CompilationContext(@NotNull String sourceCode, boolean debugModeOn, String filePath) {
+    public CompilationContext(@NotNull CharSequence sourceCode, boolean debugModeOn, String filePath) {
+        this(sourceCode, debugModeOn, filePath, new SymbolTable());
+    }
+
+    private CompilationContext(@NotNull CharSequence sourceCode,
+                               boolean debugModeOn,
+                               String filePath,
+                               @NotNull SymbolTable symbolTable) {
         this.sourceCode = sourceCode;
         this.logger = Logger.getLogger(CompilationContext.class.getName());
         this.isDebugModeOn = debugModeOn;
         this.filePath = filePath;
+        this.symbolTable = symbolTable;
     }
 
     public static CompilationContext fromSourceCode(@NotNull String sourceCode, boolean debugModeOn) {
@@ -61,17 +74,41 @@ public class CompilationContext {
         return fromSourceCode(sourceCode, false);
     }
 
-    public static CompilationContext fromFile(@NotNull String filePath,
-                                              boolean debugModeOn) throws FileNotFoundException {
-        return new CompilationContext(Utils.getStringFromInputStream(new FileInputStream(filePath),
-                                                                     Logger.getLogger(CompilationContext.class.getName())
-                                                                    ), debugModeOn, filePath);
+    public static CompilationContext fromFile(@NotNull String filePath, boolean debugModeOn) throws IOException {
+        return new CompilationContext(SourceText.map(Paths.get(filePath)), debugModeOn, filePath);
     }
 
-    public static CompilationContext fromFile(@NotNull String filePath) throws FileNotFoundException {
+    public static CompilationContext fromFile(@NotNull String filePath) throws IOException {
         return fromFile(filePath, false);
     }
 
+    /**
+     * @return a fresh context for the source after {@code edit}, which shares this context's symbol table so that
+     * symbols in subtrees of this context's program stay valid
+     */
+    public @NotNull CompilationContext afterEdit(@NotNull TextEdit edit) {
+        return new CompilationContext(edit.applyTo(sourceCode), isDebugModeOn, filePath, symbolTable);
+    }
+
+    /**
+     * @return a fresh context for the same source, holding the checked program of {@code entry} as if this context
+     * had been scanned, parsed and semantically checked
+     */
+    public @NotNull CompilationContext fromCache(@NotNull CompilationCache.Entry entry) {
+        final var context = new CompilationContext(sourceCode, isDebugModeOn, filePath, entry.symbolTable());
+        context.setProgram(entry.program());
+        context.setGlobalScope(entry.globalScope());
+        return context;
+    }
+
+    /**
+     * @return the checked program of this context, for storing in a {@link CompilationCache}
+     */
+    public @NotNull CompilationCache.Entry toCacheEntry() {
+        checkState(globalScope != null, "global scope not set");
+        return new CompilationCache.Entry(symbolTable, getProgram(), globalScope);
+    }
+
     public @NotNull CfgBlock getGlobalEntryBlock() {
         if (globalEntryBlock == null) {
             throw new IllegalStateException("global entry block not set");
@@ -99,17 +136,17 @@ public class CompilationContext {
     }
 
     public @NotNull Cfg getCfg(String methodName) {
-        if (!cfgs.containsKey(methodName)) {
+        final var cfg = cfgs.get(methodName);
+        if (cfg == null) {
             throw new IllegalStateException("cfg not set");
         }
-        return cfgs.get(methodName);
+        return cfg;
     }
 
     public void setCfg(String methodName, @NotNull Cfg cfg) {
-        if (cfgs.containsKey(methodName)) {
+        if (cfgs.putIfAbsent(methodName, cfg) != null) {
             throw new IllegalStateException("cfg already set");
         }
-        cfgs.put(methodName, cfg);
     }
 
     public boolean isExitBlock(@NotNull CfgBlock cfgBlock) {
@@ -120,6 +157,10 @@ public class CompilationContext {
         return entryBlocks.containsValue(cfgBlock);
     }
 
+    public @NotNull SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
     public @Nullable Scope getGlobalScope() {
         return globalScope;
     }
@@ -130,7 +171,7 @@ public class CompilationContext {
 
     public Optional<Scope> getScopeFor(@NotNull MethodDefinition methodDefinition) {
         checkState(globalScope != null, "global scope not set");
-        return globalScope.lookup(methodDefinition.getName()).map(Descriptor::getEnclosingScope);
+        return globalScope.lookup(methodDefinition.getSymbol()).map(Descriptor::getEnclosingScope);
     }
 
     private void checkMethodNameValid(@NotNull String methodName) {
@@ -176,7 +217,7 @@ public class CompilationContext {
         exitBlocks.put(methodName, cfgBlock);
     }
 
-    public String getSourceCode() {
+    public CharSequence getSourceCode() {
         return sourceCode;
     }
 
@@ -192,12 +233,23 @@ public class CompilationContext {
         parsingErrors.add(new ParserError(errorType, token, errorMessage));
     }
 
+    public void logParsingError(@NotNull TokenBuffer tokens,
+                                int tokenIndex,
+                                @NotNull ParserError.ErrorType errorType,
+                                @NotNull String errorMessage) {
+        parsingErrors.add(new ParserError(errorType, tokens.tokenPosition(tokenIndex), errorMessage));
+    }
+
     public void logSemanticError(@NotNull TokenPosition tokenPosition,
                                  @NotNull SemanticError.ErrorType errorType,
                                  @NotNull String errorMessage) {
         semanticErrors.add(new SemanticError(tokenPosition, errorType, errorMessage));
     }
 
+    public void logSemanticErrors(@NotNull Collection<SemanticError> errors) {
+        semanticErrors.addAll(errors);
+    }
+
     public boolean scanningSuccessful() {
         return scanningErrors.isEmpty();
     }
@@ -280,7 +332,7 @@ public class CompilationContext {
                                                             ), ColorPrint.Color.CYAN));
 
         // context before the problematic line
-        var sourceCodeLines = sourceCode.split(NEW_LINE);
+        var sourceCodeLines = sourceCode.toString().split(NEW_LINE);
 
         var numPrecursorLines = Math.min(error.tokenPosition().line(), 2);
         var precursorLines = Arrays.copyOfRange(sourceCodeLines,
@@ -327,9 +379,4 @@ public class CompilationContext {
 
         return String.join(NEW_LINE, output);
     }
-
-
-    public int getNextId() {
-        return Counter.getInstance().nextId();
-    }
 }
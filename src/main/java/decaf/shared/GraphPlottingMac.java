@@ -49,24 +49,24 @@ public class GraphPlottingMac {
             }
             if (compilationContext.isEntryBlock(cfgBlock)) {
                 nodes.add(String.format("   %s [shape=record, style=filled, fillcolor=green, label=%s];",
-                                        cfgBlock.hashCode(),
+                                        nodeName(methodName, cfgBlock),
                                         "\"<from_node>" + escape(labelFunction.apply(cfgBlock)) + "\""
                                        ));
             }
             if (compilationContext.isExitBlock(cfgBlock)) {
                 nodes.add(String.format("   %s [shape=record, style=filled, fillcolor=gray, label=%s];",
-                                        cfgBlock.hashCode(),
+                                        nodeName(methodName, cfgBlock),
                                         "\"<from_node>" + escape(labelFunction.apply(cfgBlock)) + "\""
                                        ));
             } else {
                 nodes.add(String.format("   %s [shape=record, label=%s];",
-                                        cfgBlock.hashCode(),
+                                        nodeName(methodName, cfgBlock),
                                         "\"<from_node>" + escape(labelFunction.apply(cfgBlock)) + "\""
                                        ));
             }
             if (cfgBlock.getAlternateSuccessor().isPresent() && cfgBlock.getSuccessor().isPresent()) {
                 nodes.add(String.format("   %s [shape=record, label=%s];",
-                                        cfgBlock.hashCode(),
+                                        nodeName(methodName, cfgBlock),
                                         "\"{<from_node>" +
                                         escape(labelFunction.apply(cfgBlock)) +
                                         "|{<from_true> T|<from_false>F}" +
@@ -76,25 +76,25 @@ public class GraphPlottingMac {
                 var falseChild = cfgBlock.getAlternateSuccessor().get();
                 stack.push(falseChild);
                 edges.add(String.format("   %s -> %s;",
-                                        cfgBlock.hashCode() + ":from_false",
-                                        falseChild.hashCode() + ":from_node"
+                                        nodeName(methodName, cfgBlock) + ":from_false",
+                                        nodeName(methodName, falseChild) + ":from_node"
                                        ));
                 stack.push(trueChild);
                 edges.add(String.format("   %s -> %s;",
-                                        cfgBlock.hashCode() + ":from_true",
-                                        trueChild.hashCode() + ":from_node"
+                                        nodeName(methodName, cfgBlock) + ":from_true",
+                                        nodeName(methodName, trueChild) + ":from_node"
                                        ));
             } else if (cfgBlock.getSuccessor().isPresent()) {
                 var autoChild = cfgBlock.getSuccessor().get();
                 edges.add(String.format("   %s -> %s;",
-                                        cfgBlock.hashCode() + ":from_node",
-                                        autoChild.hashCode() + ":from_node"
+                                        nodeName(methodName, cfgBlock) + ":from_node",
+                                        nodeName(methodName, autoChild) + ":from_node"
                                        ));
                 stack.push(autoChild);
             } else {
                 assert compilationContext.isExitBlock(cfgBlock);
                 nodes.add(String.format("   %s [shape=record, style=filled, fillcolor=gray, label=%s];",
-                                        cfgBlock.hashCode(),
+                                        nodeName(methodName, cfgBlock),
                                         "\"<from_node>" + escape(labelFunction.apply(cfgBlock)) + "\""
                                        ));
             }
@@ -106,6 +106,11 @@ public class GraphPlottingMac {
         return String.join("\n", subGraphs);
     }
 
+    // block ids are only unique within a method, and every method is drawn in the same graph
+    private static String nodeName(@NotNull String methodName, @NotNull CfgBlock cfgBlock) {
+        return methodName + "_" + cfgBlock.getBlockId();
+    }
+
     public static void printGraph(CompilationContext compilationContext, Function<CfgBlock, String> labelFunction) {
         printGraph(compilationContext, labelFunction, "cfg");
     }
@@ -0,0 +1,101 @@
+package decaf.shared;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads that work on the methods of a program concurrently, such as checking their bodies and building their
+ * cfgs.
+ * <p>
+ * Those passes recurse once per level of nesting of a method's statements and expressions, which a few thousand nested
+ * parentheses take past the default stack of a thread. The workers of a {@link java.util.concurrent.ForkJoinPool}
+ * cannot be given a larger stack, so these are a fixed pool of plain threads with a stack of {@value #STACK_SIZE}
+ * bytes each. The stack is reserved rather than committed, so it costs memory only as deep as it is used.
+ */
+public final class MethodWorkers {
+    public static final long STACK_SIZE = 1L << 30;
+    // how many tasks to split the methods into per thread of the pool, for balancing the load
+    private static final int TASKS_PER_THREAD = 4;
+    private static final int NUM_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final ThreadGroup WORKERS = new ThreadGroup("decaf-method-workers");
+
+    // to prevent object creation
+    private MethodWorkers() {
+    }
+
+    /**
+     * Splits {@code 0..count} into consecutive ranges, runs {@code action} on each of them concurrently, and returns once
+     * all of them have run. If any range throws, the exception of the first such range is rethrown.
+     * <p>
+     * Even a single range runs on a worker, as the calling thread may have the default stack. A call from one of the
+     * workers runs every range on that worker instead, so that it never waits on the pool it is in.
+     */
+    public static void forEachRange(int count, @NotNull RangeAction action) {
+        if (count == 0) {
+            return;
+        }
+        if (Thread.currentThread().getThreadGroup() == WORKERS) {
+            action.run(0, count);
+            return;
+        }
+        final int rangeSize = Math.max(1, count / (TASKS_PER_THREAD * NUM_THREADS));
+        final var ranges = new ArrayList<Callable<Void>>();
+        for (int from = 0; from < count; from += rangeSize) {
+            final int rangeFrom = from;
+            final int rangeTo = Math.min(count, from + rangeSize);
+            ranges.add(() -> {
+                action.run(rangeFrom, rangeTo);
+                return null;
+            });
+        }
+        final List<Future<Void>> results;
+        try {
+            results = Pool.EXECUTOR.invokeAll(ranges);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the method workers", e);
+        }
+        for (var result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for the method workers", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                } else if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface RangeAction {
+        void run(int from, int to);
+    }
+
+    // started on first use
+    private static class Pool {
+        private static final AtomicInteger numThreadsStarted = new AtomicInteger();
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(NUM_THREADS, runnable -> {
+            final var thread = new Thread(WORKERS,
+                                          runnable,
+                                          "decaf-method-worker-" + numThreadsStarted.incrementAndGet(),
+                                          STACK_SIZE
+            );
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,137 @@
+package decaf.shared;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A read-only view of Decaf source code which always ends with a new line.
+ * <p>
+ * A file is memory-mapped rather than read. As long as it is pure ASCII, which all valid Decaf is, characters are
+ * read straight out of the mapping, so the source goes from disk to tokens without ever being copied onto the heap.
+ * Anything else is decoded from UTF-8 into a String. A missing trailing new line is synthesized by {@link #charAt(int)} instead
+ * of being appended to a copy of the source.
+ */
+public class SourceText implements CharSequence {
+    private static final char NEW_LINE = '\n';
+
+    // exactly one of bytes and string is set
+    @Nullable
+    private final ByteBuffer bytes;
+    @Nullable
+    private final String string;
+    private final int baseLength;
+    private final int length;
+
+    private SourceText(@Nullable ByteBuffer bytes, @Nullable String string, int baseLength) {
+        this.bytes = bytes;
+        this.string = string;
+        this.baseLength = baseLength;
+        this.length = (baseLength > 0 && baseCharAt(baseLength - 1) == NEW_LINE) ? baseLength : baseLength + 1;
+    }
+
+    public static @NotNull SourceText of(@NotNull CharSequence sourceCode) {
+        if (sourceCode instanceof SourceText sourceText) {
+            return sourceText;
+        }
+        return new SourceText(null, sourceCode.toString(), sourceCode.length());
+    }
+
+    public static @NotNull SourceText map(@NotNull Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(String.format("%s is too large to compile: %d bytes", path, size));
+            }
+            // the mapping stays valid after the channel is closed
+            final ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            for (int i = 0; i < mapped.limit(); i++) {
+                if (mapped.get(i) < 0) {
+                    return of(UTF_8.decode(mapped));
+                }
+            }
+            return new SourceText(mapped, null, mapped.limit());
+        }
+    }
+
+    private char baseCharAt(int index) {
+        if (bytes != null) {
+            return (char) bytes.get(index);
+        }
+        assert string != null;
+        return string.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < baseLength) {
+            return baseCharAt(index);
+        }
+        if (index < length) {
+            return NEW_LINE;
+        }
+        throw new IndexOutOfBoundsException("index " + index + " out of bounds for length " + length);
+    }
+
+    /**
+     * @return a copy of the characters in {@code [start, end)}
+     */
+    @Override
+    public @NotNull String subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + ") out of bounds for length " + length);
+        }
+        if (string != null && end <= baseLength) {
+            return string.substring(start, end);
+        }
+        final var stringBuilder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            stringBuilder.append(charAt(i));
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * @return whether {@code prefix} occurs at {@code offset}
+     */
+    public boolean startsWith(@NotNull String prefix, int offset) {
+        if (offset < 0 || offset + prefix.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the index of the first {@code c} at or after {@code fromIndex}, or -1 if there is none
+     */
+    public int indexOf(char c, int fromIndex) {
+        for (int i = Math.max(0, fromIndex); i < length; i++) {
+            if (charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return subSequence(0, length);
+    }
+}
@@ -0,0 +1,47 @@
+package decaf.shared;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Replaces the {@code removedLength} characters of a source starting at {@code offset} with {@code replacement}.
+ */
+public record TextEdit(int offset, int removedLength, @NotNull String replacement) {
+    public TextEdit {
+        if (offset < 0 || removedLength < 0) {
+            throw new IllegalArgumentException("invalid edit of [" + offset + ", " + (offset + removedLength) + ")");
+        }
+    }
+
+    public static @NotNull TextEdit insertion(int offset, @NotNull String text) {
+        return new TextEdit(offset, 0, text);
+    }
+
+    public static @NotNull TextEdit deletion(int offset, int length) {
+        return new TextEdit(offset, length, "");
+    }
+
+    /**
+     * @return the end of the replaced range, in the source before the edit
+     */
+    public int end() {
+        return offset + removedLength;
+    }
+
+    /**
+     * @return how far the edit moves the text after it
+     */
+    public int delta() {
+        return replacement.length() - removedLength;
+    }
+
+    public @NotNull String applyTo(@NotNull CharSequence sourceCode) {
+        if (end() > sourceCode.length()) {
+            throw new IllegalArgumentException("edit of [" + offset + ", " + end() + ") out of bounds for length " +
+                                               sourceCode.length());
+        }
+        return new StringBuilder(sourceCode.length() + delta()).append(sourceCode, 0, offset)
+                                                               .append(replacement)
+                                                               .append(sourceCode, end(), sourceCode.length())
+                                                               .toString();
+    }
+}
@@ -1,15 +1,18 @@
 package decaf.shared;
 
-import com.ezylang.evalex.config.ExpressionConfiguration;
 import decaf.analysis.syntax.ast.AST;
+import decaf.analysis.syntax.ast.BinaryOpExpression;
 import decaf.analysis.syntax.ast.Block;
+import decaf.analysis.syntax.ast.Expression;
 import decaf.analysis.syntax.ast.FormalArgument;
+import decaf.analysis.syntax.ast.IntLiteral;
+import decaf.analysis.syntax.ast.ParenthesizedExpression;
+import decaf.analysis.syntax.ast.Program;
+import decaf.analysis.syntax.ast.UnaryOpExpression;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.math.MathContext;
-import java.math.RoundingMode;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -33,21 +36,21 @@ public class Utils {
         return str;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * @return every node under {@code root}, itself included, that is an instance of {@code tClass}; the nodes of a
+     * {@link Program} come from its node index instead of a fresh walk
+     */
     public static <T> Set<T> findAllOfType(AST root, Class<T> tClass) {
+        if (root instanceof Program program) {
+            return new HashSet<>(program.getNodesOfType(tClass));
+        }
         Set<T> results = new HashSet<>();
-        Stack<AST> toExplore = new Stack<>();
-        toExplore.add(root);
-        while (!toExplore.isEmpty()) {
-            final AST node = toExplore.pop();
-            if (tClass.isAssignableFrom(node.getClass())) {
-                results.add((T) node);
-            } else {
-                for (Pair<String, AST> astPair : node.getChildren()) {
-                    toExplore.add(astPair.second());
-                }
+        new AstWalker().walk(root, (parent, index, node) -> {
+            if (tClass.isInstance(node)) {
+                results.add(tClass.cast(node));
             }
-        }
+            return true;
+        });
         return results;
     }
 
@@ -134,21 +137,95 @@ public class Utils {
         throw new IllegalArgumentException("unsupported unary operator " + operator);
     }
 
-    public static Optional<Long> symbolicallyEvaluate(String string) {
-        // this check is necessary because the evaluator evaluates variables like 'e' and 'pi'
-        if (containsAlphabeticCharacters(string)) {
-            return Optional.empty();
+    /**
+     * @return the value of {@code operator} applied to {@code lhs} and {@code rhs} with the semantics of Decaf: 64-bit
+     * two's complement arithmetic which wraps on overflow, division and remainder which truncate towards zero, and
+     * comparisons and conditionals over 0 and 1
+     * @throws ArithmeticException when dividing by zero
+     */
+    public static long symbolicallyEvaluateBinaryInstruction(String operator, long lhs, long rhs) {
+        return switch (operator) {
+            case Operators.PLUS -> lhs + rhs;
+            case Operators.MINUS -> lhs - rhs;
+            case Operators.MULTIPLY -> lhs * rhs;
+            case Operators.DIVIDE -> lhs / rhs;
+            case Operators.MOD -> lhs % rhs;
+            case Operators.LT -> (lhs < rhs) ? 1L : 0L;
+            case Operators.GT -> (lhs > rhs) ? 1L : 0L;
+            case Operators.LEQ -> (lhs <= rhs) ? 1L : 0L;
+            case Operators.GEQ -> (lhs >= rhs) ? 1L : 0L;
+            case Operators.EQ -> (lhs == rhs) ? 1L : 0L;
+            case Operators.NEQ -> (lhs != rhs) ? 1L : 0L;
+            case Operators.CONDITIONAL_AND -> (lhs != 0L && rhs != 0L) ? 1L : 0L;
+            case Operators.CONDITIONAL_OR -> (lhs != 0L || rhs != 0L) ? 1L : 0L;
+            default -> throw new IllegalArgumentException("unsupported binary operator " + operator);
+        };
+    }
+
+    /**
+     * Folds {@code expression} if it is made of literals and operators only, with booleans as 0 and 1.
+     * <p>
+     * Arithmetic follows {@link #symbolicallyEvaluateBinaryInstruction(String, long, long)}, and {@code &&} and
+     * {@code ||} short circuit, so {@code false && e} is false whatever {@code e} is. An expression which would divide
+     * by zero, or has an int literal out of range, is not a constant.
+     *
+     * @return the value of {@code expression}, or empty if it is not a constant
+     */
+    public static Optional<Long> symbolicallyEvaluate(@NotNull Expression expression) {
+        final var evaluator = new ConstantEvaluator();
+        final long value = evaluator.evaluate(expression);
+        return evaluator.isConstant ? Optional.of(value) : Optional.empty();
+    }
+
+    private static class ConstantEvaluator {
+        // cleared as soon as any part of the expression turns out not to be a constant
+        private boolean isConstant = true;
+
+        private long notConstant() {
+            isConstant = false;
+            return 0L;
         }
-        var expressionConfiguration = ExpressionConfiguration.builder()
-                                                             .mathContext(new MathContext(100, RoundingMode.HALF_UP))
-                                                             .decimalPlacesRounding(2)
-                                                             .build();
-        var expression = new com.ezylang.evalex.Expression(string, expressionConfiguration);
-        try {
-            var res = expression.evaluate();
-            return Optional.of(res.getNumberValue().longValue());
-        } catch (Exception e) {
-            return Optional.empty();
+
+        private long evaluate(@NotNull Expression expression) {
+            if (expression instanceof IntLiteral intLiteral) {
+                try {
+                    return intLiteral.convertToLong();
+                } catch (NumberFormatException e) {
+                    return notConstant();
+                }
+            } else if (expression instanceof ParenthesizedExpression parenthesizedExpression) {
+                return evaluate(parenthesizedExpression.getExpression());
+            } else if (expression instanceof UnaryOpExpression unaryOpExpression) {
+                final long operand = evaluate(unaryOpExpression.operand);
+                return isConstant ? symbolicallyEvaluateUnaryInstruction(unaryOpExpression.getUnaryOperator()
+                                                                                          .getLabel(), operand) : 0L;
+            } else if (expression instanceof BinaryOpExpression binaryOpExpression) {
+                return evaluate(binaryOpExpression);
+            }
+            return notConstant();
+        }
+
+        private long evaluate(@NotNull BinaryOpExpression binaryOpExpression) {
+            final String operator = binaryOpExpression.getOp()
+                                                      .getLabel();
+            final long lhs = evaluate(binaryOpExpression.getLhs());
+            if (!isConstant) {
+                return 0L;
+            }
+            if (operator.equals(Operators.CONDITIONAL_AND) && lhs == 0L) {
+                return 0L;
+            } else if (operator.equals(Operators.CONDITIONAL_OR) && lhs != 0L) {
+                return 1L;
+            }
+            final long rhs = evaluate(binaryOpExpression.getRhs());
+            if (!isConstant) {
+                return 0L;
+            }
+            if ((operator.equals(Operators.DIVIDE) || operator.equals(Operators.MOD)) && rhs == 0L) {
+                // left to fail at run time
+                return notConstant();
+            }
+            return symbolicallyEvaluateBinaryInstruction(operator, lhs, rhs);
         }
     }
 
@@ -181,59 +258,65 @@ public class Utils {
         return stringBuilder.toString();
     }
 
-    private static void addTerminal(@NotNull Pair<String, AST> labelAndNode,
-                                    String prefix,
+    private static void addTerminal(@NotNull String label,
+                                    @NotNull AST node,
+                                    @NotNull CharSequence prefix,
                                     @NotNull String connector,
                                     @NotNull List<String> tree) {
-      if (!labelAndNode.second().isTerminal()) {
-        throw new IllegalArgumentException();
-      }
         tree.add(prefix +
                  connector +
                  " " +
-                 ColorPrint.getColoredString(labelAndNode.first(), ColorPrint.Color.BLUE) +
+                 ColorPrint.getColoredString(label, ColorPrint.Color.BLUE) +
                  " = " +
-                 labelAndNode.second());
+                 node);
     }
 
-    private static void addNonTerminal(@NotNull Pair<String, AST> labelAndNode,
-                                       int index,
-                                       int numChildren,
-                                       @NotNull String prefix,
+    private static void addNonTerminal(@NotNull String label,
+                                       @NotNull AST node,
+                                       @NotNull CharSequence prefix,
                                        @NotNull String connector,
                                        @NotNull List<String> tree) {
         tree.add(String.format("%s%s %s = [%s]",
                                prefix,
                                connector,
-                               labelAndNode.first(),
-                               ColorPrint.getColoredString(labelAndNode.second().getSourceCode(),
+                               label,
+                               ColorPrint.getColoredString(node.getSourceCode(),
                                                            ColorPrint.Color.MAGENTA,
                                                            ColorPrint.Format.BOLD
                                                           )
                               ));
-        prefix += (index != numChildren - 1) ? PrintConstants.PIPE_PREFIX : PrintConstants.SPACE_PREFIX;
-        treeBody(labelAndNode, tree, prefix);
-    }
-
-    private static void treeBody(@NotNull Pair<String, AST> parentNode, List<String> tree, String prefix) {
-        List<Pair<String, AST>> nodeList = parentNode.second().getChildren();
-        for (int i = 0; i < nodeList.size(); i++) {
-            final String connector = (i == nodeList.size() - 1) ? PrintConstants.ELBOW : PrintConstants.TEE;
-            final Pair<String, AST> labelAndNode = nodeList.get(i);
-          if (labelAndNode.second().isTerminal()) {
-            addTerminal(labelAndNode, prefix, connector, tree);
-          } else {
-            addNonTerminal(labelAndNode, i, nodeList.size(), prefix, connector, tree);
-          }
-        }
     }
 
     public static void printParseTree(@NotNull AST root) {
         var tree = new ArrayList<String>();
-        treeBody(new Pair<>(".", root), tree, "");
-      while (!tree.isEmpty() && tree.get(tree.size() - 1).isEmpty()) {
-        tree.remove(tree.size() - 1);
-      }
+        var prefix = new StringBuilder();
+        new AstWalker().walk(root, new AstWalker.Listener() {
+            @Override
+            public boolean enter(AST parent, int index, @NotNull AST node) {
+                if (parent == null) {
+                    return true;
+                }
+                final boolean isLastChild = index == parent.childCount() - 1;
+                final String connector = isLastChild ? PrintConstants.ELBOW : PrintConstants.TEE;
+                if (node.isTerminal()) {
+                    addTerminal(parent.childLabelAt(index), node, prefix, connector, tree);
+                    return false;
+                }
+                addNonTerminal(parent.childLabelAt(index), node, prefix, connector, tree);
+                prefix.append(isLastChild ? PrintConstants.SPACE_PREFIX : PrintConstants.PIPE_PREFIX);
+                return true;
+            }
+
+            @Override
+            public void exit(AST parent, int index, @NotNull AST node) {
+                if (parent != null && !node.isTerminal()) {
+                    prefix.setLength(prefix.length() - PrintConstants.PIPE_PREFIX.length());
+                }
+            }
+        });
+        while (!tree.isEmpty() && tree.get(tree.size() - 1).isEmpty()) {
+            tree.remove(tree.size() - 1);
+        }
         for (String s : tree) {
             System.out.println(s);
         }
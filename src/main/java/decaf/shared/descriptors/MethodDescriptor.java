@@ -10,6 +10,8 @@ import decaf.shared.env.Scope;
  * <ul>
  *      <li> a reference to code for method (methodDefinition)
  *
+ *      <li> the symbol id of the method name (symbol)
+ *
  *      <li> a reference to local symbol table (localSymbolTable)
  *
  *      <li> a reference to the method parameters symbol table (parameterSymbolTable)
@@ -17,11 +19,13 @@ import decaf.shared.env.Scope;
  */
 public class MethodDescriptor extends Descriptor {
     public MethodDefinition methodDefinition;
+    public final int symbol;
     public Scope scope;
 
     public MethodDescriptor(MethodDefinition methodDefinition, Scope scope) {
         super(methodDefinition.getReturnType(), From.METHOD);
         this.methodDefinition = methodDefinition;
+        this.symbol = methodDefinition.getSymbol();
         this.scope = scope;
     }
 }
@@ -7,8 +7,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -17,7 +18,11 @@ import decaf.shared.descriptors.Descriptor;
 import decaf.shared.descriptors.MethodDescriptor;
 
 
-public class Scope extends HashMap<String, Descriptor> {
+/**
+ * The descriptors declared in one scope, keyed on the symbol ids of their names in {@link #symbols}.
+ */
+public class Scope {
+    private static final int INITIAL_CAPACITY = 8;
     @NotNull
     public final For target;
     @Nullable
@@ -26,32 +31,40 @@ public class Scope extends HashMap<String, Descriptor> {
     public Scope parent;
     @NotNull
     public List<Scope> children;
+    @NotNull
+    public final SymbolTable symbols;
+    // declared symbols and their descriptors, in declaration order
+    private int[] declaredSymbols;
+    private Descriptor[] descriptors;
+    private int size;
+    // open addressing index into declaredSymbols of position + 1, 0 marks an empty slot
+    private int[] index;
 
-    private Scope(@Nullable Scope parent, @NotNull For target, @Nullable Block owner) {
-        super();
+    private Scope(@Nullable Scope parent, @NotNull For target, @Nullable Block owner, @NotNull SymbolTable symbols) {
         this.parent = parent;
         this.owner = owner;
         this.target = target;
         this.children = new ArrayList<>();
+        this.symbols = symbols;
+        this.declaredSymbols = new int[INITIAL_CAPACITY];
+        this.descriptors = new Descriptor[INITIAL_CAPACITY];
+        this.index = new int[INITIAL_CAPACITY << 1];
+        this.size = 0;
     }
 
-    public static Scope forGlobals() {
-        return new Scope(null, For.Field, null);
+    public static Scope forGlobals(@NotNull SymbolTable symbols) {
+        return new Scope(null, For.Field, null, symbols);
     }
 
-    public static Scope forArguments(@Nullable Scope parent) {
-        var scope = new Scope(parent, For.Arguments, null);
-        if (parent != null) {
-            parent.children.add(scope);
-        }
+    public static Scope forArguments(@NotNull Scope parent) {
+        var scope = new Scope(parent, For.Arguments, null, parent.symbols);
+        parent.children.add(scope);
         return scope;
     }
 
-    public static Scope forBlock(@NotNull Block owner, @Nullable Scope parent) {
-        var scope = new Scope(parent, For.Field, owner);
-        if (parent != null) {
-            parent.children.add(scope);
-        }
+    public static Scope forBlock(@NotNull Block owner, @NotNull Scope parent) {
+        var scope = new Scope(parent, For.Field, owner, parent.symbols);
+        parent.children.add(scope);
         owner.scope = scope;
         return scope;
     }
@@ -60,59 +73,144 @@ public class Scope extends HashMap<String, Descriptor> {
         return n.map(integer -> s + " ".repeat(integer + 4 - s.length())).orElse(s);
     }
 
-    public Optional<MethodDescriptor> lookupMethod(@NotNull String methodName) {
-        return lookup(methodName).filter(descriptor -> descriptor instanceof MethodDescriptor)
-                                 .map(descriptor -> (MethodDescriptor) descriptor);
+    private static int slotOf(int symbol, int mask) {
+        final int hash = symbol * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private int positionOf(int symbol) {
+        final int mask = index.length - 1;
+        int slot = slotOf(symbol, mask);
+        while (index[slot] != 0) {
+            if (declaredSymbols[index[slot] - 1] == symbol) {
+                return index[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void grow() {
+        declaredSymbols = Arrays.copyOf(declaredSymbols, size << 1);
+        descriptors = Arrays.copyOf(descriptors, size << 1);
+        index = new int[size << 2];
+        final int mask = index.length - 1;
+        for (int position = 0; position < size; position++) {
+            int slot = slotOf(declaredSymbols[position], mask);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = position + 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the symbol of the declaration at {@code position}, with declarations in the order they were added
+     */
+    public int symbolAt(int position) {
+        Objects.checkIndex(position, size);
+        return declaredSymbols[position];
+    }
+
+    public @NotNull Descriptor descriptorAt(int position) {
+        Objects.checkIndex(position, size);
+        return descriptors[position];
+    }
+
+    /**
+     * @return whether {@code symbol} is declared in this scope, not looking at enclosing scopes
+     */
+    public boolean contains(int symbol) {
+        return positionOf(symbol) >= 0;
+    }
+
+    /**
+     * @return the descriptor of {@code symbol} in this scope, not looking at enclosing scopes
+     */
+    public @Nullable Descriptor get(int symbol) {
+        final int position = positionOf(symbol);
+        return (position >= 0) ? descriptors[position] : null;
+    }
+
+    public Optional<MethodDescriptor> lookupMethod(int symbol) {
+        return lookup(symbol).filter(descriptor -> descriptor instanceof MethodDescriptor)
+                             .map(descriptor -> (MethodDescriptor) descriptor);
     }
 
-    public Optional<Descriptor> lookupImport(@NotNull String stringId) {
-        return lookup(stringId).filter(Descriptor::isImport);
+    public Optional<Descriptor> lookupImport(int symbol) {
+        return lookup(symbol).filter(Descriptor::isImport);
     }
 
-    public void addDescriptor(@NotNull String label, @NotNull Descriptor descriptor) {
-        put(label, descriptor);
+    public void addDescriptor(int symbol, @NotNull Descriptor descriptor) {
+        final int position = positionOf(symbol);
+        if (position >= 0) {
+            descriptors[position] = descriptor;
+        } else {
+            if (size == declaredSymbols.length) {
+                grow();
+            }
+            final int mask = index.length - 1;
+            int slot = slotOf(symbol, mask);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            declaredSymbols[size] = symbol;
+            descriptors[size] = descriptor;
+            index[slot] = ++size;
+        }
         descriptor.setEnclosingScope(this);
     }
 
     /**
      * Look up a irAssignableValue recursively up the scope hierarchy
      *
-     * @param stringId the id to lookup in the symbol table hierarchy
+     * @param symbol the id to lookup in the symbol table hierarchy
      * @return Optional.empty if the descriptor is not found else Optional[Descriptor]
      */
-    public Optional<Descriptor> lookup(String stringId) {
+    public Optional<Descriptor> lookup(int symbol) {
         var currentScope = this;
-        while (currentScope != null && !currentScope.containsKey(stringId)) {
+        while (currentScope != null) {
+            final int position = currentScope.positionOf(symbol);
+            if (position >= 0) {
+                return Optional.of(currentScope.descriptors[position]);
+            }
             currentScope = currentScope.parent;
         }
-        if (currentScope == null) {
-            return Optional.empty();
-        } else {
-            return Optional.ofNullable(currentScope.get(stringId));
-        }
+        return Optional.empty();
+    }
+
+    public Optional<Descriptor> lookup(@NotNull String name) {
+        final int symbol = symbols.symbolOf(name);
+        return (symbol == SymbolTable.NO_SYMBOL) ? Optional.empty() : lookup(symbol);
     }
 
-    public Optional<Descriptor> lookupNonMethod(@NotNull String stringId) {
-        return lookup(stringId).filter(descriptor -> !(descriptor instanceof MethodDescriptor));
+    public Optional<Descriptor> lookupNonMethod(int symbol) {
+        return lookup(symbol).filter(descriptor -> !(descriptor instanceof MethodDescriptor));
     }
 
     /**
      * Look up a irAssignableValue recursively up the scope hierarchy to see is there is incorrect shadowing parameter
      *
-     * @param stringId the id to lookup in the symbol table hierarchy
+     * @param symbol the id to lookup in the symbol table hierarchy
      * @return true if there is incorrect shadowing of parameter and false otherwise
      */
-    public boolean isShadowingParameter(String stringId) {
-        Descriptor currentDescriptor = get(stringId);
-        if (parent == null) {
-            return currentDescriptor != null && target == For.Arguments;
-        } else {
-          if (currentDescriptor != null && target == For.Arguments) {
-            return true;
-          } else {
-            return parent.isShadowingParameter(stringId);
-          }
+    public boolean isShadowingParameter(int symbol) {
+        var currentScope = this;
+        while (currentScope != null) {
+            if (currentScope.target == For.Arguments && currentScope.contains(symbol)) {
+                return true;
+            }
+            currentScope = currentScope.parent;
         }
+        return false;
     }
 
     public String toString() {
@@ -135,23 +233,23 @@ public class Scope extends HashMap<String, Descriptor> {
         final var ARRAY_LENGTH = "Array Length";
 
         var maxLengthIds = Stream.concat(Stream.of(IDENTIFIER, "-".repeat(IDENTIFIER.length())),
-                                         keySet().stream().map(Object::toString)
+                                         getNames()
                                         ).map(String::length).reduce(Math::max);
 
         var maxLengthIdsStream = Stream.concat(Stream.of(IDENTIFIER, "-".repeat(IDENTIFIER.length())),
-                                               keySet().stream().map(Object::toString)
+                                               getNames()
                                               );
 
         var ids = maxLengthIdsStream.map(((String s) -> padRight(s, maxLengthIds))).toList();
 
         var maxMethodD = Stream.concat(Stream.of(DESCRIPTOR_CLASSES, "-".repeat(DESCRIPTOR_CLASSES.length())),
-                                       keySet().stream().map(Object::getClass).map(Class::getSimpleName)
+                                       getNames().map(Object::getClass).map(Class::getSimpleName)
                                       ).map(String::length).reduce(Math::max);
         var descriptorTypes = Stream.concat(Stream.of(DESCRIPTOR_CLASSES, "-".repeat(DESCRIPTOR_CLASSES.length())),
-                                            values().stream().map(Object::getClass).map(Class::getSimpleName)
+                                            getDescriptors().stream().map(Object::getClass).map(Class::getSimpleName)
                                            ).map(s -> padRight(s, maxMethodD)).toList();
 
-        var list1 = new ArrayList<>(values());
+        var list1 = getDescriptors();
         var builtins = new ArrayList<String>();
         for (var descriptor1 : list1) {
             Type type = descriptor1.getType();
@@ -196,6 +294,14 @@ public class Scope extends HashMap<String, Descriptor> {
         return String.join("\n", rows);
     }
 
+    private Stream<String> getNames() {
+        return Arrays.stream(declaredSymbols, 0, size).mapToObj(symbols::nameOf);
+    }
+
+    private List<Descriptor> getDescriptors() {
+        return Arrays.asList(descriptors).subList(0, size);
+    }
+
     private enum For {
         Arguments, Field
     }
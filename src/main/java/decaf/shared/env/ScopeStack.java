@@ -0,0 +1,232 @@
+package decaf.shared.env;
+
+import decaf.shared.descriptors.Descriptor;
+import decaf.shared.descriptors.MethodDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The chain of scopes enclosing the point a walk over the program has reached, flattened per symbol.
+ * <p>
+ * Every declaration made through {@link #declare(int, Descriptor)} is added to the innermost {@link Scope} and
+ * pushed onto a binding stack, where it shadows the previous binding of the same symbol until its scope is popped.
+ * The innermost binding of each symbol is kept in an array indexed by symbol id, so a name resolves with one array
+ * access however deeply the scopes nest, instead of a hash lookup per enclosing scope.
+ */
+public class ScopeStack {
+    private static final int NO_BINDING = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // per symbol: the innermost binding, or NO_BINDING
+    private int[] innermostBindings;
+    // per symbol: how many of its bindings are formal arguments
+    private int[] argumentBindings;
+
+    // the binding stack
+    private int[] bindingSymbols;
+    private Descriptor[] bindingDescriptors;
+    private int[] shadowedBindings;
+    private int numBindings;
+
+    // the scope stack, with the first binding of each scope
+    private Scope[] scopes;
+    private boolean[] argumentScopes;
+    private int[] firstBindings;
+    private int depth;
+
+    // the stack this one was forked from, if any
+    @Nullable
+    private ScopeStack globals;
+
+    public ScopeStack(@NotNull Scope globalScope) {
+        final int numSymbols = Math.max(globalScope.symbols.size(), INITIAL_CAPACITY);
+        this.innermostBindings = new int[numSymbols];
+        Arrays.fill(innermostBindings, NO_BINDING);
+        this.argumentBindings = new int[numSymbols];
+        this.bindingSymbols = new int[INITIAL_CAPACITY];
+        this.bindingDescriptors = new Descriptor[INITIAL_CAPACITY];
+        this.shadowedBindings = new int[INITIAL_CAPACITY];
+        this.numBindings = 0;
+        this.scopes = new Scope[INITIAL_CAPACITY];
+        this.argumentScopes = new boolean[INITIAL_CAPACITY];
+        this.firstBindings = new int[INITIAL_CAPACITY];
+        this.depth = 0;
+        push(globalScope, false);
+    }
+
+    /**
+     * @return a new stack at the global scope of this one, seeing none of its global bindings until they are shown
+     * with {@link #showGlobals(int)}, for checking the bodies of methods independently of this stack
+     */
+    public @NotNull ScopeStack fork() {
+        if (depth != 1) {
+            throw new IllegalStateException("can only fork at the global scope");
+        }
+        final var fork = new ScopeStack(scopes[0]);
+        fork.globals = this;
+        return fork;
+    }
+
+    /**
+     * Makes the first {@code numVisibleBindings} global bindings of the stack this one was forked from visible.
+     */
+    public void showGlobals(int numVisibleBindings) {
+        if (globals == null || depth != 1 || numVisibleBindings < numBindings ||
+            numVisibleBindings > globals.numBindings) {
+            throw new IllegalStateException("cannot show " + numVisibleBindings + " global bindings");
+        }
+        while (numBindings < numVisibleBindings) {
+            ensureBindingCapacity();
+            final int symbol = globals.bindingSymbols[numBindings];
+            ensureSymbolCapacity(symbol);
+            bindingSymbols[numBindings] = symbol;
+            bindingDescriptors[numBindings] = globals.bindingDescriptors[numBindings];
+            shadowedBindings[numBindings] = NO_BINDING;
+            innermostBindings[symbol] = numBindings++;
+        }
+    }
+
+    /**
+     * @return the number of bindings currently on the stack; at the global scope, the number of globals declared
+     */
+    public int numBindings() {
+        return numBindings;
+    }
+
+    private void push(@NotNull Scope scope, boolean forArguments) {
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth << 1);
+            argumentScopes = Arrays.copyOf(argumentScopes, depth << 1);
+            firstBindings = Arrays.copyOf(firstBindings, depth << 1);
+        }
+        scopes[depth] = scope;
+        argumentScopes[depth] = forArguments;
+        firstBindings[depth] = numBindings;
+        ++depth;
+    }
+
+    /**
+     * Enters a scope for the formal arguments of a method, whose parent must be the innermost scope.
+     */
+    public void pushArguments(@NotNull Scope scope) {
+        push(scope, true);
+    }
+
+    /**
+     * Enters a scope for a block, whose parent must be the innermost scope.
+     */
+    public void pushBlock(@NotNull Scope scope) {
+        push(scope, false);
+    }
+
+    /**
+     * Leaves the innermost scope, restoring every binding its declarations shadowed.
+     */
+    public void pop() {
+        if (depth == 1) {
+            throw new IllegalStateException("cannot pop the global scope");
+        }
+        --depth;
+        final boolean forArguments = argumentScopes[depth];
+        while (numBindings > firstBindings[depth]) {
+            --numBindings;
+            final int symbol = bindingSymbols[numBindings];
+            innermostBindings[symbol] = shadowedBindings[numBindings];
+            bindingDescriptors[numBindings] = null;
+            if (forArguments) {
+                --argumentBindings[symbol];
+            }
+        }
+        scopes[depth] = null;
+    }
+
+    public @NotNull Scope innermostScope() {
+        return scopes[depth - 1];
+    }
+
+    private void ensureSymbolCapacity(int symbol) {
+        if (symbol >= innermostBindings.length) {
+            final int oldLength = innermostBindings.length;
+            final int newLength = Math.max(symbol + 1, oldLength << 1);
+            innermostBindings = Arrays.copyOf(innermostBindings, newLength);
+            Arrays.fill(innermostBindings, oldLength, newLength, NO_BINDING);
+            argumentBindings = Arrays.copyOf(argumentBindings, newLength);
+        }
+    }
+
+    private void ensureBindingCapacity() {
+        if (numBindings == bindingSymbols.length) {
+            bindingSymbols = Arrays.copyOf(bindingSymbols, numBindings << 1);
+            bindingDescriptors = Arrays.copyOf(bindingDescriptors, numBindings << 1);
+            shadowedBindings = Arrays.copyOf(shadowedBindings, numBindings << 1);
+        }
+    }
+
+    /**
+     * Declares {@code symbol} in the innermost scope, replacing any declaration of it already made there.
+     */
+    public void declare(int symbol, @NotNull Descriptor descriptor) {
+        ensureSymbolCapacity(symbol);
+        innermostScope().addDescriptor(symbol, descriptor);
+        final int innermost = innermostBindings[symbol];
+        if (innermost >= firstBindings[depth - 1]) {
+            bindingDescriptors[innermost] = descriptor;
+            return;
+        }
+        ensureBindingCapacity();
+        bindingSymbols[numBindings] = symbol;
+        bindingDescriptors[numBindings] = descriptor;
+        shadowedBindings[numBindings] = innermost;
+        innermostBindings[symbol] = numBindings++;
+        if (argumentScopes[depth - 1]) {
+            ++argumentBindings[symbol];
+        }
+    }
+
+    /**
+     * @return the descriptor {@code symbol} resolves to in the innermost scope
+     */
+    public Optional<Descriptor> lookup(int symbol) {
+        if (symbol < 0 || symbol >= innermostBindings.length || innermostBindings[symbol] == NO_BINDING) {
+            return Optional.empty();
+        }
+        return Optional.of(bindingDescriptors[innermostBindings[symbol]]);
+    }
+
+    /**
+     * @return the descriptor {@code symbol} resolves to in the global scope, ignoring every local declaration
+     */
+    public Optional<Descriptor> lookupGlobal(int symbol) {
+        if (symbol < 0 || symbol >= innermostBindings.length) {
+            return Optional.empty();
+        }
+        final int numGlobalBindings = (depth > 1) ? firstBindings[1] : numBindings;
+        int binding = innermostBindings[symbol];
+        while (binding >= numGlobalBindings) {
+            binding = shadowedBindings[binding];
+        }
+        return (binding == NO_BINDING) ? Optional.empty() : Optional.of(bindingDescriptors[binding]);
+    }
+
+    public Optional<Descriptor> lookupNonMethod(int symbol) {
+        return lookup(symbol).filter(descriptor -> !(descriptor instanceof MethodDescriptor));
+    }
+
+    /**
+     * @return whether {@code symbol} is declared in the innermost scope itself
+     */
+    public boolean isDeclaredInInnermostScope(int symbol) {
+        return symbol >= 0 && symbol < innermostBindings.length &&
+               innermostBindings[symbol] >= firstBindings[depth - 1];
+    }
+
+    /**
+     * @return whether {@code symbol} is a formal argument of an enclosing method, whether shadowed or not
+     */
+    public boolean isShadowingParameter(int symbol) {
+        return symbol >= 0 && symbol < argumentBindings.length && argumentBindings[symbol] > 0;
+    }
+}
@@ -0,0 +1,127 @@
+package decaf.shared.env;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Maps every identifier of a compilation to a dense int symbol id, starting at 0.
+ * <p>
+ * Identifiers are interned straight out of the source as they are scanned, so each distinct name is copied into a
+ * {@link String} once, however often it occurs. Scopes, descriptors and the IR key on the ids, which turns name
+ * resolution into int comparisons.
+ */
+public class SymbolTable {
+    public static final int NO_SYMBOL = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // open addressing table of symbol id + 1, 0 marks an empty slot
+    private int[] slots;
+    private int[] hashes;
+    private String[] names;
+    private int size;
+
+    public SymbolTable() {
+        this.slots = new int[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.names = new String[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    private static int hashOf(@NotNull CharSequence source, int offset, int length) {
+        // same as String.hashCode, so that interning a String and a slice of the source agree
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean nameEquals(int symbol, @NotNull CharSequence source, int offset, int length) {
+        final String name = names[symbol];
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != source.charAt(offset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int find(int hash, @NotNull CharSequence source, int offset, int length) {
+        final int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        while (slots[slot] != 0) {
+            final int symbol = slots[slot] - 1;
+            if (hashes[symbol] == hash && nameEquals(symbol, source, offset, length)) {
+                return symbol;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -(slot + 1);
+    }
+
+    /**
+     * @return the symbol id of {@code source[offset, offset + length)}, adding it to the table if it is new
+     */
+    public int intern(@NotNull CharSequence source, int offset, int length) {
+        final int hash = hashOf(source, offset, length);
+        final int found = find(hash, source, offset, length);
+        if (found >= 0) {
+            return found;
+        }
+        final int symbol = size++;
+        if (symbol == names.length) {
+            names = Arrays.copyOf(names, symbol << 1);
+            hashes = Arrays.copyOf(hashes, symbol << 1);
+        }
+        names[symbol] = source.subSequence(offset, offset + length).toString();
+        hashes[symbol] = hash;
+        slots[-found - 1] = symbol + 1;
+        if (size << 1 > slots.length) {
+            rehash();
+        }
+        return symbol;
+    }
+
+    public int intern(@NotNull String name) {
+        return intern(name, 0, name.length());
+    }
+
+    /**
+     * @return the symbol id of {@code name}, or {@link #NO_SYMBOL} if it has never been interned
+     */
+    public int symbolOf(@NotNull String name) {
+        final int found = find(name.hashCode(), name, 0, name.length());
+        return (found >= 0) ? found : NO_SYMBOL;
+    }
+
+    public @NotNull String nameOf(int symbol) {
+        if (symbol < 0 || symbol >= size) {
+            throw new IllegalArgumentException("unknown symbol " + symbol);
+        }
+        return names[symbol];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length << 1];
+        final int mask = slots.length - 1;
+        for (int symbol = 0; symbol < size; symbol++) {
+            int slot = mix(hashes[symbol]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = symbol + 1;
+        }
+    }
+}
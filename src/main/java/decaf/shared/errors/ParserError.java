@@ -5,16 +5,28 @@ import decaf.analysis.TokenPosition;
 
 public class ParserError implements Error<ParserError.ErrorType> {
   private final ErrorType errorType;
-  private final Token token;
+  private final TokenPosition tokenPosition;
   private final String detail;
 
   public ParserError(
       ErrorType errorType,
       Token token,
       String detail
+  ) {
+    this(
+        errorType,
+        token.getTokenPosition(),
+        detail
+    );
+  }
+
+  public ParserError(
+      ErrorType errorType,
+      TokenPosition tokenPosition,
+      String detail
   ) {
     this.errorType = errorType;
-    this.token = token;
+    this.tokenPosition = tokenPosition;
     this.detail = detail;
   }
 
@@ -48,7 +60,7 @@ public class ParserError implements Error<ParserError.ErrorType> {
 
   @Override
   public TokenPosition tokenPosition() {
-    return token.getTokenPosition();
+    return tokenPosition;
   }
 
   @Override
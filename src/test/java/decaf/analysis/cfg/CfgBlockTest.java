@@ -0,0 +1,72 @@
+package decaf.analysis.cfg;
+
+import decaf.analysis.syntax.ast.Statement;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static decaf.analysis.cfg.CfgTestUtil.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CfgBlockTest {
+  private static final String SOURCE = """
+      void main() {
+        int x, y;
+        x = 1;
+        y = 2;
+        while (x < 10) {
+          x = x + y;
+        }
+        y = x;
+      }
+      """;
+
+  /**
+   * Checks that {@code edit} of a block of a cfg is seen by the analyses of the cfg built after it
+   */
+  private static void assertEditInvalidatesAnalyses(Consumer<CfgBlock> edit) {
+    var cfg = buildMainCfg(SOURCE);
+    var cfgBlock = blockContaining(cfg, "x = 1");
+    var denseCfg = cfg.getDenseCfg();
+    var dominators = cfg.getDominators();
+    var loopForest = cfg.getLoopForest();
+    var statements = List.copyOf(cfgBlock);
+
+    edit.accept(cfgBlock);
+    assertNotEquals(statements, List.copyOf(cfgBlock), "the edit should change the block");
+    assertNotSame(denseCfg, cfg.getDenseCfg());
+    assertNotSame(dominators, cfg.getDominators());
+    assertNotSame(loopForest, cfg.getLoopForest());
+    var block = cfg.getDenseCfg().indexOf(cfgBlock);
+    assertEquals(cfgBlock.size(), cfg.getDenseCfg().statementCount(block));
+    for (int i = 0; i < cfgBlock.size(); i++) {
+      assertSame(cfgBlock.get(i), cfg.getDenseCfg().statement(block, i));
+    }
+  }
+
+  @Test
+  public void everyKindOfEditInvalidatesTheAnalyses() {
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.remove(0));
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.remove(cfgBlock.get(0)));
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.add(cfgBlock.get(0)));
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.add(0, cfgBlock.get(1)));
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.set(0, cfgBlock.get(1)));
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.addAll(List.copyOf(cfgBlock)));
+    assertEditInvalidatesAnalyses(CfgBlock::clear);
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.removeIf(statement -> statement == cfgBlock.get(0)));
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.removeAll(List.of(cfgBlock.get(0))));
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.retainAll(List.of(cfgBlock.get(0))));
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.replaceAll(statement -> cfgBlock.get(0)));
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.sort(Comparator.comparing(Statement::getSourceCode)
+                                                                      .reversed()));
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.subList(0, 1).clear());
+    assertEditInvalidatesAnalyses(cfgBlock -> {
+      var iterator = cfgBlock.iterator();
+      iterator.next();
+      iterator.remove();
+    });
+    assertEditInvalidatesAnalyses(cfgBlock -> cfgBlock.listIterator().add(cfgBlock.get(1)));
+  }
+}
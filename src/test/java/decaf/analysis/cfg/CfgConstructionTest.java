@@ -0,0 +1,193 @@
+package decaf.analysis.cfg;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static decaf.analysis.cfg.CfgTestUtil.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CfgConstructionTest {
+  @Test
+  public void whileLoopDoesNotRerunThePrecedingStatements() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int x;
+          x = 1;
+          while (x < 10) {
+            x = x + 1;
+          }
+        }
+        """);
+    assertFalse(isOnCycle(blockContaining(cfg, "x = 1")));
+    assertTrue(isOnCycle(blockContaining(cfg, "x = x + 1")));
+  }
+
+  @Test
+  public void forLoopDoesNotRerunItsInitialization() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int i, x;
+          x = 0;
+          for (i = 0; i < 10; i++) {
+            x = x + i;
+          }
+        }
+        """);
+    assertFalse(isOnCycle(blockContaining(cfg, "x = 0")));
+    assertFalse(isOnCycle(blockContaining(cfg, "i = 0")));
+    assertTrue(isOnCycle(blockContaining(cfg, "i++")));
+  }
+
+  @Test
+  public void continueInForLoopRunsTheUpdate() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int i, x;
+          x = 0;
+          for (i = 0; i < 10; i++) {
+            if (i == 5) {
+              continue;
+            }
+            x = x + i;
+          }
+        }
+        """);
+    var update = blockContaining(cfg, "i++");
+    var body = blockContaining(cfg, "x = x + i");
+    // with the update taken out of the graph, the loop has no cycle left, the continue included
+    assertTrue(isOnCycle(body));
+    assertFalse(reachableFrom(body.getSuccessors(), update).contains(body));
+    for (var cfgBlock : blocks(cfg)) {
+      if (cfgBlock != update) {
+        assertFalse(reachableFrom(cfgBlock.getSuccessors(), update).contains(cfgBlock));
+      }
+    }
+  }
+
+  @Test
+  public void shortCircuitConditionKeepsThePrecedingStatements() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int x;
+          bool a, b;
+          a = true;
+          b = false;
+          x = 5;
+          if (a && b) {
+            x = 6;
+          }
+          x = 7;
+        }
+        """);
+    var assignment = blockContaining(cfg, "x = 5");
+    var thenBlock = blockContaining(cfg, "x = 6");
+    // the assignment still runs before the condition is tested
+    assertTrue(reachableFrom(assignment.getSuccessors(), null).contains(thenBlock));
+    assertFalse(reachableFrom(List.of(cfg.getEntryBlock()), assignment).contains(thenBlock));
+  }
+
+  @Test
+  public void negatedShortCircuitConditionBranchesOnTheOperandsThemselves() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int x;
+          bool a, b, c;
+          a = true;
+          b = false;
+          c = true;
+          x = 5;
+          if (!(a && (b || !c))) {
+            x = 6;
+          } else {
+            x = 8;
+          }
+        }
+        """);
+    var thenBlock = blockContaining(cfg, "x = 6");
+    var elseBlock = blockContaining(cfg, "x = 8");
+    for (var cfgBlock : blocks(cfg)) {
+      if (cfgBlock.hasBranch()) {
+        var condition = cfgBlock.getBranchCondition().getSourceCode();
+        assertTrue(List.of("a", "b", "c").contains(condition), "the branch on `" + condition + "` is negated");
+      }
+    }
+    for (int values = 0; values < 8; values++) {
+      boolean a = (values & 1) != 0, b = (values & 2) != 0, c = (values & 4) != 0;
+      var cfgBlock = blockContaining(cfg, "x = 5");
+      while (cfgBlock != thenBlock && cfgBlock != elseBlock) {
+        if (cfgBlock.hasBranch()) {
+          boolean holds = switch (cfgBlock.getBranchCondition().getSourceCode()) {
+            case "a" -> a;
+            case "b" -> b;
+            default -> c;
+          };
+          cfgBlock = holds ? cfgBlock.getSuccessorOrThrow() : cfgBlock.getAlternateSuccessorOrThrow();
+        } else {
+          cfgBlock = cfgBlock.getSuccessorOrThrow();
+        }
+      }
+      assertEquals(!(a && (b || !c)), cfgBlock == thenBlock, "a=" + a + " b=" + b + " c=" + c);
+    }
+  }
+
+  @Test
+  public void pruningAnEmptyBranchKeepsTheBranchTargetsInPlace() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int x;
+          bool a;
+          a = true;
+          x = 0;
+          if (a) {
+          } else {
+            x = 2;
+          }
+          x = 3;
+        }
+        """);
+    var elseBlock = blockContaining(cfg, "x = 2");
+    var branchBlock = blocks(cfg).stream()
+                                 .filter(CfgBlock::hasBranch)
+                                 .findFirst()
+                                 .orElseGet(() -> fail("the if statement should leave a branch"));
+    var whenTrue = reachableFrom(List.of(branchBlock.getSuccessorOrThrow()), null);
+    var whenFalse = reachableFrom(List.of(branchBlock.getAlternateSuccessorOrThrow()), null);
+    assertFalse(whenTrue.contains(elseBlock));
+    assertTrue(whenFalse.contains(elseBlock));
+  }
+
+  @Test
+  public void pruningKeepsEveryPredecessorOfAReplacedBlock() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int x;
+          bool a, b;
+          a = true;
+          b = false;
+          x = 0;
+          if (a) {
+            if (b) {
+              x = 1;
+            }
+          } else {
+            x = 2;
+          }
+          x = 3;
+        }
+        """);
+    var join = blockContaining(cfg, "x = 3");
+    for (var cfgBlock : blocks(cfg)) {
+      for (var successor : cfgBlock.getSuccessors()) {
+        assertTrue(successor.getPredecessors().contains(cfgBlock),
+                   "block " + successor.getBlockId() + " lost predecessor " + cfgBlock.getBlockId());
+      }
+      for (var predecessor : cfgBlock.getPredecessors()) {
+        assertTrue(predecessor.getSuccessors().contains(cfgBlock),
+                   "block " + predecessor.getBlockId() + " does not jump to " + cfgBlock.getBlockId());
+      }
+    }
+    assertTrue(reachableFrom(List.of(blockContaining(cfg, "x = 1")), null).contains(join));
+    assertTrue(reachableFrom(List.of(blockContaining(cfg, "x = 2")), null).contains(join));
+  }
+}
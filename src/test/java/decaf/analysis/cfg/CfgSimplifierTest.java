@@ -0,0 +1,126 @@
+package decaf.analysis.cfg;
+
+import org.junit.jupiter.api.Test;
+
+import static decaf.analysis.cfg.CfgTestUtil.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CfgSimplifierTest {
+  private static void assertFullySimplified(Cfg cfg) {
+    var reachable = blocks(cfg);
+    assertTrue(reachable.contains(cfg.getExitBlock()), "the exit should stay reachable");
+    assertTrue(cfg.getExitBlock().getSuccessors().isEmpty(), "the exit should not jump anywhere");
+    for (var cfgBlock : reachable) {
+      for (var predecessor : cfgBlock.getPredecessors()) {
+        assertTrue(reachable.contains(predecessor), "unreachable predecessor of " + cfgBlock);
+      }
+      if (cfgBlock.getSuccessors().size() == 1) {
+        var successor = cfgBlock.getSoleSuccessor();
+        assertFalse(successor != cfg.getEntryBlock() &&
+                    successor.hasOnlyOnePredecessor() &&
+                    !successor.getSuccessors().contains(cfgBlock),
+                    cfgBlock + " should have been merged with " + successor);
+        assertFalse(cfgBlock != cfg.getEntryBlock() && cfgBlock != cfg.getExitBlock() && cfgBlock.isEmpty() &&
+                    cfgBlock.getPredecessors().stream().anyMatch(predecessor -> !predecessor.getSuccessors().contains(successor)),
+                    "jumps through the empty " + cfgBlock + " should have been threaded");
+      }
+    }
+  }
+
+  @Test
+  public void straightLineCodeEndsUpInOneBlock() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int x;
+          x = 1;
+          x = x + 2;
+          x = x * 3;
+        }
+        """);
+    assertFullySimplified(cfg);
+    assertEquals(1, blocks(cfg).size());
+    assertSame(cfg.getEntryBlock(), cfg.getExitBlock());
+  }
+
+  @Test
+  public void constantBranchBecomesAJump() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int x;
+          if (true) {
+            x = 1;
+          } else {
+            x = 2;
+          }
+          x = 3;
+        }
+        """);
+    assertFullySimplified(cfg);
+    assertTrue(blocks(cfg).stream().noneMatch(CfgBlock::hasBranch));
+    assertTrue(findBlockContaining(cfg, "x = 2").isEmpty());
+    assertSame(blockContaining(cfg, "x = 1"), blockContaining(cfg, "x = 3"));
+  }
+
+  @Test
+  public void codeBehindAFalseConditionIsDropped() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int x;
+          x = 0;
+          while (false) {
+            x = 1;
+          }
+          x = 2;
+        }
+        """);
+    assertFullySimplified(cfg);
+    assertTrue(findBlockContaining(cfg, "x = 1").isEmpty());
+    assertEquals(1, blocks(cfg).size());
+  }
+
+  @Test
+  public void branchesAndLoopsSurvive() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int x, y;
+          x = 0;
+          y = 0;
+          while (x < 10) {
+            if (x > 5) {
+              y = y + x;
+            }
+            x = x + 1;
+          }
+          y = y * 2;
+        }
+        """);
+    assertFullySimplified(cfg);
+    assertTrue(isOnCycle(blockContaining(cfg, "x = x + 1")));
+    assertTrue(isOnCycle(blockContaining(cfg, "y = y + x")));
+    assertFalse(isOnCycle(blockContaining(cfg, "y = y * 2")));
+    assertFalse(isOnCycle(blockContaining(cfg, "y = 0")));
+    assertEquals(2, blocks(cfg).stream().filter(CfgBlock::hasBranch).count());
+  }
+
+  @Test
+  public void shortCircuitConditionsStayIntact() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int x;
+          bool a, b, c;
+          a = true;
+          b = false;
+          c = a;
+          x = 0;
+          if (a && b || c) {
+            x = 1;
+          } else {
+            x = 2;
+          }
+        }
+        """);
+    assertFullySimplified(cfg);
+    assertEquals(3, blocks(cfg).stream().filter(CfgBlock::hasBranch).count());
+    assertNotSame(blockContaining(cfg, "x = 1"), blockContaining(cfg, "x = 2"));
+  }
+}
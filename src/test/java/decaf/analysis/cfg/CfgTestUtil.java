@@ -0,0 +1,99 @@
+package decaf.analysis.cfg;
+
+import decaf.shared.CompilationContext;
+import decaf.shared.CompilationTestUtil;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+class CfgTestUtil {
+  static CompilationContext buildCfgs(String sourceCode) {
+    var context = CompilationTestUtil.checked(sourceCode);
+    Cfg.build(context);
+    return context;
+  }
+
+  static Cfg buildMainCfg(String sourceCode) {
+    return buildCfgs(sourceCode).getCfg("main");
+  }
+
+  /**
+   * @return the blocks reachable from {@code roots} without going through {@code excluded}, which may be null
+   */
+  static Set<CfgBlock> reachableFrom(Collection<CfgBlock> roots, CfgBlock excluded) {
+    var visited = new LinkedHashSet<CfgBlock>();
+    var stack = new ArrayDeque<CfgBlock>();
+    for (var root : roots) {
+      if (root != excluded) stack.push(root);
+    }
+    while (!stack.isEmpty()) {
+      var cfgBlock = stack.pop();
+      if (visited.add(cfgBlock)) {
+        for (var successor : cfgBlock.getSuccessors()) {
+          if (successor != excluded) stack.push(successor);
+        }
+      }
+    }
+    return visited;
+  }
+
+  static Set<CfgBlock> blocks(Cfg cfg) {
+    return reachableFrom(List.of(cfg.getEntryBlock()), null);
+  }
+
+  static Optional<CfgBlock> findBlockContaining(Cfg cfg, String sourceCode) {
+    for (var cfgBlock : blocks(cfg)) {
+      for (var statement : cfgBlock) {
+        // the printed source spaces tokens out, as in `i ++`
+        if (statement.getSourceCode().replace(" ", "").equals(sourceCode.replace(" ", ""))) {
+          return Optional.of(cfgBlock);
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  static CfgBlock blockContaining(Cfg cfg, String sourceCode) {
+    return findBlockContaining(cfg, sourceCode).orElseGet(() -> fail("no block contains `" + sourceCode + "`"));
+  }
+
+  static boolean isOnCycle(CfgBlock cfgBlock) {
+    return reachableFrom(cfgBlock.getSuccessors(), null).contains(cfgBlock);
+  }
+
+  /**
+   * @return the blocks of a graph with an edge from block {@code i} to each block in {@code successors[i]}, with block
+   * 0 as the entry
+   */
+  static CfgBlock[] graph(int[]... successors) {
+    var cfgBlocks = new CfgBlock[successors.length];
+    for (int i = 0; i < cfgBlocks.length; i++) {
+      cfgBlocks[i] = new CfgBlock(null, i);
+    }
+    for (int i = 0; i < cfgBlocks.length; i++) {
+      for (int successor : successors[i]) {
+        cfgBlocks[i].linkToSuccessor(cfgBlocks[successor]);
+      }
+    }
+    return cfgBlocks;
+  }
+
+  /**
+   * @return a graph of {@code numBlocks} blocks with up to two random successors each, so with arbitrary loops, some
+   * irreducible, and some blocks unreachable from the entry
+   */
+  static CfgBlock[] randomGraph(Random random, int numBlocks) {
+    var successors = new int[numBlocks][];
+    for (int i = 0; i < numBlocks; i++) {
+      var blockSuccessors = new LinkedHashSet<Integer>();
+      int numSuccessors = random.nextInt(3);
+      for (int j = 0; j < numSuccessors; j++) {
+        int successor = random.nextInt(numBlocks);
+        if (successor != i) blockSuccessors.add(successor);
+      }
+      successors[i] = blockSuccessors.stream().mapToInt(Integer::intValue).toArray();
+    }
+    return graph(successors);
+  }
+}
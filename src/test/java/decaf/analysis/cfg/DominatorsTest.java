@@ -0,0 +1,161 @@
+package decaf.analysis.cfg;
+
+import decaf.ir.IrBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static decaf.analysis.cfg.CfgTestUtil.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DominatorsTest {
+  private static final String PROGRAM = """
+      void main() {
+        int i, j, x;
+        bool a, b;
+        x = 0;
+        a = true;
+        b = false;
+        for (i = 0; i < 10; i++) {
+          j = 0;
+          while (j < i) {
+            if (a && (x > 3 || b)) {
+              break;
+            }
+            if (x == 7) {
+              continue;
+            }
+            x = x + j;
+            j = j + 1;
+          }
+        }
+      }
+      """;
+
+  /**
+   * @return whether {@code block} can be reached from the entry without going through {@code excluded}
+   */
+  private static boolean isReachableAvoiding(FlowGraph graph, int block, int excluded) {
+    if (excluded == graph.entry()) {
+      return false;
+    }
+    var seen = new boolean[graph.numBlocks()];
+    var toVisit = new ArrayDeque<Integer>();
+    seen[graph.entry()] = true;
+    toVisit.push(graph.entry());
+    while (!toVisit.isEmpty()) {
+      int current = toVisit.pop();
+      if (current == block) {
+        return true;
+      }
+      for (int i = 0; i < graph.successorCount(current); i++) {
+        int successor = graph.successor(current, i);
+        if (successor != excluded && !seen[successor]) {
+          seen[successor] = true;
+          toVisit.push(successor);
+        }
+      }
+    }
+    return false;
+  }
+
+  private static TreeSet<Integer> frontierOf(Dominators<?> dominators, int block) {
+    var frontier = new TreeSet<Integer>();
+    for (int i = 0; i < dominators.frontierCount(block); i++) {
+      frontier.add(dominators.frontier(block, i));
+    }
+    return frontier;
+  }
+
+  /**
+   * Checks {@code dominators} against the definitions of dominance and of the dominance frontier
+   */
+  private static void assertMatchesDefinitions(Dominators<?> dominators) {
+    var graph = dominators.getGraph();
+    int numBlocks = graph.numBlocks();
+    for (int dominator = 0; dominator < numBlocks; dominator++) {
+      var frontier = new TreeSet<Integer>();
+      for (int block = 0; block < numBlocks; block++) {
+        boolean dominates = dominator == block || !isReachableAvoiding(graph, block, dominator);
+        assertEquals(dominates, dominators.dominates(dominator, block), dominator + " dominates " + block);
+        for (int i = 0; i < graph.predecessorCount(block); i++) {
+          if (dominators.dominates(dominator, graph.predecessor(block, i)) &&
+              !dominators.strictlyDominates(dominator, block)) {
+            frontier.add(block);
+          }
+        }
+      }
+      assertEquals(frontier, frontierOf(dominators, dominator), "the dominance frontier of " + dominator);
+    }
+  }
+
+  private static void assertSameDominators(Dominators<?> expected, Dominators<?> actual) {
+    int numBlocks = expected.getGraph().numBlocks();
+    assertEquals(numBlocks, actual.getGraph().numBlocks());
+    for (int block = 0; block < numBlocks; block++) {
+      assertEquals(expected.immediateDominator(block), actual.immediateDominator(block), "the immediate dominator of " + block);
+      assertEquals(frontierOf(expected, block), frontierOf(actual, block), "the dominance frontier of " + block);
+    }
+  }
+
+  @Test
+  public void lengauerTarjanAgreesWithCooperHarveyKennedyOnRandomGraphs() {
+    for (int seed = 0; seed < 300; seed++) {
+      var random = new Random(seed);
+      var cfgBlocks = randomGraph(random, 1 + random.nextInt(40));
+      var denseCfg = DenseCfg.of(cfgBlocks[0], null);
+      var cooperHarveyKennedy = Dominators.cooperHarveyKennedy(denseCfg);
+      assertMatchesDefinitions(cooperHarveyKennedy);
+      assertSameDominators(cooperHarveyKennedy, Dominators.lengauerTarjan(denseCfg));
+    }
+  }
+
+  @Test
+  public void lengauerTarjanAgreesWithCooperHarveyKennedyOnLargeGraphs() {
+    for (int seed = 0; seed < 5; seed++) {
+      var cfgBlocks = randomGraph(new Random(seed), 5_000);
+      var denseCfg = DenseCfg.of(cfgBlocks[0], null);
+      assertSameDominators(Dominators.cooperHarveyKennedy(denseCfg), Dominators.lengauerTarjan(denseCfg));
+    }
+  }
+
+  @Test
+  public void irreducibleLoopIsDominatedOnlyByItsEntry() {
+    // 0 branches into both 1 and 2, which jump to each other, so neither dominates the other
+    var cfgBlocks = graph(new int[]{1, 2}, new int[]{2, 3}, new int[]{1}, new int[]{});
+    var denseCfg = DenseCfg.of(cfgBlocks[0], cfgBlocks[3]);
+    for (var dominators : List.of(Dominators.cooperHarveyKennedy(denseCfg), Dominators.lengauerTarjan(denseCfg))) {
+      assertMatchesDefinitions(dominators);
+      int first = denseCfg.indexOf(cfgBlocks[1]);
+      int second = denseCfg.indexOf(cfgBlocks[2]);
+      assertEquals(denseCfg.entry(), dominators.immediateDominator(first));
+      assertEquals(denseCfg.entry(), dominators.immediateDominator(second));
+      assertEquals(first, dominators.immediateDominator(denseCfg.indexOf(cfgBlocks[3])));
+    }
+  }
+
+  @Test
+  public void lengauerTarjanAgreesWithCooperHarveyKennedyOnAProgram() {
+    var denseCfg = buildMainCfg(PROGRAM).getDenseCfg();
+    var cooperHarveyKennedy = Dominators.cooperHarveyKennedy(denseCfg);
+    assertMatchesDefinitions(cooperHarveyKennedy);
+    assertSameDominators(cooperHarveyKennedy, Dominators.lengauerTarjan(denseCfg));
+  }
+
+  @Test
+  public void dominatorsOfAnIrFunctionMatchTheDefinitions() {
+    var irFunction = IrBuilder.build(buildCfgs(PROGRAM))
+                              .getFunctionDefinitions()
+                              .stream()
+                              .filter(function -> function.getFunctionName().equals("main"))
+                              .findFirst()
+                              .orElseThrow();
+    assertSame(irFunction.getEntryBlock(), irFunction.block(irFunction.entry()));
+    var cooperHarveyKennedy = Dominators.cooperHarveyKennedy(irFunction);
+    assertMatchesDefinitions(cooperHarveyKennedy);
+    assertSameDominators(cooperHarveyKennedy, Dominators.lengauerTarjan(irFunction));
+  }
+}
@@ -0,0 +1,216 @@
+package decaf.analysis.cfg;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static decaf.analysis.cfg.CfgTestUtil.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoopForestTest {
+  private static LoopForest loopForestOf(CfgBlock[] cfgBlocks) {
+    return LoopForest.of(Dominators.of(DenseCfg.of(cfgBlocks[0], null)));
+  }
+
+  /**
+   * @return the natural loop of {@code header}: the header, and every block which reaches one of its back edges
+   * without going through it
+   */
+  private static TreeSet<Integer> naturalLoopOf(Dominators<DenseCfg> dominators, int header) {
+    var denseCfg = dominators.getGraph();
+    var body = new TreeSet<Integer>();
+    body.add(header);
+    var toVisit = new ArrayDeque<Integer>();
+    for (int i = 0; i < denseCfg.predecessorCount(header); i++) {
+      int predecessor = denseCfg.predecessor(header, i);
+      if (dominators.dominates(header, predecessor)) {
+        toVisit.push(predecessor);
+      }
+    }
+    while (!toVisit.isEmpty()) {
+      int block = toVisit.pop();
+      if (body.add(block)) {
+        for (int i = 0; i < denseCfg.predecessorCount(block); i++) {
+          toVisit.push(denseCfg.predecessor(block, i));
+        }
+      }
+    }
+    return body;
+  }
+
+  /**
+   * Checks {@code loopForest} against loops found from their definitions, one header at a time
+   */
+  private static void assertMatchesDefinitions(LoopForest loopForest) {
+    var dominators = loopForest.getDominators();
+    var denseCfg = dominators.getGraph();
+    int numBlocks = denseCfg.numBlocks();
+    var bodies = new ArrayList<TreeSet<Integer>>();
+    for (int block = 0; block < numBlocks; block++) {
+      if (isBackEdgeTarget(dominators, block)) {
+        bodies.add(naturalLoopOf(dominators, block));
+      }
+    }
+    assertEquals(bodies.size(), loopForest.numLoops());
+
+    for (int loop = 0; loop < bodies.size(); loop++) {
+      var body = bodies.get(loop);
+      int header = body.first();
+      assertEquals(header, loopForest.header(loop));
+      assertTrue(loopForest.isHeader(header));
+      for (int block = 0; block < numBlocks; block++) {
+        assertEquals(body.contains(block), loopForest.contains(loop, block), "loop " + loop + " contains " + block);
+      }
+      var enclosing = enclosingLoops(bodies, header);
+      assertEquals(enclosing.size(), loopForest.depth(loop), "the depth of loop " + loop);
+      assertEquals(enclosing.size() > 1 ? enclosing.get(enclosing.size() - 2) : -1, loopForest.parent(loop));
+
+      var latches = new TreeSet<Integer>();
+      for (int i = 0; i < denseCfg.predecessorCount(header); i++) {
+        if (body.contains(denseCfg.predecessor(header, i))) {
+          latches.add(denseCfg.predecessor(header, i));
+        }
+      }
+      var foundLatches = new TreeSet<Integer>();
+      for (int i = 0; i < loopForest.latchCount(loop); i++) {
+        foundLatches.add(loopForest.latch(loop, i));
+      }
+      assertEquals(latches, foundLatches, "the latches of loop " + loop);
+
+      var exits = new TreeSet<Integer>();
+      for (int block : body) {
+        for (int i = 0; i < denseCfg.successorCount(block); i++) {
+          if (!body.contains(denseCfg.successor(block, i))) {
+            exits.add(denseCfg.successor(block, i));
+          }
+        }
+      }
+      var foundExits = new TreeSet<Integer>();
+      for (int i = 0; i < loopForest.exitCount(loop); i++) {
+        assertTrue(foundExits.add(loopForest.exit(loop, i)), "exits are not repeated");
+      }
+      assertEquals(exits, foundExits, "the exits of loop " + loop);
+    }
+
+    for (int block = 0; block < numBlocks; block++) {
+      var enclosing = enclosingLoops(bodies, block);
+      assertEquals(enclosing.size(), loopForest.loopDepth(block), "the loop depth of " + block);
+      assertEquals(enclosing.isEmpty() ? -1 : enclosing.get(enclosing.size() - 1), loopForest.loopOf(block));
+    }
+  }
+
+  private static boolean isBackEdgeTarget(Dominators<DenseCfg> dominators, int block) {
+    var denseCfg = dominators.getGraph();
+    for (int i = 0; i < denseCfg.predecessorCount(block); i++) {
+      if (dominators.dominates(block, denseCfg.predecessor(block, i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the loops containing {@code block} from the outermost in, which are ordered by header as they nest
+   */
+  private static List<Integer> enclosingLoops(List<TreeSet<Integer>> bodies, int block) {
+    var enclosing = new ArrayList<Integer>();
+    for (int loop = 0; loop < bodies.size(); loop++) {
+      if (bodies.get(loop).contains(block)) {
+        enclosing.add(loop);
+      }
+    }
+    return enclosing;
+  }
+
+  @Test
+  public void nestedLoopsOfAProgram() {
+    var cfg = buildMainCfg("""
+        void main() {
+          int i, j, x;
+          x = 0;
+          for (i = 0; i < 10; i++) {
+            j = 0;
+            while (j < i) {
+              if (x == 7) {
+                continue;
+              }
+              x = x + j;
+              j = j + 1;
+            }
+            x = x - 1;
+          }
+          x = 5;
+        }
+        """);
+    var loopForest = cfg.getLoopForest();
+    assertMatchesDefinitions(loopForest);
+    assertEquals(2, loopForest.numLoops());
+    assertEquals(1, loopForest.depth(0));
+    assertEquals(-1, loopForest.parent(0));
+    assertEquals(2, loopForest.depth(1));
+    assertEquals(0, loopForest.parent(1));
+    assertEquals(0, loopForest.loopDepth(blockContaining(cfg, "x = 0")));
+    assertEquals(0, loopForest.loopDepth(blockContaining(cfg, "x = 5")));
+    assertEquals(1, loopForest.loopDepth(blockContaining(cfg, "x = x - 1")));
+    assertEquals(2, loopForest.loopDepth(blockContaining(cfg, "x = x + j")));
+    assertEquals(2, loopForest.latchCount(1), "the continue adds a second latch to the inner loop");
+  }
+
+  @Test
+  public void irreducibleCycleIsNotALoop() {
+    // 0 branches into both 1 and 2, which jump to each other, so neither dominates the other
+    var loopForest = loopForestOf(graph(new int[]{1, 2}, new int[]{2, 3}, new int[]{1}, new int[]{}));
+    assertMatchesDefinitions(loopForest);
+    assertEquals(0, loopForest.numLoops());
+    for (int block = 0; block < 4; block++) {
+      assertEquals(0, loopForest.loopDepth(block));
+    }
+  }
+
+  @Test
+  public void irreducibleCycleInsideALoopBelongsToThatLoop() {
+    // 1 heads a loop closed by 4, inside which 1 branches into both 2 and 3, which jump to each other
+    var cfgBlocks = graph(new int[]{1},
+                          new int[]{2, 3},
+                          new int[]{3, 4},
+                          new int[]{2, 4},
+                          new int[]{1, 5},
+                          new int[]{});
+    var loopForest = loopForestOf(cfgBlocks);
+    var denseCfg = loopForest.getDominators().getGraph();
+    assertMatchesDefinitions(loopForest);
+    assertEquals(1, loopForest.numLoops());
+    assertEquals(denseCfg.indexOf(cfgBlocks[1]), loopForest.header(0));
+    assertEquals(denseCfg.indexOf(cfgBlocks[0]), loopForest.preheader(0));
+    for (int i = 1; i <= 4; i++) {
+      assertEquals(1, loopForest.loopDepth(cfgBlocks[i]));
+    }
+    assertEquals(0, loopForest.loopDepth(cfgBlocks[5]));
+    assertEquals(1, loopForest.exitCount(0));
+    assertEquals(denseCfg.indexOf(cfgBlocks[5]), loopForest.exit(0, 0));
+  }
+
+  @Test
+  public void loopsSharingAHeaderAreOneLoop() {
+    // 1 heads a loop with the two latches 2 and 3, and 3 heads a loop of its own nested inside it
+    var cfgBlocks = graph(new int[]{1}, new int[]{2, 4}, new int[]{1, 3}, new int[]{1, 5}, new int[]{}, new int[]{3});
+    var loopForest = loopForestOf(cfgBlocks);
+    assertMatchesDefinitions(loopForest);
+    assertEquals(2, loopForest.numLoops());
+    assertEquals(2, loopForest.latchCount(0));
+    assertEquals(2, loopForest.loopDepth(cfgBlocks[5]));
+    assertEquals(0, loopForest.parent(1));
+  }
+
+  @Test
+  public void randomGraphsMatchTheDefinitions() {
+    for (int seed = 0; seed < 300; seed++) {
+      var random = new Random(seed);
+      assertMatchesDefinitions(loopForestOf(randomGraph(random, 1 + random.nextInt(40))));
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package decaf.analysis.lexical;
+
+import decaf.analysis.Token;
+import decaf.analysis.TokenBuffer;
+import decaf.shared.CompilationContext;
+import decaf.shared.CompilationTestUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScannerIntLiteralTest {
+  // the magnitude of a literal whose value is above 2^63, at which the scanner stops counting
+  private static final long SATURATED = -1L;
+
+  private static TokenBuffer tokenize(String sourceCode) {
+    return new Scanner(CompilationContext.fromSourceCode(sourceCode)).tokenize();
+  }
+
+  private static long magnitudeOf(String literal) {
+    var tokens = tokenize(literal);
+    assertEquals(Token.Type.INT_LITERAL, tokens.type(0));
+    assertEquals(literal, tokens.lexeme(0), "the whole of `" + literal + "` should be one token");
+    return tokens.literalMagnitude(0);
+  }
+
+  private static boolean isAcceptedAsValue(String literal) {
+    return !CompilationTestUtil.check("void main() { int x; x = " + literal + "; }").semanticCheckingUnsuccessful();
+  }
+
+  @Test
+  public void decimalLiterals() {
+    assertEquals(0L, magnitudeOf("0"));
+    assertEquals(0L, magnitudeOf("0_0_0"));
+    assertEquals(42L, magnitudeOf("42"));
+    assertEquals(1_000_000L, magnitudeOf("1_000_000"));
+  }
+
+  @Test
+  public void hexLiterals() {
+    assertEquals(0x1FL, magnitudeOf("0x1F"));
+    assertEquals(0xabcdefL, magnitudeOf("0XabcDEF"));
+    assertEquals(0xFFL, magnitudeOf("0x_f_f"));
+  }
+
+  @Test
+  public void magnitudesUpToTwoToTheSixtyThreeAreExact() {
+    assertEquals(Long.MAX_VALUE, magnitudeOf("9223372036854775807"));
+    assertEquals(Long.MIN_VALUE, magnitudeOf("9223372036854775808"));
+    assertEquals(Long.MAX_VALUE, magnitudeOf("0x7FFFFFFFFFFFFFFF"));
+    assertEquals(Long.MIN_VALUE, magnitudeOf("0x8000000000000000"));
+  }
+
+  @Test
+  public void magnitudesAboveTwoToTheSixtyThreeSaturate() {
+    assertEquals(SATURATED, magnitudeOf("9223372036854775809"));
+    assertEquals(SATURATED, magnitudeOf("18446744073709551615"));
+    assertEquals(SATURATED, magnitudeOf("18446744073709551616"));
+    assertEquals(SATURATED, magnitudeOf("99999999999999999999999999999999999999"));
+    assertEquals(SATURATED, magnitudeOf("0x8000000000000001"));
+    assertEquals(SATURATED, magnitudeOf("0xFFFFFFFFFFFFFFFF"));
+    assertEquals(SATURATED, magnitudeOf("0x1_0000_0000_0000_0000"));
+  }
+
+  @Test
+  public void underscoresOnlySeparateDigits() {
+    var tokens = tokenize("1__2");
+    assertEquals(Token.Type.INT_LITERAL, tokens.type(0));
+    assertEquals("1", tokens.lexeme(0));
+    assertEquals(1L, tokens.literalMagnitude(0));
+    assertEquals(Token.Type.ID, tokens.type(1));
+
+    tokens = tokenize("12_");
+    assertEquals("12", tokens.lexeme(0));
+    assertEquals(12L, tokens.literalMagnitude(0));
+  }
+
+  @Test
+  public void zeroIsNotFollowedByDecimalDigits() {
+    var tokens = tokenize("012");
+    assertEquals("0", tokens.lexeme(0));
+    assertEquals(0L, tokens.literalMagnitude(0));
+    assertEquals(Token.Type.INT_LITERAL, tokens.type(1));
+    assertEquals(12L, tokens.literalMagnitude(1));
+  }
+
+  @Test
+  public void rangeIsCheckedOnTheSignedValue() {
+    assertTrue(isAcceptedAsValue("9223372036854775807"));
+    assertFalse(isAcceptedAsValue("9223372036854775808"));
+    assertTrue(isAcceptedAsValue("-9223372036854775808"));
+    assertFalse(isAcceptedAsValue("-9223372036854775809"));
+    assertFalse(isAcceptedAsValue("-99999999999999999999999999999999999999"));
+    assertTrue(isAcceptedAsValue("-0x8000000000000000"));
+    assertFalse(isAcceptedAsValue("0xFFFFFFFFFFFFFFFF"));
+  }
+}
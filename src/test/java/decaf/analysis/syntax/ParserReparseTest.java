@@ -0,0 +1,148 @@
+package decaf.analysis.syntax;
+
+import decaf.analysis.syntax.ast.AST;
+import decaf.analysis.syntax.ast.FieldDeclaration;
+import decaf.analysis.syntax.ast.MethodDefinition;
+import decaf.analysis.syntax.ast.Program;
+import decaf.analysis.syntax.ast.types.Type;
+import decaf.shared.CompilationContext;
+import decaf.shared.CompilationTestUtil;
+import decaf.shared.TextEdit;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParserReparseTest {
+  private static final String SOURCE = """
+      import printf;
+      int a, b[10];
+      bool flag;
+      int sum(int x, int y) {
+        return x + y;
+      }
+      void fill() {
+        int i;
+        for (i = 0; i < len(b); i++) {
+          b[i] = sum(i, a);
+        }
+      }
+      void main() { fill(); printf("%d\\n", b[3]); }
+      """;
+
+  /**
+   * Prints every node with its class and position, reaching nodes through their fields rather than their children, so
+   * that positions held outside of the children are compared too
+   */
+  private static void dump(Object object, StringBuilder out, IdentityHashMap<AST, Boolean> seen) {
+    if (object instanceof List<?> list) {
+      out.append('[');
+      for (var element : list) {
+        dump(element, out, seen);
+      }
+      out.append(']');
+      return;
+    }
+    if (!(object instanceof AST ast) || object instanceof Type) {
+      return;
+    }
+    out.append(ast.getClass().getSimpleName()).append('@').append(ast.getTokenPosition());
+    out.append('/').append(ast.getTokenPosition().offset());
+    if (ast instanceof FieldDeclaration fieldDeclaration) {
+      out.append('^').append(fieldDeclaration.getTypeTokenPosition());
+      out.append('/').append(fieldDeclaration.getTypeTokenPosition().offset());
+    }
+    if (seen.put(ast, true) != null) {
+      return;
+    }
+    out.append('(');
+    for (Class<?> type = ast.getClass(); type != Object.class; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+          continue;
+        }
+        try {
+          field.setAccessible(true);
+          dump(field.get(ast), out, seen);
+        } catch (ReflectiveOperationException e) {
+          throw new AssertionError(e);
+        }
+      }
+    }
+    out.append(')');
+  }
+
+  private static String dump(Program program) {
+    var out = new StringBuilder();
+    dump(program, out, new IdentityHashMap<>());
+    return out.toString();
+  }
+
+  /**
+   * @return the context after {@code edit}, having checked that reparsing it matches parsing it from scratch
+   */
+  private static CompilationContext assertReparsesLikeFreshParse(CompilationContext previous, TextEdit edit) {
+    var fresh = CompilationTestUtil.parse(edit.applyTo(previous.getSourceCode()));
+    var reparsed = Parser.reparse(previous, edit).getContext();
+    assertEquals(dump(fresh.getProgram()), dump(reparsed.getProgram()));
+    assertEquals(fresh.getProgram().getSourceCode(), reparsed.getProgram().getSourceCode());
+    return reparsed;
+  }
+
+  private static MethodDefinition method(Program program, String name) {
+    return program.getMethodDefinitions()
+                  .stream()
+                  .filter(methodDefinition -> methodDefinition.getName().equals(name))
+                  .findFirst()
+                  .orElseGet(() -> fail("no method " + name));
+  }
+
+  @Test
+  public void insertingLinesShiftsTheLaterDeclarations() {
+    var context = CompilationTestUtil.parse(SOURCE);
+    var fill = method(context.getProgram(), "fill");
+    var offset = SOURCE.indexOf("return x + y;");
+    var reparsed = assertReparsesLikeFreshParse(context, TextEdit.insertion(offset, "int z;\n    z = 1;\n    "));
+    assertSame(fill, method(reparsed.getProgram(), "fill"), "a declaration after the edit should be reused");
+  }
+
+  @Test
+  public void deletingTextShiftsTheLaterDeclarationsBack() {
+    var context = CompilationTestUtil.parse(SOURCE);
+    var main = method(context.getProgram(), "main");
+    var declaration = "int i;\n  ";
+    var offset = SOURCE.indexOf(declaration);
+    var reparsed = assertReparsesLikeFreshParse(context, TextEdit.deletion(offset, declaration.length()));
+    assertSame(main, method(reparsed.getProgram(), "main"));
+  }
+
+  @Test
+  public void editingAFieldDeclaration() {
+    var context = CompilationTestUtil.parse(SOURCE);
+    var offset = SOURCE.indexOf("b[10]");
+    assertReparsesLikeFreshParse(context, new TextEdit(offset, 5, "c, b[100]"));
+  }
+
+  @Test
+  public void editingTheLineADeclarationStartsOnShiftsItsColumns() {
+    var context = CompilationTestUtil.parse("void f() { return; } void main() { f(); }\n");
+    var main = method(context.getProgram(), "main");
+    var reparsed = assertReparsesLikeFreshParse(context, TextEdit.insertion("void f() { ".length(), "int q; "));
+    assertSame(main, method(reparsed.getProgram(), "main"));
+  }
+
+  @Test
+  public void successiveEditsKeepPositionsInStep() {
+    var context = CompilationTestUtil.parse(SOURCE);
+    var edits = List.of(TextEdit.insertion(SOURCE.indexOf("bool flag;"), "int c;\n"),
+                        TextEdit.insertion(0, "\n\n"),
+                        TextEdit.deletion(0, 1));
+    for (var edit : edits) {
+      context = assertReparsesLikeFreshParse(context, edit);
+    }
+  }
+}
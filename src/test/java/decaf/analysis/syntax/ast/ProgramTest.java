@@ -0,0 +1,73 @@
+package decaf.analysis.syntax.ast;
+
+import decaf.analysis.TokenPosition;
+import decaf.shared.CompilationTestUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgramTest {
+  private static final String SOURCE = """
+      import f;
+      void main() {
+        int x;
+        x = 1;
+        if (x > 0) {
+          x = f(f(x), true);
+        }
+      }
+      """;
+
+  private static Program parse() {
+    return CompilationTestUtil.parse(SOURCE).getProgram();
+  }
+
+  private static If onlyIf(Program program) {
+    var ifStatements = program.getNodesOfType(If.class);
+    assertEquals(1, ifStatements.size());
+    return ifStatements.get(0);
+  }
+
+  @Test
+  public void nodesOfTypeAreInPreOrderAndIncludeNestedMatches() {
+    var calls = parse().getNodesOfType(MethodCall.class);
+    assertEquals(2, calls.size());
+    assertTrue(calls.get(0).getSourceCode().startsWith("f(f(x)"), calls.get(0).getSourceCode());
+    assertEquals("f(x)", calls.get(1).getSourceCode());
+  }
+
+  @Test
+  public void nodesOfASupertypeIncludeEverySubclass() {
+    var program = parse();
+    var literals = program.getNodesOfType(IntLiteral.class);
+    assertEquals(List.of("1", "0", "true"), literals.stream().map(AST::getSourceCode).toList());
+    assertEquals(1, program.getNodesOfType(BooleanLiteral.class).size());
+    assertSame(literals, program.getNodesOfType(IntLiteral.class), "a repeated query should use the index");
+  }
+
+  @Test
+  public void replacingAnExpressionRebuildsTheIndex() {
+    var program = parse();
+    var ifStatement = onlyIf(program);
+    var before = program.getNodesOfType(BinaryOpExpression.class);
+    assertEquals(1, before.size());
+
+    var condition = new BooleanLiteral(new TokenPosition(0, 0, 0), "true");
+    program.replaceExpression(ifStatement, ifStatement.getCondition(), condition);
+
+    assertTrue(program.getNodesOfType(BinaryOpExpression.class).isEmpty());
+    assertTrue(program.getNodesOfType(BooleanLiteral.class).contains(condition));
+  }
+
+  @Test
+  public void editsOutsideOfTheProgramAreSeenAfterNodesChanged() {
+    var program = parse();
+    var ifStatement = onlyIf(program);
+    assertEquals(1, program.getNodesOfType(BinaryOpExpression.class).size());
+    ifStatement.setCondition(new BooleanLiteral(new TokenPosition(0, 0, 0), "false"));
+    program.nodesChanged();
+    assertTrue(program.getNodesOfType(BinaryOpExpression.class).isEmpty());
+  }
+}
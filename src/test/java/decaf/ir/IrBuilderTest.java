@@ -0,0 +1,119 @@
+package decaf.ir;
+
+import decaf.ir.instructions.BranchInstruction;
+import decaf.ir.instructions.IrFunction;
+import decaf.ir.instructions.PhiInstruction;
+import decaf.ir.values.IrConstantInt;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static decaf.ir.IrTestUtil.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IrBuilderTest {
+  private static final String SOURCE = """
+      bool both(bool a, bool b) {
+        bool x;
+        x = a && b;
+        return x;
+      }
+      bool either(bool a, bool b) {
+        return a || !b;
+      }
+      bool chain(bool a, bool b, bool c) {
+        return a && b || c;
+      }
+      bool folded(bool b) {
+        return true && b;
+      }
+      void main() {
+      }
+      """;
+
+  /**
+   * Checks that every block of {@code function} ends with its only terminator
+   */
+  private static void assertTerminatedOnce(IrFunction function) {
+    for (var basicBlock : function.getBasicBlocks()) {
+      assertFalse(basicBlock.isEmpty(), basicBlock.getLabel().prettyPrint() + " is empty");
+      for (var instruction : basicBlock) {
+        assertEquals(instruction == basicBlock.getLast(),
+                     isTerminator(instruction),
+                     "`" + instruction + "` in " + basicBlock.getLabel().prettyPrint()
+                    );
+      }
+    }
+  }
+
+  /**
+   * Checks that the sources of {@code phi} are its predecessors in the order that they branch to it, lhs first, the
+   * first coming in with the value {@code shortCircuited}
+   */
+  private static void assertConditionalPhi(IrFunction function, PhiInstruction phi, long shortCircuited) {
+    var phiSources = phi.getPhiSources();
+    assertEquals(2, phiSources.size());
+    var lhsBlock = block(function, phiSources.get(0).label());
+    var rhsBlock = block(function, phiSources.get(1).label());
+    assertInstanceOf(BranchInstruction.class, lhsBlock.getLast(), "the lhs block branches around the rhs");
+    assertTrue(lhsBlock.getSuccessors().contains(phi.getParent().getLabel()));
+    assertEquals(List.of(phi.getParent().getLabel()), rhsBlock.getSuccessors());
+    var lhsValue = assertInstanceOf(IrConstantInt.class, phiSources.get(0).value());
+    assertEquals(shortCircuited, lhsValue.getValue());
+    assertFalse(phiSources.get(1).value() instanceof IrConstantInt);
+  }
+
+  @Test
+  public void conditionalIsAPhiOfItsOperandsInOrder() {
+    var irContext = buildIr(SOURCE);
+    var both = function(irContext, "both");
+    var phis = instructionsOf(both, PhiInstruction.class);
+    assertEquals(1, phis.size());
+    assertConditionalPhi(both, phis.get(0), 0L);
+
+    var either = function(irContext, "either");
+    phis = instructionsOf(either, PhiInstruction.class);
+    assertEquals(1, phis.size());
+    assertConditionalPhi(either, phis.get(0), 1L);
+  }
+
+  @Test
+  public void chainedConditionalsNestTheirPhis() {
+    var chain = function(buildIr(SOURCE), "chain");
+    var phis = instructionsOf(chain, PhiInstruction.class);
+    assertEquals(2, phis.size());
+    var and = phis.stream().filter(phi -> phi.getPhiSources().get(0).value() instanceof IrConstantInt constant &&
+                                          constant.getValue() == 0L).findFirst().orElseGet(() -> fail("no &&"));
+    var or = phis.stream().filter(phi -> phi != and).findFirst().orElseThrow();
+    assertConditionalPhi(chain, and, 0L);
+    assertConditionalPhi(chain, or, 1L);
+    // the || branches on the value of the &&
+    var orBlock = block(chain, or.getPhiSources().get(0).label());
+    assertSame(and.getDestination(), ((BranchInstruction) orBlock.getLast()).getCondition());
+  }
+
+  @Test
+  public void constantLhsIsFolded() {
+    var folded = function(buildIr(SOURCE), "folded");
+    assertTrue(instructionsOf(folded, PhiInstruction.class).isEmpty());
+    assertTrue(instructionsOf(folded, BranchInstruction.class).isEmpty());
+  }
+
+  @Test
+  public void everyBlockEndsWithItsOnlyTerminator() {
+    for (var function : buildIr(SOURCE).getFunctionDefinitions()) {
+      assertTerminatedOnce(function);
+    }
+  }
+
+  @Test
+  public void loweringIsTheSameOnEveryBuild() {
+    var first = buildIr(SOURCE);
+    for (int i = 0; i < 10; i++) {
+      var again = buildIr(SOURCE);
+      for (var function : first.getFunctionDefinitions()) {
+        assertEquals(function.toString(), function(again, function.getFunctionName()).toString());
+      }
+    }
+  }
+}
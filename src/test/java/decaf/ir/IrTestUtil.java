@@ -0,0 +1,58 @@
+package decaf.ir;
+
+import decaf.analysis.cfg.Cfg;
+import decaf.ir.instructions.BasicBlock;
+import decaf.ir.instructions.BranchInstruction;
+import decaf.ir.instructions.Instruction;
+import decaf.ir.instructions.IrFunction;
+import decaf.ir.instructions.ReturnInstruction;
+import decaf.ir.instructions.UnconditionalBranchInstruction;
+import decaf.ir.values.IrLabel;
+import decaf.shared.CompilationTestUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+class IrTestUtil {
+  static IrContext buildIr(String sourceCode) {
+    var context = CompilationTestUtil.checked(sourceCode);
+    Cfg.build(context);
+    return IrBuilder.build(context);
+  }
+
+  static IrFunction function(IrContext irContext, String name) {
+    return irContext.getFunctionDefinitions()
+                    .stream()
+                    .filter(function -> function.getFunctionName().equals(name))
+                    .findFirst()
+                    .orElseGet(() -> fail("no function `" + name + "`"));
+  }
+
+  static BasicBlock block(IrFunction function, IrLabel label) {
+    return function.getBasicBlocks()
+                   .stream()
+                   .filter(basicBlock -> basicBlock.getLabel().equals(label))
+                   .findFirst()
+                   .orElseGet(() -> fail("no block " + label.prettyPrint()));
+  }
+
+  static <T extends Instruction> List<T> instructionsOf(IrFunction function, Class<T> type) {
+    var instructions = new ArrayList<T>();
+    for (var basicBlock : function.getBasicBlocks()) {
+      for (var instruction : basicBlock) {
+        if (type.isInstance(instruction)) {
+          instructions.add(type.cast(instruction));
+        }
+      }
+    }
+    return instructions;
+  }
+
+  static boolean isTerminator(Instruction instruction) {
+    return instruction instanceof BranchInstruction ||
+           instruction instanceof UnconditionalBranchInstruction ||
+           instruction instanceof ReturnInstruction;
+  }
+}
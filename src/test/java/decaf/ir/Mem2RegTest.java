@@ -0,0 +1,223 @@
+package decaf.ir;
+
+import decaf.analysis.cfg.Dominators;
+import decaf.ir.instructions.AllocaInstruction;
+import decaf.ir.instructions.BasicBlock;
+import decaf.ir.instructions.BranchInstruction;
+import decaf.ir.instructions.GetAddressInstruction;
+import decaf.ir.instructions.IrFunction;
+import decaf.ir.instructions.LoadInstruction;
+import decaf.ir.instructions.PhiInstruction;
+import decaf.ir.instructions.ReturnInstruction;
+import decaf.ir.instructions.StoreInstruction;
+import decaf.ir.instructions.UnconditionalBranchInstruction;
+import decaf.ir.types.IrFunctionType;
+import decaf.ir.types.IrIntType;
+import decaf.ir.types.IrType;
+import decaf.ir.values.IrConstantInt;
+import decaf.ir.values.IrLabel;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static decaf.ir.IrTestUtil.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Mem2RegTest {
+  private static IrFunction promote(String sourceCode, String name) {
+    var function = function(buildIr(sourceCode), name);
+    Mem2Reg.run(function);
+    assertPhisMatchPredecessors(function);
+    return function;
+  }
+
+  /**
+   * Checks that the phis of every block come first and have exactly one source per predecessor
+   */
+  private static void assertPhisMatchPredecessors(IrFunction function) {
+    for (int block = 0; block < function.numBlocks(); block++) {
+      var predecessors = new HashSet<IrLabel>();
+      for (int i = 0; i < function.predecessorCount(block); i++) {
+        predecessors.add(function.block(function.predecessor(block, i)).getLabel());
+      }
+      boolean pastPhis = false;
+      for (var instruction : function.block(block)) {
+        if (instruction instanceof PhiInstruction phi) {
+          assertFalse(pastPhis, "`" + phi + "` comes after a non-phi");
+          assertEquals(predecessors, phi.getSources().keySet(), "the sources of `" + phi + "`");
+          assertEquals(predecessors.size(), phi.getPhiSources().size());
+        } else {
+          pastPhis = true;
+        }
+      }
+    }
+  }
+
+  private static void assertNoMemoryLeft(IrFunction function) {
+    assertTrue(instructionsOf(function, AllocaInstruction.class).isEmpty());
+    assertTrue(instructionsOf(function, LoadInstruction.class).isEmpty());
+    assertTrue(instructionsOf(function, StoreInstruction.class).isEmpty());
+  }
+
+  private static ReturnInstruction onlyReturn(IrFunction function) {
+    var returns = instructionsOf(function, ReturnInstruction.class);
+    assertEquals(1, returns.size());
+    return returns.get(0);
+  }
+
+  private static Set<Long> constantSources(PhiInstruction phi) {
+    var constants = new HashSet<Long>();
+    for (var value : phi.getSources().values()) {
+      if (value instanceof IrConstantInt constant) {
+        constants.add(constant.getValue());
+      }
+    }
+    return constants;
+  }
+
+  private static long constantFrom(PhiInstruction phi, BasicBlock predecessor) {
+    return assertInstanceOf(IrConstantInt.class, phi.getSources().get(predecessor.getLabel())).getValue();
+  }
+
+  @Test
+  public void loopHeaderGetsAPhiForEachLocalUpdatedInTheLoop() {
+    var function = promote("""
+        int sum(int n) {
+          int i, s;
+          s = 0;
+          for (i = 0; i < n; i++) {
+            s = s + i;
+          }
+          return s;
+        }
+        void main() {
+        }
+        """, "sum");
+    assertNoMemoryLeft(function);
+    var phis = instructionsOf(function, PhiInstruction.class);
+    assertEquals(2, phis.size(), "one phi for i and one for s");
+    var header = phis.get(0).getParent();
+    assertSame(header, phis.get(1).getParent());
+
+    var dominators = Dominators.of(function);
+    int headerBlock = function.indexOf(header.getLabel());
+    boolean hasBackEdge = false;
+    for (int i = 0; i < function.predecessorCount(headerBlock); i++) {
+      hasBackEdge |= dominators.dominates(headerBlock, function.predecessor(headerBlock, i));
+    }
+    assertTrue(hasBackEdge, "the phis are at the loop header");
+    for (var phi : phis) {
+      assertEquals(Set.of(0L), constantSources(phi), "both start at 0, and are then updated in the loop");
+    }
+    var returned = onlyReturn(function).getReturnValue().orElseThrow();
+    assertTrue(phis.stream().anyMatch(phi -> phi.getDestination() == returned), "the sum leaves the loop by its phi");
+  }
+
+  @Test
+  public void joinGetsAPhiOfTheValuesFromEachBranch() {
+    var function = promote("""
+        int pick(bool c) {
+          int x;
+          if (c) {
+            x = 1;
+          } else {
+            x = 2;
+          }
+          return x;
+        }
+        void main() {
+        }
+        """, "pick");
+    assertNoMemoryLeft(function);
+    var phis = instructionsOf(function, PhiInstruction.class);
+    assertEquals(1, phis.size());
+    assertEquals(Set.of(1L, 2L), constantSources(phis.get(0)));
+    assertSame(phis.get(0).getDestination(), onlyReturn(function).getReturnValue().orElseThrow());
+  }
+
+  @Test
+  public void localsDeadAtAJoinGetNoPhi() {
+    var function = promote("""
+        int dead(bool c, int n) {
+          int i, t, x;
+          if (c) {
+            x = 1;
+          } else {
+            x = 2;
+          }
+          for (i = 0; i < n; i++) {
+            t = i;
+          }
+          return 0;
+        }
+        void main() {
+        }
+        """, "dead");
+    assertNoMemoryLeft(function);
+    var phis = instructionsOf(function, PhiInstruction.class);
+    assertEquals(1, phis.size(), "only i is live at a join, and only at the loop header");
+    for (var phi : phis) {
+      assertTrue(phi.getDestination().hasUses(), "`" + phi + "` is dead");
+    }
+  }
+
+  @Test
+  public void readBeforeAnyWriteIsZero() {
+    var int64 = IrIntType.getInt64();
+    var function = IrFunction.create("f", IrFunctionType.create(int64, new IrType[]{IrIntType.getBoolType()}));
+    var entry = BasicBlock.create(IrLabel.createNamed("f.entry"));
+    var write = BasicBlock.create(IrLabel.createNamed("f.write"));
+    var join = BasicBlock.create(IrLabel.createNamed("f.join"));
+    var unreachable = BasicBlock.create(IrLabel.createNamed("f.unreachable"));
+    var alloca = AllocaInstruction.create(function, int64);
+    var local = alloca.getDestination();
+    entry.add(alloca);
+    entry.add(BranchInstruction.create(function.getParameters().get(0), write.getLabel(), join.getLabel()));
+    write.add(StoreInstruction.create(IrConstantInt.create(5L, int64), local));
+    write.add(UnconditionalBranchInstruction.create(join.getLabel()));
+    var load = LoadInstruction.create(function, local, int64);
+    join.add(load);
+    join.add(ReturnInstruction.create(load.getDestination()));
+    unreachable.add(LoadInstruction.create(function, local, int64));
+    unreachable.add(UnconditionalBranchInstruction.create(join.getLabel()));
+    for (var basicBlock : List.of(entry, write, join, unreachable)) {
+      function.addBasicBlock(basicBlock);
+    }
+
+    Mem2Reg.run(function);
+    assertPhisMatchPredecessors(function);
+    assertEquals(List.of(entry, write, join), function.getBasicBlocks(), "the unreachable block is removed");
+    assertNoMemoryLeft(function);
+    assertFalse(local.hasUses());
+    var phi = instructionsOf(function, PhiInstruction.class).get(0);
+    assertEquals(0L, constantFrom(phi, entry));
+    assertEquals(5L, constantFrom(phi, write));
+    assertSame(phi.getDestination(), onlyReturn(function).getReturnValue().orElseThrow());
+  }
+
+  @Test
+  public void localWhoseAddressIsTakenStaysInMemory() {
+    var int64 = IrIntType.getInt64();
+    var function = IrFunction.create("f", IrFunctionType.create(int64, new IrType[0]));
+    var entry = BasicBlock.create(IrLabel.createNamed("f.entry"));
+    var alloca = AllocaInstruction.create(function, int64);
+    entry.add(alloca);
+    var address = GetAddressInstruction.createGenDest(function,
+                                                      alloca.getDestination(),
+                                                      IrConstantInt.create(0L, int64),
+                                                      int64);
+    entry.add(address);
+    entry.add(StoreInstruction.create(IrConstantInt.create(7L, int64), address.getDestination()));
+    var load = LoadInstruction.create(function, alloca.getDestination(), int64);
+    entry.add(load);
+    entry.add(ReturnInstruction.create(load.getDestination()));
+    function.addBasicBlock(entry);
+
+    Mem2Reg.run(function);
+    assertEquals(List.of(alloca), instructionsOf(function, AllocaInstruction.class));
+    assertEquals(List.of(load), instructionsOf(function, LoadInstruction.class));
+    assertSame(load.getDestination(), onlyReturn(function).getReturnValue().orElseThrow());
+  }
+}
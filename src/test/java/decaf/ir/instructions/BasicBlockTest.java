@@ -0,0 +1,183 @@
+package decaf.ir.instructions;
+
+import decaf.ir.types.IrFunctionType;
+import decaf.ir.types.IrIntType;
+import decaf.ir.types.IrType;
+import decaf.ir.types.IrVoidType;
+import decaf.ir.values.IrLabel;
+import decaf.ir.values.IrRegister;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasicBlockTest {
+  private final IrFunction function = IrFunction.create("f", IrFunctionType.create(IrVoidType.get(), new IrType[0]));
+  private final IrRegister x = function.newRegister(IrIntType.getInt64());
+
+  private Instruction instruction() {
+    return BinaryInstruction.createAdd(x, x, function.newRegister(IrIntType.getInt64()));
+  }
+
+  private static BasicBlock block(String name, Instruction... instructions) {
+    var basicBlock = BasicBlock.create(IrLabel.createNamed(name));
+    basicBlock.addAll(List.of(instructions));
+    return basicBlock;
+  }
+
+  private static List<Instruction> instructionsOf(BasicBlock basicBlock) {
+    var instructions = new ArrayList<Instruction>();
+    basicBlock.forEach(instructions::add);
+    return instructions;
+  }
+
+  /**
+   * Checks that {@code basicBlock} holds exactly {@code expected}, in order, linked both ways and to the block
+   */
+  private static void assertLinked(BasicBlock basicBlock, Instruction... expected) {
+    assertEquals(List.of(expected), instructionsOf(basicBlock));
+    assertEquals(expected.length, basicBlock.size());
+    assertEquals(expected.length == 0, basicBlock.isEmpty());
+    for (int i = 0; i < expected.length; i++) {
+      assertSame(basicBlock, expected[i].getParent());
+      assertSame(i == 0 ? null : expected[i - 1], expected[i].getPrevious(), "the previous of " + i);
+      assertSame(i == expected.length - 1 ? null : expected[i + 1], expected[i].getNext(), "the next of " + i);
+    }
+    if (expected.length > 0) {
+      assertSame(expected[0], basicBlock.getFirst());
+      assertSame(expected[expected.length - 1], basicBlock.getLast());
+    }
+  }
+
+  private static void assertUnlinked(Instruction instruction) {
+    assertNull(instruction.getParent());
+    assertNull(instruction.getPrevious());
+    assertNull(instruction.getNext());
+  }
+
+  @Test
+  public void insertBeforeAndAfterLinkInPlace() {
+    var a = instruction();
+    var b = instruction();
+    var basicBlock = block("f.entry", a, b);
+    var first = instruction();
+    var middle = instruction();
+    var last = instruction();
+    basicBlock.insertBefore(a, first);
+    basicBlock.insertAfter(a, middle);
+    basicBlock.insertAfter(b, last);
+    assertLinked(basicBlock, first, a, middle, b, last);
+
+    var beforeMiddle = instruction();
+    basicBlock.insertBefore(middle, beforeMiddle);
+    assertLinked(basicBlock, first, a, beforeMiddle, middle, b, last);
+  }
+
+  @Test
+  public void insertingRejectsInstructionsInTheWrongBlock() {
+    var a = instruction();
+    var basicBlock = block("f.entry", a);
+    var other = block("f.other", instruction());
+    assertThrows(IllegalArgumentException.class, () -> basicBlock.insertAfter(a, other.getFirst()));
+    assertThrows(IllegalArgumentException.class, () -> basicBlock.insertBefore(other.getFirst(), instruction()));
+    assertThrows(IllegalArgumentException.class, () -> basicBlock.add(a));
+    assertThrows(IllegalArgumentException.class, () -> basicBlock.erase(other.getFirst()));
+    assertLinked(basicBlock, a);
+    assertEquals(1, other.size());
+  }
+
+  @Test
+  public void eraseDuringIterationVisitsEveryInstruction() {
+    var instructions = new Instruction[6];
+    for (int i = 0; i < instructions.length; i++) {
+      instructions[i] = instruction();
+    }
+    var basicBlock = block("f.entry", instructions);
+    var visited = new ArrayList<Instruction>();
+    for (var instruction : basicBlock) {
+      visited.add(instruction);
+      // erases the first, the last, and one in between
+      if (instruction == instructions[0] || instruction == instructions[2] || instruction == instructions[5]) {
+        basicBlock.erase(instruction);
+      }
+    }
+    assertEquals(List.of(instructions), visited);
+    assertLinked(basicBlock, instructions[1], instructions[3], instructions[4]);
+    assertUnlinked(instructions[0]);
+    assertEquals(2 * 3, x.getNumUses(), "the erased instructions no longer use x");
+
+    var iterator = basicBlock.iterator();
+    iterator.next();
+    iterator.remove();
+    assertThrows(IllegalStateException.class, iterator::remove);
+    iterator.next();
+    iterator.next();
+    iterator.remove();
+    assertFalse(iterator.hasNext());
+    assertLinked(basicBlock, instructions[3]);
+    assertEquals(2, x.getNumUses());
+  }
+
+  @Test
+  public void moveDuringIterationVisitsEveryInstruction() {
+    var a = instruction();
+    var b = instruction();
+    var c = instruction();
+    var d = instruction();
+    var source = block("f.source", a, b, c, d);
+    var target = block("f.target");
+    var visited = new ArrayList<Instruction>();
+    for (var instruction : source) {
+      visited.add(instruction);
+      if (instruction != c) {
+        target.moveTo(instruction, null);
+      }
+    }
+    assertEquals(List.of(a, b, c, d), visited);
+    assertLinked(source, c);
+    assertLinked(target, a, b, d);
+    assertEquals(2 * 4, x.getNumUses(), "moved instructions keep their operands");
+  }
+
+  @Test
+  public void moveToBetweenBlocks() {
+    var a = instruction();
+    var b = instruction();
+    var c = instruction();
+    var d = instruction();
+    var source = block("f.source", a, b);
+    var target = block("f.target", c, d);
+
+    target.moveTo(a, d);
+    assertLinked(source, b);
+    assertLinked(target, c, a, d);
+    target.moveTo(b, c);
+    assertLinked(source);
+    assertLinked(target, b, c, a, d);
+    source.moveTo(d, null);
+    assertLinked(source, d);
+    assertLinked(target, b, c, a);
+    assertThrows(IllegalArgumentException.class, () -> source.moveTo(b, b.getNext()),
+                 "the position must be in the block moved to");
+    assertLinked(target, b, c, a);
+  }
+
+  @Test
+  public void moveToWithinABlock() {
+    var a = instruction();
+    var b = instruction();
+    var c = instruction();
+    var basicBlock = block("f.entry", a, b, c);
+    basicBlock.moveTo(c, a);
+    assertLinked(basicBlock, c, a, b);
+    basicBlock.moveTo(c, null);
+    assertLinked(basicBlock, a, b, c);
+    basicBlock.moveTo(a, c);
+    assertLinked(basicBlock, b, a, c);
+    assertThrows(IllegalArgumentException.class, () -> basicBlock.moveTo(a, a));
+    assertThrows(IllegalArgumentException.class, () -> basicBlock.moveTo(instruction(), null));
+    assertLinked(basicBlock, b, a, c);
+  }
+}
@@ -0,0 +1,77 @@
+package decaf.ir.instructions;
+
+import decaf.ir.types.IrFunctionType;
+import decaf.ir.types.IrIntType;
+import decaf.ir.types.IrType;
+import decaf.ir.types.IrVoidType;
+import decaf.ir.values.IrLabel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IrFunctionTest {
+  private static List<BasicBlock> numbered(IrFunction function) {
+    var blocks = new ArrayList<BasicBlock>();
+    for (int block = 0; block < function.numBlocks(); block++) {
+      blocks.add(function.block(block));
+    }
+    return blocks;
+  }
+
+  @Test
+  public void blockNumberingFollowsEditsOfTheEdges() {
+    var function = IrFunction.create("f", IrFunctionType.create(IrVoidType.get(), new IrType[0]));
+    var entry = BasicBlock.create(IrLabel.createNamed("f.entry"));
+    var first = BasicBlock.create(IrLabel.createNamed("f.first"));
+    var second = BasicBlock.create(IrLabel.createNamed("f.second"));
+    function.addBasicBlock(entry);
+    function.addBasicBlock(first);
+    function.addBasicBlock(second);
+    entry.add(UnconditionalBranchInstruction.create(first.getLabel()));
+    first.add(ReturnInstruction.createVoid());
+    second.add(ReturnInstruction.createVoid());
+    assertEquals(List.of(entry, first), numbered(function));
+    assertEquals(-1, function.indexOf(second.getLabel()));
+
+    // retargeting the branch through its use
+    first.getLabel().replaceAllUsesWith(second.getLabel());
+    assertEquals(List.of(entry, second), numbered(function));
+
+    // replacing the terminator
+    entry.erase(entry.getLast());
+    assertEquals(List.of(entry), numbered(function));
+    entry.add(UnconditionalBranchInstruction.create(first.getLabel()));
+    first.erase(first.getLast());
+    first.add(UnconditionalBranchInstruction.create(second.getLabel()));
+    assertEquals(List.of(entry, first, second), numbered(function));
+    assertEquals(1, function.predecessorCount(2));
+    assertEquals(1, function.predecessor(2, 0));
+
+    // adding a block, and removing those which cannot be reached
+    var third = BasicBlock.create(IrLabel.createNamed("f.third"));
+    third.add(UnconditionalBranchInstruction.create(entry.getLabel()));
+    function.addBasicBlock(third);
+    assertEquals(3, function.numBlocks());
+    function.removeUnreachableBlocks();
+    assertEquals(List.of(entry, first, second), function.getBasicBlocks());
+    assertTrue(third.isEmpty());
+    assertThrows(UnsupportedOperationException.class, () -> function.getBasicBlocks().remove(0));
+  }
+
+  @Test
+  public void registersOfDifferentFunctionsAreDistinctEvenWithTheSameId() {
+    var type = IrFunctionType.create(IrVoidType.get(), new IrType[0]);
+    var f = IrFunction.create("f", type);
+    var g = IrFunction.create("g", type);
+    var inF = f.newRegister(IrIntType.getInt64());
+    var inG = g.newRegister(IrIntType.getInt64());
+    assertEquals(inF.getId(), inG.getId());
+    assertNotEquals(inF, inG);
+    assertEquals(2, new HashSet<>(List.of(inF, inG)).size());
+    assertNotEquals(inF.getId(), f.newRegister(IrIntType.getInt64()).getId());
+  }
+}
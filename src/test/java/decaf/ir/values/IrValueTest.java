@@ -0,0 +1,137 @@
+package decaf.ir.values;
+
+import decaf.ir.instructions.BasicBlock;
+import decaf.ir.instructions.BinaryInstruction;
+import decaf.ir.instructions.Instruction;
+import decaf.ir.instructions.IrFunction;
+import decaf.ir.instructions.ReturnInstruction;
+import decaf.ir.types.IrFunctionType;
+import decaf.ir.types.IrIntType;
+import decaf.ir.types.IrType;
+import decaf.ir.types.IrVoidType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IrValueTest {
+  private final IrFunction function = IrFunction.create("f", IrFunctionType.create(IrVoidType.get(), new IrType[0]));
+
+  private IrRegister register() {
+    return function.newRegister(IrIntType.getInt64());
+  }
+
+  /**
+   * Checks that the use list of {@code value} holds exactly the operands of {@code users} that use it, each linked to
+   * its user
+   */
+  private static void assertUsesMatchOperands(IrValue value, Instruction... users) {
+    var expected = new ArrayList<IrUse>();
+    for (var user : users) {
+      for (var operand : user.getOperands()) {
+        if (operand.getValue() == value) {
+          expected.add(operand);
+        }
+      }
+    }
+    var uses = value.getUses();
+    assertEquals(expected.size(), uses.size());
+    assertEquals(expected.size(), value.getNumUses());
+    assertEquals(!expected.isEmpty(), value.hasUses());
+    assertTrue(uses.containsAll(expected), "every operand is in the use list");
+    for (var use : uses) {
+      assertSame(value, use.getValue());
+      assertTrue(use.getUser().getOperands().contains(use), "every use is an operand of its user");
+    }
+  }
+
+  @Test
+  public void replaceAllUsesWithMovesEveryUse() {
+    var x = register();
+    var y = register();
+    var z = register();
+    var twice = BinaryInstruction.createAdd(x, x, register());
+    var once = BinaryInstruction.createMul(y, x, register());
+    var other = BinaryInstruction.createSub(z, y, register());
+    assertUsesMatchOperands(x, twice, once, other);
+    assertEquals(Set.of(twice, once), x.getUsers());
+
+    x.replaceAllUsesWith(z);
+    assertFalse(x.hasUses());
+    assertEquals(0, x.getNumUses());
+    assertUsesMatchOperands(z, twice, once, other);
+    assertEquals(4, z.getNumUses());
+    assertEquals(List.of(z, z), twice.getUsedValues());
+    assertEquals(List.of(y, z), once.getUsedValues(), "operands keep their positions");
+    assertUsesMatchOperands(y, twice, once, other);
+
+    // the uses moved over still move again
+    z.replaceAllUsesWith(y);
+    assertFalse(z.hasUses());
+    assertUsesMatchOperands(y, twice, once, other);
+    assertEquals(List.of(y, y), other.getUsedValues());
+  }
+
+  @Test
+  public void replaceAllUsesWithRejectsItselfAndOtherTypes() {
+    var x = register();
+    var use = ReturnInstruction.create(x);
+    assertThrows(IllegalArgumentException.class, () -> x.replaceAllUsesWith(x));
+    assertThrows(IllegalArgumentException.class,
+                 () -> x.replaceAllUsesWith(function.newRegister(IrIntType.getBoolType())));
+    assertUsesMatchOperands(x, use);
+  }
+
+  @Test
+  public void dropOperandsUnlinksOnlyTheUsesOfItsInstruction() {
+    var x = register();
+    var y = register();
+    var first = BinaryInstruction.createAdd(x, y, register());
+    var middle = BinaryInstruction.createAdd(x, x, register());
+    var last = BinaryInstruction.createAdd(y, x, register());
+
+    // from the middle of the use list of x, and from the end of that of y
+    middle.dropOperands();
+    assertUsesMatchOperands(x, first, last);
+    first.dropOperands();
+    assertUsesMatchOperands(x, last);
+    assertUsesMatchOperands(y, last);
+    // dropping twice changes nothing
+    first.dropOperands();
+    assertUsesMatchOperands(x, last);
+
+    last.dropOperands();
+    assertFalse(x.hasUses());
+    assertFalse(y.hasUses());
+    assertThrows(IllegalStateException.class, () -> last.getOperands().get(0).set(x), "a dropped use stays dropped");
+    assertFalse(x.hasUses());
+  }
+
+  @Test
+  public void replaceAllUsesWithSkipsDroppedUses() {
+    var x = register();
+    var y = register();
+    var kept = BinaryInstruction.createAdd(x, x, register());
+    var dropped = BinaryInstruction.createAdd(x, y, register());
+    dropped.dropOperands();
+    x.replaceAllUsesWith(y);
+    assertUsesMatchOperands(y, kept);
+    assertEquals(List.of(x, y), dropped.getUsedValues(), "a dropped instruction keeps what it used");
+  }
+
+  @Test
+  public void erasingAnInstructionDropsItsOperands() {
+    var x = register();
+    var basicBlock = BasicBlock.create(IrLabel.createNamed("f.entry"));
+    var sum = BinaryInstruction.createAdd(x, x, register());
+    var result = ReturnInstruction.create(sum.getDestination());
+    basicBlock.add(sum);
+    basicBlock.add(result);
+    basicBlock.erase(sum);
+    assertFalse(x.hasUses());
+    assertUsesMatchOperands(sum.getDestination(), result);
+  }
+}
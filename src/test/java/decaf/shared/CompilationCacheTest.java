@@ -0,0 +1,211 @@
+package decaf.shared;
+
+import decaf.analysis.syntax.ast.AST;
+import decaf.analysis.syntax.ast.Expression;
+import decaf.analysis.syntax.ast.Program;
+import decaf.analysis.syntax.ast.RValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static decaf.shared.CompilationTestUtil.checked;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompilationCacheTest {
+  private static final String SOURCE = """
+      import printf;
+      int total, counts[8];
+      bool done;
+      int sum(int x, int y) {
+        return (x + y) * -1;
+      }
+      void fill() {
+        int i;
+        for (i = 0; i < len(counts); i++) {
+          total += sum(i, counts[i]);
+          if (!done && counts[i] > 'a') {
+            break;
+          } else {
+            continue;
+          }
+        }
+      }
+      void main() {
+        fill();
+        while (total < 10) {
+          total = total + 1;
+        }
+        printf("%d\\n", counts[3]);
+      }
+      """;
+
+  @TempDir
+  Path directory;
+
+  private static List<AST> nodesOf(Program program) {
+    var nodes = new ArrayList<AST>();
+    new AstWalker().walk(program, (parent, index, node) -> {
+      nodes.add(node);
+      return true;
+    });
+    return nodes;
+  }
+
+  private static void assertSameProgram(Program expected, Program actual) {
+    var expectedNodes = nodesOf(expected);
+    var actualNodes = nodesOf(actual);
+    assertEquals(expectedNodes.size(), actualNodes.size());
+    for (int i = 0; i < expectedNodes.size(); i++) {
+      var expectedNode = expectedNodes.get(i);
+      var actualNode = actualNodes.get(i);
+      assertEquals(expectedNode.getClass(), actualNode.getClass());
+      assertEquals(expectedNode.getTokenPosition(), actualNode.getTokenPosition());
+      if (expectedNode instanceof Expression expression) {
+        assertSame(expression.getType(), ((Expression) actualNode).getType(), "types are shared instances");
+      }
+      if (expectedNode instanceof RValue rValue) {
+        assertEquals(rValue.getDescriptor().isPresent(), ((RValue) actualNode).getDescriptor().isPresent());
+      }
+    }
+    assertEquals(expected.getSourceCode(), actual.getSourceCode());
+  }
+
+  private Path onlyEntry() throws IOException {
+    try (Stream<Path> paths = Files.list(directory)) {
+      var entries = paths.toList();
+      assertEquals(1, entries.size());
+      return entries.get(0);
+    }
+  }
+
+  private static long sizeOfEntries(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.list(directory)) {
+      return paths.mapToLong(path -> path.toFile().length()).sum();
+    }
+  }
+
+  @Test
+  public void roundTripKeepsTheCheckedProgram() throws IOException {
+    var context = checked(SOURCE);
+    var cache = CompilationCache.inDirectory(directory);
+    assertTrue(cache.load(SOURCE).isEmpty());
+    cache.store(SOURCE, context.toCacheEntry());
+
+    var entry = cache.load(SOURCE).orElseGet(() -> fail("the entry should load"));
+    var loaded = CompilationContext.fromSourceCode(SOURCE).fromCache(entry);
+    assertSameProgram(context.getProgram(), loaded.getProgram());
+    assertEquals(context.toCacheEntry().symbolTable().size(), entry.symbolTable().size());
+    assertTrue(cache.load(SOURCE + " ").isEmpty(), "other source code should miss");
+  }
+
+  @Test
+  public void deeplyNestedProgramsDoNotNeedADeepStack() throws Exception {
+    // enough methods that they are checked on more than one thread, not just the calling one
+    var sourceCode = IntStream.range(0, 16)
+                              .mapToObj(i -> "void f" + i + "() { int x; x = " + "(".repeat(20_000) + "1" +
+                                             ")".repeat(20_000) + "; }\n")
+                              .collect(Collectors.joining()) + "void main() { f0(); }";
+    var cache = CompilationCache.inDirectory(directory);
+    var context = new AtomicReference<CompilationContext>();
+    var loaded = new AtomicReference<Optional<CompilationCache.Entry>>();
+    // the parser recurses, so it gets a deep stack, but the cache runs on a shallow one
+    var compile = new Thread(null, () -> context.set(checked(sourceCode)), "compile", 1L << 30);
+    compile.start();
+    compile.join();
+    assertNotNull(context.get(), "the program should be checked without running out of stack");
+    var storeAndLoad = new Thread(null, () -> {
+      cache.store(sourceCode, context.get().toCacheEntry());
+      loaded.set(cache.load(sourceCode));
+    }, "cache", 256L << 10);
+    storeAndLoad.start();
+    storeAndLoad.join();
+
+    assertNotNull(loaded.get(), "the cache should not run out of stack");
+    var entry = loaded.get().orElseGet(() -> fail("the entry should load"));
+    // printing the source code recurses too
+    var compare = new FutureTask<Void>(() -> assertSameProgram(context.get().getProgram(), entry.program()), null);
+    new Thread(null, compare, "compare", 1L << 30).start();
+    compare.get();
+  }
+
+  @Test
+  public void truncatedEntryIsAMissAndIsDeleted() throws IOException {
+    var cache = CompilationCache.inDirectory(directory);
+    cache.store(SOURCE, checked(SOURCE).toCacheEntry());
+    var entry = onlyEntry();
+    var bytes = Files.readAllBytes(entry);
+    Files.write(entry, Arrays.copyOf(bytes, bytes.length / 2));
+
+    assertTrue(cache.load(SOURCE).isEmpty());
+    assertFalse(Files.exists(entry), "a corrupt entry should be deleted");
+    cache.store(SOURCE, checked(SOURCE).toCacheEntry());
+    assertTrue(cache.load(SOURCE).isPresent(), "the program should be cached again after recompiling it");
+  }
+
+  @Test
+  public void corruptEntryIsAMissAndIsDeleted() throws IOException {
+    var cache = CompilationCache.inDirectory(directory);
+    cache.store(SOURCE, checked(SOURCE).toCacheEntry());
+    var entry = onlyEntry();
+    var bytes = Files.readAllBytes(entry);
+    bytes[bytes.length - 10] ^= 0x5a;
+    Files.write(entry, bytes);
+
+    assertTrue(cache.load(SOURCE).isEmpty());
+    assertFalse(Files.exists(entry), "a corrupt entry should be deleted");
+
+    Files.write(entry, new byte[]{1, 2, 3});
+    assertTrue(cache.load(SOURCE).isEmpty());
+    assertFalse(Files.exists(entry));
+  }
+
+  @Test
+  public void leastRecentlyUsedEntryIsEvicted() throws IOException {
+    var sources = List.of("void main() { int a; a = 1; }",
+                          "void main() { int b; b = 22; }",
+                          "void main() { int c; c = 333; }");
+    // the size of each entry, measured in a cache of its own
+    var sizes = new long[sources.size()];
+    for (int i = 0; i < sources.size(); i++) {
+      var sizing = Files.createDirectory(directory.resolve("sizing" + i));
+      CompilationCache.inDirectory(sizing).store(sources.get(i), checked(sources.get(i)).toCacheEntry());
+      sizes[i] = sizeOfEntries(sizing);
+    }
+    var cached = Files.createDirectory(directory.resolve("cache"));
+    var cache = CompilationCache.inDirectory(cached, sizes[0] + sizes[1] + sizes[2] - 1);
+
+    cache.store(sources.get(0), checked(sources.get(0)).toCacheEntry());
+    Path first;
+    try (Stream<Path> paths = Files.list(cached)) {
+      first = paths.findFirst().orElseThrow();
+    }
+    cache.store(sources.get(1), checked(sources.get(1)).toCacheEntry());
+    var now = System.currentTimeMillis();
+    try (Stream<Path> paths = Files.list(cached)) {
+      for (var path : paths.toList()) {
+        // the first entry is older, but is used again below
+        Files.setLastModifiedTime(path, FileTime.fromMillis(now - (path.equals(first) ? 2_000_000 : 1_000_000)));
+      }
+    }
+    assertTrue(cache.load(sources.get(0)).isPresent());
+    cache.store(sources.get(2), checked(sources.get(2)).toCacheEntry());
+
+    assertTrue(cache.load(sources.get(0)).isPresent());
+    assertTrue(cache.load(sources.get(1)).isEmpty(), "the least recently used entry should be evicted");
+    assertTrue(cache.load(sources.get(2)).isPresent());
+    assertTrue(sizeOfEntries(cached) <= sizes[0] + sizes[1] + sizes[2] - 1);
+  }
+}
@@ -0,0 +1,42 @@
+package decaf.shared;
+
+import decaf.analysis.lexical.Scanner;
+import decaf.analysis.semantic.SemanticChecker;
+import decaf.analysis.syntax.Parser;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the front end over the source code of a test, failing the test if its program does not get as far as it needs
+ */
+public class CompilationTestUtil {
+  /**
+   * @return the context of {@code sourceCode} once parsed, which it must
+   */
+  public static CompilationContext parse(String sourceCode) {
+    var context = CompilationContext.fromSourceCode(sourceCode);
+    new Parser(new Scanner(context), context);
+    assertTrue(context.parsingSuccessful(), "the test program should parse");
+    return context;
+  }
+
+  /**
+   * @return the context of {@code sourceCode} once parsed, which it must, and semantically checked, whatever the
+   * errors found
+   */
+  public static CompilationContext check(String sourceCode) {
+    var context = parse(sourceCode);
+    new SemanticChecker(context.getProgram(), context);
+    return context;
+  }
+
+  /**
+   * @return the context of {@code sourceCode} once parsed and semantically checked, which must find no errors
+   */
+  public static CompilationContext checked(String sourceCode) {
+    var context = check(sourceCode);
+    assertFalse(context.semanticCheckingUnsuccessful(), "the test program should be semantically valid");
+    return context;
+  }
+}
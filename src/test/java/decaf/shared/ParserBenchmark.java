@@ -0,0 +1,69 @@
+package decaf.shared;
+
+import com.google.common.base.Stopwatch;
+import decaf.analysis.lexical.Scanner;
+import decaf.analysis.syntax.Parser;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parser throughput, in tokens per second, on the derby benchmark and on a method whose body is a single
+ * expression of {@link #DEFAULT_SYNTHETIC_EXPRESSION_TERMS} terms, or of the number of terms given as the first
+ * argument.
+ */
+public class ParserBenchmark {
+    private static final String DERBY_FILE_PATH = "testdata/derby/dcf/derby.dcf";
+    private static final int DEFAULT_SYNTHETIC_EXPRESSION_TERMS = 100_000;
+    private static final String[] SYNTHETIC_OPERATORS = {"+", "*", "-", "<", "==", "&&", "||", "/", "%", ">=", "!="};
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 50;
+
+    public static void main(String[] args) throws IOException {
+        var derby = Files.readString(Paths.get(DERBY_FILE_PATH));
+        report("derby.dcf", derby, WARMUP_ITERATIONS, MEASURED_ITERATIONS);
+        var terms = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_SYNTHETIC_EXPRESSION_TERMS;
+        report(String.format("synthetic %d terms", terms), makeSyntheticInput(terms), 5, 10);
+    }
+
+    private static @NotNull String makeSyntheticInput(int terms) {
+        var stringBuilder = new StringBuilder("void main() {\n  int x;\n  x = a0");
+        for (int i = 1; i < terms; i++) {
+            stringBuilder.append(' ')
+                         .append(SYNTHETIC_OPERATORS[i % SYNTHETIC_OPERATORS.length])
+                         .append(' ')
+                         .append((i % 3 == 0) ? "a" + i : String.valueOf(i));
+        }
+        return stringBuilder.append(";\n}\n").toString();
+    }
+
+    private static long parse(@NotNull String sourceCode) {
+        var context = CompilationContext.fromSourceCode(sourceCode);
+        var stopwatch = Stopwatch.createStarted();
+        new Parser(new Scanner(context), context);
+        var elapsedNanos = stopwatch.elapsed(TimeUnit.NANOSECONDS);
+        if (!context.parsingSuccessful()) {
+            throw new IllegalStateException(context.getParsingErrorOutput());
+        }
+        return elapsedNanos;
+    }
+
+    private static void report(@NotNull String name, @NotNull String sourceCode, int warmup, int iterations) {
+        for (int i = 0; i < warmup; i++) {
+            parse(sourceCode);
+        }
+        long elapsedNanos = 0;
+        for (int i = 0; i < iterations; i++) {
+            elapsedNanos += parse(sourceCode);
+        }
+        var numTokens = new Scanner(CompilationContext.fromSourceCode(sourceCode)).tokenize().size();
+        System.out.format("%s: %d tokens/iteration, %.0f tokens/s\n",
+                          name,
+                          numTokens,
+                          (double) numTokens * iterations * 1e9 / elapsedNanos
+                         );
+    }
+}
@@ -0,0 +1,66 @@
+package decaf.shared;
+
+import com.google.common.base.Stopwatch;
+import decaf.analysis.lexical.Scanner;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures raw scanner throughput, in tokens per second, on the derby benchmark and on a synthetic input
+ * built by repeating it up to {@link #DEFAULT_SYNTHETIC_INPUT_MEGABYTES} MB, or to the size given as the first
+ * argument.
+ */
+public class ScannerBenchmark {
+    private static final String DERBY_FILE_PATH = "testdata/derby/dcf/derby.dcf";
+    private static final int DEFAULT_SYNTHETIC_INPUT_MEGABYTES = 50;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 50;
+
+    public static void main(String[] args) throws IOException {
+        var derby = Files.readString(Paths.get(DERBY_FILE_PATH));
+        report("derby.dcf", derby, WARMUP_ITERATIONS, MEASURED_ITERATIONS);
+        var megabytes = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_SYNTHETIC_INPUT_MEGABYTES;
+        report(String.format("synthetic %d MB", megabytes), makeSyntheticInput(derby, megabytes * 1024 * 1024), 1, 3);
+    }
+
+    private static @NotNull String makeSyntheticInput(@NotNull String seed, int size) {
+        var stringBuilder = new StringBuilder(size + seed.length());
+        while (stringBuilder.length() < size) {
+            stringBuilder.append(seed).append(CompilationContext.NEW_LINE);
+        }
+        return stringBuilder.toString();
+    }
+
+    private static long scan(@NotNull String sourceCode) {
+        var context = CompilationContext.fromSourceCode(sourceCode);
+        long numTokens = 0;
+        for (var ignored : new Scanner(context)) {
+            ++numTokens;
+        }
+        if (!context.scanningSuccessful()) {
+            throw new IllegalStateException(context.getScanningErrorOutput());
+        }
+        return numTokens;
+    }
+
+    private static void report(@NotNull String name, @NotNull String sourceCode, int warmup, int iterations) {
+        for (int i = 0; i < warmup; i++) {
+            scan(sourceCode);
+        }
+        long numTokens = 0;
+        var stopwatch = Stopwatch.createStarted();
+        for (int i = 0; i < iterations; i++) {
+            numTokens += scan(sourceCode);
+        }
+        var elapsedNanos = stopwatch.elapsed(TimeUnit.NANOSECONDS);
+        System.out.format("%s: %d tokens/iteration, %.0f tokens/s\n",
+                          name,
+                          numTokens / iterations,
+                          numTokens * 1e9 / elapsedNanos
+                         );
+    }
+}
@@ -0,0 +1,86 @@
+package decaf.shared;
+
+import decaf.analysis.syntax.ast.AssignOpExpr;
+import decaf.analysis.syntax.ast.Expression;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbolicallyEvaluateTest {
+  private static Expression parse(String expression) {
+    var program = CompilationTestUtil.parse("void main() { int x; x = " + expression + "; }").getProgram();
+    return Utils.findAllOfType(program, AssignOpExpr.class)
+                .stream()
+                .findFirst()
+                .map(AssignOpExpr::getExpression)
+                .orElseGet(() -> fail("no assignment"));
+  }
+
+  private static Optional<Long> evaluate(String expression) {
+    return Utils.symbolicallyEvaluate(parse(expression));
+  }
+
+  private static void assertFoldsTo(long expected, String expression) {
+    assertEquals(Optional.of(expected), evaluate(expression), "`" + expression + "`");
+  }
+
+  private static void assertNotFolded(String expression) {
+    assertEquals(Optional.empty(), evaluate(expression), "`" + expression + "`");
+  }
+
+  @Test
+  public void foldsArithmeticWithItsPrecedence() {
+    assertFoldsTo(7L, "1 + 2 * 3");
+    assertFoldsTo(9L, "(1 + 2) * 3");
+    assertFoldsTo(5L, "10 - 3 - 2");
+    assertFoldsTo(2L, "100 / 10 / 5");
+    assertFoldsTo(5L, "-(-5)");
+    assertFoldsTo(98L, "'a' + 1");
+  }
+
+  @Test
+  public void arithmeticWrapsAround() {
+    assertFoldsTo(Long.MIN_VALUE, "9223372036854775807 + 1");
+    assertFoldsTo(Long.MAX_VALUE, "-9223372036854775808 - 1");
+    assertFoldsTo(-2L, "0x7fffffffffffffff * 2");
+    assertFoldsTo(Long.MIN_VALUE, "-(-9223372036854775808)");
+    assertFoldsTo(Long.MIN_VALUE, "-9223372036854775808 / -1");
+  }
+
+  @Test
+  public void divisionAndRemainderTruncateTowardsZero() {
+    assertFoldsTo(-3L, "-7 / 2");
+    assertFoldsTo(-3L, "7 / -2");
+    assertFoldsTo(3L, "-7 / -2");
+    assertFoldsTo(-1L, "-7 % 2");
+    assertFoldsTo(1L, "7 % -2");
+    assertFoldsTo(-1L, "-7 % -2");
+    assertFoldsTo(0L, "-9223372036854775808 % -1");
+  }
+
+  @Test
+  public void divisionByZeroIsNotFolded() {
+    assertNotFolded("1 / 0");
+    assertNotFolded("5 % (3 - 3)");
+    assertNotFolded("(1 / 0) * 0");
+    assertNotFolded("true && (1 / 0 == 1)");
+  }
+
+  @Test
+  public void conditionalsShortCircuit() {
+    assertFoldsTo(0L, "false && (1 / 0 == 1)");
+    assertFoldsTo(1L, "true || (1 / 0 == 1)");
+    assertFoldsTo(0L, "3 >= 3 && 2 != 2");
+    assertFoldsTo(0L, "!(1 < 2)");
+    assertFoldsTo(1L, "!false");
+  }
+
+  @Test
+  public void expressionsWithVariablesOrBadLiteralsAreNotFolded() {
+    assertNotFolded("x + 1");
+    assertNotFolded("0 * x");
+    assertNotFolded("99999999999999999999");
+  }
+}